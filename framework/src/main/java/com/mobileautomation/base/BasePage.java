@@ -0,0 +1,84 @@
+package com.mobileautomation.base;
+
+import com.mobileautomation.pagefactory.CachingFieldDecorator;
+import com.mobileautomation.pagefactory.PageBinders;
+import com.mobileautomation.snapshot.FieldLocators;
+import com.mobileautomation.snapshot.ScreenState;
+import com.mobileautomation.utils.TextInputEngine;
+import com.mobileautomation.utils.WaitEngine;
+import com.mobileautomation.utils.WaitPolicy;
+import io.appium.java_client.AppiumDriver;
+import io.appium.java_client.ios.IOSDriver;
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.support.PageFactory;
+
+
+public class BasePage {
+    protected AppiumDriver driver;
+    protected WaitEngine waitEngine;
+    protected WaitPolicy waitPolicy;
+
+    public BasePage(AppiumDriver driver) {
+        this.driver = driver;
+        this.waitEngine = WaitEngine.getInstance();
+        this.waitPolicy = WaitPolicy.defaultPolicy();
+        // Generated binders assign cached element handles directly; pages without one go through PageFactory
+        if (!PageBinders.bind(this, driver)) {
+            PageFactory.initElements(new CachingFieldDecorator(driver, this), this);
+        }
+    }
+
+    /**
+     * Clicks the element and marks the screen as changed so the next snapshot assertion refetches it.
+     */
+    protected void tap(WebElement element) {
+        try {
+            element.click();
+        } finally {
+            ScreenState.invalidate(driver);
+        }
+    }
+
+    /**
+     * Replaces the element's text through the {@link TextInputEngine}, which picks the fastest input path.
+     */
+    protected void type(WebElement element, String text) {
+        TextInputEngine.getInstance().enter(driver, element, text);
+    }
+
+    /**
+     * Returns the locator of one of this page's annotated fields for the current platform.
+     */
+    protected By locatorOf(WebElement element) {
+        return FieldLocators.locatorOf(this, element, driver instanceof IOSDriver);
+    }
+
+    protected WebElement waitForElement(WebElement element) {
+        return waitEngine.until(driver, element, waitPolicy, d -> element.getTagName() != null ? element : null);
+    }
+
+    protected void waitForElementToBeVisible(WebElement element) {
+        waitEngine.waitForVisible(driver, element, waitPolicy);
+    }
+
+    protected void waitForElementToBeClickable(WebElement element) {
+        waitEngine.waitForClickable(driver, element, waitPolicy);
+    }
+
+    protected void waitForElementToBePresent(WebElement element) {
+        waitForElement(element);
+    }
+
+    protected void waitForElementToBeSelected(WebElement element) {
+        waitEngine.until(driver, element, waitPolicy, d -> element.isSelected());
+    }
+
+    protected void waitForElementToBeEnabled(WebElement element) {
+        waitEngine.waitForClickable(driver, element, waitPolicy);
+    }
+
+    protected void waitForElementToBeDisabled(WebElement element) {
+        waitEngine.until(driver, element, waitPolicy, d -> !(element.isDisplayed() && element.isEnabled()));
+    }
+}
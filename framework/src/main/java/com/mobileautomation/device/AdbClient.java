@@ -0,0 +1,356 @@
+package com.mobileautomation.device;
+
+import com.mobileautomation.config.ConfigManager;
+import com.mobileautomation.exceptions.MobileAutomationException;
+import com.mobileautomation.metrics.MetricsRegistry;
+import com.mobileautomation.utils.DeviceInfo;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openqa.selenium.Capabilities;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * In-process client for the adb server protocol, so device-side operations (shell, push, pull,
+ * install) cost a socket round trip instead of forking the adb binary.
+ * <p>
+ * Each device gets a fair semaphore bounding the number of concurrent connections, which keeps adbd
+ * from being flooded when many tests hit the same device, plus a small pool of open {@code sync:}
+ * sessions reused across transfers. {@code shell:} connections are single-use by protocol.
+ * <p>
+ * Every socket read is bounded by {@code adb.read.timeout.seconds}, so a wedged adbd fails the call
+ * instead of hanging the test. Sync transfers, installs and {@code pm clear} legitimately go quiet for
+ * longer and use {@code adb.transfer.timeout.seconds}.
+ */
+public class AdbClient {
+    private static final Logger logger = LogManager.getLogger(AdbClient.class);
+    private static final int CONNECT_TIMEOUT_MS = 2000;
+    private static final String REMOTE_TMP = "/data/local/tmp/";
+    private static final String[] SERIAL_CAPABILITIES = {"udid", "appium:udid", "deviceUDID"};
+    private static AdbClient instance;
+    private final String host;
+    private final int port;
+    private final int maxConnectionsPerDevice;
+    private final Duration acquireTimeout;
+    private final Duration readTimeout;
+    private final Duration transferTimeout;
+    private final Map<String, DeviceChannel> channels = new ConcurrentHashMap<>();
+    private final MetricsRegistry metrics = MetricsRegistry.getInstance();
+
+    public AdbClient(String host, int port, int maxConnectionsPerDevice, Duration acquireTimeout,
+                     Duration readTimeout, Duration transferTimeout) {
+        this.host = host;
+        this.port = port;
+        this.maxConnectionsPerDevice = maxConnectionsPerDevice;
+        this.acquireTimeout = acquireTimeout;
+        this.readTimeout = readTimeout;
+        this.transferTimeout = transferTimeout;
+    }
+
+    public static synchronized AdbClient getInstance() {
+        if (instance == null) {
+            ConfigManager config = ConfigManager.getInstance();
+            instance = new AdbClient(
+                config.getProperty("adb.host", AdbProtocol.DEFAULT_HOST),
+                config.getIntProperty("adb.port", AdbProtocol.DEFAULT_PORT),
+                config.getIntProperty("adb.max.connections.per.device", 4),
+                Duration.ofSeconds(config.getIntProperty("command.timeout.seconds", 60)),
+                Duration.ofSeconds(config.getIntProperty("adb.read.timeout.seconds", 30)),
+                Duration.ofSeconds(config.getIntProperty("adb.transfer.timeout.seconds", 300)));
+        }
+        return instance;
+    }
+
+    /**
+     * One-shot {@code host:devices-l} query, for callers that need the list without the tracker.
+     */
+    public List<DeviceInfo> listDevices() throws IOException {
+        try (Socket socket = connect(readTimeout)) {
+            AdbProtocol.sendRequest(socket.getOutputStream(), "host:devices-l");
+            AdbProtocol.readOkay(socket.getInputStream());
+            String payload = AdbProtocol.readLengthPrefixed(socket.getInputStream());
+            return AdbDeviceTracker.parse(payload == null ? "" : payload);
+        }
+    }
+
+    /**
+     * Runs a shell command and returns its combined output once the command exits.
+     */
+    public String shell(String serial, String command) {
+        return shell(serial, command, readTimeout);
+    }
+
+    /**
+     * Runs a shell command that may produce no output for up to {@code readTimeout}.
+     */
+    public String shell(String serial, String command, Duration readTimeout) {
+        StringBuilder output = new StringBuilder();
+        shell(serial, command, readTimeout, line -> output.append(line).append('\n'));
+        return output.toString();
+    }
+
+    /**
+     * Runs a shell command, handing each output line to {@code lineConsumer} as it arrives.
+     */
+    public void shell(String serial, String command, Consumer<String> lineConsumer) {
+        shell(serial, command, readTimeout, lineConsumer);
+    }
+
+    private void shell(String serial, String command, Duration readTimeout, Consumer<String> lineConsumer) {
+        long start = System.nanoTime();
+        DeviceChannel channel = channel(serial);
+        channel.acquire();
+        try (Socket socket = openTransport(serial, readTimeout)) {
+            AdbProtocol.sendRequest(socket.getOutputStream(), "shell:" + command);
+            AdbProtocol.readOkay(socket.getInputStream());
+            BufferedReader reader = new BufferedReader(
+                new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineConsumer.accept(line);
+            }
+        } catch (IOException e) {
+            throw failure("ADB_SHELL_FAILED", "adb shell '" + command + "' failed on " + serial, e);
+        } finally {
+            channel.release();
+            metrics.timer("adb.shell").recordSince(start);
+        }
+    }
+
+    public void push(String serial, Path localFile, String remotePath) {
+        long start = System.nanoTime();
+        DeviceChannel channel = channel(serial);
+        channel.acquire();
+        SyncSession session = null;
+        try (InputStream data = Files.newInputStream(localFile)) {
+            session = channel.borrowSync();
+            int mtime = (int) (Files.getLastModifiedTime(localFile).toMillis() / 1000);
+            session.send(remotePath, 0644, data, mtime);
+        } catch (IOException e) {
+            throw failure("ADB_PUSH_FAILED", "adb push " + localFile + " -> " + remotePath + " failed on " + serial, e);
+        } finally {
+            channel.returnSync(session);
+            channel.release();
+            metrics.timer("adb.push").recordSince(start);
+        }
+    }
+
+    public void pull(String serial, String remotePath, Path localFile) {
+        long start = System.nanoTime();
+        DeviceChannel channel = channel(serial);
+        channel.acquire();
+        SyncSession session = null;
+        try (OutputStream target = Files.newOutputStream(localFile)) {
+            session = channel.borrowSync();
+            session.receive(remotePath, target);
+        } catch (IOException e) {
+            throw failure("ADB_PULL_FAILED", "adb pull " + remotePath + " -> " + localFile + " failed on " + serial, e);
+        } finally {
+            channel.returnSync(session);
+            channel.release();
+            metrics.timer("adb.pull").recordSince(start);
+        }
+    }
+
+    public boolean exists(String serial, String remotePath) {
+        DeviceChannel channel = channel(serial);
+        channel.acquire();
+        SyncSession session = null;
+        try {
+            session = channel.borrowSync();
+            return session.stat(remotePath)[0] != 0;
+        } catch (IOException e) {
+            throw failure("ADB_STAT_FAILED", "adb stat " + remotePath + " failed on " + serial, e);
+        } finally {
+            channel.returnSync(session);
+            channel.release();
+        }
+    }
+
+    /**
+     * Pushes the APK to the device's temp directory and installs it with {@code pm install -r}.
+     */
+    public void install(String serial, Path apk) {
+        long start = System.nanoTime();
+        String remote = REMOTE_TMP + apk.getFileName();
+        push(serial, apk, remote);
+        try {
+            String output = shell(serial, "pm install -r -g " + quote(remote), transferTimeout);
+            if (!output.contains("Success")) {
+                String error = "Installing " + apk.getFileName() + " on " + serial + " failed: " + output.trim();
+                String suggestion = "Check the APK is signed and compatible with the device ABI and API level";
+                throw new MobileAutomationException("APP_INSTALL_FAILED", error, suggestion);
+            }
+            logger.info("Installed {} on {} in {}ms", apk.getFileName(), serial,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } finally {
+            try {
+                shell(serial, "rm -f " + quote(remote));
+            } catch (MobileAutomationException e) {
+                logger.warn("Failed to remove {} from {}: {}", remote, serial, e.getMessage());
+            }
+            metrics.timer("adb.install").recordSince(start);
+        }
+    }
+
+    public void clearAppData(String serial, String packageName) {
+        // pm clear waits for the app to be stopped and its data deleted, which can take a while
+        String output = shell(serial, "pm clear " + packageName, transferTimeout);
+        if (!output.contains("Success")) {
+            String error = "Clearing data of " + packageName + " on " + serial + " failed: " + output.trim();
+            String suggestion = "Check the package is installed on the device";
+            throw new MobileAutomationException("APP_CLEAR_DATA_FAILED", error, suggestion);
+        }
+    }
+
+    /**
+     * Returns the adb serial a session is bound to, or null when the capabilities do not name one.
+     */
+    public static String serialOf(Capabilities capabilities) {
+        for (String name : SERIAL_CAPABILITIES) {
+            Object value = capabilities.getCapability(name);
+            if (value != null && !value.toString().isEmpty()) {
+                return value.toString();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Closes pooled sync sessions for a device, e.g. after it detached.
+     */
+    public void disconnect(String serial) {
+        DeviceChannel channel = channels.remove(serial);
+        if (channel != null) {
+            channel.closeIdle();
+        }
+    }
+
+    private Socket connect(Duration readTimeout) throws IOException {
+        Socket socket = new Socket();
+        try {
+            socket.connect(new InetSocketAddress(host, port), CONNECT_TIMEOUT_MS);
+            socket.setSoTimeout((int) readTimeout.toMillis());
+            return socket;
+        } catch (IOException e) {
+            socket.close();
+            throw e;
+        }
+    }
+
+    private Socket openTransport(String serial, Duration readTimeout) throws IOException {
+        Socket socket = connect(readTimeout);
+        try {
+            AdbProtocol.sendRequest(socket.getOutputStream(), "host:transport:" + serial);
+            AdbProtocol.readOkay(socket.getInputStream());
+            return socket;
+        } catch (IOException e) {
+            socket.close();
+            throw e;
+        }
+    }
+
+    private DeviceChannel channel(String serial) {
+        return channels.computeIfAbsent(serial, DeviceChannel::new);
+    }
+
+    private static String quote(String path) {
+        return "'" + path.replace("'", "'\\''") + "'";
+    }
+
+    private static MobileAutomationException failure(String code, String error, IOException cause) {
+        String suggestion = "Check that the adb server is running and the device is online (adb devices)";
+        return new MobileAutomationException(code, error + ": " + cause.getMessage(), suggestion, cause);
+    }
+
+    /**
+     * Per-device connection limit and idle sync sessions.
+     */
+    private class DeviceChannel {
+        private final String serial;
+        private final Semaphore permits;
+        private final ConcurrentLinkedDeque<SyncSession> idleSyncSessions = new ConcurrentLinkedDeque<>();
+
+        DeviceChannel(String serial) {
+            this.serial = serial;
+            this.permits = new Semaphore(maxConnectionsPerDevice, true);
+        }
+
+        void acquire() {
+            long start = System.nanoTime();
+            try {
+                if (!permits.tryAcquire(acquireTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                    String error = String.format("Timed out after %ds waiting for an adb connection to %s",
+                        acquireTimeout.getSeconds(), serial);
+                    String suggestion = "Raise adb.max.connections.per.device or reduce concurrent device commands";
+                    throw new MobileAutomationException("ADB_CONNECTION_TIMEOUT", error, suggestion);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new MobileAutomationException("ADB_CONNECTION_TIMEOUT",
+                    "Interrupted waiting for an adb connection to " + serial, "Retry the operation");
+            } finally {
+                metrics.timer("adb.connection.wait").recordSince(start);
+            }
+        }
+
+        void release() {
+            permits.release();
+        }
+
+        SyncSession borrowSync() throws IOException {
+            SyncSession session;
+            while ((session = idleSyncSessions.pollFirst()) != null) {
+                if (!session.isBroken()) {
+                    metrics.increment("adb.sync.reused");
+                    return session;
+                }
+                session.close();
+            }
+            Socket socket = openTransport(serial, transferTimeout);
+            try {
+                AdbProtocol.sendRequest(socket.getOutputStream(), "sync:");
+                AdbProtocol.readOkay(socket.getInputStream());
+                return new SyncSession(socket);
+            } catch (IOException e) {
+                socket.close();
+                throw e;
+            }
+        }
+
+        void returnSync(SyncSession session) {
+            if (session == null) {
+                return;
+            }
+            if (session.isBroken() || idleSyncSessions.size() >= maxConnectionsPerDevice) {
+                session.close();
+            } else {
+                idleSyncSessions.addFirst(session);
+            }
+        }
+
+        void closeIdle() {
+            SyncSession session;
+            while ((session = idleSyncSessions.pollFirst()) != null) {
+                session.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.mobileautomation.device;
+
+import com.mobileautomation.utils.DeviceInfo;
+import com.mobileautomation.utils.ExecutorFactory;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Holds a {@code host:track-devices-l} connection to the adb server. The server pushes the complete
+ * device list whenever anything changes; each list is handed to the snapshot consumer. The connection
+ * is re-established with exponential backoff if the adb server goes away.
+ */
+public class AdbDeviceTracker implements Runnable {
+    private static final Logger logger = LogManager.getLogger(AdbDeviceTracker.class);
+    private static final int CONNECT_TIMEOUT_MS = 2000;
+    private static final long INITIAL_BACKOFF_MS = 250;
+    private static final long MAX_BACKOFF_MS = 5000;
+    private final String host;
+    private final int port;
+    private final Consumer<List<DeviceInfo>> onSnapshot;
+    private final Consumer<Boolean> onConnectionChange;
+    private volatile boolean running;
+    private volatile Socket socket;
+    private Thread thread;
+
+    public AdbDeviceTracker(String host, int port, Consumer<List<DeviceInfo>> onSnapshot,
+                            Consumer<Boolean> onConnectionChange) {
+        this.host = host;
+        this.port = port;
+        this.onSnapshot = onSnapshot;
+        this.onConnectionChange = onConnectionChange;
+    }
+
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        thread = ExecutorFactory.newThread("adb-device-tracker", true, this);
+        thread.start();
+    }
+
+    public synchronized void stop() {
+        running = false;
+        closeSocket();
+        if (thread != null) {
+            thread.interrupt();
+            thread = null;
+        }
+    }
+
+    @Override
+    public void run() {
+        long backoffMs = INITIAL_BACKOFF_MS;
+        while (running) {
+            try (Socket connection = new Socket()) {
+                socket = connection;
+                connection.connect(new InetSocketAddress(host, port), CONNECT_TIMEOUT_MS);
+                AdbProtocol.sendRequest(connection.getOutputStream(), "host:track-devices-l");
+                InputStream in = connection.getInputStream();
+                AdbProtocol.readOkay(in);
+                logger.info("Tracking devices through adb server {}:{}", host, port);
+                onConnectionChange.accept(true);
+                backoffMs = INITIAL_BACKOFF_MS;
+
+                String payload;
+                while (running && (payload = AdbProtocol.readLengthPrefixed(in)) != null) {
+                    onSnapshot.accept(parse(payload));
+                }
+                if (running) {
+                    logger.warn("adb server {}:{} closed the track-devices connection", host, port);
+                }
+            } catch (IOException e) {
+                if (running) {
+                    logger.debug("adb server {}:{} unavailable: {}", host, port, e.getMessage());
+                }
+            } finally {
+                socket = null;
+            }
+
+            if (running) {
+                onConnectionChange.accept(false);
+                try {
+                    Thread.sleep(backoffMs);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                backoffMs = Math.min(backoffMs * 2, MAX_BACKOFF_MS);
+            }
+        }
+    }
+
+    /**
+     * Parses one long-format device list, e.g.
+     * {@code emulator-5554  device product:sdk_gphone64 model:sdk_gphone64_x86_64 device:emu64x transport_id:1}.
+     */
+    public static List<DeviceInfo> parse(String payload) {
+        List<DeviceInfo> devices = new ArrayList<>();
+        for (String line : payload.split("\n")) {
+            String[] tokens = line.trim().split("\\s+");
+            if (tokens.length < 2 || tokens[0].isEmpty()) {
+                continue;
+            }
+            String serial = tokens[0];
+            String state = "no".equals(tokens[1]) && tokens.length > 2 ? "no permissions" : tokens[1];
+            String model = null;
+            for (String token : tokens) {
+                if (token.startsWith("model:")) {
+                    model = token.substring("model:".length()).replace('_', ' ');
+                }
+            }
+            devices.add(new DeviceInfo(serial, model != null ? model : serial, "Android", null, state));
+        }
+        return devices;
+    }
+
+    private void closeSocket() {
+        Socket current = socket;
+        if (current != null) {
+            try {
+                current.close();
+            } catch (IOException ignored) {
+                // the tracker thread is exiting anyway
+            }
+        }
+    }
+}
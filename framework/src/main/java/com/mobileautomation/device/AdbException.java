@@ -0,0 +1,12 @@
+package com.mobileautomation.device;
+
+import java.io.IOException;
+
+/**
+ * The adb server answered a request with {@code FAIL} or with something that is not adb protocol.
+ */
+public class AdbException extends IOException {
+    public AdbException(String message) {
+        super(message);
+    }
+}
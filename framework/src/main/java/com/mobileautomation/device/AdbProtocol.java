@@ -0,0 +1,61 @@
+package com.mobileautomation.device;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Framing helpers for the adb server smart-socket protocol: requests and length-prefixed replies
+ * carry a four hex digit length, status replies are {@code OKAY} or {@code FAIL} followed by a
+ * length-prefixed message.
+ */
+public final class AdbProtocol {
+    public static final String DEFAULT_HOST = "127.0.0.1";
+    public static final int DEFAULT_PORT = 5037;
+
+    private AdbProtocol() {
+    }
+
+    public static void sendRequest(OutputStream out, String request) throws IOException {
+        byte[] payload = request.getBytes(StandardCharsets.UTF_8);
+        out.write(String.format("%04x", payload.length).getBytes(StandardCharsets.US_ASCII));
+        out.write(payload);
+        out.flush();
+    }
+
+    /**
+     * Reads the status of the last request and throws {@link AdbException} with the server's
+     * message when it is {@code FAIL}.
+     */
+    public static void readOkay(InputStream in) throws IOException {
+        String status = readAscii(in, 4);
+        if ("OKAY".equals(status)) {
+            return;
+        }
+        if ("FAIL".equals(status)) {
+            throw new AdbException(readLengthPrefixed(in));
+        }
+        throw new AdbException("Unexpected adb reply: " + status);
+    }
+
+    /**
+     * Reads one length-prefixed message, or returns null if the server closed the connection cleanly
+     * before the next message started.
+     */
+    public static String readLengthPrefixed(InputStream in) throws IOException {
+        int first = in.read();
+        if (first == -1) {
+            return null;
+        }
+        String length = (char) first + readAscii(in, 3);
+        return readAscii(in, Integer.parseInt(length, 16));
+    }
+
+    static String readAscii(InputStream in, int length) throws IOException {
+        byte[] buffer = new byte[length];
+        new DataInputStream(in).readFully(buffer);
+        return new String(buffer, StandardCharsets.UTF_8);
+    }
+}
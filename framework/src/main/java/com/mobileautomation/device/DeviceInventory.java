@@ -0,0 +1,174 @@
+package com.mobileautomation.device;
+
+import com.mobileautomation.config.ConfigManager;
+import com.mobileautomation.metrics.MetricsRegistry;
+import com.mobileautomation.utils.DeviceInfo;
+import com.mobileautomation.utils.ExecutorFactory;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Long-lived, in-memory view of the Android devices known to the local adb server, kept current by
+ * {@link AdbDeviceTracker} instead of forking {@code adb devices} on every lookup. Reads never block;
+ * listeners are told about attach, state change and detach events.
+ */
+public class DeviceInventory {
+    private static final Logger logger = LogManager.getLogger(DeviceInventory.class);
+    private static DeviceInventory instance;
+    private final ConcurrentHashMap<String, DeviceInfo> devices = new ConcurrentHashMap<>();
+    private final List<DeviceListener> listeners = new CopyOnWriteArrayList<>();
+    private final Set<String> versionLookups = ConcurrentHashMap.newKeySet();
+    private final CountDownLatch firstSnapshot = new CountDownLatch(1);
+    private final AdbDeviceTracker tracker;
+    private final ExecutorService versionLookupExecutor =
+        Executors.newSingleThreadExecutor(ExecutorFactory.threadFactory("device-version-lookup", true));
+    private volatile boolean connected;
+
+    public DeviceInventory(String adbHost, int adbPort) {
+        this.tracker = new AdbDeviceTracker(adbHost, adbPort, this::applySnapshot, this::setConnected);
+    }
+
+    public static synchronized DeviceInventory getInstance() {
+        if (instance == null) {
+            ConfigManager config = ConfigManager.getInstance();
+            instance = new DeviceInventory(
+                config.getProperty("adb.host", AdbProtocol.DEFAULT_HOST),
+                config.getIntProperty("adb.port", AdbProtocol.DEFAULT_PORT));
+            instance.start();
+        }
+        return instance;
+    }
+
+    public void start() {
+        tracker.start();
+    }
+
+    public void stop() {
+        tracker.stop();
+        connected = false;
+    }
+
+    /**
+     * True while the tracker holds a live connection to the adb server, i.e. the inventory is authoritative.
+     */
+    public boolean isConnected() {
+        return connected;
+    }
+
+    /**
+     * Waits until the first device list has arrived, returning false if it did not within the timeout.
+     */
+    public boolean awaitFirstSnapshot(Duration timeout) {
+        try {
+            return firstSnapshot.await(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    public Map<String, DeviceInfo> getDevices() {
+        return Map.copyOf(devices);
+    }
+
+    public DeviceInfo getDevice(String deviceId) {
+        return devices.get(deviceId);
+    }
+
+    public List<DeviceInfo> getOnlineDevices() {
+        return devices.values().stream()
+            .filter(DeviceInfo::isOnline)
+            .sorted((a, b) -> a.getDeviceId().compareTo(b.getDeviceId()))
+            .collect(Collectors.toList());
+    }
+
+    public void addListener(DeviceListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(DeviceListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Reconciles the map with a complete device list from the adb server and fires the resulting events.
+     */
+    void applySnapshot(List<DeviceInfo> snapshot) {
+        Map<String, DeviceInfo> incoming = new HashMap<>();
+        for (DeviceInfo device : snapshot) {
+            DeviceInfo known = devices.get(device.getDeviceId());
+            // the OS version is looked up once per attach, carry it across state changes
+            incoming.put(device.getDeviceId(), known != null && known.getVersion() != null
+                ? device.withVersion(known.getVersion()) : device);
+        }
+
+        for (DeviceInfo removed : new ArrayList<>(devices.values())) {
+            if (!incoming.containsKey(removed.getDeviceId()) && devices.remove(removed.getDeviceId(), removed)) {
+                logger.info("Device detached: {}", removed.getDeviceId());
+                AdbClient.getInstance().disconnect(removed.getDeviceId());
+                MetricsRegistry.getInstance().increment("device.detached");
+                listeners.forEach(listener -> listener.onDeviceDetached(removed));
+            }
+        }
+        for (DeviceInfo device : incoming.values()) {
+            DeviceInfo previous = devices.put(device.getDeviceId(), device);
+            if (previous == null) {
+                logger.info("Device attached: {} ({})", device.getDeviceId(), device.getState());
+                MetricsRegistry.getInstance().increment("device.attached");
+                listeners.forEach(listener -> listener.onDeviceAttached(device));
+            } else if (!previous.equals(device)) {
+                logger.info("Device {} changed state {} -> {}", device.getDeviceId(), previous.getState(), device.getState());
+                listeners.forEach(listener -> listener.onDeviceStateChanged(previous, device));
+            }
+            if (device.isOnline() && device.getVersion() == null) {
+                resolveVersionAsync(device.getDeviceId());
+            }
+        }
+        firstSnapshot.countDown();
+    }
+
+    private void setConnected(boolean connected) {
+        this.connected = connected;
+    }
+
+    private void resolveVersionAsync(String deviceId) {
+        if (!versionLookups.add(deviceId)) {
+            return;
+        }
+        CompletableFuture.supplyAsync(() -> AdbClient.getInstance().shell(deviceId, "getprop ro.build.version.release"),
+                versionLookupExecutor)
+            .whenComplete((output, error) -> {
+                versionLookups.remove(deviceId);
+                if (output != null) {
+                    updateVersion(deviceId, output.trim());
+                } else {
+                    logger.debug("Could not read OS version of {}: {}", deviceId, error.getMessage());
+                }
+            });
+    }
+
+    private void updateVersion(String deviceId, String version) {
+        DeviceInfo previous = devices.get(deviceId);
+        if (previous != null && previous.getVersion() == null) {
+            DeviceInfo updated = previous.withVersion(version);
+            if (devices.replace(deviceId, previous, updated)) {
+                listeners.forEach(listener -> listener.onDeviceStateChanged(previous, updated));
+            }
+        }
+    }
+}
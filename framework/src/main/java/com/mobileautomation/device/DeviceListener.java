@@ -0,0 +1,14 @@
+package com.mobileautomation.device;
+
+import com.mobileautomation.utils.DeviceInfo;
+
+/**
+ * Receives device inventory changes. Callbacks run on the tracker thread and should return quickly.
+ */
+public interface DeviceListener {
+    void onDeviceAttached(DeviceInfo device);
+
+    void onDeviceStateChanged(DeviceInfo previous, DeviceInfo current);
+
+    void onDeviceDetached(DeviceInfo device);
+}
@@ -0,0 +1,162 @@
+package com.mobileautomation.device;
+
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * One open {@code sync:} service connection. Sync requests are an ASCII id followed by a little-endian
+ * 32-bit length; a session serves any number of STAT/SEND/RECV requests until QUIT, which is what
+ * makes it worth pooling.
+ */
+class SyncSession implements Closeable {
+    static final int MAX_DATA_CHUNK = 64 * 1024;
+    private final Socket socket;
+    private final DataInputStream in;
+    private final OutputStream out;
+    private boolean broken;
+
+    SyncSession(Socket socket) throws IOException {
+        this.socket = socket;
+        this.in = new DataInputStream(socket.getInputStream());
+        this.out = socket.getOutputStream();
+    }
+
+    /**
+     * Returns {mode, size, mtime}; a mode of 0 means the remote path does not exist.
+     */
+    int[] stat(String remotePath) throws IOException {
+        return guarded(() -> {
+            sendRequest("STAT", remotePath);
+            expectId("STAT");
+            return new int[]{readInt(), readInt(), readInt()};
+        });
+    }
+
+    void send(String remotePath, int mode, InputStream data, int mtimeSeconds) throws IOException {
+        guarded(() -> {
+            sendRequest("SEND", remotePath + "," + mode);
+            byte[] chunk = new byte[MAX_DATA_CHUNK];
+            int read;
+            while ((read = data.read(chunk)) != -1) {
+                writeHeader("DATA", read);
+                out.write(chunk, 0, read);
+            }
+            writeHeader("DONE", mtimeSeconds);
+            out.flush();
+            String id = readId();
+            int length = readInt();
+            if ("FAIL".equals(id)) {
+                throw new AdbException("push to " + remotePath + " failed: " + readString(length));
+            }
+            if (!"OKAY".equals(id)) {
+                throw new AdbException("Unexpected sync reply: " + id);
+            }
+            return null;
+        });
+    }
+
+    void receive(String remotePath, OutputStream target) throws IOException {
+        guarded(() -> {
+            sendRequest("RECV", remotePath);
+            byte[] chunk = new byte[MAX_DATA_CHUNK];
+            while (true) {
+                String id = readId();
+                int length = readInt();
+                if ("DONE".equals(id)) {
+                    return null;
+                }
+                if ("FAIL".equals(id)) {
+                    throw new AdbException("pull of " + remotePath + " failed: " + readString(length));
+                }
+                if (!"DATA".equals(id) || length > MAX_DATA_CHUNK) {
+                    throw new AdbException("Unexpected sync reply: " + id);
+                }
+                in.readFully(chunk, 0, length);
+                target.write(chunk, 0, length);
+            }
+        });
+    }
+
+    boolean isBroken() {
+        return broken || socket.isClosed();
+    }
+
+    @Override
+    public void close() {
+        try {
+            if (!isBroken()) {
+                writeHeader("QUIT", 0);
+                out.flush();
+            }
+        } catch (IOException ignored) {
+            // closing anyway
+        } finally {
+            try {
+                socket.close();
+            } catch (IOException ignored) {
+                // nothing left to release
+            }
+        }
+    }
+
+    private interface SyncCall<T> {
+        T call() throws IOException;
+    }
+
+    /**
+     * A failed transfer leaves unread bytes on the wire, so the session must not go back to the pool.
+     */
+    private <T> T guarded(SyncCall<T> call) throws IOException {
+        try {
+            return call.call();
+        } catch (IOException | RuntimeException e) {
+            broken = true;
+            throw e;
+        }
+    }
+
+    private void sendRequest(String id, String path) throws IOException {
+        byte[] payload = path.getBytes(StandardCharsets.UTF_8);
+        writeHeader(id, payload.length);
+        out.write(payload);
+        out.flush();
+    }
+
+    private void writeHeader(String id, int value) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN);
+        header.put(id.getBytes(StandardCharsets.US_ASCII)).putInt(value);
+        out.write(header.array());
+    }
+
+    private void expectId(String expected) throws IOException {
+        String id = readId();
+        if (!expected.equals(id)) {
+            throw new AdbException("Expected " + expected + " but adb sent " + id);
+        }
+    }
+
+    private String readId() throws IOException {
+        byte[] id = new byte[4];
+        in.readFully(id);
+        return new String(id, StandardCharsets.US_ASCII);
+    }
+
+    private int readInt() throws IOException {
+        byte[] value = new byte[4];
+        in.readFully(value);
+        return ByteBuffer.wrap(value).order(ByteOrder.LITTLE_ENDIAN).getInt();
+    }
+
+    private String readString(int length) throws IOException {
+        byte[] value = new byte[length];
+        in.readFully(value);
+        return new String(value, StandardCharsets.UTF_8);
+    }
+}
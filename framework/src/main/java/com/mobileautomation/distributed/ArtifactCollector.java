@@ -0,0 +1,50 @@
+package com.mobileautomation.distributed;
+
+import com.mobileautomation.listeners.TestListener;
+import com.mobileautomation.scheduler.WorkItem;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Picks up the files a work item produced so the worker can stream them to the coordinator.
+ */
+public interface ArtifactCollector {
+
+    Map<String, File> collect(WorkItem item, String deviceId, long startedAtMillis);
+
+    static ArtifactCollector none() {
+        return (item, deviceId, startedAtMillis) -> Map.of();
+    }
+
+    /**
+     * The screenshots and videos {@link TestListener} wrote for the item's methods on this device since the
+     * item started. Files are matched by {@link TestListener#artifactName}, so items running at the same
+     * time on other devices of the host are not picked up.
+     */
+    static ArtifactCollector testArtifacts(List<File> directories) {
+        return (item, deviceId, startedAtMillis) -> {
+            List<String> prefixes = item.getMethods().stream()
+                .map(method -> TestListener.artifactName(method, deviceId) + "_")
+                .collect(Collectors.toList());
+            Map<String, File> files = new LinkedHashMap<>();
+            for (File directory : directories) {
+                File[] candidates = directory.listFiles();
+                if (candidates == null) {
+                    continue;
+                }
+                for (File file : candidates) {
+                    boolean ours = prefixes.stream().anyMatch(prefix -> file.getName().startsWith(prefix));
+                    if (ours && Files.isRegularFile(file.toPath()) && file.lastModified() >= startedAtMillis) {
+                        files.put(directory.getName() + "-" + file.getName(), file);
+                    }
+                }
+            }
+            return files;
+        };
+    }
+}
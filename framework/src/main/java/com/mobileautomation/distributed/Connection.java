@@ -0,0 +1,69 @@
+package com.mobileautomation.distributed;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Line-delimited JSON over a socket. {@link #call(Message)} is synchronized so several device threads
+ * of one worker can share a connection.
+ */
+class Connection implements Closeable {
+    private final Socket socket;
+    private final BufferedReader reader;
+    private final BufferedWriter writer;
+
+    /**
+     * The peer answered with ERROR; the connection itself is still usable.
+     */
+    static class RejectedException extends IOException {
+        RejectedException(String message) {
+            super(message);
+        }
+    }
+
+    Connection(Socket socket) throws IOException {
+        this.socket = socket;
+        this.socket.setTcpNoDelay(true);
+        this.reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+        this.writer = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+    }
+
+    synchronized Message call(Message request) throws IOException {
+        send(request);
+        Message reply = receive();
+        if (reply.type == Message.Type.ERROR) {
+            throw new RejectedException("Coordinator rejected " + request.type + ": " + reply.error);
+        }
+        return reply;
+    }
+
+    void send(Message message) throws IOException {
+        writer.write(message.toJson());
+        writer.write('\n');
+        writer.flush();
+    }
+
+    Message receive() throws IOException {
+        String line = reader.readLine();
+        if (line == null) {
+            throw new EOFException("Connection to " + socket.getRemoteSocketAddress() + " closed");
+        }
+        return Message.fromJson(line);
+    }
+
+    String getRemoteAddress() {
+        return String.valueOf(socket.getRemoteSocketAddress());
+    }
+
+    @Override
+    public void close() throws IOException {
+        socket.close();
+    }
+}
@@ -0,0 +1,336 @@
+package com.mobileautomation.distributed;
+
+import com.mobileautomation.metrics.MetricsRegistry;
+import com.mobileautomation.scheduler.WorkItem;
+import com.mobileautomation.utils.ExecutorFactory;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Owns the test queue for a multi-host run. Workers connect over TCP, register their devices and pull
+ * one work item per free device; results and artifacts are streamed back and aggregated here. Items
+ * are owned by the connection they were dispatched on, not just the worker id, and go back to the front
+ * of the queue when that connection drops. A worker id can only be registered on one connection at a time.
+ * <p>
+ * The coordinator listens on {@code distributed.bind.address} (loopback unless configured) and only
+ * serves workers whose REGISTER carries the shared token. Artifacts are accepted only for items this
+ * coordinator dispatched to the sending worker, and are always written inside the artifact directory.
+ */
+public class Coordinator implements Closeable {
+    private static final Logger logger = LogManager.getLogger(Coordinator.class);
+    private final ServerSocket serverSocket;
+    private final byte[] token;
+    private final Deque<WorkItem> queue = new ArrayDeque<>();
+    private final Map<String, InFlight> inFlight = new HashMap<>();
+    private final Map<String, Long> connectedWorkers = new HashMap<>();
+    private final AtomicLong connectionIds = new AtomicLong();
+    private final Map<String, WorkerStats> workers = new ConcurrentHashMap<>();
+    private final List<WorkResult> results = new CopyOnWriteArrayList<>();
+    private final List<String> listeners;
+    private final File artifactDir;
+    private final long pollIntervalMillis;
+    private final int totalItems;
+    private final CountDownLatch completed = new CountDownLatch(1);
+    private final ExecutorService connections;
+    private final AtomicBoolean started = new AtomicBoolean();
+    private final MetricsRegistry metrics = MetricsRegistry.getInstance();
+    private long dispatched;
+    private long startedAt;
+
+    private static class InFlight {
+        private final WorkItem item;
+        private final long connectionId;
+
+        InFlight(WorkItem item, long connectionId) {
+            this.item = item;
+            this.connectionId = connectionId;
+        }
+    }
+
+    public Coordinator(InetAddress bindAddress, int port, String token, List<WorkItem> items, List<String> listeners,
+                       File artifactDir, Duration pollInterval) throws IOException {
+        if (token == null || token.isBlank()) {
+            throw new IllegalArgumentException("A shared token is required for workers to register");
+        }
+        this.token = token.getBytes(StandardCharsets.UTF_8);
+        this.serverSocket = new ServerSocket(port, 50, bindAddress);
+        this.queue.addAll(items);
+        this.totalItems = items.size();
+        this.listeners = List.copyOf(listeners);
+        this.artifactDir = artifactDir;
+        this.pollIntervalMillis = pollInterval.toMillis();
+        this.connections = ExecutorFactory.newCachedThreadPool("coordinator-connection", true);
+        if (items.isEmpty()) {
+            completed.countDown();
+        }
+    }
+
+    /**
+     * Starts accepting workers; calling it again has no effect.
+     */
+    public void start() {
+        if (!started.compareAndSet(false, true)) {
+            return;
+        }
+        startedAt = System.currentTimeMillis();
+        connections.submit(this::acceptLoop);
+        logger.info("Coordinator listening on {}:{} with {} work item(s)", serverSocket.getInetAddress().getHostAddress(),
+            getPort(), totalItems);
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    public boolean awaitCompletion(Duration timeout) throws InterruptedException {
+        return completed.await(timeout.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public List<WorkResult> getResults() {
+        return List.copyOf(results);
+    }
+
+    public Map<String, WorkerStats> getWorkers() {
+        return Map.copyOf(workers);
+    }
+
+    public boolean hasFailures() {
+        return results.stream().anyMatch(result -> !result.isPassed()) || results.size() < totalItems;
+    }
+
+    public void logSummary() {
+        long elapsed = System.currentTimeMillis() - startedAt;
+        long failed = results.stream().filter(result -> !result.isPassed()).count();
+        logger.info("Distributed run: {}/{} item(s) completed, {} failed, in {}s", results.size(), totalItems,
+            failed, elapsed / 1000);
+        for (WorkerStats worker : workers.values()) {
+            logger.info("Worker {} ({}, {} device(s)): {} item(s), {} failed, {} requeued, busy {}s, {} items/min",
+                worker.getWorkerId(), worker.getHost(), worker.getDevices().size(), worker.getItemsCompleted(),
+                worker.getItemsFailed(), worker.getItemsRequeued(), worker.getBusyTime().toSeconds(),
+                String.format("%.2f", worker.getThroughputPerMinute()));
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        connections.shutdownNow();
+    }
+
+    private void acceptLoop() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                connections.submit(() -> serve(socket));
+            } catch (SocketException e) {
+                // closed
+            } catch (IOException e) {
+                logger.warn("Failed to accept worker connection: {}", e.getMessage());
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        long connectionId = connectionIds.incrementAndGet();
+        String workerId = null;
+        try (Connection connection = new Connection(socket)) {
+            while (true) {
+                Message request = connection.receive();
+                if (request.type == Message.Type.REGISTER) {
+                    if (!isAuthorized(request)) {
+                        logger.warn("Rejected worker {} from {}: bad token", request.workerId, connection.getRemoteAddress());
+                        metrics.increment("distributed.rejected");
+                        connection.send(Message.error("Unauthorized"));
+                        return;
+                    }
+                    if (workerId != null || !claim(request.workerId, connectionId)) {
+                        logger.warn("Rejected worker {} from {}: already connected", request.workerId,
+                            connection.getRemoteAddress());
+                        metrics.increment("distributed.rejected");
+                        connection.send(Message.error("Worker " + request.workerId + " is already connected"));
+                        return;
+                    }
+                    workerId = request.workerId;
+                }
+                connection.send(handle(request, workerId, connectionId));
+            }
+        } catch (IOException e) {
+            logger.debug("Worker connection {} closed: {}", workerId, e.getMessage());
+        } finally {
+            if (workerId != null) {
+                requeue(workerId, connectionId);
+            }
+        }
+    }
+
+    private Message handle(Message request, String workerId, long connectionId) {
+        if (request.type != Message.Type.REGISTER && workerId == null) {
+            return Message.error("REGISTER first");
+        }
+        switch (request.type) {
+            case REGISTER:
+                workers.put(workerId, new WorkerStats(workerId, request.host,
+                    request.devices != null ? request.devices : List.of()));
+                logger.info("Worker {} registered from {} with devices {}", workerId, request.host, request.devices);
+                Message registered = new Message(Message.Type.REGISTERED);
+                registered.listeners = listeners;
+                return registered;
+            case PULL:
+                return pull(connectionId, request.deviceId);
+            case RESULT:
+                return result(workerId, connectionId, request);
+            case ARTIFACT:
+                return artifact(workerId, connectionId, request);
+            default:
+                return Message.error("Unexpected message " + request.type);
+        }
+    }
+
+    private synchronized Message pull(long connectionId, String deviceId) {
+        WorkItem item = queue.pollFirst();
+        if (item != null) {
+            Message work = new Message(Message.Type.WORK);
+            work.item = item;
+            work.itemId = item.getId() + "@" + (++dispatched);
+            work.deviceId = deviceId;
+            inFlight.put(work.itemId, new InFlight(item, connectionId));
+            metrics.increment("distributed.dispatched");
+            return work;
+        }
+        if (!inFlight.isEmpty()) {
+            // a worker may still drop its items back into the queue
+            Message wait = new Message(Message.Type.WAIT);
+            wait.retryMillis = pollIntervalMillis;
+            return wait;
+        }
+        return new Message(Message.Type.DONE);
+    }
+
+    private Message result(String workerId, long connectionId, Message request) {
+        synchronized (this) {
+            InFlight entry = inFlight.get(request.itemId);
+            if (entry == null || entry.connectionId != connectionId) {
+                // already requeued after a disconnect and handed to someone else
+                return Message.error("Unknown or reassigned item " + request.itemId);
+            }
+            inFlight.remove(request.itemId);
+        }
+        boolean passed = Boolean.TRUE.equals(request.passed);
+        long durationMillis = request.durationMillis != null ? request.durationMillis : 0;
+        WorkResult result = new WorkResult(request.itemId, workerId, request.deviceId, passed,
+            Duration.ofMillis(durationMillis), request.error);
+        results.add(result);
+        workers.get(workerId).recordResult(passed, durationMillis);
+        metrics.timer("distributed.item").record(Duration.ofMillis(durationMillis));
+        logger.info("{} ({}/{})", result, results.size(), totalItems);
+        if (results.size() >= totalItems) {
+            completed.countDown();
+        }
+        return new Message(Message.Type.ACK);
+    }
+
+    private Message artifact(String workerId, long connectionId, Message request) {
+        if (request.itemId == null || request.name == null || request.data == null) {
+            return Message.error("Incomplete artifact");
+        }
+        if (!isDispatchedTo(request.itemId, workerId, connectionId)) {
+            return Message.error("Artifact for unknown item " + request.itemId);
+        }
+        try {
+            Path root = artifactDir.getCanonicalFile().toPath();
+            Path file = root.resolve(safeName(request.itemId)).resolve(safeName(request.name)).normalize();
+            if (!file.startsWith(root) || file.getParent().equals(root)) {
+                return Message.error("Invalid artifact path " + request.itemId + "/" + request.name);
+            }
+            Files.createDirectories(file.getParent());
+            Files.write(file, Base64.getDecoder().decode(request.data));
+            logger.debug("Stored artifact {}", file);
+            return new Message(Message.Type.ACK);
+        } catch (Exception e) {
+            return Message.error("Failed to store artifact " + request.name + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Artifacts arrive before the item's result, but a late one for a finished item is still accepted.
+     */
+    private boolean isDispatchedTo(String itemId, String workerId, long connectionId) {
+        synchronized (this) {
+            InFlight entry = inFlight.get(itemId);
+            if (entry != null) {
+                return entry.connectionId == connectionId;
+            }
+        }
+        return results.stream().anyMatch(result -> result.getItemId().equals(itemId) && result.getWorkerId().equals(workerId));
+    }
+
+    /**
+     * One path segment: no separators, and never "." or "..".
+     */
+    private static String safeName(String name) {
+        String safe = name.replaceAll("[^A-Za-z0-9._#@+-]", "_");
+        return safe.matches("\\.*") ? safe.replace('.', '_') : safe;
+    }
+
+    private boolean isAuthorized(Message register) {
+        return register.token != null && register.workerId != null
+            && MessageDigest.isEqual(token, register.token.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Binds the worker id to the connection unless another live connection already holds it.
+     */
+    private synchronized boolean claim(String workerId, long connectionId) {
+        return connectedWorkers.putIfAbsent(workerId, connectionId) == null;
+    }
+
+    private synchronized void requeue(String workerId, long connectionId) {
+        connectedWorkers.remove(workerId, connectionId);
+        List<WorkItem> orphaned = new ArrayList<>();
+        Iterator<InFlight> iterator = inFlight.values().iterator();
+        while (iterator.hasNext()) {
+            InFlight entry = iterator.next();
+            if (entry.connectionId == connectionId) {
+                orphaned.add(entry.item);
+                iterator.remove();
+            }
+        }
+        WorkerStats stats = workers.get(workerId);
+        if (stats != null) {
+            stats.disconnected();
+            stats.recordRequeued(orphaned.size());
+        }
+        if (!orphaned.isEmpty()) {
+            logger.warn("Worker {} disconnected, requeueing {} item(s)", workerId, orphaned.size());
+            orphaned.forEach(queue::addFirst);
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.mobileautomation.distributed;
+
+import com.mobileautomation.config.ConfigManager;
+import com.mobileautomation.device.DeviceInventory;
+import com.mobileautomation.listeners.ParallelTestListener;
+import com.mobileautomation.scheduler.TestNGWorkItemExecutor;
+import com.mobileautomation.scheduler.WorkItem;
+import com.mobileautomation.scheduler.WorkItemPlanner;
+import com.mobileautomation.test.DurationShardingInterceptor;
+import com.mobileautomation.utils.DeviceInfo;
+import com.mobileautomation.utils.ExecutorFactory;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.testng.xml.Parser;
+import org.testng.xml.XmlSuite;
+
+import java.io.File;
+import java.net.InetAddress;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.stream.Collectors;
+
+/**
+ * Command line entry point for distributed runs:
+ * <pre>
+ * coordinator &lt;suite.xml&gt; [--port N] [--bind addr]      queue the suite and wait for workers
+ * coordinator --stub &lt;items&gt; [--port N] [--bind addr]    queue synthetic items
+ * worker &lt;host:port&gt; [--devices a,b] [--id name] [--stub]  run items on this host's devices
+ * local &lt;workers&gt; &lt;devicesPerWorker&gt; &lt;items&gt;           coordinator and stub workers in one JVM
+ * </pre>
+ * Coordinator and workers share a token, taken from {@code --token} or the {@code DISTRIBUTED_TOKEN}
+ * environment variable. The process exits non-zero when any item failed or was never run.
+ */
+public class DistributedRunner {
+    private static final Logger logger = LogManager.getLogger(DistributedRunner.class);
+    private static final Duration INVENTORY_STARTUP_WAIT = Duration.ofSeconds(5);
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.println("Usage: coordinator <suite.xml|--stub items> [--port N] | "
+                + "worker <host:port> [--devices a,b] [--id name] [--stub] | local <workers> <devices> <items>");
+            System.exit(2);
+        }
+        Map<String, String> options = options(args);
+        ConfigManager config = ConfigManager.getInstance();
+        int port = Integer.parseInt(options.getOrDefault("port",
+            String.valueOf(config.getIntProperty("distributed.coordinator.port", 7410))));
+        String token = options.getOrDefault("token", System.getenv("DISTRIBUTED_TOKEN"));
+        if (!"local".equals(args[0]) && (token == null || token.isBlank())) {
+            System.err.println("Set a shared token with --token or DISTRIBUTED_TOKEN on the coordinator and every worker");
+            System.exit(2);
+        }
+        switch (args[0]) {
+            case "coordinator":
+                InetAddress bind = InetAddress.getByName(options.getOrDefault("bind",
+                    config.getProperty("distributed.bind.address", "127.0.0.1")));
+                boolean passed;
+                try (Coordinator coordinator = options.containsKey("stub")
+                        ? coordinator(bind, port, token, stubItems(Integer.parseInt(options.get("stub"))), List.of())
+                        : suiteCoordinator(bind, port, token, args[1])) {
+                    passed = runCoordinator(coordinator);
+                }
+                System.exit(passed ? 0 : 1);
+                break;
+            case "worker":
+                String[] address = args[1].split(":");
+                worker(address[0], Integer.parseInt(address[1]), token, options).run();
+                break;
+            case "local":
+                System.exit(runLocal(Integer.parseInt(args[1]), Integer.parseInt(args[2]),
+                    Integer.parseInt(args[3])) ? 0 : 1);
+                break;
+            default:
+                System.err.println("Unknown mode " + args[0]);
+                System.exit(2);
+        }
+    }
+
+    /**
+     * Runs a coordinator and several stub workers on loopback, e.g. to check the protocol and the
+     * throughput reporting on one box.
+     */
+    public static boolean runLocal(int workerCount, int devicesPerWorker, int itemCount) throws Exception {
+        String token = UUID.randomUUID().toString();
+        try (Coordinator coordinator = coordinator(InetAddress.getLoopbackAddress(), 0, token, stubItems(itemCount), List.of())) {
+            return runLocal(coordinator, token, workerCount, devicesPerWorker);
+        }
+    }
+
+    /**
+     * Drains a loopback coordinator with stub workers, leaving its results for the caller to inspect.
+     */
+    static boolean runLocal(Coordinator coordinator, String token, int workerCount, int devicesPerWorker)
+            throws InterruptedException {
+        ExecutorService workers = ExecutorFactory.newFixedThreadPool("local-worker", workerCount, true);
+        for (int w = 0; w < workerCount; w++) {
+            List<String> devices = new ArrayList<>();
+            for (int d = 0; d < devicesPerWorker; d++) {
+                devices.add("stub-" + w + "-" + d);
+            }
+            Map<String, String> options = new HashMap<>();
+            options.put("id", "worker-" + w);
+            options.put("devices", String.join(",", devices));
+            options.put("stub", "true");
+            DistributedWorker worker = worker("127.0.0.1", coordinator.getPort(), token, options);
+            workers.submit(() -> {
+                worker.run();
+                return null;
+            });
+        }
+        workers.shutdown();
+        return runCoordinator(coordinator);
+    }
+
+    private static boolean runCoordinator(Coordinator coordinator) throws InterruptedException {
+        coordinator.start();
+        int timeoutMinutes = ConfigManager.getInstance().getIntProperty("parallel.execution.timeout.minutes", 30);
+        if (!coordinator.awaitCompletion(Duration.ofMinutes(timeoutMinutes))) {
+            logger.warn("Distributed run did not finish within {} minutes", timeoutMinutes);
+        }
+        coordinator.logSummary();
+        return !coordinator.hasFailures();
+    }
+
+    private static Coordinator suiteCoordinator(InetAddress bind, int port, String token, String suitePath) throws Exception {
+        List<WorkItem> items = new ArrayList<>();
+        Set<String> listeners = new LinkedHashSet<>();
+        WorkItemPlanner planner = new WorkItemPlanner();
+        for (XmlSuite suite : new Parser(suitePath).parseToList()) {
+            items.addAll(planner.plan(suite));
+            listeners.addAll(suite.getListeners());
+        }
+        // Workers run one class per item; they must not start a parallel run or re-shard it
+        listeners.remove(ParallelTestListener.class.getName());
+        listeners.remove(DurationShardingInterceptor.class.getName());
+        return coordinator(bind, port, token, items, new ArrayList<>(listeners));
+    }
+
+    private static Coordinator coordinator(InetAddress bind, int port, String token, List<WorkItem> items,
+                                           List<String> listeners) throws Exception {
+        ConfigManager config = ConfigManager.getInstance();
+        return new Coordinator(bind, port, token, items, listeners,
+            new File(config.getProperty("distributed.artifact.dir", "run_reports/distributed")),
+            Duration.ofMillis(config.getIntProperty("distributed.poll.interval.ms", 500)));
+    }
+
+    private static DistributedWorker worker(String host, int port, String token, Map<String, String> options) {
+        ConfigManager config = ConfigManager.getInstance();
+        boolean stub = options.containsKey("stub");
+        List<String> devices = options.containsKey("devices")
+            ? Arrays.asList(options.get("devices").split(","))
+            : localDevices();
+        String workerId = options.getOrDefault("id", "worker-" + UUID.randomUUID().toString().substring(0, 8));
+        long maxArtifactBytes = config.getIntProperty("distributed.artifact.max.bytes", 20 * 1024 * 1024);
+
+        if (stub) {
+            long baseMillis = config.getIntProperty("distributed.stub.duration.ms", 200);
+            return new DistributedWorker(host, port, workerId, token, devices,
+                listeners -> new StubWorkItemExecutor(baseMillis), ArtifactCollector.none(), maxArtifactBytes);
+        }
+        DeviceInventory inventory = DeviceInventory.getInstance();
+        return new DistributedWorker(host, port, workerId, token, devices,
+            listeners -> new TestNGWorkItemExecutor(listeners, inventory::getDevice, Map.of()),
+            ArtifactCollector.testArtifacts(List.of(new File("test-output/screenshots"), new File("test-output/videos"))),
+            maxArtifactBytes);
+    }
+
+    private static List<String> localDevices() {
+        DeviceInventory inventory = DeviceInventory.getInstance();
+        inventory.awaitFirstSnapshot(INVENTORY_STARTUP_WAIT);
+        return inventory.getOnlineDevices().stream().map(DeviceInfo::getDeviceId).collect(Collectors.toList());
+    }
+
+    private static List<WorkItem> stubItems(int count) {
+        List<WorkItem> items = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            items.add(new WorkItem("stub", "com.mobileautomation.stub.StubTest", List.of("test" + i), Set.of(), Map.of()));
+        }
+        return items;
+    }
+
+    private static Map<String, String> options(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 1; i < args.length; i++) {
+            if (args[i].startsWith("--")) {
+                String name = args[i].substring(2);
+                boolean hasValue = i + 1 < args.length && !args[i + 1].startsWith("--");
+                options.put(name, hasValue ? args[++i] : "true");
+            }
+        }
+        return options;
+    }
+}
@@ -0,0 +1,152 @@
+package com.mobileautomation.distributed;
+
+import com.mobileautomation.scheduler.WorkItem;
+import com.mobileautomation.scheduler.WorkStealingScheduler.WorkItemExecutor;
+import com.mobileautomation.utils.ExecutorFactory;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Runs on each host of the farm: registers the host's devices with the {@link Coordinator} and runs one
+ * pull loop per device until the coordinator reports the queue is drained.
+ */
+public class DistributedWorker {
+    private static final Logger logger = LogManager.getLogger(DistributedWorker.class);
+    private final String coordinatorHost;
+    private final int coordinatorPort;
+    private final String workerId;
+    private final String token;
+    private final List<String> deviceIds;
+    private final Function<List<String>, WorkItemExecutor> executorFactory;
+    private final ArtifactCollector artifactCollector;
+    private final long maxArtifactBytes;
+
+    /**
+     * @param token           the coordinator's shared token
+     * @param executorFactory builds the executor from the listener class names sent by the coordinator
+     */
+    public DistributedWorker(String coordinatorHost, int coordinatorPort, String workerId, String token, List<String> deviceIds,
+                             Function<List<String>, WorkItemExecutor> executorFactory,
+                             ArtifactCollector artifactCollector, long maxArtifactBytes) {
+        this.coordinatorHost = coordinatorHost;
+        this.coordinatorPort = coordinatorPort;
+        this.workerId = workerId;
+        this.token = token;
+        this.deviceIds = List.copyOf(deviceIds);
+        this.executorFactory = executorFactory;
+        this.artifactCollector = artifactCollector;
+        this.maxArtifactBytes = maxArtifactBytes;
+    }
+
+    /**
+     * Blocks until every device loop has finished.
+     */
+    public void run() throws IOException, InterruptedException {
+        try (Connection connection = new Connection(new Socket(coordinatorHost, coordinatorPort))) {
+            Message register = new Message(Message.Type.REGISTER);
+            register.workerId = workerId;
+            register.token = token;
+            register.host = InetAddress.getLocalHost().getHostName();
+            register.devices = deviceIds;
+            Message registered = connection.call(register);
+            WorkItemExecutor executor = executorFactory.apply(
+                registered.listeners != null ? registered.listeners : List.of());
+            logger.info("Worker {} registered with {}:{} ({} device(s))", workerId, coordinatorHost,
+                coordinatorPort, deviceIds.size());
+
+            List<Thread> loops = new ArrayList<>();
+            for (String deviceId : deviceIds) {
+                Thread loop = ExecutorFactory.newThread("worker-" + deviceId, false,
+                    () -> pullLoop(connection, executor, deviceId));
+                loop.start();
+                loops.add(loop);
+            }
+            for (Thread loop : loops) {
+                loop.join();
+            }
+        }
+        logger.info("Worker {} finished", workerId);
+    }
+
+    private void pullLoop(Connection connection, WorkItemExecutor executor, String deviceId) {
+        try {
+            while (true) {
+                Message pull = new Message(Message.Type.PULL);
+                pull.workerId = workerId;
+                pull.deviceId = deviceId;
+                Message reply = connection.call(pull);
+                if (reply.type == Message.Type.DONE) {
+                    return;
+                }
+                if (reply.type == Message.Type.WAIT) {
+                    Thread.sleep(reply.retryMillis != null ? reply.retryMillis : 500);
+                    continue;
+                }
+                runItem(connection, executor, deviceId, reply.itemId, reply.item);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            logger.error("Device loop {} lost the coordinator: {}", deviceId, e.getMessage());
+        }
+    }
+
+    private void runItem(Connection connection, WorkItemExecutor executor, String deviceId, String itemId,
+                         WorkItem item) throws IOException {
+        long startedAt = System.currentTimeMillis();
+        boolean passed;
+        String error = null;
+        try {
+            passed = executor.execute(item, deviceId);
+        } catch (Exception e) {
+            passed = false;
+            error = e.getClass().getSimpleName() + ": " + e.getMessage();
+        }
+        long durationMillis = System.currentTimeMillis() - startedAt;
+
+        for (Map.Entry<String, File> artifact : artifactCollector.collect(item, deviceId, startedAt).entrySet()) {
+            sendArtifact(connection, itemId, artifact.getKey(), artifact.getValue());
+        }
+
+        Message result = new Message(Message.Type.RESULT);
+        result.workerId = workerId;
+        result.deviceId = deviceId;
+        result.itemId = itemId;
+        result.passed = passed;
+        result.durationMillis = durationMillis;
+        result.error = error;
+        try {
+            connection.call(result);
+        } catch (Connection.RejectedException e) {
+            logger.warn("Result for {} was not accepted: {}", itemId, e.getMessage());
+        }
+    }
+
+    private void sendArtifact(Connection connection, String itemId, String name, File file) {
+        try {
+            if (file.length() > maxArtifactBytes) {
+                logger.warn("Skipping artifact {} ({} bytes, limit {})", file, file.length(), maxArtifactBytes);
+                return;
+            }
+            Message artifact = new Message(Message.Type.ARTIFACT);
+            artifact.workerId = workerId;
+            artifact.itemId = itemId;
+            artifact.name = name;
+            artifact.data = Base64.getEncoder().encodeToString(Files.readAllBytes(file.toPath()));
+            connection.call(artifact);
+        } catch (IOException e) {
+            logger.warn("Failed to send artifact {}: {}", file, e.getMessage());
+        }
+    }
+}
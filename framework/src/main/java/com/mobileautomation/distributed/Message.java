@@ -0,0 +1,65 @@
+package com.mobileautomation.distributed;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mobileautomation.scheduler.WorkItem;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * One line of the coordinator/worker protocol. Every request from a worker gets exactly one reply:
+ * <pre>
+ * REGISTER {workerId, token, host, devices}  -> REGISTERED {listeners}
+ * PULL     {workerId, deviceId}              -> WORK {item} | WAIT {retryMillis} | DONE
+ * RESULT   {itemId, deviceId, passed, ...}   -> ACK
+ * ARTIFACT {itemId, name, data (base64)}     -> ACK
+ * </pre>
+ * Any request may also be answered with ERROR {error}. A REGISTER with the wrong token, or for a worker
+ * id that is already connected, is answered with ERROR and the connection is closed.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class Message {
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+        .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    public enum Type { REGISTER, REGISTERED, PULL, WORK, WAIT, DONE, RESULT, ARTIFACT, ACK, ERROR }
+
+    public Type type;
+    public String workerId;
+    public String token;
+    public String host;
+    public List<String> devices;
+    public List<String> listeners;
+    public String deviceId;
+    public WorkItem item;
+    public String itemId;
+    public Boolean passed;
+    public Long durationMillis;
+    public Long retryMillis;
+    public String name;
+    public String data;
+    public String error;
+
+    public Message() {
+    }
+
+    public Message(Type type) {
+        this.type = type;
+    }
+
+    public static Message error(String error) {
+        Message message = new Message(Type.ERROR);
+        message.error = error;
+        return message;
+    }
+
+    public String toJson() throws IOException {
+        return MAPPER.writeValueAsString(this);
+    }
+
+    public static Message fromJson(String line) throws IOException {
+        return MAPPER.readValue(line, Message.class);
+    }
+}
@@ -0,0 +1,27 @@
+package com.mobileautomation.distributed;
+
+import com.mobileautomation.scheduler.WorkItem;
+import com.mobileautomation.scheduler.WorkStealingScheduler;
+
+/**
+ * Stands in for a device when exercising the coordinator and workers on one box: sleeps for the
+ * item's {@code stub.durationMillis} parameter (or a duration derived from the item id) and fails
+ * items whose {@code stub.fail} parameter is true.
+ */
+public class StubWorkItemExecutor implements WorkStealingScheduler.WorkItemExecutor {
+    private final long baseMillis;
+
+    public StubWorkItemExecutor(long baseMillis) {
+        this.baseMillis = baseMillis;
+    }
+
+    @Override
+    public boolean execute(WorkItem item, String deviceId) throws InterruptedException {
+        String configured = item.getParameters().get("stub.durationMillis");
+        long millis = configured != null
+            ? Long.parseLong(configured)
+            : baseMillis + Math.floorMod(item.getId().hashCode(), Math.max(1, (int) baseMillis));
+        Thread.sleep(millis);
+        return !Boolean.parseBoolean(item.getParameters().get("stub.fail"));
+    }
+}
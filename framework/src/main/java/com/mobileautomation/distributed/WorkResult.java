@@ -0,0 +1,33 @@
+package com.mobileautomation.distributed;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+/**
+ * Outcome of one work item as reported by a worker.
+ */
+@Getter
+public class WorkResult {
+    private final String itemId;
+    private final String workerId;
+    private final String deviceId;
+    private final boolean passed;
+    private final Duration duration;
+    private final String error;
+
+    public WorkResult(String itemId, String workerId, String deviceId, boolean passed, Duration duration, String error) {
+        this.itemId = itemId;
+        this.workerId = workerId;
+        this.deviceId = deviceId;
+        this.passed = passed;
+        this.duration = duration;
+        this.error = error;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s on %s/%s: %s in %dms", itemId, workerId, deviceId,
+            passed ? "PASS" : "FAIL", duration.toMillis());
+    }
+}
@@ -0,0 +1,58 @@
+package com.mobileautomation.distributed;
+
+import lombok.Getter;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Coordinator-side view of one registered worker.
+ */
+@Getter
+public class WorkerStats {
+    private final String workerId;
+    private final String host;
+    private final List<String> devices;
+    private final long registeredAt = System.currentTimeMillis();
+    private int itemsCompleted;
+    private int itemsFailed;
+    private int itemsRequeued;
+    private long busyMillis;
+    private long lastResultAt;
+    private volatile boolean connected = true;
+
+    WorkerStats(String workerId, String host, List<String> devices) {
+        this.workerId = workerId;
+        this.host = host;
+        this.devices = List.copyOf(devices);
+    }
+
+    synchronized void recordResult(boolean passed, long durationMillis) {
+        itemsCompleted++;
+        if (!passed) {
+            itemsFailed++;
+        }
+        busyMillis += durationMillis;
+        lastResultAt = System.currentTimeMillis();
+    }
+
+    synchronized void recordRequeued(int count) {
+        itemsRequeued += count;
+    }
+
+    void disconnected() {
+        connected = false;
+    }
+
+    /**
+     * Completed items per minute between registration and the last result.
+     */
+    public synchronized double getThroughputPerMinute() {
+        long elapsed = (lastResultAt > 0 ? lastResultAt : System.currentTimeMillis()) - registeredAt;
+        return elapsed <= 0 ? 0 : itemsCompleted * 60_000.0 / elapsed;
+    }
+
+    public synchronized Duration getBusyTime() {
+        return Duration.ofMillis(busyMillis);
+    }
+}
@@ -0,0 +1,45 @@
+package com.mobileautomation.driver;
+
+import com.mobileautomation.utils.DeviceInfo;
+import lombok.Getter;
+
+import java.time.Duration;
+import java.time.Instant;
+
+@Getter
+public class DeviceLease {
+    private final String deviceId;
+    private final String platform;
+    private final DeviceInfo device;
+    private final String owner;
+    private final Instant acquiredAt;
+    private final Instant expiresAt;
+    private volatile boolean revoked;
+
+    public DeviceLease(DeviceInfo device, Duration maxHold, String owner) {
+        this.deviceId = device.getDeviceId();
+        this.platform = device.getPlatform();
+        this.device = device;
+        this.owner = owner;
+        this.acquiredAt = Instant.now();
+        this.expiresAt = acquiredAt.plus(maxHold);
+    }
+
+    public Duration getHeldFor() {
+        return Duration.between(acquiredAt, Instant.now());
+    }
+
+    public boolean isExpired() {
+        return Instant.now().isAfter(expiresAt);
+    }
+
+    void revoke() {
+        revoked = true;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("DeviceLease[device=%s, platform=%s, owner=%s%s]", deviceId, platform, owner,
+            revoked ? ", revoked" : "");
+    }
+}
@@ -0,0 +1,467 @@
+package com.mobileautomation.driver;
+
+import com.mobileautomation.config.ConfigManager;
+import com.mobileautomation.device.DeviceInventory;
+import com.mobileautomation.device.DeviceListener;
+import com.mobileautomation.exceptions.MobileAutomationException;
+import com.mobileautomation.metrics.MetricsRegistry;
+import com.mobileautomation.utils.DeviceConfig;
+import com.mobileautomation.utils.DeviceInfo;
+import com.mobileautomation.utils.ExecutorFactory;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Hands devices out to tests. Requests that cannot be served immediately wait in a FIFO queue and a
+ * released device goes to the oldest waiter whose {@link DeviceRequirement} it satisfies, so a waiter
+ * is never overtaken by a later request for the same kind of device.
+ * <p>
+ * Leases held past {@code device.lease.max.seconds} are reported by a background reaper but stay with
+ * their owner, whose session may still be driving the device, until it releases them. A device
+ * that fails {@code device.quarantine.failures} times in a row for infrastructure reasons (session
+ * creation, lost connection) is quarantined for {@code device.quarantine.seconds}.
+ */
+public class DeviceLeaseManager implements DeviceListener {
+    private static final Logger logger = LogManager.getLogger(DeviceLeaseManager.class);
+    private static final String BROWSERSTACK = "browserstack";
+    private static DeviceLeaseManager instance;
+    private final ReentrantLock lock = new ReentrantLock(true);
+    private final Map<String, ManagedDevice> devices = new LinkedHashMap<>();
+    private final Deque<Waiter> waiters = new ArrayDeque<>();
+    private final MetricsRegistry metrics = MetricsRegistry.getInstance();
+    private final Duration maxLeaseTime;
+    private final int quarantineThreshold;
+    private final Duration quarantineTime;
+    private final ScheduledExecutorService reaper;
+    private boolean browserStackSlotsRegistered;
+    private boolean inventoryTracked;
+
+    private static class ManagedDevice {
+        private DeviceInfo info;
+        private final String source;
+        private final Instant registeredAt = Instant.now();
+        private DeviceLease lease;
+        private int consecutiveFailures;
+        private Instant quarantinedUntil;
+        private long busyNanos;
+        private long leaseCount;
+        private boolean overdueReported;
+
+        ManagedDevice(DeviceInfo info, String source) {
+            this.info = info;
+            this.source = source;
+        }
+
+        boolean isQuarantined(Instant now) {
+            return quarantinedUntil != null && now.isBefore(quarantinedUntil);
+        }
+
+        boolean isAvailable(Instant now) {
+            return lease == null && info.isOnline() && !isQuarantined(now);
+        }
+    }
+
+    private static class Waiter {
+        private final DeviceRequirement requirement;
+        private final Condition granted;
+        private final String owner = Thread.currentThread().getName();
+        private DeviceLease lease;
+
+        Waiter(DeviceRequirement requirement, Condition granted) {
+            this.requirement = requirement;
+            this.granted = granted;
+        }
+    }
+
+    public DeviceLeaseManager(Duration maxLeaseTime, int quarantineThreshold, Duration quarantineTime) {
+        this.maxLeaseTime = maxLeaseTime;
+        this.quarantineThreshold = quarantineThreshold;
+        this.quarantineTime = quarantineTime;
+        this.reaper = Executors.newSingleThreadScheduledExecutor(ExecutorFactory.threadFactory("device-lease-reaper", true));
+        reaper.scheduleWithFixedDelay(this::reapExpiredLeases, 5, 5, TimeUnit.SECONDS);
+    }
+
+    public static synchronized DeviceLeaseManager getInstance() {
+        if (instance == null) {
+            ConfigManager config = ConfigManager.getInstance();
+            instance = new DeviceLeaseManager(
+                Duration.ofSeconds(config.getIntProperty("device.lease.max.seconds", 1800)),
+                config.getIntProperty("device.quarantine.failures", 3),
+                Duration.ofSeconds(config.getIntProperty("device.quarantine.seconds", 600)));
+        }
+        return instance;
+    }
+
+    /**
+     * Follows the adb device inventory so attached Android devices become leasable without polling.
+     */
+    public void trackInventory(DeviceInventory inventory) {
+        lock.lock();
+        try {
+            if (inventoryTracked) {
+                return;
+            }
+            inventoryTracked = true;
+        } finally {
+            lock.unlock();
+        }
+        inventory.addListener(this);
+        inventory.getOnlineDevices().forEach(device -> register(device, "adb"));
+    }
+
+    /**
+     * Registers one lease slot per configured BrowserStack device and slot, once.
+     */
+    public void registerBrowserStackSlots(DeviceConfig[] configs, int slotsPerDevice) {
+        lock.lock();
+        try {
+            if (browserStackSlotsRegistered) {
+                return;
+            }
+            for (DeviceConfig config : configs) {
+                for (int slot = 1; slot <= slotsPerDevice; slot++) {
+                    String id = String.format("bs:%s:%s#%d", config.getDevice(), config.getOsVersion(), slot);
+                    register(new DeviceInfo(id, config.getDevice(), config.getPlatform(), config.getOsVersion(),
+                        DeviceInfo.STATE_ONLINE), BROWSERSTACK);
+                }
+            }
+            browserStackSlotsRegistered = true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Adds a device or refreshes what is known about it; a lease in progress is kept.
+     */
+    public void register(DeviceInfo device, String source) {
+        lock.lock();
+        try {
+            ManagedDevice managed = devices.get(device.getDeviceId());
+            if (managed == null) {
+                devices.put(device.getDeviceId(), new ManagedDevice(device, source));
+                logger.debug("Registered {} device {}", source, device);
+            } else {
+                managed.info = device;
+            }
+            dispatch();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void unregister(String deviceId) {
+        lock.lock();
+        try {
+            ManagedDevice managed = devices.remove(deviceId);
+            if (managed != null && managed.lease != null) {
+                logger.warn("Device {} removed while leased to {}", deviceId, managed.lease.getOwner());
+                managed.lease.revoke();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Blocks until a device matching the requirement is free, in FIFO order with other waiters.
+     */
+    public DeviceLease acquire(DeviceRequirement requirement, Duration timeout) {
+        long start = System.nanoTime();
+        lock.lock();
+        try {
+            if (devices.values().stream().noneMatch(device -> requirement.matches(device.info))) {
+                String error = "No registered device matches " + requirement;
+                String suggestion = "Connect a matching device/simulator or adjust the platform, version and device parameters";
+                throw new MobileAutomationException("NO_DEVICE_FOUND", error, suggestion);
+            }
+
+            // Queued waiters never match a free device (dispatch would have served them), so taking one now is fair
+            Instant now = Instant.now();
+            for (ManagedDevice device : devices.values()) {
+                if (device.isAvailable(now) && requirement.matches(device.info)) {
+                    DeviceLease lease = grant(device, Thread.currentThread().getName());
+                    metrics.timer("device.lease.wait").recordSince(start);
+                    return lease;
+                }
+            }
+
+            Waiter waiter = new Waiter(requirement, lock.newCondition());
+            waiters.addLast(waiter);
+            metrics.increment("device.lease.queued");
+            long remaining = timeout.toNanos();
+            try {
+                while (waiter.lease == null && remaining > 0) {
+                    remaining = waiter.granted.awaitNanos(remaining);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                waiters.remove(waiter);
+            }
+
+            if (waiter.lease != null) {
+                metrics.timer("device.lease.wait").recordSince(start);
+                return waiter.lease;
+            }
+            metrics.increment("device.lease.timeouts");
+            String error = String.format("No device matching %s became free within %ds (%d waiting)",
+                requirement, timeout.getSeconds(), waiters.size());
+            String suggestion = "Lower the suite thread-count, raise device.lease.wait.seconds or add devices";
+            throw new MobileAutomationException("NO_FREE_DEVICE", error, suggestion);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void release(DeviceLease lease) {
+        release(lease, false);
+    }
+
+    /**
+     * Returns the device to the pool. An infrastructure failure counts towards quarantine; a clean
+     * release resets the count.
+     */
+    public void release(DeviceLease lease, boolean infrastructureFailure) {
+        release(lease, infrastructureFailure, () -> { });
+    }
+
+    /**
+     * Like {@link #release(DeviceLease, boolean)}, running {@code beforeFree} under the lease lock first so
+     * per-device resources it gives back cannot be picked up by the next lessee before they are gone.
+     * It still runs for a lease revoked because its device went away, but not for one already released.
+     */
+    public void release(DeviceLease lease, boolean infrastructureFailure, Runnable beforeFree) {
+        if (lease == null) {
+            return;
+        }
+        lock.lock();
+        try {
+            ManagedDevice device = devices.get(lease.getDeviceId());
+            if (device == null || device.lease != lease) {
+                if (lease.isRevoked()) {
+                    // the device went away mid-lease, but its ports and server are still ours to give back
+                    runBeforeFree(lease, beforeFree);
+                }
+                return;
+            }
+            runBeforeFree(lease, beforeFree);
+            freeDevice(device);
+            if (infrastructureFailure) {
+                recordFailure(device);
+            } else {
+                device.consecutiveFailures = 0;
+            }
+            dispatch();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Counts a failure against a device that is not being released, e.g. a session lost mid-test.
+     */
+    public void reportInfrastructureFailure(String deviceId) {
+        lock.lock();
+        try {
+            ManagedDevice device = devices.get(deviceId);
+            if (device != null) {
+                recordFailure(device);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Whether the lease is a BrowserStack parallel session slot rather than a device of its own. Such a
+     * slot is only really free once the remote session has been quit.
+     */
+    public boolean isBrowserStackSlot(DeviceLease lease) {
+        lock.lock();
+        try {
+            ManagedDevice device = devices.get(lease.getDeviceId());
+            return device != null && BROWSERSTACK.equals(device.source);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean isRegistered(String deviceId) {
+        lock.lock();
+        try {
+            return devices.containsKey(deviceId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean isQuarantined(String deviceId) {
+        lock.lock();
+        try {
+            ManagedDevice device = devices.get(deviceId);
+            return device != null && device.isQuarantined(Instant.now());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getWaiterCount() {
+        lock.lock();
+        try {
+            return waiters.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Share of each device's registered lifetime that it spent leased, between 0 and 1.
+     */
+    public Map<String, Double> getUtilisation() {
+        lock.lock();
+        try {
+            Instant now = Instant.now();
+            Map<String, Double> utilisation = new LinkedHashMap<>();
+            for (Map.Entry<String, ManagedDevice> entry : devices.entrySet()) {
+                ManagedDevice device = entry.getValue();
+                long busy = device.busyNanos + (device.lease != null ? device.lease.getHeldFor().toNanos() : 0);
+                long lifetime = Math.max(1, Duration.between(device.registeredAt, now).toNanos());
+                utilisation.put(entry.getKey(), Math.min(1.0, (double) busy / lifetime));
+            }
+            return utilisation;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void logStats() {
+        lock.lock();
+        try {
+            Map<String, Double> utilisation = getUtilisation();
+            for (Map.Entry<String, ManagedDevice> entry : devices.entrySet()) {
+                ManagedDevice device = entry.getValue();
+                logger.info("Device {} [{}]: {} lease(s), {}% utilised{}", entry.getKey(), device.source,
+                    device.leaseCount, Math.round(utilisation.get(entry.getKey()) * 100),
+                    device.isQuarantined(Instant.now()) ? ", quarantined" : "");
+            }
+            logger.info("Device lease wait: {}", metrics.timer("device.lease.wait"));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void onDeviceAttached(DeviceInfo device) {
+        register(device, "adb");
+    }
+
+    @Override
+    public void onDeviceStateChanged(DeviceInfo previous, DeviceInfo current) {
+        register(current, "adb");
+    }
+
+    @Override
+    public void onDeviceDetached(DeviceInfo device) {
+        unregister(device.getDeviceId());
+    }
+
+    private DeviceLease grant(ManagedDevice device, String owner) {
+        DeviceLease lease = new DeviceLease(device.info, maxLeaseTime, owner);
+        device.lease = lease;
+        device.leaseCount++;
+        metrics.increment("device.lease.granted");
+        logger.debug("Leased {} to {}", device.info.getDeviceId(), owner);
+        return lease;
+    }
+
+    /**
+     * Hands free devices to the oldest waiter each one satisfies. Caller holds the lock.
+     */
+    private void dispatch() {
+        if (waiters.isEmpty()) {
+            return;
+        }
+        Instant now = Instant.now();
+        for (ManagedDevice device : devices.values()) {
+            if (!device.isAvailable(now)) {
+                continue;
+            }
+            Iterator<Waiter> queue = waiters.iterator();
+            while (queue.hasNext()) {
+                Waiter waiter = queue.next();
+                if (waiter.lease == null && waiter.requirement.matches(device.info)) {
+                    waiter.lease = grant(device, waiter.owner);
+                    queue.remove();
+                    waiter.granted.signal();
+                    break;
+                }
+            }
+        }
+    }
+
+    private void runBeforeFree(DeviceLease lease, Runnable beforeFree) {
+        try {
+            beforeFree.run();
+        } catch (RuntimeException e) {
+            logger.warn("Failed to release resources of device {}: {}", lease.getDeviceId(), e.getMessage());
+        }
+    }
+
+    private void freeDevice(ManagedDevice device) {
+        device.busyNanos += device.lease.getHeldFor().toNanos();
+        device.lease = null;
+        device.overdueReported = false;
+    }
+
+    private void recordFailure(ManagedDevice device) {
+        device.consecutiveFailures++;
+        metrics.increment("device.infrastructure.failures");
+        if (device.consecutiveFailures >= quarantineThreshold) {
+            device.quarantinedUntil = Instant.now().plus(quarantineTime);
+            device.consecutiveFailures = 0;
+            metrics.increment("device.quarantined");
+            logger.warn("Quarantining device {} for {}s after {} consecutive infrastructure failures",
+                device.info.getDeviceId(), quarantineTime.getSeconds(), quarantineThreshold);
+        }
+    }
+
+    private void reapExpiredLeases() {
+        lock.lock();
+        try {
+            List<String> expired = new ArrayList<>();
+            for (ManagedDevice device : devices.values()) {
+                // Freeing it here would hand the device to a second test while the owner's session still runs
+                if (device.lease != null && device.lease.isExpired() && !device.overdueReported) {
+                    device.overdueReported = true;
+                    expired.add(device.lease.toString());
+                }
+            }
+            if (!expired.isEmpty()) {
+                metrics.increment("device.lease.expired", expired.size());
+                logger.warn("Device leases held past {}s: {}", maxLeaseTime.getSeconds(), expired);
+            }
+            // also picks up devices whose quarantine just ended
+            dispatch();
+        } catch (Exception e) {
+            logger.error("Device lease reaper failed: {}", e.getMessage());
+        } finally {
+            lock.unlock();
+        }
+    }
+}
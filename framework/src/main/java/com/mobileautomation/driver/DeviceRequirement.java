@@ -0,0 +1,60 @@
+package com.mobileautomation.driver;
+
+import com.mobileautomation.utils.DeviceInfo;
+import lombok.Getter;
+
+/**
+ * What a test needs from a device. Null fields match anything; the OS version matches on whole
+ * version components, so "14" accepts "14.0" and "14.1" while "14.1" only accepts 14.1.x.
+ */
+@Getter
+public class DeviceRequirement {
+    private final String platform;
+    private final String osVersion;
+    private final String device;
+
+    public DeviceRequirement(String platform, String osVersion, String device) {
+        this.platform = platform;
+        this.osVersion = blankToNull(osVersion);
+        this.device = blankToNull(device);
+    }
+
+    public boolean matches(DeviceInfo candidate) {
+        if (!platform.equalsIgnoreCase(candidate.getPlatform())) {
+            return false;
+        }
+        if (device != null && !device.equalsIgnoreCase(candidate.getDeviceId())
+                && !device.equalsIgnoreCase(candidate.getDeviceName())) {
+            return false;
+        }
+        // A device whose version is not known yet is not excluded, Appium validates it at session start
+        return osVersion == null || candidate.getVersion() == null || versionMatches(candidate.getVersion());
+    }
+
+    private boolean versionMatches(String actual) {
+        String[] wanted = trimZeros(osVersion).split("\\.");
+        String[] have = trimZeros(actual).split("\\.");
+        if (wanted.length > have.length) {
+            return false;
+        }
+        for (int i = 0; i < wanted.length; i++) {
+            if (!wanted[i].equals(have[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String trimZeros(String version) {
+        return version.trim().replaceAll("(\\.0)+$", "");
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.trim().isEmpty() ? null : value.trim();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("DeviceRequirement[platform=%s, osVersion=%s, device=%s]", platform, osVersion, device);
+    }
+}
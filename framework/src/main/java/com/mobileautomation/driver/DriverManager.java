@@ -0,0 +1,186 @@
+package com.mobileautomation.driver;
+
+import com.mobileautomation.config.BrowserStackConfig;
+import com.mobileautomation.config.ConfigManager;
+import com.mobileautomation.utils.DeviceConfig;
+import com.mobileautomation.utils.WaitEngine;
+import io.appium.java_client.AppiumDriver;
+import io.appium.java_client.android.AndroidDriver;
+import io.appium.java_client.ios.IOSDriver;
+import lombok.Getter;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openqa.selenium.Capabilities;
+import org.openqa.selenium.remote.DesiredCapabilities;
+
+import java.net.URL;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+@Getter
+public class DriverManager {
+    private static final Logger logger = LogManager.getLogger(DriverManager.class);
+    private static DriverManager instance;
+    private final ConfigManager configManager;
+    private final SessionPool sessionPool;
+    private final SessionRegistry sessionRegistry;
+    private final List<Consumer<String>> deviceReleaseListeners = new CopyOnWriteArrayList<>();
+
+    private DriverManager() {
+        configManager = ConfigManager.getInstance();
+        sessionPool = SessionPool.fromConfig(configManager);
+        sessionRegistry = new SessionRegistry();
+        Runtime.getRuntime().addShutdownHook(new Thread(sessionPool::shutdown, "session-pool-shutdown"));
+    }
+
+    public static synchronized DriverManager getInstance() {
+        if (instance == null) {
+            instance = new DriverManager();
+        }
+        return instance;
+    }
+
+    public void initializeDriver(String platform, String device, String osVersion) {
+        // BrowserStack runs a limited number of parallel sessions; lease a slot instead of queueing remotely
+        DeviceLeaseManager leaseManager = DeviceLeaseManager.getInstance();
+        leaseManager.registerBrowserStackSlots(DeviceConfig.getLatestDevices(),
+            configManager.getIntProperty("browserstack.slots.per.device", 1));
+        DeviceLease lease = leaseManager.acquire(new DeviceRequirement(platform, osVersion, device), leaseWaitTimeout());
+        try {
+            DesiredCapabilities capabilities;
+            AppiumDriver driver;
+            URL serverUrl = new URL(BrowserStackConfig.getBrowserStackUrl());
+            
+            if (platform.equalsIgnoreCase("android")) {
+                capabilities = setupAndroidCapabilities(device, osVersion);
+                driver = sessionPool.checkout(capabilities, caps -> configureTimeouts(new AndroidDriver(serverUrl, PooledHttpClientFactory.forDrivers(), caps)));
+            } else if (platform.equalsIgnoreCase("ios")) {
+                capabilities = setupIOSCapabilities(device, osVersion);
+                driver = sessionPool.checkout(capabilities, caps -> configureTimeouts(new IOSDriver(serverUrl, PooledHttpClientFactory.forDrivers(), caps)));
+            } else {
+                throw new IllegalArgumentException("Unsupported platform: " + platform);
+            }
+
+            sessionRegistry.bind(driver, lease);
+            logger.info("Driver initialized successfully for {} on {}", platform, device);
+        } catch (Exception e) {
+            releaseLease(lease, true);
+            logger.error("Failed to initialize driver", e);
+            throw new RuntimeException("Failed to initialize driver", e);
+        }
+    }
+
+    public AppiumDriver acquireDriver(Capabilities capabilities, Function<Capabilities, AppiumDriver> factory,
+                                      DeviceLease lease) {
+        try {
+            AppiumDriver driver = sessionPool.checkout(capabilities, factory);
+            sessionRegistry.bind(driver, lease);
+            return driver;
+        } catch (RuntimeException e) {
+            releaseLease(lease, true);
+            throw e;
+        }
+    }
+
+    /**
+     * Registers a callback for a device whose lease ends with no pooled session left on it, e.g. to hand
+     * back the ports and server binding its sessions used.
+     */
+    public void addDeviceReleaseListener(Consumer<String> listener) {
+        deviceReleaseListeners.add(listener);
+    }
+
+    /**
+     * Returns the lease, first notifying the device release listeners unless a pooled session still runs
+     * on the device. A no-op when the lease was already returned.
+     */
+    public void releaseLease(DeviceLease lease, boolean infrastructureFailure) {
+        DeviceLeaseManager.getInstance().release(lease, infrastructureFailure, () -> {
+            String deviceId = lease.getDeviceId();
+            if (!sessionPool.hasSessionsFor(deviceId)) {
+                deviceReleaseListeners.forEach(listener -> listener.accept(deviceId));
+            }
+        });
+    }
+
+    public Duration leaseWaitTimeout() {
+        return Duration.ofSeconds(configManager.getIntProperty("device.lease.wait.seconds", 300));
+    }
+
+    private AppiumDriver configureTimeouts(AppiumDriver newDriver) {
+        // Implicit waits stack on top of explicit ones; WaitEngine does all waiting
+        WaitEngine.disableImplicitWait(newDriver);
+        newDriver.manage().timeouts().pageLoadTimeout(Duration.ofSeconds(30));
+        return newDriver;
+    }
+
+    private DesiredCapabilities setupAndroidCapabilities(String device, String osVersion) {
+        DeviceConfig deviceConfig = new DeviceConfig();
+        deviceConfig.setDevice(device);
+        deviceConfig.setOsVersion(osVersion);
+        deviceConfig.setPlatform("android");
+        return BrowserStackConfig.getBrowserStackCapabilities(deviceConfig);
+    }
+
+    private DesiredCapabilities setupIOSCapabilities(String device, String osVersion) {
+        DeviceConfig deviceConfig = new DeviceConfig();
+        deviceConfig.setDevice(device);
+        deviceConfig.setOsVersion(osVersion);
+        deviceConfig.setPlatform("ios");
+        return BrowserStackConfig.getBrowserStackCapabilities(deviceConfig);
+    }
+
+    /**
+     * Returns the session to the pool and then its lease. BrowserStack sessions are quit instead: an idle
+     * pooled session would keep using the remote parallel slot after its lease had been handed to another test.
+     */
+    public void releaseDriver() {
+        SessionRegistry.Binding binding = sessionRegistry.unbind();
+        if (binding == null) {
+            return;
+        }
+        try {
+            if (DeviceLeaseManager.getInstance().isBrowserStackSlot(binding.getLease())) {
+                sessionPool.discard(binding.getDriver());
+                logger.info("BrowserStack session quit, its slot is free again");
+            } else {
+                sessionPool.checkin(binding.getDriver());
+                logger.info("Driver returned to session pool");
+            }
+        } catch (Exception e) {
+            logger.error("Error while returning driver to session pool", e);
+        } finally {
+            releaseLease(binding.getLease(), false);
+        }
+    }
+
+    public void quitDriver() {
+        SessionRegistry.Binding binding = sessionRegistry.unbind();
+        if (binding == null) {
+            return;
+        }
+        try {
+            sessionPool.discard(binding.getDriver());
+            logger.info("Driver quit successfully");
+        } catch (Exception e) {
+            logger.error("Error while quitting driver", e);
+        } finally {
+            releaseLease(binding.getLease(), false);
+        }
+    }
+
+    public boolean hasDriver() {
+        return sessionRegistry.currentDriver() != null;
+    }
+
+    public AppiumDriver getDriver() {
+        AppiumDriver driver = sessionRegistry.currentDriver();
+        if (driver == null) {
+            throw new IllegalStateException("Driver has not been initialized for thread " + Thread.currentThread().getName());
+        }
+        return driver;
+    }
+} 
\ No newline at end of file
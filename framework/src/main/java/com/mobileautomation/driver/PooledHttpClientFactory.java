@@ -0,0 +1,365 @@
+package com.mobileautomation.driver;
+
+import com.mobileautomation.config.ConfigManager;
+import com.mobileautomation.metrics.MetricsRegistry;
+import com.mobileautomation.metrics.Timer;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.remote.http.ClientConfig;
+import org.openqa.selenium.remote.http.Contents;
+import org.openqa.selenium.remote.http.HttpClient;
+import org.openqa.selenium.remote.http.HttpHandler;
+import org.openqa.selenium.remote.http.HttpMethod;
+import org.openqa.selenium.remote.http.HttpRequest;
+import org.openqa.selenium.remote.http.HttpResponse;
+import org.openqa.selenium.remote.http.WebSocket;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * {@link HttpClient.Factory} for Appium and BrowserStack sessions. Every driver it serves shares one
+ * {@link java.net.http.HttpClient}, so connections stay open between commands and pass from one session
+ * to the next instead of each driver keeping a pool of its own. The factory also:
+ * <ul>
+ *   <li>speaks HTTP/2 when {@code http.version=2} and the server offers it;</li>
+ *   <li>asks for gzip responses, which page sources compress well, when {@code http.gzip=true};</li>
+ *   <li>sends basic credentials from the server URL up front instead of after a 401;</li>
+ *   <li>times out session creation, long commands (scripts, actions, page source, screenshots, file
+ *   transfer) and everything else separately ({@code http.*.timeout.ms});</li>
+ *   <li>allows at most {@code http.max.per.host} requests in flight per host, 0 for no limit.</li>
+ * </ul>
+ * Every command is timed under {@code http.<METHOD> <path>}, with session and element ids replaced by
+ * {@code :id}. The JDK client does not expose its pool, so {@code http.connections.opened} is estimated
+ * from peak concurrency per host and the keep-alive timeout.
+ */
+public class PooledHttpClientFactory implements HttpClient.Factory {
+    private static final Logger logger = LogManager.getLogger(PooledHttpClientFactory.class);
+    private static PooledHttpClientFactory instance;
+    // java.net.http refuses to let callers set these
+    private static final Set<String> RESTRICTED_HEADERS = Set.of("connection", "content-length", "expect", "host", "upgrade");
+    // Path segments followed by an element id
+    private static final Set<String> ID_PARENTS = Set.of("element", "shadow");
+    private static final List<String> LONG_COMMANDS = List.of("/execute", "/actions", "/source", "/screenshot",
+        "/appium/device/install_app", "/appium/device/push_file", "/appium/device/pull_", "/appium/stop_recording_screen");
+
+    private final java.net.http.HttpClient client;
+    private final MetricsRegistry metrics = MetricsRegistry.getInstance();
+    private final Map<String, HostState> hosts = new ConcurrentHashMap<>();
+    private final Duration commandTimeout;
+    private final Duration longCommandTimeout;
+    private final Duration sessionTimeout;
+    private final boolean gzip;
+    private final boolean http2;
+    private final int maxPerHost;
+    private final long keepAliveNanos;
+
+    private enum CommandClass {
+        SESSION, LONG, COMMAND
+    }
+
+    private PooledHttpClientFactory() {
+        ConfigManager config = ConfigManager.getInstance();
+        commandTimeout = Duration.ofMillis(config.getIntProperty("http.command.timeout.ms", 60_000));
+        longCommandTimeout = Duration.ofMillis(config.getIntProperty("http.long.command.timeout.ms", 180_000));
+        sessionTimeout = Duration.ofMillis(config.getIntProperty("http.session.timeout.ms", 600_000));
+        gzip = config.getBooleanProperty("http.gzip", true);
+        http2 = "2".equals(config.getProperty("http.version", "1.1").trim());
+        maxPerHost = config.getIntProperty("http.max.per.host", 32);
+        int keepAliveSeconds = config.getIntProperty("http.keepalive.seconds", 120);
+        keepAliveNanos = Duration.ofSeconds(keepAliveSeconds).toNanos();
+        // Read once by the JDK when its connection pool is first used
+        if (System.getProperty("jdk.httpclient.keepalive.timeout") == null) {
+            System.setProperty("jdk.httpclient.keepalive.timeout", String.valueOf(keepAliveSeconds));
+        }
+        client = java.net.http.HttpClient.newBuilder()
+            .version(http2 ? java.net.http.HttpClient.Version.HTTP_2 : java.net.http.HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofMillis(config.getIntProperty("http.connect.timeout.ms", 10_000)))
+            .followRedirects(java.net.http.HttpClient.Redirect.NORMAL)
+            .build();
+    }
+
+    public static synchronized PooledHttpClientFactory getInstance() {
+        if (instance == null) {
+            instance = new PooledHttpClientFactory();
+        }
+        return instance;
+    }
+
+    /**
+     * The factory drivers are built with: the pooled one, or Selenium's default when {@code http.pooled.enabled=false}.
+     */
+    public static HttpClient.Factory forDrivers() {
+        if (ConfigManager.getInstance().getBooleanProperty("http.pooled.enabled", true)) {
+            return getInstance();
+        }
+        return HttpClient.Factory.createDefault();
+    }
+
+    @Override
+    public HttpClient createClient(ClientConfig config) {
+        return new PooledClient(config);
+    }
+
+    public void logStats() {
+        long requests = metrics.getCount("http.requests");
+        long opened = metrics.getCount("http.connections.opened");
+        logger.info("HTTP requests={}, connections opened~{}, reuse~{}%, gzip saved {} KB, waits for a host slot={}",
+            requests, opened, requests == 0 ? 0 : Math.round(100.0 * (requests - opened) / requests),
+            metrics.getCount("http.gzip.saved.bytes") / 1024, metrics.getCount("http.host.waits"));
+        metrics.getTimers().values().stream()
+            .filter(timer -> timer.getName().startsWith("http."))
+            .sorted(Comparator.comparing(Timer::getTotal).reversed())
+            .limit(10)
+            .forEach(timer -> logger.info("{}", timer));
+    }
+
+    /**
+     * The command's path with session and element ids replaced, e.g. {@code /session/:id/element/:id/click}.
+     */
+    static String templateOf(String path) {
+        String[] parts = path.split("/");
+        StringBuilder template = new StringBuilder(path.length());
+        for (int i = 1; i < parts.length; i++) {
+            boolean sessionId = i == 2 && "session".equals(parts[1]);
+            boolean elementId = i > 2 && i < parts.length - 1 && ID_PARENTS.contains(parts[i - 1]);
+            template.append('/').append(sessionId || elementId ? ":id" : parts[i]);
+        }
+        return template.length() == 0 ? "/" : template.toString();
+    }
+
+    private CommandClass classOf(String template) {
+        if ("/session".equals(template) || "/session/:id".equals(template)) {
+            return CommandClass.SESSION;
+        }
+        return LONG_COMMANDS.stream().anyMatch(template::contains) ? CommandClass.LONG : CommandClass.COMMAND;
+    }
+
+    private Duration timeoutOf(CommandClass commandClass) {
+        switch (commandClass) {
+            case SESSION:
+                return sessionTimeout;
+            case LONG:
+                return longCommandTimeout;
+            default:
+                return commandTimeout;
+        }
+    }
+
+    /**
+     * Requests in flight to one host, and how many connections the JDK pool probably holds for it.
+     */
+    private final class HostState {
+        private final Semaphore permits = maxPerHost > 0 ? new Semaphore(maxPerHost, true) : null;
+        private final boolean multiplexed;
+        private int inFlight;
+        private int open;
+        private long lastUsed = System.nanoTime();
+
+        HostState(boolean multiplexed) {
+            this.multiplexed = multiplexed;
+        }
+
+        void acquire() throws InterruptedIOException {
+            if (permits == null) {
+                return;
+            }
+            if (!permits.tryAcquire()) {
+                metrics.increment("http.host.waits");
+                try {
+                    permits.acquire();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted waiting for a connection slot");
+                }
+            }
+        }
+
+        void release() {
+            if (permits != null) {
+                permits.release();
+            }
+        }
+
+        synchronized boolean begin() {
+            if (inFlight == 0 && System.nanoTime() - lastUsed > keepAliveNanos) {
+                open = 0;
+            }
+            inFlight++;
+            int needed = multiplexed ? 1 : inFlight;
+            if (needed > open) {
+                open = needed;
+                return true;
+            }
+            return false;
+        }
+
+        synchronized void end(boolean closed) {
+            inFlight--;
+            lastUsed = System.nanoTime();
+            if (closed) {
+                open = Math.max(0, open - 1);
+            }
+        }
+    }
+
+    private final class PooledClient implements HttpClient {
+        private final ClientConfig config;
+        private final URI base;
+        private final String authorization;
+        private final HostState host;
+        private final HttpHandler handler;
+
+        PooledClient(ClientConfig config) {
+            this.config = config;
+            URI uri = config.baseUri();
+            String userInfo = uri.getRawUserInfo();
+            authorization = userInfo == null ? null
+                : "Basic " + Base64.getEncoder().encodeToString(decode(userInfo).getBytes(StandardCharsets.UTF_8));
+            try {
+                base = new URI(uri.getScheme(), null, uri.getHost(), uri.getPort(), uri.getPath(), null, null);
+            } catch (URISyntaxException e) {
+                throw new IllegalArgumentException("Invalid server URL: " + uri, e);
+            }
+            host = hosts.computeIfAbsent(base.getScheme() + "://" + base.getHost() + ":" + base.getPort(),
+                key -> new HostState(http2 && "https".equals(base.getScheme())));
+            handler = config.filter().andFinally(this::send);
+        }
+
+        @Override
+        public HttpResponse execute(HttpRequest request) {
+            return handler.execute(request);
+        }
+
+        @Override
+        public WebSocket openSocket(HttpRequest request, WebSocket.Listener listener) {
+            // Appium sessions do not use BiDi; leave sockets to Selenium's own client
+            return HttpClient.Factory.createDefault().createClient(config).openSocket(request, listener);
+        }
+
+        @Override
+        public void close() {
+            // The JDK client and its connections are shared with every other session
+        }
+
+        private HttpResponse send(HttpRequest request) {
+            String template = templateOf(request.getUri());
+            long start = System.nanoTime();
+            boolean closed = false;
+            try {
+                host.acquire();
+                try {
+                    if (host.begin()) {
+                        metrics.increment("http.connections.opened");
+                    }
+                    java.net.http.HttpResponse<byte[]> response = client.send(toJdkRequest(request, template),
+                        java.net.http.HttpResponse.BodyHandlers.ofByteArray());
+                    closed = response.headers().firstValue("connection").map("close"::equalsIgnoreCase).orElse(false);
+                    return toSeleniumResponse(response);
+                } finally {
+                    host.end(closed);
+                    host.release();
+                }
+            } catch (HttpTimeoutException e) {
+                throw new TimeoutException(request.getMethod() + " " + template + " timed out", e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new UncheckedIOException(new InterruptedIOException("Interrupted during " + request.getMethod() + " " + template));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } finally {
+                metrics.increment("http.requests");
+                metrics.timer("http." + request.getMethod() + " " + template).recordSince(start);
+            }
+        }
+
+        private java.net.http.HttpRequest toJdkRequest(HttpRequest request, String template) {
+            java.net.http.HttpRequest.Builder builder = java.net.http.HttpRequest.newBuilder(uriOf(request))
+                .timeout(timeoutOf(classOf(template)));
+            if (!"https".equals(base.getScheme())) {
+                // HTTP/2 needs TLS in practice; skip the h2c upgrade attempt against a local Appium server
+                builder.version(java.net.http.HttpClient.Version.HTTP_1_1);
+            }
+            for (String name : request.getHeaderNames()) {
+                if (!RESTRICTED_HEADERS.contains(name.toLowerCase(Locale.ROOT))) {
+                    request.getHeaders(name).forEach(value -> builder.header(name, value));
+                }
+            }
+            if (authorization != null && request.getHeader("Authorization") == null) {
+                builder.header("Authorization", authorization);
+            }
+            if (gzip) {
+                builder.header("Accept-Encoding", "gzip");
+            }
+            if (request.getMethod() == HttpMethod.POST || request.getMethod() == HttpMethod.PUT) {
+                builder.method(request.getMethod().name(),
+                    java.net.http.HttpRequest.BodyPublishers.ofByteArray(Contents.bytes(request.getContent())));
+            } else {
+                builder.method(request.getMethod().name(), java.net.http.HttpRequest.BodyPublishers.noBody());
+            }
+            return builder.build();
+        }
+
+        private URI uriOf(HttpRequest request) {
+            StringBuilder uri = new StringBuilder(base.toString());
+            if (uri.charAt(uri.length() - 1) == '/' && request.getUri().startsWith("/")) {
+                uri.setLength(uri.length() - 1);
+            }
+            uri.append(request.getUri());
+            char separator = '?';
+            for (String name : request.getQueryParameterNames()) {
+                for (String value : request.getQueryParameters(name)) {
+                    uri.append(separator).append(URLEncoder.encode(name, StandardCharsets.UTF_8))
+                        .append('=').append(URLEncoder.encode(value, StandardCharsets.UTF_8));
+                    separator = '&';
+                }
+            }
+            return URI.create(uri.toString());
+        }
+
+        private HttpResponse toSeleniumResponse(java.net.http.HttpResponse<byte[]> response) throws IOException {
+            byte[] body = response.body();
+            boolean gzipped = response.headers().firstValue("content-encoding").map("gzip"::equalsIgnoreCase).orElse(false);
+            if (gzipped) {
+                byte[] compressed = body;
+                try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+                    body = in.readAllBytes();
+                }
+                metrics.increment("http.gzip.saved.bytes", body.length - compressed.length);
+            }
+            HttpResponse result = new HttpResponse();
+            result.setStatus(response.statusCode());
+            response.headers().map().forEach((name, values) -> {
+                // The body handed on is already decoded
+                if (!gzipped || !(name.equalsIgnoreCase("content-encoding") || name.equalsIgnoreCase("content-length"))) {
+                    values.forEach(value -> result.addHeader(name, value));
+                }
+            });
+            result.setContent(Contents.bytes(body));
+            return result;
+        }
+    }
+
+    private static String decode(String userInfo) {
+        return URLDecoder.decode(userInfo.replace("+", "%2B"), StandardCharsets.UTF_8);
+    }
+}
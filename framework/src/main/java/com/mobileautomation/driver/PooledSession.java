@@ -0,0 +1,62 @@
+package com.mobileautomation.driver;
+
+import io.appium.java_client.AppiumDriver;
+import io.appium.java_client.android.AndroidDriver;
+import lombok.Getter;
+import org.openqa.selenium.Capabilities;
+
+import java.time.Duration;
+import java.time.Instant;
+
+@Getter
+class PooledSession {
+    private static final String[] APP_ID_CAPABILITIES = {
+        "appPackage", "appium:appPackage", "bundleId", "appium:bundleId"
+    };
+
+    private final String key;
+    private final AppiumDriver driver;
+    private final String deviceId;
+    private final Instant createdAt;
+    private Instant lastReturnedAt;
+    private int useCount;
+
+    PooledSession(String key, AppiumDriver driver, String deviceId) {
+        this.key = key;
+        this.driver = driver;
+        this.deviceId = deviceId;
+        this.createdAt = Instant.now();
+        this.lastReturnedAt = createdAt;
+    }
+
+    void markCheckedOut() {
+        useCount++;
+    }
+
+    void markReturned() {
+        lastReturnedAt = Instant.now();
+    }
+
+    Duration getAge() {
+        return Duration.between(createdAt, Instant.now());
+    }
+
+    Duration getIdleTime() {
+        return Duration.between(lastReturnedAt, Instant.now());
+    }
+
+    boolean isAndroid() {
+        return driver instanceof AndroidDriver;
+    }
+
+    String getAppId() {
+        Capabilities capabilities = driver.getCapabilities();
+        for (String name : APP_ID_CAPABILITIES) {
+            Object value = capabilities.getCapability(name);
+            if (value != null && !value.toString().isEmpty()) {
+                return value.toString();
+            }
+        }
+        return null;
+    }
+}
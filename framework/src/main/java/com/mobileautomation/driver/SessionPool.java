@@ -0,0 +1,284 @@
+package com.mobileautomation.driver;
+
+import com.mobileautomation.config.ConfigManager;
+import com.mobileautomation.device.AdbClient;
+import com.mobileautomation.metrics.MetricsRegistry;
+import com.mobileautomation.pagefactory.ElementCache;
+import com.mobileautomation.snapshot.ScreenState;
+import io.appium.java_client.AppiumDriver;
+import io.appium.java_client.InteractsWithApps;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openqa.selenium.Capabilities;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps live Appium sessions keyed by their requested capabilities so that consecutive tests
+ * reuse a warm session instead of paying the full session creation cost. Sessions are reset
+ * on return and evicted once they fail a health check or exceed their age or use budget.
+ */
+public class SessionPool {
+    private static final Logger logger = LogManager.getLogger(SessionPool.class);
+    // Capabilities that differ per request without changing the session that gets created
+    private static final Set<String> VOLATILE_CAPABILITIES = Set.of("build", "name", "sessionName", "buildName");
+
+    private final MetricsRegistry metrics = MetricsRegistry.getInstance();
+    private final ConcurrentHashMap<String, Deque<PooledSession>> idleSessions = new ConcurrentHashMap<>();
+    private final Map<AppiumDriver, PooledSession> leasedSessions = Collections.synchronizedMap(new IdentityHashMap<>());
+    private final AtomicInteger liveSessions = new AtomicInteger();
+    private final boolean enabled;
+    private final int maxSize;
+    private final Duration maxAge;
+    private final int maxUses;
+    private final Duration healthCheckAfter;
+    private final ResetStrategy resetStrategy;
+
+    public enum ResetStrategy {
+        RESTART, CLEAR, NONE
+    }
+
+    public SessionPool(boolean enabled, int maxSize, Duration maxAge, int maxUses,
+                       Duration healthCheckAfter, ResetStrategy resetStrategy) {
+        this.enabled = enabled;
+        this.maxSize = maxSize;
+        this.maxAge = maxAge;
+        this.maxUses = maxUses;
+        this.healthCheckAfter = healthCheckAfter;
+        this.resetStrategy = resetStrategy;
+    }
+
+    public static SessionPool fromConfig(ConfigManager config) {
+        return new SessionPool(
+            config.getBooleanProperty("session.pool.enabled", true),
+            config.getIntProperty("session.pool.max.size", 4),
+            Duration.ofSeconds(config.getIntProperty("session.pool.max.age.seconds", 1800)),
+            config.getIntProperty("session.pool.max.uses", 50),
+            Duration.ofSeconds(config.getIntProperty("session.pool.health.check.idle.seconds", 10)),
+            ResetStrategy.valueOf(config.getProperty("session.pool.reset.strategy", "restart").trim().toUpperCase()));
+    }
+
+    public AppiumDriver checkout(Capabilities capabilities, Function<Capabilities, AppiumDriver> factory) {
+        long start = System.nanoTime();
+        String key = keyOf(capabilities);
+        PooledSession session = enabled ? takeIdle(key) : null;
+
+        if (session != null) {
+            metrics.increment("session.pool.hits");
+            logger.debug("Reusing pooled session {} (use #{})", session.getDriver().getSessionId(), session.getUseCount() + 1);
+        } else {
+            metrics.increment("session.pool.misses");
+            long createStart = System.nanoTime();
+            AppiumDriver driver = factory.apply(capabilities);
+            metrics.timer("session.pool.create").recordSince(createStart);
+            liveSessions.incrementAndGet();
+            session = new PooledSession(key, driver, AdbClient.serialOf(capabilities));
+            logger.debug("Created new session {}", driver.getSessionId());
+        }
+
+        session.markCheckedOut();
+        leasedSessions.put(session.getDriver(), session);
+        metrics.timer("session.pool.checkout").recordSince(start);
+        return session.getDriver();
+    }
+
+    public void checkin(AppiumDriver driver) {
+        PooledSession session = leasedSessions.remove(driver);
+        if (session == null) {
+            logger.warn("Returned driver was not checked out from the pool, quitting it");
+            quietlyQuit(driver);
+            return;
+        }
+
+        if (!enabled) {
+            evict(session, "pool disabled");
+        } else if (isExhausted(session)) {
+            evict(session, "max age or use count reached");
+        } else if (liveSessions.get() > maxSize) {
+            evict(session, "pool is full");
+        } else if (!resetAppState(session)) {
+            evict(session, "app state reset failed");
+        } else {
+            // The next lessee starts from a relaunched app, nothing resolved so far is reusable
+            ElementCache.discard(session.getDriver());
+            ScreenState.invalidate(session.getDriver());
+            session.markReturned();
+            idleSessions.computeIfAbsent(session.getKey(), k -> new ConcurrentLinkedDeque<>()).offerFirst(session);
+        }
+    }
+
+    public void discard(AppiumDriver driver) {
+        PooledSession session = leasedSessions.remove(driver);
+        if (session != null) {
+            evict(session, "discarded by caller");
+        } else {
+            quietlyQuit(driver);
+        }
+    }
+
+    public void shutdown() {
+        List<PooledSession> sessions = idleSessions.values().stream()
+            .flatMap(Deque::stream)
+            .collect(Collectors.toList());
+        idleSessions.clear();
+        sessions.forEach(session -> evict(session, "pool shutdown"));
+        logStats();
+    }
+
+    /**
+     * Whether a leased or idle session still runs on the device, and with it on the device's ports.
+     */
+    public boolean hasSessionsFor(String deviceId) {
+        synchronized (leasedSessions) {
+            if (leasedSessions.values().stream().anyMatch(session -> deviceId.equals(session.getDeviceId()))) {
+                return true;
+            }
+        }
+        return idleSessions.values().stream()
+            .flatMap(Deque::stream)
+            .anyMatch(session -> deviceId.equals(session.getDeviceId()));
+    }
+
+    public int getLiveSessionCount() {
+        return liveSessions.get();
+    }
+
+    public int getIdleSessionCount() {
+        return idleSessions.values().stream().mapToInt(Deque::size).sum();
+    }
+
+    public void logStats() {
+        long hits = metrics.getCount("session.pool.hits");
+        long misses = metrics.getCount("session.pool.misses");
+        if (hits + misses == 0) {
+            return;
+        }
+        Duration saved = metrics.timer("session.pool.create").getMean().multipliedBy(hits);
+        logger.info("Session pool: hits={}, misses={}, evictions={}, estimated setup time saved={}s, {}",
+            hits, misses, metrics.getCount("session.pool.evictions"), saved.toSeconds(),
+            metrics.timer("session.pool.checkout"));
+    }
+
+    private PooledSession takeIdle(String key) {
+        Deque<PooledSession> candidates = idleSessions.get(key);
+        if (candidates == null) {
+            return null;
+        }
+        PooledSession session;
+        while ((session = candidates.pollFirst()) != null) {
+            if (isExhausted(session)) {
+                evict(session, "max age or use count reached");
+            } else if (!isHealthy(session)) {
+                evict(session, "failed health check");
+            } else {
+                return session;
+            }
+        }
+        return null;
+    }
+
+    private boolean isExhausted(PooledSession session) {
+        return session.getAge().compareTo(maxAge) > 0 || session.getUseCount() >= maxUses;
+    }
+
+    private boolean isHealthy(PooledSession session) {
+        AppiumDriver driver = session.getDriver();
+        if (driver.getSessionId() == null) {
+            return false;
+        }
+        if (session.getIdleTime().compareTo(healthCheckAfter) < 0) {
+            return true;
+        }
+        try {
+            driver.manage().window().getSize();
+            return true;
+        } catch (Exception e) {
+            logger.debug("Health check failed for session {}: {}", driver.getSessionId(), e.getMessage());
+            return false;
+        }
+    }
+
+    private boolean resetAppState(PooledSession session) {
+        if (resetStrategy == ResetStrategy.NONE) {
+            return true;
+        }
+        long start = System.nanoTime();
+        try {
+            String appId = session.getAppId();
+            if (appId == null) {
+                logger.debug("No appPackage/bundleId capability available to reset session {}",
+                    session.getDriver().getSessionId());
+                return false;
+            }
+            InteractsWithApps apps = (InteractsWithApps) session.getDriver();
+            if (resetStrategy == ResetStrategy.CLEAR && session.isAndroid()) {
+                String serial = AdbClient.serialOf(session.getDriver().getCapabilities());
+                if (serial != null) {
+                    AdbClient.getInstance().clearAppData(serial, appId);
+                } else {
+                    session.getDriver().executeScript("mobile: clearApp", Map.of("appId", appId));
+                }
+            } else {
+                apps.terminateApp(appId);
+            }
+            apps.activateApp(appId);
+            return true;
+        } catch (Exception e) {
+            logger.warn("Failed to reset app state for session {}: {}", session.getDriver().getSessionId(), e.getMessage());
+            return false;
+        } finally {
+            metrics.timer("session.pool.reset").recordSince(start);
+        }
+    }
+
+    private void evict(PooledSession session, String reason) {
+        logger.debug("Evicting session {}: {}", session.getDriver().getSessionId(), reason);
+        metrics.increment("session.pool.evictions");
+        liveSessions.decrementAndGet();
+        quietlyQuit(session.getDriver());
+    }
+
+    private void quietlyQuit(AppiumDriver driver) {
+        ElementCache.discard(driver);
+        try {
+            driver.quit();
+        } catch (Exception e) {
+            logger.warn("Error while quitting pooled session: {}", e.getMessage());
+        }
+    }
+
+    static String keyOf(Capabilities capabilities) {
+        Map<String, Object> stable = new TreeMap<>();
+        capabilities.asMap().forEach((name, value) -> {
+            if (!VOLATILE_CAPABILITIES.contains(name)) {
+                stable.put(name, canonical(value));
+            }
+        });
+        return stable.toString();
+    }
+
+    private static Object canonical(Object value) {
+        if (value instanceof Map) {
+            Map<String, Object> sorted = new TreeMap<>();
+            ((Map<?, ?>) value).forEach((k, v) -> {
+                if (!VOLATILE_CAPABILITIES.contains(String.valueOf(k))) {
+                    sorted.put(String.valueOf(k), canonical(v));
+                }
+            });
+            return sorted;
+        }
+        return value;
+    }
+}
@@ -0,0 +1,66 @@
+package com.mobileautomation.driver;
+
+import io.appium.java_client.AppiumDriver;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Thread-confined registry of Appium sessions. Every worker thread owns at most one session,
+ * bound to the {@link DeviceLease} it was created on. Unbinding hands the lease back to the caller, which
+ * releases it once the session has been pooled or quit.
+ */
+public class SessionRegistry {
+    private static final Logger logger = LogManager.getLogger(SessionRegistry.class);
+    private final ConcurrentHashMap<Long, Binding> bindings = new ConcurrentHashMap<>();
+
+    public static class Binding {
+        private final AppiumDriver driver;
+        private final DeviceLease lease;
+
+        Binding(AppiumDriver driver, DeviceLease lease) {
+            this.driver = driver;
+            this.lease = lease;
+        }
+
+        public AppiumDriver getDriver() {
+            return driver;
+        }
+
+        public DeviceLease getLease() {
+            return lease;
+        }
+    }
+
+    public void bind(AppiumDriver driver, DeviceLease lease) {
+        Binding previous = bindings.put(currentThreadId(), new Binding(driver, lease));
+        if (previous != null && previous.getDriver() != driver) {
+            logger.warn("Thread {} replaced its bound session without releasing it", Thread.currentThread().getName());
+        }
+    }
+
+    public Binding unbind() {
+        return bindings.remove(currentThreadId());
+    }
+
+    public AppiumDriver currentDriver() {
+        Binding binding = bindings.get(currentThreadId());
+        return binding == null ? null : binding.getDriver();
+    }
+
+    public DeviceLease currentLease() {
+        Binding binding = bindings.get(currentThreadId());
+        return binding == null ? null : binding.getLease();
+    }
+
+    public List<Binding> getActiveBindings() {
+        return new ArrayList<>(bindings.values());
+    }
+
+    private static long currentThreadId() {
+        return Thread.currentThread().getId();
+    }
+}
@@ -5,6 +5,10 @@ public class MobileAutomationException extends RuntimeException {
     private final String errorMessage;
     private final String suggestion;
 
+    public MobileAutomationException(String errorCode, String errorMessage, String suggestion) {
+        this(errorCode, errorMessage, suggestion, null);
+    }
+
     public MobileAutomationException(String errorCode, String errorMessage, String suggestion, Throwable cause) {
         super(errorMessage, cause);
         this.errorCode = errorCode;
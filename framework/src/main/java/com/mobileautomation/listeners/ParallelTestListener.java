@@ -1,8 +1,14 @@
 package com.mobileautomation.listeners;
 
+import com.mobileautomation.driver.DeviceLease;
+import com.mobileautomation.driver.DeviceLeaseManager;
+import com.mobileautomation.driver.DriverManager;
 import com.mobileautomation.utils.ParallelTestManager;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.openqa.selenium.NoSuchSessionException;
+import org.openqa.selenium.SessionNotCreatedException;
+import org.openqa.selenium.remote.UnreachableBrowserException;
 import org.testng.ITestContext;
 import org.testng.ITestListener;
 import org.testng.ITestResult;
@@ -39,7 +45,7 @@ public class ParallelTestListener implements ITestListener {
     @Override
     public void onTestStart(ITestResult result) {
         try {
-            String deviceId = result.getTestContext().getCurrentXmlTest().getParameter("deviceId");
+            String deviceId = resolveDeviceId(result);
             logger.info("Starting test {} on device {}", result.getName(), deviceId);
         } catch (Exception e) {
             logger.error("Failed to start test: {}", e.getMessage());
@@ -49,7 +55,7 @@ public class ParallelTestListener implements ITestListener {
     @Override
     public void onTestSuccess(ITestResult result) {
         try {
-            String deviceId = result.getTestContext().getCurrentXmlTest().getParameter("deviceId");
+            String deviceId = resolveDeviceId(result);
             logger.info("Test {} passed on device {}", result.getName(), deviceId);
         } catch (Exception e) {
             logger.error("Failed to process test success: {}", e.getMessage());
@@ -59,9 +65,12 @@ public class ParallelTestListener implements ITestListener {
     @Override
     public void onTestFailure(ITestResult result) {
         try {
-            String deviceId = result.getTestContext().getCurrentXmlTest().getParameter("deviceId");
+            String deviceId = resolveDeviceId(result);
             logger.error("Test {} failed on device {}: {}", 
                 result.getName(), deviceId, result.getThrowable().getMessage());
+            if (isInfrastructureFailure(result.getThrowable()) && deviceId != null) {
+                DeviceLeaseManager.getInstance().reportInfrastructureFailure(deviceId);
+            }
         } catch (Exception e) {
             logger.error("Failed to process test failure: {}", e.getMessage());
         }
@@ -70,7 +79,7 @@ public class ParallelTestListener implements ITestListener {
     @Override
     public void onTestSkipped(ITestResult result) {
         try {
-            String deviceId = result.getTestContext().getCurrentXmlTest().getParameter("deviceId");
+            String deviceId = resolveDeviceId(result);
             logger.warn("Test {} skipped on device {}", result.getName(), deviceId);
         } catch (Exception e) {
             logger.error("Failed to process test skip: {}", e.getMessage());
@@ -80,11 +89,32 @@ public class ParallelTestListener implements ITestListener {
     @Override
     public void onTestFailedButWithinSuccessPercentage(ITestResult result) {
         try {
-            String deviceId = result.getTestContext().getCurrentXmlTest().getParameter("deviceId");
+            String deviceId = resolveDeviceId(result);
             logger.warn("Test {} failed within success percentage on device {}", 
                 result.getName(), deviceId);
         } catch (Exception e) {
             logger.error("Failed to process test failure within success percentage: {}", e.getMessage());
         }
     }
-} 
\ No newline at end of file
+
+    private String resolveDeviceId(ITestResult result) {
+        DeviceLease lease = DriverManager.getInstance().getSessionRegistry().currentLease();
+        if (lease != null) {
+            return lease.getDeviceId();
+        }
+        return result.getTestContext().getCurrentXmlTest().getParameter("deviceId");
+    }
+
+    /**
+     * Failures caused by the device or the Appium session rather than by the app under test.
+     */
+    private boolean isInfrastructureFailure(Throwable throwable) {
+        for (Throwable cause = throwable; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SessionNotCreatedException || cause instanceof NoSuchSessionException
+                    || cause instanceof UnreachableBrowserException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
\ No newline at end of file
@@ -1,6 +1,7 @@
 package com.mobileautomation.listeners;
 
 import com.mobileautomation.driver.DriverManager;
+import com.mobileautomation.utils.ExecutorFactory;
 import com.mobileautomation.utils.ScreenRecorder;
 import io.appium.java_client.AppiumDriver;
 import org.apache.logging.log4j.LogManager;
@@ -10,24 +11,31 @@ import org.openqa.selenium.TakesScreenshot;
 import org.testng.ITestContext;
 import org.testng.ITestListener;
 import org.testng.ITestResult;
-import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 public class TestListener implements ITestListener {
     private static final Logger logger = LogManager.getLogger(TestListener.class);
-    private ScreenRecorder screenRecorder;
+    private final ThreadLocal<ScreenRecorder> screenRecorder = new ThreadLocal<>();
     private static final String SCREENSHOT_DIR = "test-output/screenshots";
     private static final String VIDEO_DIR = "test-output/videos";
+    // Screenshots are written off the test thread; the suite waits for pending writes in onFinish
+    private static final ExecutorService screenshotWriter = ExecutorFactory.newCachedThreadPool("screenshot-writer", true);
+    private final Queue<Future<?>> pendingWrites = new ConcurrentLinkedQueue<>();
 
     @Override
     public void onTestStart(ITestResult result) {
         logger.info("Starting test: {}", result.getName());
-        startScreenRecording(result.getName());
+        startScreenRecording(artifactName(result));
     }
 
     @Override
@@ -39,7 +47,7 @@ public class TestListener implements ITestListener {
     @Override
     public void onTestFailure(ITestResult result) {
         logger.error("Test failed: {}", result.getName());
-        captureScreenshot(result.getName());
+        captureScreenshot(artifactName(result));
         stopScreenRecording();
         logTestFailure(result);
     }
@@ -59,6 +67,21 @@ public class TestListener implements ITestListener {
     @Override
     public void onFinish(ITestContext context) {
         logger.info("Test suite finished: {}", context.getName());
+        awaitPendingWrites();
+    }
+
+    /**
+     * Base name of a test's screenshots and videos: the method name, plus the device when the test runs
+     * on a specific one, so runs of the same test on several devices of one host stay apart.
+     */
+    public static String artifactName(String testName, String deviceId) {
+        return deviceId == null || deviceId.isBlank()
+            ? testName
+            : testName + "_" + deviceId.replaceAll("[^A-Za-z0-9.-]", "_");
+    }
+
+    private static String artifactName(ITestResult result) {
+        return artifactName(result.getName(), result.getTestContext().getCurrentXmlTest().getParameter("deviceId"));
     }
 
     private void createDirectories() {
@@ -72,21 +95,44 @@ public class TestListener implements ITestListener {
 
     private void captureScreenshot(String testName) {
         try {
-            AppiumDriver driver = DriverManager.getInstance().getDriver();
-            File screenshot = ((TakesScreenshot) driver).getScreenshotAs(OutputType.FILE);
+            DriverManager driverManager = DriverManager.getInstance();
+            if (!driverManager.hasDriver()) {
+                logger.warn("No session bound to thread {}, skipping screenshot", Thread.currentThread().getName());
+                return;
+            }
+            AppiumDriver driver = driverManager.getDriver();
+            byte[] screenshot = ((TakesScreenshot) driver).getScreenshotAs(OutputType.BYTES);
             String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss"));
             String fileName = String.format("%s/%s_%s.png", SCREENSHOT_DIR, testName, timestamp);
-            Files.copy(screenshot.toPath(), Paths.get(fileName));
-            logger.info("Screenshot saved: {}", fileName);
-        } catch (IOException e) {
+            pendingWrites.add(screenshotWriter.submit(() -> {
+                try {
+                    Files.write(Paths.get(fileName), screenshot);
+                    logger.info("Screenshot saved: {}", fileName);
+                } catch (IOException e) {
+                    logger.error("Failed to write screenshot {}", fileName, e);
+                }
+            }));
+        } catch (Exception e) {
             logger.error("Failed to capture screenshot", e);
         }
     }
 
+    private void awaitPendingWrites() {
+        Future<?> write;
+        while ((write = pendingWrites.poll()) != null) {
+            try {
+                write.get(30, TimeUnit.SECONDS);
+            } catch (Exception e) {
+                logger.warn("Screenshot write did not complete: {}", e.getMessage());
+            }
+        }
+    }
+
     private void startScreenRecording(String testName) {
         try {
-            screenRecorder = new ScreenRecorder(VIDEO_DIR, testName);
-            screenRecorder.startRecording();
+            ScreenRecorder recorder = new ScreenRecorder(VIDEO_DIR, testName);
+            recorder.startRecording();
+            screenRecorder.set(recorder);
             logger.info("Screen recording started for test: {}", testName);
         } catch (Exception e) {
             logger.error("Failed to start screen recording", e);
@@ -95,8 +141,10 @@ public class TestListener implements ITestListener {
 
     private void stopScreenRecording() {
         try {
-            if (screenRecorder != null) {
-                screenRecorder.stopRecording();
+            ScreenRecorder recorder = screenRecorder.get();
+            if (recorder != null) {
+                screenRecorder.remove();
+                recorder.stopRecording();
                 logger.info("Screen recording stopped");
             }
         } catch (Exception e) {
@@ -0,0 +1,68 @@
+package com.mobileautomation.metrics;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+public class MetricsRegistry {
+    private static final Logger logger = LogManager.getLogger(MetricsRegistry.class);
+    private static final MetricsRegistry instance = new MetricsRegistry();
+    private final ConcurrentHashMap<String, LongAdder> counters = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Timer> timers = new ConcurrentHashMap<>();
+
+    private MetricsRegistry() {}
+
+    public static MetricsRegistry getInstance() {
+        return instance;
+    }
+
+    public void increment(String name) {
+        increment(name, 1);
+    }
+
+    public void increment(String name, long delta) {
+        counters.computeIfAbsent(name, key -> new LongAdder()).add(delta);
+    }
+
+    public long getCount(String name) {
+        LongAdder counter = counters.get(name);
+        return counter == null ? 0 : counter.sum();
+    }
+
+    public Timer timer(String name) {
+        return timers.computeIfAbsent(name, Timer::new);
+    }
+
+    public Map<String, Long> getCounters() {
+        Map<String, Long> snapshot = new TreeMap<>();
+        counters.forEach((name, counter) -> snapshot.put(name, counter.sum()));
+        return snapshot;
+    }
+
+    public Map<String, Timer> getTimers() {
+        return new TreeMap<>(timers);
+    }
+
+    public String summary() {
+        StringBuilder summary = new StringBuilder();
+        getCounters().forEach((name, value) -> summary.append(name).append(": ").append(value).append("\n"));
+        getTimers().values().forEach(timer -> summary.append(timer).append("\n"));
+        return summary.toString();
+    }
+
+    public void logSummary() {
+        if (counters.isEmpty() && timers.isEmpty()) {
+            return;
+        }
+        logger.info("Framework metrics:\n{}", summary());
+    }
+
+    public void reset() {
+        counters.clear();
+        timers.clear();
+    }
+}
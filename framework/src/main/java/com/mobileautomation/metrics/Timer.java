@@ -0,0 +1,112 @@
+package com.mobileautomation.metrics;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency recorder with a power-of-two millisecond histogram.
+ * Percentiles are approximate and reported as the upper bound of the matching bucket.
+ */
+public class Timer {
+    // Bucket i holds samples <= 2^i ms; the last bucket catches everything above ~2 minutes
+    private static final int BUCKET_COUNT = 19;
+
+    private final String name;
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+    private final LongAccumulator minNanos = new LongAccumulator(Math::min, Long.MAX_VALUE);
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+
+    public Timer(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        count.increment();
+        totalNanos.add(value);
+        maxNanos.accumulate(value);
+        minNanos.accumulate(value);
+        buckets.incrementAndGet(bucketOf(value));
+    }
+
+    public void record(Duration duration) {
+        record(duration.toNanos());
+    }
+
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public Duration getTotal() {
+        return Duration.ofNanos(totalNanos.sum());
+    }
+
+    public Duration getMean() {
+        long samples = count.sum();
+        return samples == 0 ? Duration.ZERO : Duration.ofNanos(totalNanos.sum() / samples);
+    }
+
+    public Duration getMax() {
+        return Duration.ofNanos(maxNanos.get());
+    }
+
+    public Duration getMin() {
+        long min = minNanos.get();
+        return min == Long.MAX_VALUE ? Duration.ZERO : Duration.ofNanos(min);
+    }
+
+    public Duration getPercentile(double percentile) {
+        long samples = count.sum();
+        if (samples == 0) {
+            return Duration.ZERO;
+        }
+        long rank = (long) Math.ceil(samples * Math.min(1.0, Math.max(0.0, percentile)));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += buckets.get(i);
+            if (seen >= rank) {
+                return i == BUCKET_COUNT - 1 ? getMax() : Duration.ofMillis(1L << i);
+            }
+        }
+        return getMax();
+    }
+
+    /**
+     * Returns the bucket counts, where index i covers samples up to 2^i milliseconds.
+     */
+    public long[] getHistogram() {
+        long[] snapshot = new long[BUCKET_COUNT];
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            snapshot[i] = buckets.get(i);
+        }
+        return snapshot;
+    }
+
+    private static int bucketOf(long nanos) {
+        long millis = (nanos + 999_999) / 1_000_000;
+        if (millis <= 1) {
+            return 0;
+        }
+        int bucket = 64 - Long.numberOfLeadingZeros(millis - 1);
+        return Math.min(bucket, BUCKET_COUNT - 1);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: count=%d mean=%dms p50<=%dms p95<=%dms max=%dms",
+                name, getCount(), getMean().toMillis(), getPercentile(0.50).toMillis(),
+                getPercentile(0.95).toMillis(), getMax().toMillis());
+    }
+}
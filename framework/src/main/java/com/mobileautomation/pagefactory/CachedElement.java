@@ -0,0 +1,206 @@
+package com.mobileautomation.pagefactory;
+
+import com.mobileautomation.snapshot.ScreenState;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openqa.selenium.By;
+import org.openqa.selenium.Dimension;
+import org.openqa.selenium.OutputType;
+import org.openqa.selenium.Point;
+import org.openqa.selenium.Rectangle;
+import org.openqa.selenium.SearchContext;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.WrapsDriver;
+import org.openqa.selenium.WrapsElement;
+import org.openqa.selenium.interactions.Coordinates;
+import org.openqa.selenium.interactions.Locatable;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Element handle behind a page object field: every call resolves the element through the session's
+ * {@link ElementCache}, is retried once against a freshly found element if it went stale, and clicks
+ * and typing mark the screen as changed. Handles are shared by every page built on the same session,
+ * see {@link ElementCache#element}.
+ */
+final class CachedElement implements WebElement, WrapsElement, WrapsDriver, Locatable {
+    private static final Logger logger = LogManager.getLogger(CachedElement.class);
+
+    private final ElementCache cache;
+    private final By locator;
+    private final String page;
+
+    CachedElement(ElementCache cache, By locator, String page) {
+        this.cache = cache;
+        this.locator = locator;
+        this.page = page;
+    }
+
+    @Override
+    public void click() {
+        mutate(element -> {
+            element.click();
+            return null;
+        });
+    }
+
+    @Override
+    public void submit() {
+        mutate(element -> {
+            element.submit();
+            return null;
+        });
+    }
+
+    @Override
+    public void sendKeys(CharSequence... keysToSend) {
+        mutate(element -> {
+            element.sendKeys(keysToSend);
+            return null;
+        });
+    }
+
+    @Override
+    public void clear() {
+        mutate(element -> {
+            element.clear();
+            return null;
+        });
+    }
+
+    @Override
+    public String getTagName() {
+        return call(WebElement::getTagName);
+    }
+
+    @Override
+    public String getDomProperty(String name) {
+        return call(element -> element.getDomProperty(name));
+    }
+
+    @Override
+    public String getDomAttribute(String name) {
+        return call(element -> element.getDomAttribute(name));
+    }
+
+    @Override
+    public String getAttribute(String name) {
+        return call(element -> element.getAttribute(name));
+    }
+
+    @Override
+    public String getAriaRole() {
+        return call(WebElement::getAriaRole);
+    }
+
+    @Override
+    public String getAccessibleName() {
+        return call(WebElement::getAccessibleName);
+    }
+
+    @Override
+    public boolean isSelected() {
+        return call(WebElement::isSelected);
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return call(WebElement::isEnabled);
+    }
+
+    @Override
+    public String getText() {
+        return call(WebElement::getText);
+    }
+
+    @Override
+    public List<WebElement> findElements(By by) {
+        return call(element -> element.findElements(by));
+    }
+
+    @Override
+    public WebElement findElement(By by) {
+        return call(element -> element.findElement(by));
+    }
+
+    @Override
+    public SearchContext getShadowRoot() {
+        return call(WebElement::getShadowRoot);
+    }
+
+    @Override
+    public boolean isDisplayed() {
+        return call(WebElement::isDisplayed);
+    }
+
+    @Override
+    public Point getLocation() {
+        return call(WebElement::getLocation);
+    }
+
+    @Override
+    public Dimension getSize() {
+        return call(WebElement::getSize);
+    }
+
+    @Override
+    public Rectangle getRect() {
+        return call(WebElement::getRect);
+    }
+
+    @Override
+    public String getCssValue(String propertyName) {
+        return call(element -> element.getCssValue(propertyName));
+    }
+
+    @Override
+    public <X> X getScreenshotAs(OutputType<X> target) {
+        return call(element -> element.getScreenshotAs(target));
+    }
+
+    @Override
+    public Coordinates getCoordinates() {
+        return call(element -> ((Locatable) element).getCoordinates());
+    }
+
+    @Override
+    public WebElement getWrappedElement() {
+        return cache.resolve(locator, page);
+    }
+
+    @Override
+    public WebDriver getWrappedDriver() {
+        return cache.getDriver();
+    }
+
+    By getLocator() {
+        return locator;
+    }
+
+    @Override
+    public String toString() {
+        return "Cached element " + locator + " on " + page;
+    }
+
+    private <T> T mutate(Function<WebElement, T> action) {
+        try {
+            return call(action);
+        } finally {
+            ScreenState.invalidate(cache.getDriver());
+        }
+    }
+
+    private <T> T call(Function<WebElement, T> action) {
+        WebElement element = cache.resolve(locator, page);
+        try {
+            return action.apply(element);
+        } catch (StaleElementReferenceException e) {
+            logger.debug("Cached element {} on {} went stale, finding it again", locator, page);
+            cache.evict(locator, page);
+            return action.apply(cache.resolve(locator, page));
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.mobileautomation.pagefactory;
+
+import com.mobileautomation.snapshot.FieldLocators;
+import io.appium.java_client.AppiumDriver;
+import io.appium.java_client.ios.IOSDriver;
+import io.appium.java_client.pagefactory.AppiumFieldDecorator;
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.support.pagefactory.FieldDecorator;
+
+import java.lang.reflect.Field;
+import java.time.Duration;
+
+/**
+ * Page factory decorator that puts the session's {@link ElementCache} in front of single
+ * {@code WebElement} fields, so a wait followed by a click costs one find instead of two.
+ * Lists, and fields whose annotations {@link FieldLocators} cannot map, keep the plain
+ * {@link AppiumFieldDecorator} proxies.
+ */
+public class CachingFieldDecorator implements FieldDecorator {
+    private final AppiumDriver driver;
+    private final FieldDecorator delegate;
+    private final String page;
+    private final boolean ios;
+
+    public CachingFieldDecorator(AppiumDriver driver, Object page) {
+        this.driver = driver;
+        // No lookup timeout in the proxies, the wait engine decides how long to poll
+        this.delegate = new AppiumFieldDecorator(driver, Duration.ZERO);
+        this.page = page.getClass().getSimpleName();
+        this.ios = driver instanceof IOSDriver;
+    }
+
+    @Override
+    public Object decorate(ClassLoader loader, Field field) {
+        if (field.getType() != WebElement.class || !ElementCache.isEnabled()) {
+            return delegate.decorate(loader, field);
+        }
+        By locator = FieldLocators.locatorOf(field, ios);
+        if (locator == null) {
+            return delegate.decorate(loader, field);
+        }
+        return ElementCache.of(driver).element(locator, page);
+    }
+}
@@ -0,0 +1,148 @@
+package com.mobileautomation.pagefactory;
+
+import com.mobileautomation.config.ConfigManager;
+import com.mobileautomation.metrics.MetricsRegistry;
+import com.mobileautomation.snapshot.ScreenState;
+import io.appium.java_client.AppiumDriver;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebElement;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-session cache of resolved elements, keyed by locator. An entry is reused while the screen
+ * generation it was resolved in is current (see {@link ScreenState}) and it is younger than
+ * {@code element.cache.ttl.ms}; stale-element errors evict it. Hits and misses are counted per page
+ * object under {@code element.cache.hits.<Page>} / {@code element.cache.misses.<Page>}.
+ * <p>
+ * The element handles given to page objects are created once per session, page and locator, so
+ * building the same page again does not allocate new ones.
+ */
+public final class ElementCache {
+    private static final Logger logger = LogManager.getLogger(ElementCache.class);
+    // Entries reference their driver, so sessions are removed explicitly through discard() when they quit
+    private static final Map<AppiumDriver, ElementCache> caches = Collections.synchronizedMap(new WeakHashMap<>());
+    private static final Set<String> pages = ConcurrentHashMap.newKeySet();
+    private static final boolean enabled = ConfigManager.getInstance().getBooleanProperty("element.cache.enabled", true);
+    private static final long ttlNanos = ConfigManager.getInstance().getIntProperty("element.cache.ttl.ms", 5000) * 1_000_000L;
+
+    private final AppiumDriver driver;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<String, WebElement> handles = new ConcurrentHashMap<>();
+    // Keyed by the identity of a generated binder's locator table, so binding a page again is a single lookup
+    private final Map<By[], WebElement[]> tables = new ConcurrentHashMap<>();
+
+    private ElementCache(AppiumDriver driver) {
+        this.driver = driver;
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static ElementCache of(AppiumDriver driver) {
+        return caches.computeIfAbsent(driver, ElementCache::new);
+    }
+
+    /**
+     * Drops every cached element of the session. Called when the session is quit.
+     */
+    public static void discard(AppiumDriver driver) {
+        caches.remove(driver);
+    }
+
+    public static double getHitRate(String page) {
+        MetricsRegistry metrics = MetricsRegistry.getInstance();
+        long hits = metrics.getCount("element.cache.hits." + page);
+        long misses = metrics.getCount("element.cache.misses." + page);
+        return hits + misses == 0 ? 0 : (double) hits / (hits + misses);
+    }
+
+    public static void logStats() {
+        MetricsRegistry metrics = MetricsRegistry.getInstance();
+        for (String page : pages) {
+            long hits = metrics.getCount("element.cache.hits." + page);
+            long misses = metrics.getCount("element.cache.misses." + page);
+            logger.info("Element cache {}: hits={}, misses={}, stale={}, hit rate={}%", page, hits, misses,
+                metrics.getCount("element.cache.stale." + page), Math.round(getHitRate(page) * 100));
+        }
+    }
+
+    /**
+     * Returns the session's handle for the locator on the given page, creating it on first use.
+     */
+    public WebElement element(By locator, String page) {
+        return handles.computeIfAbsent(page + '|' + locator, key -> new CachedElement(this, locator, page));
+    }
+
+    /**
+     * Returns the handles for a whole locator table, in table order. Meant for generated binders,
+     * which pass the same array on every call.
+     */
+    public WebElement[] elements(By[] locators, String page) {
+        return tables.computeIfAbsent(locators, table -> {
+            WebElement[] elements = new WebElement[table.length];
+            for (int i = 0; i < table.length; i++) {
+                elements[i] = element(table[i], page);
+            }
+            return elements;
+        });
+    }
+
+    /**
+     * Returns the locator behind a handle from this cache, or null for any other element.
+     */
+    public static By locatorOf(WebElement element) {
+        return element instanceof CachedElement ? ((CachedElement) element).getLocator() : null;
+    }
+
+    AppiumDriver getDriver() {
+        return driver;
+    }
+
+    WebElement resolve(By locator, String page) {
+        if (!enabled) {
+            return driver.findElement(locator);
+        }
+        long generation = ScreenState.generation(driver);
+        String key = locator.toString();
+        Entry entry = entries.get(key);
+        if (entry != null && entry.generation == generation && System.nanoTime() - entry.resolvedAtNanos < ttlNanos) {
+            count("element.cache.hits.", page);
+            return entry.element;
+        }
+        count("element.cache.misses.", page);
+        WebElement element = driver.findElement(locator);
+        entries.put(key, new Entry(element, generation));
+        return element;
+    }
+
+    void evict(By locator, String page) {
+        if (entries.remove(locator.toString()) != null) {
+            count("element.cache.stale.", page);
+        }
+    }
+
+    private static void count(String prefix, String page) {
+        pages.add(page);
+        MetricsRegistry.getInstance().increment(prefix + page);
+    }
+
+    private static final class Entry {
+        private final WebElement element;
+        private final long generation;
+        private final long resolvedAtNanos;
+
+        Entry(WebElement element, long generation) {
+            this.element = element;
+            this.generation = generation;
+            this.resolvedAtNanos = System.nanoTime();
+        }
+    }
+}
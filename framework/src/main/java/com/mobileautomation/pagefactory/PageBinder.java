@@ -0,0 +1,11 @@
+package com.mobileautomation.pagefactory;
+
+/**
+ * Assigns the element fields of a page object without reflection. Implementations are generated at
+ * build time by the {@code page-processor} module as {@code <Page>_Binder}, next to the page, from
+ * its {@code @AndroidFindBy} / {@code @iOSXCUITFindBy} annotations.
+ */
+public interface PageBinder<T> {
+
+    void bind(T page, ElementCache elements, boolean ios);
+}
@@ -0,0 +1,54 @@
+package com.mobileautomation.pagefactory;
+
+import com.mobileautomation.config.ConfigManager;
+import io.appium.java_client.AppiumDriver;
+import io.appium.java_client.ios.IOSDriver;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Looks up the generated {@link PageBinder} of a page class once and reuses it for every instance.
+ * Pages without one (the processor skips pages it cannot fully bind) keep using {@code PageFactory}.
+ */
+public final class PageBinders {
+    private static final Logger logger = LogManager.getLogger(PageBinders.class);
+    private static final boolean enabled = ConfigManager.getInstance().getBooleanProperty("page.binders.enabled", true);
+    private static final ClassValue<PageBinder<Object>> binders = new ClassValue<>() {
+        @Override
+        protected PageBinder<Object> computeValue(Class<?> type) {
+            return load(type);
+        }
+    };
+
+    private PageBinders() {
+    }
+
+    /**
+     * Binds the page's element fields and returns true, or returns false if the page has no generated binder.
+     */
+    public static boolean bind(Object page, AppiumDriver driver) {
+        if (!enabled) {
+            return false;
+        }
+        PageBinder<Object> binder = binders.get(page.getClass());
+        if (binder == null) {
+            return false;
+        }
+        binder.bind(page, ElementCache.of(driver), driver instanceof IOSDriver);
+        return true;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static PageBinder<Object> load(Class<?> type) {
+        try {
+            Class<?> binder = Class.forName(type.getName() + "_Binder", true, type.getClassLoader());
+            return (PageBinder<Object>) binder.getDeclaredConstructor().newInstance();
+        } catch (ClassNotFoundException e) {
+            logger.debug("No generated binder for {}, using PageFactory", type.getSimpleName());
+            return null;
+        } catch (ReflectiveOperationException | ClassCastException e) {
+            logger.warn("Unusable generated binder for {}, using PageFactory: {}", type.getSimpleName(), e.getMessage());
+            return null;
+        }
+    }
+}
@@ -1,40 +1,43 @@
 package com.mobileautomation.pages;
 
 import com.mobileautomation.driver.DriverManager;
+import com.mobileautomation.pagefactory.CachingFieldDecorator;
+import com.mobileautomation.pagefactory.PageBinders;
+import com.mobileautomation.snapshot.ScreenState;
+import com.mobileautomation.utils.TextInputEngine;
+import com.mobileautomation.utils.WaitEngine;
+import com.mobileautomation.utils.WaitPolicy;
 import io.appium.java_client.AppiumDriver;
-import io.appium.java_client.pagefactory.AppiumFieldDecorator;
 import org.openqa.selenium.*;
 import org.openqa.selenium.support.PageFactory;
-import org.openqa.selenium.support.ui.ExpectedConditions;
-import org.openqa.selenium.support.ui.WebDriverWait;
 import java.time.Duration;
 import java.util.List;
 
 public abstract class BasePage {
     protected final AppiumDriver driver;
-    protected final WebDriverWait wait;
+    protected final WaitEngine waitEngine;
+    protected final WaitPolicy waitPolicy;
 
     protected BasePage() {
         this.driver = DriverManager.getInstance().getDriver();
-        this.wait = new WebDriverWait(driver, Duration.ofSeconds(10));
-        PageFactory.initElements(new AppiumFieldDecorator(driver), this);
+        this.waitEngine = WaitEngine.getInstance();
+        this.waitPolicy = WaitPolicy.defaultPolicy();
+        // Generated binders assign cached element handles directly; pages without one go through PageFactory
+        if (!PageBinders.bind(this, driver)) {
+            PageFactory.initElements(new CachingFieldDecorator(driver, this), this);
+        }
     }
 
     protected WebElement findElementWithRetry(By locator, int maxAttempts) {
         int attempts = 0;
         while (attempts < maxAttempts) {
             try {
-                return wait.until(ExpectedConditions.presenceOfElementLocated(locator));
+                return waitEngine.waitForElement(driver, locator, waitPolicy);
             } catch (Exception e) {
                 attempts++;
                 if (attempts == maxAttempts) {
                     throw new ElementNotInteractableException("Element not found after " + maxAttempts + " attempts");
                 }
-                try {
-                    Thread.sleep(1000);
-                } catch (InterruptedException ie) {
-                    Thread.currentThread().interrupt();
-                }
             }
         }
         return null;
@@ -44,17 +47,12 @@ public abstract class BasePage {
         int attempts = 0;
         while (attempts < maxAttempts) {
             try {
-                return wait.until(ExpectedConditions.presenceOfAllElementsLocatedBy(locator));
+                return waitEngine.waitForElements(driver, locator, waitPolicy);
             } catch (Exception e) {
                 attempts++;
                 if (attempts == maxAttempts) {
                     throw new ElementNotInteractableException("Elements not found after " + maxAttempts + " attempts");
                 }
-                try {
-                    Thread.sleep(1000);
-                } catch (InterruptedException ie) {
-                    Thread.currentThread().interrupt();
-                }
             }
         }
         return null;
@@ -62,13 +60,16 @@ public abstract class BasePage {
 
     protected void clickWithRetry(By locator, int maxAttempts) {
         WebElement element = findElementWithRetry(locator, maxAttempts);
-        wait.until(ExpectedConditions.elementToBeClickable(element)).click();
+        try {
+            waitEngine.waitForClickable(driver, element, waitPolicy).click();
+        } finally {
+            ScreenState.invalidate(driver);
+        }
     }
 
     protected void sendKeysWithRetry(By locator, String text, int maxAttempts) {
         WebElement element = findElementWithRetry(locator, maxAttempts);
-        element.clear();
-        element.sendKeys(text);
+        TextInputEngine.getInstance().enter(driver, element, text);
     }
 
     protected String getTextWithRetry(By locator, int maxAttempts) {
@@ -86,7 +87,6 @@ public abstract class BasePage {
     }
 
     protected void waitForElementToDisappear(By locator, int timeoutInSeconds) {
-        WebDriverWait wait = new WebDriverWait(driver, Duration.ofSeconds(timeoutInSeconds));
-        wait.until(ExpectedConditions.invisibilityOfElementLocated(locator));
+        waitEngine.waitForAbsent(driver, locator, waitPolicy.withTimeout(Duration.ofSeconds(timeoutInSeconds)));
     }
 } 
\ No newline at end of file
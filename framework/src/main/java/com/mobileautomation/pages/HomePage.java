@@ -16,43 +16,43 @@ public class HomePage extends BasePage {
 
     @AndroidFindBy(id = "com.example.app:id/welcomeMessage")
     @iOSXCUITFindBy(id = "welcomeMessage")
-    private WebElement welcomeMessage;
+    WebElement welcomeMessage;
 
     @AndroidFindBy(id = "com.example.app:id/logoutButton")
     @iOSXCUITFindBy(id = "logoutButton")
-    private WebElement logoutButton;
+    WebElement logoutButton;
 
     @AndroidFindBy(id = "com.example.app:id/profileButton")
     @iOSXCUITFindBy(id = "profileButton")
-    private WebElement profileButton;
+    WebElement profileButton;
 
     @AndroidFindBy(id = "com.example.app:id/settingsButton")
     @iOSXCUITFindBy(id = "settingsButton")
-    private WebElement settingsButton;
+    WebElement settingsButton;
 
     @AndroidFindBy(id = "com.example.app:id/notificationsButton")
     @iOSXCUITFindBy(id = "notificationsButton")
-    private WebElement notificationsButton;
+    WebElement notificationsButton;
 
     @AndroidFindBy(id = "com.example.app:id/searchBar")
     @iOSXCUITFindBy(id = "searchBar")
-    private WebElement searchBar;
+    WebElement searchBar;
 
     @AndroidFindBy(id = "com.example.app:id/menuButton")
     @iOSXCUITFindBy(id = "menuButton")
-    private WebElement menuButton;
+    WebElement menuButton;
 
     @AndroidFindBy(id = "com.example.app:id/refreshButton")
     @iOSXCUITFindBy(id = "refreshButton")
-    private WebElement refreshButton;
+    WebElement refreshButton;
 
     @AndroidFindBy(id = "com.example.app:id/helpButton")
     @iOSXCUITFindBy(id = "helpButton")
-    private WebElement helpButton;
+    WebElement helpButton;
 
     @AndroidFindBy(id = "com.example.app:id/feedbackButton")
     @iOSXCUITFindBy(id = "feedbackButton")
-    private WebElement feedbackButton;
+    WebElement feedbackButton;
 
     public HomePage(AppiumDriver driver) {
         super(driver);
@@ -73,7 +73,7 @@ public class HomePage extends BasePage {
         try {
             logger.debug("Clicking logout button");
             waitForElementToBeClickable(logoutButton);
-            logoutButton.click();
+            tap(logoutButton);
         } catch (Exception e) {
             logger.error("Failed to click logout button: {}", e.getMessage());
             throw e;
@@ -84,7 +84,7 @@ public class HomePage extends BasePage {
         try {
             logger.debug("Clicking profile button");
             waitForElementToBeClickable(profileButton);
-            profileButton.click();
+            tap(profileButton);
         } catch (Exception e) {
             logger.error("Failed to click profile button: {}", e.getMessage());
             throw e;
@@ -95,7 +95,7 @@ public class HomePage extends BasePage {
         try {
             logger.debug("Clicking settings button");
             waitForElementToBeClickable(settingsButton);
-            settingsButton.click();
+            tap(settingsButton);
         } catch (Exception e) {
             logger.error("Failed to click settings button: {}", e.getMessage());
             throw e;
@@ -106,7 +106,7 @@ public class HomePage extends BasePage {
         try {
             logger.debug("Clicking notifications button");
             waitForElementToBeClickable(notificationsButton);
-            notificationsButton.click();
+            tap(notificationsButton);
         } catch (Exception e) {
             logger.error("Failed to click notifications button: {}", e.getMessage());
             throw e;
@@ -117,8 +117,7 @@ public class HomePage extends BasePage {
         try {
             logger.debug("Entering search text: {}", text);
             waitForElement(searchBar);
-            searchBar.clear();
-            searchBar.sendKeys(text);
+            type(searchBar, text);
         } catch (Exception e) {
             logger.error("Failed to enter search text: {}", e.getMessage());
             throw e;
@@ -129,7 +128,7 @@ public class HomePage extends BasePage {
         try {
             logger.debug("Clicking menu button");
             waitForElementToBeClickable(menuButton);
-            menuButton.click();
+            tap(menuButton);
         } catch (Exception e) {
             logger.error("Failed to click menu button: {}", e.getMessage());
             throw e;
@@ -140,7 +139,7 @@ public class HomePage extends BasePage {
         try {
             logger.debug("Clicking refresh button");
             waitForElementToBeClickable(refreshButton);
-            refreshButton.click();
+            tap(refreshButton);
         } catch (Exception e) {
             logger.error("Failed to click refresh button: {}", e.getMessage());
             throw e;
@@ -151,7 +150,7 @@ public class HomePage extends BasePage {
         try {
             logger.debug("Clicking help button");
             waitForElementToBeClickable(helpButton);
-            helpButton.click();
+            tap(helpButton);
         } catch (Exception e) {
             logger.error("Failed to click help button: {}", e.getMessage());
             throw e;
@@ -162,7 +161,7 @@ public class HomePage extends BasePage {
         try {
             logger.debug("Clicking feedback button");
             waitForElementToBeClickable(feedbackButton);
-            feedbackButton.click();
+            tap(feedbackButton);
         } catch (Exception e) {
             logger.error("Failed to click feedback button: {}", e.getMessage());
             throw e;
@@ -171,16 +170,18 @@ public class HomePage extends BasePage {
 
     public void verifyHomePageElements() {
         logger.debug("Verifying home page elements");
-        AssertionUtils.assertElementVisible(driver, welcomeMessage, "Welcome message should be visible");
-        AssertionUtils.assertElementVisible(driver, logoutButton, "Logout button should be visible");
-        AssertionUtils.assertElementVisible(driver, profileButton, "Profile button should be visible");
-        AssertionUtils.assertElementVisible(driver, settingsButton, "Settings button should be visible");
-        AssertionUtils.assertElementVisible(driver, notificationsButton, "Notifications button should be visible");
-        AssertionUtils.assertElementVisible(driver, searchBar, "Search bar should be visible");
-        AssertionUtils.assertElementVisible(driver, menuButton, "Menu button should be visible");
-        AssertionUtils.assertElementVisible(driver, refreshButton, "Refresh button should be visible");
-        AssertionUtils.assertElementVisible(driver, helpButton, "Help button should be visible");
-        AssertionUtils.assertElementVisible(driver, feedbackButton, "Feedback button should be visible");
+        AssertionUtils.batch(driver)
+            .visible(locatorOf(welcomeMessage), "Welcome message should be visible")
+            .visible(locatorOf(logoutButton), "Logout button should be visible")
+            .visible(locatorOf(profileButton), "Profile button should be visible")
+            .visible(locatorOf(settingsButton), "Settings button should be visible")
+            .visible(locatorOf(notificationsButton), "Notifications button should be visible")
+            .visible(locatorOf(searchBar), "Search bar should be visible")
+            .visible(locatorOf(menuButton), "Menu button should be visible")
+            .visible(locatorOf(refreshButton), "Refresh button should be visible")
+            .visible(locatorOf(helpButton), "Help button should be visible")
+            .visible(locatorOf(feedbackButton), "Feedback button should be visible")
+            .verify();
         AssertionUtils.assertAll();
     }
 
@@ -17,51 +17,51 @@ public class LoginPage extends BasePage {
 
     @AndroidFindBy(id = "com.example.app:id/username")
     @iOSXCUITFindBy(accessibility = "username")
-    private WebElement usernameField;
+    WebElement usernameField;
 
     @AndroidFindBy(id = "com.example.app:id/password")
     @iOSXCUITFindBy(accessibility = "password")
-    private WebElement passwordField;
+    WebElement passwordField;
 
     @AndroidFindBy(id = "com.example.app:id/loginButton")
     @iOSXCUITFindBy(accessibility = "loginButton")
-    private WebElement loginButton;
+    WebElement loginButton;
 
     @AndroidFindBy(id = "com.example.app:id/forgotPassword")
     @iOSXCUITFindBy(accessibility = "forgotPassword")
-    private WebElement forgotPasswordLink;
+    WebElement forgotPasswordLink;
 
     @AndroidFindBy(id = "com.example.app:id/errorMessage")
     @iOSXCUITFindBy(accessibility = "errorMessage")
-    private WebElement errorMessage;
+    WebElement errorMessage;
 
     @AndroidFindBy(id = "com.example.app:id/rememberMe")
     @iOSXCUITFindBy(accessibility = "rememberMe")
-    private WebElement rememberMeCheckbox;
+    WebElement rememberMeCheckbox;
 
     @AndroidFindBy(id = "com.example.app:id/termsAndConditions")
     @iOSXCUITFindBy(accessibility = "termsAndConditions")
-    private WebElement termsAndConditionsLink;
+    WebElement termsAndConditionsLink;
 
     @AndroidFindBy(id = "com.example.app:id/privacyPolicy")
     @iOSXCUITFindBy(accessibility = "privacyPolicy")
-    private WebElement privacyPolicyLink;
+    WebElement privacyPolicyLink;
 
     @AndroidFindBy(id = "com.example.app:id/socialLogin")
     @iOSXCUITFindBy(accessibility = "socialLogin")
-    private WebElement socialLoginButton;
+    WebElement socialLoginButton;
 
     @AndroidFindBy(id = "com.example.app:id/registerLink")
     @iOSXCUITFindBy(accessibility = "registerLink")
-    private WebElement registerLink;
+    WebElement registerLink;
 
     @AndroidFindBy(id = "com.example.app:id/helpLink")
     @iOSXCUITFindBy(accessibility = "helpLink")
-    private WebElement helpLink;
+    WebElement helpLink;
 
     @AndroidFindBy(id = "com.example.app:id/contactSupport")
     @iOSXCUITFindBy(accessibility = "contactSupport")
-    private WebElement contactSupportLink;
+    WebElement contactSupportLink;
 
     public LoginPage(AppiumDriver<WebElement> driver) {
         super(driver);
@@ -71,8 +71,7 @@ public class LoginPage extends BasePage {
         try {
             logger.debug("Entering username: {}", username);
             waitForElementToBeVisible(usernameField);
-            usernameField.clear();
-            usernameField.sendKeys(username);
+            type(usernameField, username);
         } catch (Exception e) {
             logger.error("Failed to enter username: {}", e.getMessage());
             throw e;
@@ -83,8 +82,7 @@ public class LoginPage extends BasePage {
         try {
             logger.debug("Entering password");
             waitForElementToBeVisible(passwordField);
-            passwordField.clear();
-            passwordField.sendKeys(password);
+            type(passwordField, password);
         } catch (Exception e) {
             logger.error("Failed to enter password: {}", e.getMessage());
             throw e;
@@ -95,7 +93,7 @@ public class LoginPage extends BasePage {
         try {
             logger.debug("Clicking login button");
             waitForElementToBeClickable(loginButton);
-            loginButton.click();
+            tap(loginButton);
         } catch (Exception e) {
             logger.error("Failed to click login button: {}", e.getMessage());
             throw e;
@@ -106,7 +104,7 @@ public class LoginPage extends BasePage {
         try {
             logger.debug("Clicking forgot password link");
             waitForElementToBeClickable(forgotPasswordLink);
-            forgotPasswordLink.click();
+            tap(forgotPasswordLink);
         } catch (Exception e) {
             logger.error("Failed to click forgot password link: {}", e.getMessage());
             throw e;
@@ -127,45 +125,45 @@ public class LoginPage extends BasePage {
     public void checkRememberMe() {
         waitForElementToBeClickable(rememberMeCheckbox);
         if (!rememberMeCheckbox.isSelected()) {
-            rememberMeCheckbox.click();
+            tap(rememberMeCheckbox);
         }
     }
 
     public void uncheckRememberMe() {
         waitForElementToBeClickable(rememberMeCheckbox);
         if (rememberMeCheckbox.isSelected()) {
-            rememberMeCheckbox.click();
+            tap(rememberMeCheckbox);
         }
     }
 
     public void clickTermsAndConditions() {
         waitForElementToBeClickable(termsAndConditionsLink);
-        termsAndConditionsLink.click();
+        tap(termsAndConditionsLink);
     }
 
     public void clickPrivacyPolicy() {
         waitForElementToBeClickable(privacyPolicyLink);
-        privacyPolicyLink.click();
+        tap(privacyPolicyLink);
     }
 
     public void clickSocialLogin() {
         waitForElementToBeClickable(socialLoginButton);
-        socialLoginButton.click();
+        tap(socialLoginButton);
     }
 
     public void clickRegister() {
         waitForElementToBeClickable(registerLink);
-        registerLink.click();
+        tap(registerLink);
     }
 
     public void clickHelp() {
         waitForElementToBeClickable(helpLink);
-        helpLink.click();
+        tap(helpLink);
     }
 
     public void clickContactSupport() {
         waitForElementToBeClickable(contactSupportLink);
-        contactSupportLink.click();
+        tap(contactSupportLink);
     }
 
     public HomePage login(String username, String password) {
@@ -177,23 +175,27 @@ public class LoginPage extends BasePage {
 
     public void verifyLoginPageElements() {
         logger.debug("Verifying login page elements");
-        AssertionUtils.assertElementVisible(driver, usernameField, "Username field should be visible");
-        AssertionUtils.assertElementVisible(driver, passwordField, "Password field should be visible");
-        AssertionUtils.assertElementVisible(driver, loginButton, "Login button should be visible");
-        AssertionUtils.assertElementVisible(driver, forgotPasswordLink, "Forgot password link should be visible");
-        AssertionUtils.assertElementVisible(driver, rememberMeCheckbox, "Remember me checkbox should be visible");
-        AssertionUtils.assertElementVisible(driver, termsAndConditionsLink, "Terms and conditions link should be visible");
-        AssertionUtils.assertElementVisible(driver, privacyPolicyLink, "Privacy policy link should be visible");
-        AssertionUtils.assertElementVisible(driver, socialLoginButton, "Social login button should be visible");
-        AssertionUtils.assertElementVisible(driver, registerLink, "Register link should be visible");
-        AssertionUtils.assertElementVisible(driver, helpLink, "Help link should be visible");
-        AssertionUtils.assertElementVisible(driver, contactSupportLink, "Contact support link should be visible");
+        AssertionUtils.batch(driver)
+            .visible(locatorOf(usernameField), "Username field should be visible")
+            .visible(locatorOf(passwordField), "Password field should be visible")
+            .visible(locatorOf(loginButton), "Login button should be visible")
+            .visible(locatorOf(forgotPasswordLink), "Forgot password link should be visible")
+            .visible(locatorOf(rememberMeCheckbox), "Remember me checkbox should be visible")
+            .visible(locatorOf(termsAndConditionsLink), "Terms and conditions link should be visible")
+            .visible(locatorOf(privacyPolicyLink), "Privacy policy link should be visible")
+            .visible(locatorOf(socialLoginButton), "Social login button should be visible")
+            .visible(locatorOf(registerLink), "Register link should be visible")
+            .visible(locatorOf(helpLink), "Help link should be visible")
+            .visible(locatorOf(contactSupportLink), "Contact support link should be visible")
+            .verify();
         AssertionUtils.assertAll();
     }
 
     public void verifyErrorMessage(String expectedMessage) {
         logger.debug("Verifying error message: {}", expectedMessage);
-        AssertionUtils.assertElementText(driver, errorMessage, expectedMessage, "Error message should match expected text");
+        AssertionUtils.batch(driver)
+            .text(locatorOf(errorMessage), expectedMessage, "Error message should match expected text")
+            .verify();
         AssertionUtils.assertAll();
     }
 } 
\ No newline at end of file
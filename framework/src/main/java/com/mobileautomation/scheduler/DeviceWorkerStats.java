@@ -0,0 +1,73 @@
+package com.mobileautomation.scheduler;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Busy/idle accounting for one device worker during a scheduler run.
+ */
+public class DeviceWorkerStats {
+    private final String deviceId;
+    private final AtomicLong busyNanos = new AtomicLong();
+    private final AtomicInteger itemsRun = new AtomicInteger();
+    private final AtomicInteger itemsStolen = new AtomicInteger();
+    private final AtomicInteger itemsFailed = new AtomicInteger();
+    private volatile long startedAt;
+    private volatile long finishedAt;
+
+    DeviceWorkerStats(String deviceId) {
+        this.deviceId = deviceId;
+    }
+
+    void started() {
+        startedAt = System.nanoTime();
+    }
+
+    void finished() {
+        finishedAt = System.nanoTime();
+    }
+
+    void recordItem(long nanos, boolean stolen, boolean failed) {
+        busyNanos.addAndGet(nanos);
+        itemsRun.incrementAndGet();
+        if (stolen) {
+            itemsStolen.incrementAndGet();
+        }
+        if (failed) {
+            itemsFailed.incrementAndGet();
+        }
+    }
+
+    public String getDeviceId() {
+        return deviceId;
+    }
+
+    public Duration getBusyTime() {
+        return Duration.ofNanos(busyNanos.get());
+    }
+
+    /**
+     * Time the worker existed without running an item, up to the end of the whole run.
+     */
+    public Duration getIdleTime(long runFinishedAt) {
+        long end = runFinishedAt > 0 ? runFinishedAt : System.nanoTime();
+        return Duration.ofNanos(Math.max(0, end - startedAt - busyNanos.get()));
+    }
+
+    public int getItemsRun() {
+        return itemsRun.get();
+    }
+
+    public int getItemsStolen() {
+        return itemsStolen.get();
+    }
+
+    public int getItemsFailed() {
+        return itemsFailed.get();
+    }
+
+    public long getFinishedAt() {
+        return finishedAt;
+    }
+}
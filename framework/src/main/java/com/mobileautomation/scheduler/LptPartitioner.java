@@ -0,0 +1,43 @@
+package com.mobileautomation.scheduler;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * Longest-processing-time-first bin packing: units are sorted by descending cost and each goes to the
+ * bin with the smallest total so far. Ties are broken by key and then by bin index, so every node that
+ * sees the same history computes the same partition.
+ */
+public final class LptPartitioner {
+
+    private LptPartitioner() {
+    }
+
+    public static <T> List<List<T>> partition(List<T> units, int bins, ToLongFunction<T> cost, Function<T, String> key) {
+        if (bins < 1) {
+            throw new IllegalArgumentException("bins must be at least 1, got " + bins);
+        }
+        List<T> sorted = new ArrayList<>(units);
+        sorted.sort(Comparator.comparingLong(cost).reversed().thenComparing(key));
+
+        List<List<T>> result = new ArrayList<>();
+        long[] loads = new long[bins];
+        for (int i = 0; i < bins; i++) {
+            result.add(new ArrayList<>());
+        }
+        for (T unit : sorted) {
+            int lightest = 0;
+            for (int i = 1; i < bins; i++) {
+                if (loads[i] < loads[lightest]) {
+                    lightest = i;
+                }
+            }
+            result.get(lightest).add(unit);
+            loads[lightest] += cost.applyAsLong(unit);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,78 @@
+package com.mobileautomation.scheduler;
+
+import com.mobileautomation.utils.DeviceInfo;
+import org.testng.TestNG;
+import org.testng.xml.XmlClass;
+import org.testng.xml.XmlInclude;
+import org.testng.xml.XmlSuite;
+import org.testng.xml.XmlTest;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Runs a work item as a one-class TestNG suite on the calling worker thread. The worker's device goes in
+ * the {@code deviceId} suite parameter, which pins the test's driver to it on whichever thread TestNG
+ * runs the test, including the separate one it uses for {@code timeOut} methods.
+ */
+public class TestNGWorkItemExecutor implements WorkStealingScheduler.WorkItemExecutor {
+    private final List<String> listeners;
+    private final Function<String, DeviceInfo> devices;
+    private final Map<String, String> extraParameters;
+
+    /**
+     * @param listeners listener class names to attach to every item run; must not include listeners that
+     *                  start a parallel run themselves
+     * @param devices looks up the device a worker owns
+     * @param extraParameters per-device parameters, keyed by "deviceId.parameter"
+     */
+    public TestNGWorkItemExecutor(List<String> listeners, Function<String, DeviceInfo> devices,
+                                  Map<String, String> extraParameters) {
+        this.listeners = new ArrayList<>(listeners);
+        this.devices = devices;
+        this.extraParameters = new HashMap<>(extraParameters);
+    }
+
+    @Override
+    public boolean execute(WorkItem item, String deviceId) {
+        DeviceInfo device = devices.apply(deviceId);
+        XmlSuite suite = new XmlSuite();
+        suite.setName(item.getTestName() + " @ " + deviceId);
+        suite.setListeners(listeners);
+
+        Map<String, String> parameters = new HashMap<>(item.getParameters());
+        parameters.put("deviceId", deviceId);
+        if (device != null) {
+            parameters.put("platform", device.getPlatform());
+            parameters.put("deviceName", device.getDeviceName());
+            if (device.getVersion() != null) {
+                parameters.put("deviceVersion", device.getVersion());
+            }
+        }
+        String prefix = deviceId + ".";
+        extraParameters.forEach((key, value) -> {
+            if (key.startsWith(prefix)) {
+                parameters.put(key.substring(prefix.length()), value);
+            }
+        });
+        suite.setParameters(parameters);
+
+        XmlTest test = new XmlTest(suite);
+        test.setName(item.getTestName());
+        XmlClass xmlClass = new XmlClass(item.getClassName(), false);
+        xmlClass.setIncludedMethods(item.getMethods().stream().map(XmlInclude::new).collect(Collectors.toList()));
+        test.setXmlClasses(List.of(xmlClass));
+
+        TestNG testng = new TestNG(false);
+        testng.setXmlSuites(List.of(suite));
+        testng.setUseDefaultListeners(false);
+        testng.setVerbose(0);
+
+        testng.run();
+        return !testng.hasFailure();
+    }
+}
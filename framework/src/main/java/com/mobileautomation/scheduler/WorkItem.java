@@ -0,0 +1,57 @@
+package com.mobileautomation.scheduler;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Getter;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Smallest unit of scheduling: test methods of one class that must run together on the same device,
+ * either a single method or a chain linked by {@code dependsOnMethods}/{@code dependsOnGroups}.
+ */
+@Getter
+public class WorkItem {
+    private final String testName;
+    private final String className;
+    private final List<String> methods;
+    private final Set<String> groups;
+    private final Map<String, String> parameters;
+
+    @JsonCreator
+    public WorkItem(@JsonProperty("testName") String testName, @JsonProperty("className") String className,
+                    @JsonProperty("methods") List<String> methods, @JsonProperty("groups") Set<String> groups,
+                    @JsonProperty("parameters") Map<String, String> parameters) {
+        this.testName = testName;
+        this.className = className;
+        this.methods = Collections.unmodifiableList(methods);
+        this.groups = Collections.unmodifiableSet(groups);
+        this.parameters = Collections.unmodifiableMap(parameters);
+    }
+
+    /**
+     * Duration history keys of the item's methods.
+     */
+    @JsonIgnore
+    public List<String> getMethodKeys() {
+        return methods.stream().map(method -> className + "#" + method).collect(Collectors.toList());
+    }
+
+    /**
+     * Stable identifier, also the key used for duration history.
+     */
+    @JsonIgnore
+    public String getId() {
+        return className + "#" + String.join("+", methods);
+    }
+
+    @Override
+    public String toString() {
+        return getId();
+    }
+}
@@ -0,0 +1,168 @@
+package com.mobileautomation.scheduler;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.testng.annotations.Test;
+import org.testng.xml.XmlClass;
+import org.testng.xml.XmlInclude;
+import org.testng.xml.XmlSuite;
+import org.testng.xml.XmlTest;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Expands a TestNG suite into {@link WorkItem}s. Methods are selected with the same group rules as
+ * TestNG (including {@code <define>} meta-groups) and methods that depend on each other are merged
+ * into one item so TestNG can still order them.
+ */
+public class WorkItemPlanner {
+    private static final Logger logger = LogManager.getLogger(WorkItemPlanner.class);
+
+    public List<WorkItem> plan(XmlSuite suite) {
+        List<WorkItem> items = new ArrayList<>();
+        for (XmlTest test : suite.getTests()) {
+            Map<String, String> parameters = new HashMap<>(suite.getParameters());
+            parameters.putAll(test.getLocalParameters());
+            Set<String> included = expandGroups(test.getIncludedGroups(), test.getMetaGroups());
+            Set<String> excluded = expandGroups(test.getExcludedGroups(), test.getMetaGroups());
+
+            for (XmlClass xmlClass : test.getXmlClasses()) {
+                Class<?> testClass = loadClass(xmlClass.getName());
+                if (testClass == null) {
+                    continue;
+                }
+                Map<String, Set<String>> methodGroups = selectMethods(testClass, xmlClass, included, excluded);
+                for (List<String> chain : mergeDependencies(testClass, methodGroups)) {
+                    Set<String> groups = new LinkedHashSet<>();
+                    chain.forEach(method -> groups.addAll(methodGroups.get(method)));
+                    items.add(new WorkItem(test.getName(), testClass.getName(), chain, groups, parameters));
+                }
+            }
+        }
+        logger.info("Planned {} work items for suite {}", items.size(), suite.getName());
+        return items;
+    }
+
+    private Map<String, Set<String>> selectMethods(Class<?> testClass, XmlClass xmlClass,
+                                                   Set<String> included, Set<String> excluded) {
+        Set<String> explicitlyIncluded = new HashSet<>();
+        for (XmlInclude include : xmlClass.getIncludedMethods()) {
+            explicitlyIncluded.add(include.getName());
+        }
+        Set<String> explicitlyExcluded = new HashSet<>(xmlClass.getExcludedMethods());
+        Test classAnnotation = testClass.getAnnotation(Test.class);
+
+        Map<String, Set<String>> selected = new LinkedHashMap<>();
+        for (Method method : testClass.getMethods()) {
+            Test annotation = method.getAnnotation(Test.class);
+            boolean isTest = annotation != null
+                || (classAnnotation != null && Modifier.isPublic(method.getModifiers())
+                    && method.getDeclaringClass() != Object.class && !hasConfigurationAnnotation(method));
+            if (!isTest || (annotation != null && !annotation.enabled())) {
+                continue;
+            }
+            String name = method.getName();
+            if (explicitlyExcluded.contains(name)
+                    || (!explicitlyIncluded.isEmpty() && !explicitlyIncluded.contains(name))) {
+                continue;
+            }
+            Set<String> groups = new LinkedHashSet<>();
+            if (classAnnotation != null) {
+                groups.addAll(Arrays.asList(classAnnotation.groups()));
+            }
+            if (annotation != null) {
+                groups.addAll(Arrays.asList(annotation.groups()));
+            }
+            boolean inIncluded = included.isEmpty() || groups.stream().anyMatch(included::contains);
+            boolean inExcluded = groups.stream().anyMatch(excluded::contains);
+            if (inIncluded && !inExcluded) {
+                selected.put(name, groups);
+            }
+        }
+        return selected;
+    }
+
+    /**
+     * Union-find over dependsOnMethods/dependsOnGroups edges between the selected methods.
+     */
+    private Collection<List<String>> mergeDependencies(Class<?> testClass, Map<String, Set<String>> methodGroups) {
+        Map<String, String> parent = new HashMap<>();
+        methodGroups.keySet().forEach(method -> parent.put(method, method));
+
+        for (Method method : testClass.getMethods()) {
+            Test annotation = method.getAnnotation(Test.class);
+            if (annotation == null || !parent.containsKey(method.getName())) {
+                continue;
+            }
+            for (String dependency : annotation.dependsOnMethods()) {
+                String simpleName = dependency.substring(dependency.lastIndexOf('.') + 1);
+                if (parent.containsKey(simpleName)) {
+                    union(parent, method.getName(), simpleName);
+                }
+            }
+            for (String group : annotation.dependsOnGroups()) {
+                methodGroups.forEach((other, groups) -> {
+                    if (groups.contains(group)) {
+                        union(parent, method.getName(), other);
+                    }
+                });
+            }
+        }
+
+        Map<String, List<String>> chains = new LinkedHashMap<>();
+        for (String method : methodGroups.keySet()) {
+            chains.computeIfAbsent(find(parent, method), root -> new ArrayList<>()).add(method);
+        }
+        return chains.values();
+    }
+
+    private static void union(Map<String, String> parent, String a, String b) {
+        parent.put(find(parent, a), find(parent, b));
+    }
+
+    private static String find(Map<String, String> parent, String method) {
+        String root = method;
+        while (!parent.get(root).equals(root)) {
+            root = parent.get(root);
+        }
+        return root;
+    }
+
+    private static Set<String> expandGroups(List<String> groups, Map<String, List<String>> metaGroups) {
+        Set<String> expanded = new LinkedHashSet<>();
+        List<String> pending = new ArrayList<>(groups);
+        while (!pending.isEmpty()) {
+            String group = pending.remove(pending.size() - 1);
+            if (expanded.add(group) && metaGroups.containsKey(group)) {
+                pending.addAll(metaGroups.get(group));
+            }
+        }
+        return expanded;
+    }
+
+    private static boolean hasConfigurationAnnotation(Method method) {
+        return Arrays.stream(method.getAnnotations())
+            .anyMatch(annotation -> annotation.annotationType().getPackageName().equals("org.testng.annotations")
+                && !annotation.annotationType().equals(Test.class));
+    }
+
+    private static Class<?> loadClass(String name) {
+        try {
+            return Class.forName(name, false, Thread.currentThread().getContextClassLoader());
+        } catch (ClassNotFoundException e) {
+            logger.warn("Skipping test class {} that is not on the classpath", name);
+            return null;
+        }
+    }
+}
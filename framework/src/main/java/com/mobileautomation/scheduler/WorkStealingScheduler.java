@@ -0,0 +1,185 @@
+package com.mobileautomation.scheduler;
+
+import com.mobileautomation.driver.DeviceLeaseManager;
+import com.mobileautomation.metrics.MetricsRegistry;
+import com.mobileautomation.utils.ExecutorFactory;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs work items on a set of devices with one worker thread per device. Each device owns a deque:
+ * the owner takes items from the head, and a worker whose deque is empty steals from the tail of the
+ * fullest other deque, so fast devices keep pulling work until the whole suite is drained instead of
+ * idling behind a slow emulator.
+ */
+public class WorkStealingScheduler {
+    private static final Logger logger = LogManager.getLogger(WorkStealingScheduler.class);
+    private final WorkItemExecutor executor;
+    private final Map<String, ConcurrentLinkedDeque<WorkItem>> deques = new ConcurrentHashMap<>();
+    private final Map<String, DeviceWorkerStats> stats = new ConcurrentHashMap<>();
+    private final Set<String> retired = ConcurrentHashMap.newKeySet();
+    private volatile long finishedAt;
+
+    /**
+     * Runs one work item on one device and reports whether it passed.
+     */
+    public interface WorkItemExecutor {
+        boolean execute(WorkItem item, String deviceId) throws Exception;
+    }
+
+    public WorkStealingScheduler(WorkItemExecutor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Deals the items round-robin across the devices and runs them.
+     */
+    public Map<String, DeviceWorkerStats> run(List<WorkItem> items, List<String> deviceIds, Duration timeout) {
+        Map<String, List<WorkItem>> assignment = new LinkedHashMap<>();
+        deviceIds.forEach(deviceId -> assignment.put(deviceId, new ArrayList<>()));
+        for (int i = 0; i < items.size(); i++) {
+            assignment.get(deviceIds.get(i % deviceIds.size())).add(items.get(i));
+        }
+        return run(assignment, timeout);
+    }
+
+    /**
+     * Seeds each device's deque with the given items (in order) and runs until every deque is drained.
+     */
+    public Map<String, DeviceWorkerStats> run(Map<String, List<WorkItem>> assignment, Duration timeout) {
+        assignment.forEach((deviceId, items) -> {
+            deques.put(deviceId, new ConcurrentLinkedDeque<>(items));
+            stats.put(deviceId, new DeviceWorkerStats(deviceId));
+        });
+
+        // one long-running loop per device, so a thread per task is the same as a pool of that size
+        ExecutorService workers = ExecutorFactory.newFixedThreadPool("device-worker", Math.max(1, assignment.size()), false);
+        long start = System.nanoTime();
+        try {
+            assignment.keySet().forEach(deviceId -> workers.submit(() -> work(deviceId)));
+            workers.shutdown();
+            if (!workers.awaitTermination(timeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                logger.warn("Scheduler did not finish within {} minutes, interrupting workers", timeout.toMinutes());
+                workers.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            workers.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        finishedAt = System.nanoTime();
+        MetricsRegistry.getInstance().timer("scheduler.makespan").recordSince(start);
+        reportStranded();
+        logStats();
+        return Map.copyOf(stats);
+    }
+
+    /**
+     * Stops a device from taking further items, e.g. because it detached; its queued items stay
+     * available for other devices to steal.
+     */
+    public void retire(String deviceId) {
+        if (retired.add(deviceId)) {
+            logger.warn("Retiring device {} from the scheduler", deviceId);
+        }
+    }
+
+    public Map<String, DeviceWorkerStats> getStats() {
+        return Map.copyOf(stats);
+    }
+
+    private void work(String deviceId) {
+        DeviceWorkerStats workerStats = stats.get(deviceId);
+        ConcurrentLinkedDeque<WorkItem> own = deques.get(deviceId);
+        workerStats.started();
+        try {
+            while (!retired.contains(deviceId) && !Thread.currentThread().isInterrupted()) {
+                if (DeviceLeaseManager.getInstance().isQuarantined(deviceId)) {
+                    retire(deviceId);
+                    break;
+                }
+                WorkItem item = own.pollFirst();
+                boolean stolen = false;
+                if (item == null) {
+                    item = steal(deviceId);
+                    stolen = item != null;
+                }
+                if (item == null) {
+                    // items never spawn new items, so empty deques everywhere means the run is drained
+                    break;
+                }
+                runItem(deviceId, item, stolen, workerStats);
+            }
+        } finally {
+            workerStats.finished();
+        }
+    }
+
+    private void runItem(String deviceId, WorkItem item, boolean stolen, DeviceWorkerStats workerStats) {
+        if (stolen) {
+            logger.debug("Device {} stole {}", deviceId, item);
+            MetricsRegistry.getInstance().increment("scheduler.steals");
+        }
+        long start = System.nanoTime();
+        boolean failed;
+        try {
+            failed = !executor.execute(item, deviceId);
+        } catch (Exception e) {
+            logger.error("Work item {} failed on device {}: {}", item, deviceId, e.getMessage());
+            failed = true;
+        }
+        workerStats.recordItem(System.nanoTime() - start, stolen, failed);
+    }
+
+    private WorkItem steal(String thief) {
+        while (true) {
+            ConcurrentLinkedDeque<WorkItem> victim = null;
+            int victimSize = 0;
+            for (Map.Entry<String, ConcurrentLinkedDeque<WorkItem>> entry : deques.entrySet()) {
+                int size = entry.getValue().size();
+                if (!entry.getKey().equals(thief) && size > victimSize) {
+                    victim = entry.getValue();
+                    victimSize = size;
+                }
+            }
+            if (victim == null) {
+                return null;
+            }
+            WorkItem item = victim.pollLast();
+            if (item != null) {
+                return item;
+            }
+            // lost the race for the last item, look again
+        }
+    }
+
+    private void reportStranded() {
+        deques.forEach((deviceId, deque) -> {
+            if (!deque.isEmpty()) {
+                logger.error("{} work item(s) queued on {} were never run: {}", deque.size(), deviceId, deque);
+            }
+        });
+    }
+
+    private void logStats() {
+        MetricsRegistry metrics = MetricsRegistry.getInstance();
+        for (DeviceWorkerStats worker : stats.values()) {
+            Duration idle = worker.getIdleTime(finishedAt);
+            metrics.timer("scheduler.busy." + worker.getDeviceId()).record(worker.getBusyTime());
+            metrics.timer("scheduler.idle." + worker.getDeviceId()).record(idle);
+            logger.info("Device {}: {} item(s) ({} stolen, {} failed), busy {}s, idle {}s", worker.getDeviceId(),
+                worker.getItemsRun(), worker.getItemsStolen(), worker.getItemsFailed(),
+                worker.getBusyTime().toSeconds(), idle.toSeconds());
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.mobileautomation.server;
+
+import io.appium.java_client.service.local.AppiumDriverLocalService;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * One Appium server in the pool, either started by this JVM or adopted from an existing process.
+ */
+public class AppiumServerInstance {
+    private final int port;
+    private final AppiumDriverLocalService service;
+    private final String url;
+    private final AtomicInteger boundDevices = new AtomicInteger();
+
+    AppiumServerInstance(int port, AppiumDriverLocalService service) {
+        this.port = port;
+        this.service = service;
+        this.url = service != null ? service.getUrl().toString() : "http://127.0.0.1:" + port + "/";
+    }
+
+    public int getPort() {
+        return port;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public boolean isOwned() {
+        return service != null;
+    }
+
+    AppiumDriverLocalService getService() {
+        return service;
+    }
+
+    public int getBoundDevices() {
+        return boundDevices.get();
+    }
+
+    void bindDevice() {
+        boundDevices.incrementAndGet();
+    }
+
+    void unbindDevice() {
+        boundDevices.decrementAndGet();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("AppiumServer[port=%d, owned=%s, devices=%d]", port, isOwned(), getBoundDevices());
+    }
+}
@@ -0,0 +1,295 @@
+package com.mobileautomation.server;
+
+import com.mobileautomation.config.ConfigManager;
+import com.mobileautomation.exceptions.MobileAutomationException;
+import com.mobileautomation.server.PortAllocator.PortRange;
+import com.mobileautomation.utils.ExecutorFactory;
+import io.appium.java_client.service.local.AppiumDriverLocalService;
+import io.appium.java_client.service.local.AppiumServerHasNotBeenStartedLocallyException;
+import io.appium.java_client.service.local.AppiumServiceBuilder;
+import io.appium.java_client.service.local.flags.GeneralServerFlag;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+
+public class AppiumServerManager {
+    private static final Logger logger = LogManager.getLogger(AppiumServerManager.class);
+    private static AppiumServerManager instance;
+    private final List<AppiumServerInstance> servers = new CopyOnWriteArrayList<>();
+    private final Map<String, AppiumServerInstance> deviceServers = new ConcurrentHashMap<>();
+    private final Map<String, DevicePorts> devicePorts = new ConcurrentHashMap<>();
+    private final PortAllocator portAllocator = new PortAllocator();
+    private int referenceCount;
+    private boolean shutdownHookRegistered;
+    private final boolean stopWhenIdle;
+    private final int poolSize;
+    private final PortRange serverPorts;
+    private final PortRange systemPorts;
+    private final PortRange wdaLocalPorts;
+    private final PortRange mjpegServerPorts;
+    private final ServerReadinessProbe readinessProbe;
+    private static final int DEFAULT_PORT = 4723;
+    private static final int LOG_TAIL_LINES = 40;
+
+    // Appium 2.x Plugin and Driver paths
+    private static final String APPIUM_BASE_PATH = System.getProperty("user.home") + "/.appium";
+    private static final String PLUGINS_PATH = APPIUM_BASE_PATH + "/node_modules";
+    private static final String DRIVERS_PATH = APPIUM_BASE_PATH + "/node_modules/appium/drivers";
+
+    private AppiumServerManager() {
+        ConfigManager config = ConfigManager.getInstance();
+        this.stopWhenIdle = config.getBooleanProperty("appium.server.stop.when.idle", false);
+        this.poolSize = config.getIntProperty("appium.server.pool.size", 1);
+        this.serverPorts = PortRange.parse(config.getProperty("appium.server.port.range", "4723-4799"));
+        this.systemPorts = PortRange.parse(config.getProperty("appium.system.port.range", "8200-8299"));
+        this.wdaLocalPorts = PortRange.parse(config.getProperty("appium.wda.port.range", "8100-8199"));
+        this.mjpegServerPorts = PortRange.parse(config.getProperty("appium.mjpeg.port.range", "9100-9199"));
+        this.readinessProbe = ServerReadinessProbe.fromConfig(config);
+    }
+
+    public static synchronized AppiumServerManager getInstance() {
+        if (instance == null) {
+            instance = new AppiumServerManager();
+        }
+        return instance;
+    }
+
+    /**
+     * Registers a user of the shared server pool, starting it on first use or adopting a compatible
+     * server that is already listening on the default port. Every call must be paired with {@link #release()}.
+     */
+    public synchronized void acquire() {
+        ensurePoolSize(poolSize);
+        registerShutdownHook();
+        referenceCount++;
+        logger.debug("Appium server pool acquired, {} active user(s)", referenceCount);
+    }
+
+    public synchronized void release() {
+        if (referenceCount == 0) {
+            logger.warn("Appium server pool released more times than it was acquired");
+            return;
+        }
+        referenceCount--;
+        logger.debug("Appium server pool released, {} active user(s)", referenceCount);
+        if (referenceCount == 0 && stopWhenIdle) {
+            stopServers();
+        }
+    }
+
+    /**
+     * Grows the pool to at least {@code size} servers, starting the missing ones in parallel.
+     */
+    public synchronized void ensurePoolSize(int size) {
+        pruneStoppedServers();
+        if (servers.isEmpty() && readinessProbe.isReady("http://127.0.0.1:" + DEFAULT_PORT + "/")) {
+            servers.add(new AppiumServerInstance(DEFAULT_PORT, null));
+            logger.info("Reusing Appium server already listening on port: {}", DEFAULT_PORT);
+        }
+        int missing = size - servers.size();
+        if (missing > 0) {
+            startServers(missing);
+        }
+    }
+
+    public synchronized boolean isRunning() {
+        pruneStoppedServers();
+        return !servers.isEmpty();
+    }
+
+    public synchronized int getReferenceCount() {
+        return referenceCount;
+    }
+
+    public List<AppiumServerInstance> getServers() {
+        return new ArrayList<>(servers);
+    }
+
+    /**
+     * Returns the server that owns sessions for the device, binding the device to the least-loaded
+     * server on first use so its pooled sessions always live on the same server.
+     */
+    public synchronized AppiumServerInstance serverFor(String deviceId) {
+        AppiumServerInstance assigned = deviceServers.get(deviceId);
+        if (assigned != null && servers.contains(assigned)) {
+            return assigned;
+        }
+        if (servers.isEmpty()) {
+            throw new IllegalStateException("No Appium server is running. Call acquire() first.");
+        }
+        AppiumServerInstance leastLoaded = servers.stream()
+            .min(Comparator.comparingInt(AppiumServerInstance::getBoundDevices))
+            .orElseThrow();
+        leastLoaded.bindDevice();
+        deviceServers.put(deviceId, leastLoaded);
+        logger.info("Routing sessions for device {} to {}", deviceId, leastLoaded);
+        return leastLoaded;
+    }
+
+    public DevicePorts getDevicePorts(String deviceId) {
+        return devicePorts.computeIfAbsent(deviceId, id -> new DevicePorts(id,
+            portAllocator.allocate(systemPorts),
+            portAllocator.allocate(wdaLocalPorts),
+            portAllocator.allocate(mjpegServerPorts)));
+    }
+
+    public synchronized void releaseDevice(String deviceId) {
+        AppiumServerInstance server = deviceServers.remove(deviceId);
+        if (server != null) {
+            server.unbindDevice();
+        }
+        DevicePorts ports = devicePorts.remove(deviceId);
+        if (ports != null) {
+            portAllocator.release(ports.getSystemPort());
+            portAllocator.release(ports.getWdaLocalPort());
+            portAllocator.release(ports.getMjpegServerPort());
+        }
+    }
+
+    /**
+     * Stops every server this JVM started. Adopted servers belong to whoever launched them.
+     */
+    public synchronized void stopServers() {
+        for (AppiumServerInstance server : servers) {
+            AppiumDriverLocalService service = server.getService();
+            if (service != null && service.isRunning()) {
+                try {
+                    service.stop();
+                    logger.info("Appium server stopped successfully on port: {}", server.getPort());
+                } catch (Exception e) {
+                    logger.error("Failed to stop Appium server on port {}: {}", server.getPort(), e.getMessage());
+                }
+            }
+            portAllocator.release(server.getPort());
+        }
+        servers.clear();
+        deviceServers.clear();
+    }
+
+    public synchronized String getServerUrl() {
+        pruneStoppedServers();
+        return servers.isEmpty() ? null : servers.get(0).getUrl();
+    }
+
+    private void startServers(int count) {
+        List<Integer> ports = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            ports.add(portAllocator.allocate(serverPorts));
+        }
+
+        ExecutorService executor = ExecutorFactory.newFixedThreadPool("appium-server-start", count, true);
+        try {
+            List<CompletableFuture<AppiumServerInstance>> startups = new ArrayList<>();
+            for (int port : ports) {
+                startups.add(CompletableFuture.supplyAsync(() -> startServer(port), executor));
+            }
+
+            RuntimeException failure = null;
+            for (int i = 0; i < startups.size(); i++) {
+                try {
+                    servers.add(startups.get(i).join());
+                } catch (CompletionException e) {
+                    portAllocator.release(ports.get(i));
+                    failure = (RuntimeException) e.getCause();
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private AppiumServerInstance startServer(int port) {
+        ServerLogTail logTail = new ServerLogTail(LOG_TAIL_LINES);
+        AppiumDriverLocalService service = null;
+        try {
+            AppiumServiceBuilder builder = new AppiumServiceBuilder()
+                .withIPAddress("127.0.0.1")
+                .usingPort(port)
+                .withArgument(GeneralServerFlag.SESSION_OVERRIDE)
+                .withArgument(GeneralServerFlag.LOG_LEVEL, "debug")
+                .withArgument(GeneralServerFlag.RELAXED_SECURITY)
+                .withArgument(GeneralServerFlag.NO_RESET)
+                .withArgument(GeneralServerFlag.LOG_TIMESTAMP)
+                .withArgument(GeneralServerFlag.LOCAL_TIMEZONE)
+                .withArgument(GeneralServerFlag.WEBHOOK)
+                .withArgument(GeneralServerFlag.ALLOW_INSECURE, "chromedriver_autodownload");
+
+            // Add Appium 2.x specific arguments; every provisioned plugin is enabled, execute-driver included
+            builder.withArgument(GeneralServerFlag.USE_DRIVERS, "uiautomator2,xcuitest")
+                   .withArgument(GeneralServerFlag.USE_PLUGINS, AppiumSetupManager.getInstance().getPluginNames())
+                   .withArgument(GeneralServerFlag.PLUGINS_PATH, PLUGINS_PATH)
+                   .withArgument(GeneralServerFlag.DRIVERS_PATH, DRIVERS_PATH);
+
+            // Add Android specific arguments
+            builder.withArgument(GeneralServerFlag.ANDROID_DEVICE_READY_TIMEOUT, "60")
+                   .withArgument(GeneralServerFlag.ANDROID_INSTALL_TIMEOUT, "90000")
+                   .withArgument(GeneralServerFlag.ANDROID_DRIVER, "uiautomator2");
+
+            // iOS WDA ports are assigned per device through capabilities, see getDevicePorts()
+            builder.withArgument(GeneralServerFlag.IOS_DRIVER, "xcuitest");
+
+            builder.withTimeout(readinessProbe.getTimeout());
+
+            service = AppiumDriverLocalService.buildService(builder);
+            service.addOutPutStream(logTail);
+            service.start();
+            // start() only waits for the HTTP listener; confirm a 2.x server with drivers loaded answers /status
+            Duration timeToReady = readinessProbe.awaitReady(service.getUrl().toString(), service::isRunning, logTail::getLines);
+            logger.info("Appium server started successfully on port: {} (ready in {}ms)", port, timeToReady.toMillis());
+            return new AppiumServerInstance(port, service);
+        } catch (MobileAutomationException e) {
+            service.stop();
+            throw e;
+        } catch (AppiumServerHasNotBeenStartedLocallyException e) {
+            logger.error("Failed to start Appium server on port {}: {}", port, e.getMessage());
+            String error = "Appium server on port " + port + " did not start";
+            List<String> lines = logTail.getLines();
+            if (!lines.isEmpty()) {
+                error += "\nLast server log lines:\n  " + String.join("\n  ", lines);
+            }
+            String suggestion = "Check that Appium is installed and the port range in config.properties is free";
+            throw new MobileAutomationException("APPIUM_SERVER_START_FAILED", error, suggestion, e);
+        } catch (Exception e) {
+            logger.error("Failed to start Appium server on port {}: {}", port, e.getMessage());
+            String error = "Failed to start Appium server on port " + port;
+            String suggestion = "Check that Appium is installed and the port range in config.properties is free";
+            throw new MobileAutomationException("APPIUM_SERVER_START_FAILED", error, suggestion, e);
+        }
+    }
+
+    private void pruneStoppedServers() {
+        for (AppiumServerInstance server : servers) {
+            boolean alive = server.isOwned()
+                ? server.getService().isRunning()
+                : readinessProbe.isReady(server.getUrl());
+            if (!alive) {
+                logger.warn("Appium server on port {} is no longer running", server.getPort());
+                servers.remove(server);
+                deviceServers.values().removeIf(assigned -> assigned == server);
+                if (server.isOwned()) {
+                    portAllocator.release(server.getPort());
+                }
+            }
+        }
+    }
+
+    private void registerShutdownHook() {
+        if (!shutdownHookRegistered) {
+            Runtime.getRuntime().addShutdownHook(new Thread(this::stopServers, "appium-server-shutdown"));
+            shutdownHookRegistered = true;
+        }
+    }
+}
@@ -0,0 +1,329 @@
+package com.mobileautomation.server;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mobileautomation.config.ConfigManager;
+import com.mobileautomation.exceptions.MobileAutomationException;
+import com.mobileautomation.utils.CommandExecutor;
+import com.mobileautomation.utils.CommandResult;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.File;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Provisions Appium, its drivers and plugins incrementally. The installed versions are recorded in a
+ * fingerprint file so a run whose environment already matches the configuration costs an
+ * {@code appium --version} call and the two extension listings instead of a full reinstall.
+ * <p>
+ * Installs run one after another: {@code appium driver install} and {@code appium plugin install} both
+ * rewrite the same extensions manifest under {@code ~/.appium}, so concurrent installs can lose entries.
+ * Only the read-only listings run concurrently.
+ */
+public class AppiumSetupManager {
+    private static final Logger logger = LogManager.getLogger(AppiumSetupManager.class);
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final String LATEST = "latest";
+    private static AppiumSetupManager instance;
+    private final String homeDir;
+    private final File fingerprintFile;
+    private final String appiumVersion;
+    private final Map<String, String> drivers;
+    private final Map<String, String> plugins;
+    private final boolean cleanupEnabled;
+    private final Duration installTimeout;
+    private final Duration queryTimeout;
+    private String npmPath;
+    private String appiumPath;
+
+    private AppiumSetupManager() {
+        ConfigManager config = ConfigManager.getInstance();
+        this.homeDir = System.getProperty("user.home");
+        this.fingerprintFile = new File(homeDir + "/.appium/mobileautomation-fingerprint.json");
+        this.appiumVersion = config.getProperty("appium.setup.version", LATEST);
+        this.drivers = parseExtensions(config.getProperty("appium.setup.drivers", "uiautomator2,xcuitest"));
+        this.plugins = parseExtensions(config.getProperty("appium.setup.plugins", "gestures,images,ocr,relaxed-caps,execute-driver"));
+        this.cleanupEnabled = config.getBooleanProperty("appium.setup.cleanup", false);
+        this.installTimeout = Duration.ofSeconds(config.getIntProperty("appium.setup.install.timeout.seconds", 600));
+        this.queryTimeout = CommandExecutor.getInstance().getDefaultTimeout();
+    }
+
+    public static synchronized AppiumSetupManager getInstance() {
+        if (instance == null) {
+            instance = new AppiumSetupManager();
+        }
+        return instance;
+    }
+
+    public boolean isCleanupEnabled() {
+        return cleanupEnabled;
+    }
+
+    /**
+     * Names of the provisioned plugins, without versions, as {@code --use-plugins} expects them.
+     */
+    public String getPluginNames() {
+        return String.join(",", plugins.keySet());
+    }
+
+    public synchronized void setupAppiumEnvironment() {
+        logger.info("Checking Appium 2.x environment...");
+        long start = System.currentTimeMillis();
+        try {
+            Map<String, String> desired = desiredState();
+            Map<String, String> recorded = readFingerprint();
+            String installedAppium = installedAppiumVersion();
+
+            Map<String, String> installed = null;
+            if (installedAppium != null && MAPPER.writeValueAsString(desired).equals(recorded.get("desired"))
+                    && installedAppium.equals(recorded.get("appium"))) {
+                // The fingerprint only says what was installed last time; extensions may have been removed since
+                installed = installedExtensions();
+                if (installCommands("driver", drivers, installed).isEmpty()
+                        && installCommands("plugin", plugins, installed).isEmpty()) {
+                    logger.info("Appium environment matches fingerprint (appium {}), skipping provisioning", installedAppium);
+                    return;
+                }
+                logger.info("Installed extensions no longer match the fingerprint, provisioning again");
+            }
+
+            if (installedAppium == null || !satisfies(installedAppium, appiumVersion)) {
+                String spec = LATEST.equals(appiumVersion) ? "appium@latest" : "appium@" + appiumVersion;
+                executeCommand(installTimeout, findNpmPath(), "install", "-g", spec);
+                appiumPath = null;
+                installedAppium = installedAppiumVersion();
+                installed = null;
+            }
+            if (installed == null) {
+                installed = installedExtensions();
+            }
+
+            List<List<String>> commands = new ArrayList<>();
+            commands.addAll(installCommands("driver", drivers, installed));
+            commands.addAll(installCommands("plugin", plugins, installed));
+            // An uninstall is always directly followed by the install that replaces it
+            for (List<String> command : commands) {
+                CommandExecutor.getInstance().run(command, installTimeout).requireSuccess();
+            }
+
+            if (!commands.isEmpty()) {
+                installed = installedExtensions();
+            }
+            installed.put("appium", installedAppium);
+            writeFingerprint(desired, installed);
+            logger.info("Appium 2.x environment ready in {}ms ({} extension command(s))",
+                System.currentTimeMillis() - start, commands.size());
+        } catch (MobileAutomationException e) {
+            throw e;
+        } catch (Exception e) {
+            logger.error("Failed to setup Appium environment: {}", e.getMessage());
+            String error = "Failed to setup Appium environment: " + e.getMessage();
+            String suggestion = "Check npm access and the appium.setup.* keys in config.properties";
+            throw new MobileAutomationException("APPIUM_SETUP_FAILED", error, suggestion, e);
+        }
+    }
+
+    /**
+     * Uninstalls everything and deletes the Appium and npm caches. Only meant for disposable hosts;
+     * callers should check {@link #isCleanupEnabled()} first.
+     */
+    public synchronized void cleanupAppiumEnvironment() {
+        logger.info("Cleaning up Appium 2.x environment...");
+        try {
+            String appium = findAppiumPath();
+            for (String plugin : plugins.keySet()) {
+                executeCommand(installTimeout, appium, "plugin", "uninstall", plugin);
+            }
+            for (String driver : drivers.keySet()) {
+                executeCommand(installTimeout, appium, "driver", "uninstall", driver);
+            }
+            executeCommand(installTimeout, findNpmPath(), "uninstall", "-g", "appium");
+            cleanupAppiumDirectories();
+            logger.info("Appium 2.x environment cleanup completed successfully");
+        } catch (Exception e) {
+            logger.error("Failed to cleanup Appium environment: {}", e.getMessage());
+            throw new RuntimeException("Failed to cleanup Appium environment", e);
+        }
+    }
+
+    /**
+     * The commands that bring the wanted extensions in line with the installed ones, without running
+     * any. An installed copy of a different pinned version gets an uninstall entry right before its install.
+     */
+    private List<List<String>> installCommands(String type, Map<String, String> wanted, Map<String, String> installed) {
+        List<List<String>> commands = new ArrayList<>();
+        for (Map.Entry<String, String> extension : wanted.entrySet()) {
+            String name = extension.getKey();
+            String version = extension.getValue();
+            String current = installed.get(type + ":" + name);
+            if (current != null && satisfies(current, version)) {
+                logger.debug("{} {} {} already installed", type, name, current);
+                continue;
+            }
+            if (current != null) {
+                // A pinned version that differs from the installed one needs the old copy removed first
+                commands.add(List.of(findAppiumPath(), type, "uninstall", name));
+            }
+            String spec = LATEST.equals(version) ? name : name + "@" + version;
+            commands.add(List.of(findAppiumPath(), type, "install", spec));
+        }
+        return commands;
+    }
+
+    private Map<String, String> desiredState() {
+        Map<String, String> desired = new LinkedHashMap<>();
+        desired.put("appium", appiumVersion);
+        drivers.forEach((name, version) -> desired.put("driver:" + name, version));
+        plugins.forEach((name, version) -> desired.put("plugin:" + name, version));
+        return desired;
+    }
+
+    private String installedAppiumVersion() {
+        try {
+            String version = executeCommand(queryTimeout, findAppiumPath(), "--version").trim();
+            return version.isEmpty() ? null : version;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    /**
+     * Installed drivers and plugins keyed {@code driver:<name>} and {@code plugin:<name>}. Both listings
+     * only read the manifest, so they run concurrently.
+     */
+    private Map<String, String> installedExtensions() throws Exception {
+        String appium = findAppiumPath();
+        List<String> types = List.of("driver", "plugin");
+        List<List<String>> commands = new ArrayList<>();
+        for (String type : types) {
+            commands.add(List.of(appium, type, "list", "--installed", "--json"));
+        }
+        List<CommandResult> results = CommandExecutor.getInstance().runAll(commands, queryTimeout);
+        Map<String, String> installed = new LinkedHashMap<>();
+        for (int i = 0; i < types.size(); i++) {
+            String output = results.get(i).requireSuccess().getStdout();
+            JsonNode root = MAPPER.readTree(output.substring(Math.max(0, output.indexOf('{'))));
+            Iterator<Map.Entry<String, JsonNode>> entries = root.fields();
+            while (entries.hasNext()) {
+                Map.Entry<String, JsonNode> entry = entries.next();
+                if (entry.getValue().path("installed").asBoolean(true)) {
+                    installed.put(types.get(i) + ":" + entry.getKey(), entry.getValue().path("version").asText(""));
+                }
+            }
+        }
+        return installed;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, String> readFingerprint() {
+        if (!fingerprintFile.exists()) {
+            return Map.of();
+        }
+        try {
+            Map<String, Object> fingerprint = MAPPER.readValue(fingerprintFile, new TypeReference<Map<String, Object>>() {});
+            Map<String, String> recorded = new LinkedHashMap<>();
+            recorded.put("appium", String.valueOf(((Map<String, Object>) fingerprint.get("installed")).get("appium")));
+            recorded.put("desired", MAPPER.writeValueAsString(fingerprint.get("desired")));
+            return recorded;
+        } catch (Exception e) {
+            logger.warn("Ignoring unreadable provisioning fingerprint {}: {}", fingerprintFile, e.getMessage());
+            return Map.of();
+        }
+    }
+
+    private void writeFingerprint(Map<String, String> desired, Map<String, String> installed) {
+        try {
+            Map<String, Object> fingerprint = new LinkedHashMap<>();
+            fingerprint.put("desired", desired);
+            fingerprint.put("installed", installed);
+            fingerprint.put("recordedAt", System.currentTimeMillis());
+            fingerprintFile.getParentFile().mkdirs();
+            MAPPER.writerWithDefaultPrettyPrinter().writeValue(fingerprintFile, fingerprint);
+        } catch (Exception e) {
+            logger.warn("Failed to write provisioning fingerprint {}: {}", fingerprintFile, e.getMessage());
+        }
+    }
+
+    private boolean satisfies(String installedVersion, String wantedVersion) {
+        return LATEST.equals(wantedVersion) || installedVersion.equals(wantedVersion);
+    }
+
+    private static Map<String, String> parseExtensions(String list) {
+        Map<String, String> extensions = new LinkedHashMap<>();
+        for (String entry : list.split(",")) {
+            String trimmed = entry.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            int at = trimmed.lastIndexOf('@');
+            if (at > 0) {
+                extensions.put(trimmed.substring(0, at), trimmed.substring(at + 1));
+            } else {
+                extensions.put(trimmed, LATEST);
+            }
+        }
+        return extensions;
+    }
+
+    private void cleanupAppiumDirectories() {
+        String[] directories = {
+            homeDir + "/.appium",
+            homeDir + "/.npm",
+            homeDir + "/.config/Appium"
+        };
+
+        for (String dir : directories) {
+            deleteDirectory(new File(dir));
+        }
+    }
+
+    private void deleteDirectory(File dir) {
+        if (dir.exists()) {
+            File[] files = dir.listFiles();
+            if (files != null) {
+                for (File file : files) {
+                    if (file.isDirectory()) {
+                        deleteDirectory(file);
+                    } else {
+                        file.delete();
+                    }
+                }
+            }
+            dir.delete();
+        }
+    }
+
+    private String findNpmPath() {
+        if (npmPath == null) {
+            npmPath = which("npm");
+        }
+        return npmPath;
+    }
+
+    private String findAppiumPath() {
+        if (appiumPath == null) {
+            appiumPath = which("appium");
+        }
+        return appiumPath;
+    }
+
+    private String which(String tool) {
+        CommandResult result = CommandExecutor.getInstance().run("which", tool);
+        String path = result.getStdout().trim();
+        if (!result.isSuccess() || path.isEmpty()) {
+            throw new RuntimeException(tool + " not found in PATH");
+        }
+        return path;
+    }
+
+    private String executeCommand(Duration timeout, String... command) {
+        return CommandExecutor.getInstance().run(List.of(command), timeout).requireSuccess().getStdout();
+    }
+}
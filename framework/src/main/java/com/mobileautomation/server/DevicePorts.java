@@ -0,0 +1,27 @@
+package com.mobileautomation.server;
+
+import lombok.Getter;
+
+/**
+ * Driver-side ports that must be unique per device when several sessions run on one host.
+ */
+@Getter
+public class DevicePorts {
+    private final String deviceId;
+    private final int systemPort;
+    private final int wdaLocalPort;
+    private final int mjpegServerPort;
+
+    public DevicePorts(String deviceId, int systemPort, int wdaLocalPort, int mjpegServerPort) {
+        this.deviceId = deviceId;
+        this.systemPort = systemPort;
+        this.wdaLocalPort = wdaLocalPort;
+        this.mjpegServerPort = mjpegServerPort;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("DevicePorts[device=%s, systemPort=%d, wdaLocalPort=%d, mjpegServerPort=%d]",
+            deviceId, systemPort, wdaLocalPort, mjpegServerPort);
+    }
+}
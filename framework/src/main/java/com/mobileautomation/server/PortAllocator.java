@@ -0,0 +1,78 @@
+package com.mobileautomation.server;
+
+import com.mobileautomation.exceptions.MobileAutomationException;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Hands out TCP ports that are free on the loopback interface and not already promised to
+ * another server or device in this JVM.
+ */
+public class PortAllocator {
+    private static final Logger logger = LogManager.getLogger(PortAllocator.class);
+    private final Set<Integer> reserved = ConcurrentHashMap.newKeySet();
+
+    public int allocate(PortRange range) {
+        for (int port = range.getFrom(); port <= range.getTo(); port++) {
+            if (reserved.add(port)) {
+                if (isFree(port)) {
+                    logger.debug("Allocated port {} from range {}", port, range);
+                    return port;
+                }
+                reserved.remove(port);
+            }
+        }
+        String error = "No free port left in range " + range;
+        String suggestion = "Widen the port range in config.properties or stop stale Appium/driver processes";
+        throw new MobileAutomationException("NO_FREE_PORT", error, suggestion);
+    }
+
+    public void release(int port) {
+        reserved.remove(port);
+    }
+
+    public static boolean isFree(int port) {
+        try (ServerSocket socket = new ServerSocket()) {
+            socket.setReuseAddress(false);
+            socket.bind(new InetSocketAddress("127.0.0.1", port));
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    public static class PortRange {
+        private final int from;
+        private final int to;
+
+        public PortRange(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        public static PortRange parse(String range) {
+            String[] bounds = range.trim().split("-");
+            int from = Integer.parseInt(bounds[0].trim());
+            return new PortRange(from, bounds.length > 1 ? Integer.parseInt(bounds[1].trim()) : from);
+        }
+
+        public int getFrom() {
+            return from;
+        }
+
+        public int getTo() {
+            return to;
+        }
+
+        @Override
+        public String toString() {
+            return from + "-" + to;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.mobileautomation.server;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Output stream that keeps only the last few lines an Appium server printed, so startup failures
+ * can report them without buffering the whole (debug level) log in memory.
+ */
+public class ServerLogTail extends OutputStream {
+    private static final int MAX_LINE_LENGTH = 2000;
+    private final int maxLines;
+    private final Deque<String> lines;
+    private final StringBuilder currentLine = new StringBuilder();
+
+    public ServerLogTail(int maxLines) {
+        this.maxLines = maxLines;
+        this.lines = new ArrayDeque<>(maxLines);
+    }
+
+    @Override
+    public synchronized void write(int b) {
+        if (b == '\n') {
+            flushLine();
+        } else if (b != '\r' && currentLine.length() < MAX_LINE_LENGTH) {
+            currentLine.append((char) b);
+        }
+    }
+
+    @Override
+    public synchronized void write(byte[] buffer, int offset, int length) {
+        String text = new String(buffer, offset, length, StandardCharsets.UTF_8);
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '\n') {
+                flushLine();
+            } else if (c != '\r' && currentLine.length() < MAX_LINE_LENGTH) {
+                currentLine.append(c);
+            }
+        }
+    }
+
+    public synchronized List<String> getLines() {
+        List<String> snapshot = new ArrayList<>(lines);
+        if (currentLine.length() > 0) {
+            snapshot.add(currentLine.toString());
+        }
+        return snapshot;
+    }
+
+    private void flushLine() {
+        if (lines.size() == maxLines) {
+            lines.removeFirst();
+        }
+        lines.addLast(currentLine.toString());
+        currentLine.setLength(0);
+    }
+}
@@ -0,0 +1,150 @@
+package com.mobileautomation.server;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mobileautomation.config.ConfigManager;
+import com.mobileautomation.exceptions.MobileAutomationException;
+import com.mobileautomation.metrics.MetricsRegistry;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Waits for an Appium server to answer {@code GET /status} with a 2.x build, polling with a short
+ * initial interval that backs off exponentially until the deadline.
+ */
+public class ServerReadinessProbe {
+    private static final Logger logger = LogManager.getLogger(ServerReadinessProbe.class);
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private final Duration initialInterval;
+    private final Duration maxInterval;
+    private final Duration timeout;
+    private final int requestTimeoutMs;
+
+    private enum Readiness {
+        READY, INCOMPATIBLE, UNAVAILABLE
+    }
+
+    public ServerReadinessProbe(Duration initialInterval, Duration maxInterval, Duration timeout) {
+        this.initialInterval = initialInterval;
+        this.maxInterval = maxInterval;
+        this.timeout = timeout;
+        this.requestTimeoutMs = (int) Math.min(maxInterval.toMillis() * 2, 2000);
+    }
+
+    public static ServerReadinessProbe fromConfig(ConfigManager config) {
+        return new ServerReadinessProbe(
+            Duration.ofMillis(config.getIntProperty("appium.server.ready.initial.interval.ms", 50)),
+            Duration.ofMillis(config.getIntProperty("appium.server.ready.max.interval.ms", 1000)),
+            Duration.ofSeconds(config.getIntProperty("appium.server.ready.timeout.seconds", 60)));
+    }
+
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    /**
+     * Blocks until the server at {@code serverUrl} is ready and returns how long that took.
+     *
+     * @param processAlive checked between polls so a crashed server fails immediately instead of at the deadline
+     * @param recentLog    last server log lines attached to the exception on failure
+     */
+    public Duration awaitReady(String serverUrl, BooleanSupplier processAlive, Supplier<List<String>> recentLog) {
+        long start = System.nanoTime();
+        long deadline = start + timeout.toNanos();
+        long intervalMs = initialInterval.toMillis();
+        int attempts = 0;
+
+        while (true) {
+            attempts++;
+            Readiness readiness = check(serverUrl);
+            if (readiness == Readiness.READY) {
+                Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+                MetricsRegistry.getInstance().timer("appium.server.ready").record(elapsed);
+                logger.debug("Appium server at {} ready after {}ms ({} probes)", serverUrl, elapsed.toMillis(), attempts);
+                return elapsed;
+            }
+            if (readiness == Readiness.INCOMPATIBLE) {
+                throw failure("APPIUM_SERVER_INCOMPATIBLE",
+                    "Server at " + serverUrl + " is not an Appium 2.x server", recentLog);
+            }
+            if (!processAlive.getAsBoolean()) {
+                throw failure("APPIUM_SERVER_EXITED",
+                    "Appium server at " + serverUrl + " exited before becoming ready", recentLog);
+            }
+            long remainingMs = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            if (remainingMs <= 0) {
+                throw failure("APPIUM_SERVER_NOT_READY", String.format(
+                    "Appium server at %s did not become ready within %ds (%d probes)",
+                    serverUrl, timeout.getSeconds(), attempts), recentLog);
+            }
+            try {
+                TimeUnit.MILLISECONDS.sleep(Math.min(intervalMs, remainingMs));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw failure("APPIUM_SERVER_NOT_READY", "Interrupted while waiting for Appium server at " + serverUrl, recentLog);
+            }
+            intervalMs = Math.min(intervalMs * 2, maxInterval.toMillis());
+        }
+    }
+
+    public Duration awaitReady(String serverUrl) {
+        return awaitReady(serverUrl, () -> true, Collections::emptyList);
+    }
+
+    /**
+     * Single probe: true when {@code /status} answers 200 with a 2.x build version.
+     */
+    public boolean isReady(String serverUrl) {
+        return check(serverUrl) == Readiness.READY;
+    }
+
+    private Readiness check(String serverUrl) {
+        JsonNode status = fetchStatus(serverUrl);
+        if (status == null) {
+            return Readiness.UNAVAILABLE;
+        }
+        String version = status.path("value").path("build").path("version").asText("");
+        return version.isEmpty() || version.startsWith("1.") ? Readiness.INCOMPATIBLE : Readiness.READY;
+    }
+
+    private JsonNode fetchStatus(String serverUrl) {
+        HttpURLConnection connection = null;
+        try {
+            String base = serverUrl.endsWith("/") ? serverUrl : serverUrl + "/";
+            connection = (HttpURLConnection) new URL(base + "status").openConnection();
+            connection.setConnectTimeout(requestTimeoutMs);
+            connection.setReadTimeout(requestTimeoutMs);
+            if (connection.getResponseCode() != 200) {
+                return null;
+            }
+            try (InputStream body = connection.getInputStream()) {
+                return MAPPER.readTree(body);
+            }
+        } catch (Exception e) {
+            return null;
+        } finally {
+            if (connection != null) {
+                connection.disconnect();
+            }
+        }
+    }
+
+    private static MobileAutomationException failure(String code, String error, Supplier<List<String>> recentLog) {
+        List<String> lines = recentLog.get();
+        if (!lines.isEmpty()) {
+            error += "\nLast server log lines:\n  " + String.join("\n  ", lines);
+        }
+        String suggestion = "Check the Appium log above, the installed drivers/plugins and appium.server.ready.timeout.seconds";
+        return new MobileAutomationException(code, error, suggestion);
+    }
+}
@@ -0,0 +1,184 @@
+package com.mobileautomation.snapshot;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * iOS class chain subset: {@code /}-separated element types or {@code *}, {@code **}{@code /} for any
+ * depth, and per-segment filters {@code [`predicate`]}, {@code [n]} / {@code [-n]} and
+ * {@code [$predicate$]} (has a matching descendant). Chains start from the application element.
+ */
+final class ClassChainQuery implements NodeQuery {
+    private static final String APPLICATION = "XCUIElementTypeApplication";
+
+    private final List<Segment> segments;
+
+    private ClassChainQuery(List<Segment> segments) {
+        this.segments = segments;
+    }
+
+    static ClassChainQuery compile(String expression) {
+        List<Segment> segments = new ArrayList<>();
+        int pos = 0;
+        while (pos < expression.length()) {
+            boolean anyDepth = false;
+            if (expression.startsWith("**/", pos)) {
+                anyDepth = true;
+                pos += 3;
+            }
+            int start = pos;
+            while (pos < expression.length() && expression.charAt(pos) != '[' && expression.charAt(pos) != '/') {
+                pos++;
+            }
+            String type = expression.substring(start, pos).trim();
+            if (type.isEmpty()) {
+                throw unsupported(expression);
+            }
+            List<Filter> filters = new ArrayList<>();
+            while (pos < expression.length() && expression.charAt(pos) == '[') {
+                pos++;
+                char open = pos < expression.length() ? expression.charAt(pos) : '\0';
+                if (open == '`' || open == '$') {
+                    int close = expression.indexOf(open, pos + 1);
+                    if (close < 0 || close + 1 >= expression.length() || expression.charAt(close + 1) != ']') {
+                        throw unsupported(expression);
+                    }
+                    PredicateQuery.Condition condition = PredicateQuery.parseCondition(expression.substring(pos + 1, close));
+                    filters.add(new Filter(condition, open == '$', 0));
+                    pos = close + 2;
+                } else {
+                    int close = expression.indexOf(']', pos);
+                    if (close < 0) {
+                        throw unsupported(expression);
+                    }
+                    int index;
+                    try {
+                        index = Integer.parseInt(expression.substring(pos, close).trim());
+                    } catch (NumberFormatException e) {
+                        throw unsupported(expression);
+                    }
+                    if (index == 0) {
+                        throw unsupported(expression);
+                    }
+                    filters.add(new Filter(null, false, index));
+                    pos = close + 1;
+                }
+            }
+            segments.add(new Segment(anyDepth, type, filters));
+            if (pos < expression.length()) {
+                if (expression.charAt(pos) != '/') {
+                    throw unsupported(expression);
+                }
+                pos++;
+            }
+        }
+        if (segments.isEmpty()) {
+            throw unsupported(expression);
+        }
+        return new ClassChainQuery(segments);
+    }
+
+    @Override
+    public IntList select(UiTree tree) {
+        IntList current = tree.byClass(APPLICATION);
+        if (current.isEmpty()) {
+            current = IntList.of(UiTree.ROOT);
+        }
+        for (Segment segment : segments) {
+            current = segment.apply(tree, current);
+            if (current.isEmpty()) {
+                break;
+            }
+        }
+        return current;
+    }
+
+    private static UnsupportedOperationException unsupported(String expression) {
+        return new UnsupportedOperationException("Unsupported class chain: " + expression);
+    }
+
+    private static final class Filter {
+        private final PredicateQuery.Condition condition;
+        private final boolean descendant;
+        private final int index;
+
+        Filter(PredicateQuery.Condition condition, boolean descendant, int index) {
+            this.condition = condition;
+            this.descendant = descendant;
+            this.index = index;
+        }
+
+        IntList apply(UiTree tree, IntList candidates) {
+            if (condition == null) {
+                int position = index > 0 ? index - 1 : candidates.size() + index;
+                return position >= 0 && position < candidates.size() ? IntList.of(candidates.get(position)) : IntList.EMPTY;
+            }
+            IntList kept = new IntList(candidates.size());
+            for (int i = 0; i < candidates.size(); i++) {
+                int node = candidates.get(i);
+                if (descendant ? hasMatchingDescendant(tree, node) : condition.test(tree, node)) {
+                    kept.add(node);
+                }
+            }
+            return kept;
+        }
+
+        private boolean hasMatchingDescendant(UiTree tree, int node) {
+            for (int descendant = node + 1; descendant < tree.end(node); descendant++) {
+                if (condition.test(tree, descendant)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private static final class Segment {
+        private final boolean anyDepth;
+        private final String type;
+        private final List<Filter> filters;
+
+        Segment(boolean anyDepth, String type, List<Filter> filters) {
+            this.anyDepth = anyDepth;
+            this.type = type;
+            this.filters = filters;
+        }
+
+        IntList apply(UiTree tree, IntList contexts) {
+            BitSet selected = new BitSet(tree.nodeCount());
+            for (int i = 0; i < contexts.size(); i++) {
+                int context = contexts.get(i);
+                IntList candidates = new IntList();
+                if (anyDepth) {
+                    for (int node = context + 1; node < tree.end(context); node++) {
+                        if (matches(tree, node)) {
+                            candidates.add(node);
+                        }
+                    }
+                } else {
+                    for (int child = context + 1; child < tree.end(context); child = tree.end(child)) {
+                        if (matches(tree, child)) {
+                            candidates.add(child);
+                        }
+                    }
+                }
+                for (Filter filter : filters) {
+                    candidates = filter.apply(tree, candidates);
+                }
+                for (int j = 0; j < candidates.size(); j++) {
+                    selected.set(candidates.get(j));
+                }
+            }
+            IntList result = new IntList(selected.cardinality());
+            for (int node = selected.nextSetBit(0); node >= 0; node = selected.nextSetBit(node + 1)) {
+                result.add(node);
+            }
+            return result;
+        }
+
+        private boolean matches(UiTree tree, int node) {
+            return type.equals("*") || type.equals(tree.className(node));
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.mobileautomation.snapshot;
+
+import com.mobileautomation.exceptions.MobileAutomationException;
+import io.appium.java_client.AppiumBy;
+import io.appium.java_client.pagefactory.AndroidFindBy;
+import io.appium.java_client.pagefactory.iOSXCUITFindBy;
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebElement;
+
+import java.lang.reflect.Field;
+
+/**
+ * Recovers the {@link By} behind a page factory field from its {@code @AndroidFindBy} /
+ * {@code @iOSXCUITFindBy} annotation, so page objects can hand their elements to snapshot assertions.
+ */
+public final class FieldLocators {
+
+    private FieldLocators() {
+    }
+
+    public static By locatorOf(Object page, WebElement element, boolean ios) {
+        for (Class<?> type = page.getClass(); type != Object.class; type = type.getSuperclass()) {
+            for (Field field : type.getDeclaredFields()) {
+                if (!WebElement.class.isAssignableFrom(field.getType())) {
+                    continue;
+                }
+                try {
+                    field.setAccessible(true);
+                    if (field.get(page) == element) {
+                        By locator = locatorOf(field, ios);
+                        if (locator != null) {
+                            return locator;
+                        }
+                    }
+                } catch (IllegalAccessException e) {
+                    // Not readable, keep looking
+                }
+            }
+        }
+        String error = "No locator annotation found for element on " + page.getClass().getSimpleName();
+        String suggestion = "Pass a page factory field annotated with @AndroidFindBy / @iOSXCUITFindBy";
+        throw new MobileAutomationException("LOCATOR_NOT_FOUND", error, suggestion);
+    }
+
+    /**
+     * Returns null when the field has no annotation for the platform, or only strategies this class does not map.
+     */
+    public static By locatorOf(Field field, boolean ios) {
+        return ios ? iosLocator(field) : androidLocator(field);
+    }
+
+    private static By androidLocator(Field field) {
+        AndroidFindBy findBy = field.getAnnotation(AndroidFindBy.class);
+        if (findBy == null) {
+            return null;
+        }
+        if (!findBy.id().isEmpty()) {
+            return AppiumBy.id(findBy.id());
+        }
+        if (!findBy.accessibility().isEmpty()) {
+            return AppiumBy.accessibilityId(findBy.accessibility());
+        }
+        if (!findBy.uiAutomator().isEmpty()) {
+            return AppiumBy.androidUIAutomator(findBy.uiAutomator());
+        }
+        if (!findBy.className().isEmpty()) {
+            return AppiumBy.className(findBy.className());
+        }
+        if (!findBy.xpath().isEmpty()) {
+            return By.xpath(findBy.xpath());
+        }
+        return null;
+    }
+
+    private static By iosLocator(Field field) {
+        iOSXCUITFindBy findBy = field.getAnnotation(iOSXCUITFindBy.class);
+        if (findBy == null) {
+            return null;
+        }
+        if (!findBy.accessibility().isEmpty()) {
+            return AppiumBy.accessibilityId(findBy.accessibility());
+        }
+        if (!findBy.id().isEmpty()) {
+            return AppiumBy.id(findBy.id());
+        }
+        if (!findBy.iOSNsPredicate().isEmpty()) {
+            return AppiumBy.iOSNsPredicateString(findBy.iOSNsPredicate());
+        }
+        if (!findBy.iOSClassChain().isEmpty()) {
+            return AppiumBy.iOSClassChain(findBy.iOSClassChain());
+        }
+        if (!findBy.className().isEmpty()) {
+            return AppiumBy.className(findBy.className());
+        }
+        if (!findBy.xpath().isEmpty()) {
+            return By.xpath(findBy.xpath());
+        }
+        return null;
+    }
+}
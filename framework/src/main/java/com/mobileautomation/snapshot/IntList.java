@@ -0,0 +1,52 @@
+package com.mobileautomation.snapshot;
+
+import java.util.Arrays;
+
+/**
+ * Growable list of node indexes, so index buckets and query results do not box every int.
+ * Lists handed out by {@link UiTree} are its index buckets and must be treated as read-only.
+ */
+final class IntList {
+    static final IntList EMPTY = new IntList(0);
+
+    private int[] values;
+    private int size;
+
+    IntList() {
+        this(8);
+    }
+
+    IntList(int capacity) {
+        this.values = new int[capacity];
+    }
+
+    static IntList of(int value) {
+        IntList list = new IntList(1);
+        list.add(value);
+        return list;
+    }
+
+    void add(int value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, Math.max(8, size * 2));
+        }
+        values[size++] = value;
+    }
+
+    int get(int index) {
+        return values[index];
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(Arrays.copyOf(values, size));
+    }
+}
@@ -0,0 +1,54 @@
+package com.mobileautomation.snapshot;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compiles locators into {@link NodeQuery} objects once per distinct locator. Expressions outside the
+ * supported subset are remembered as unsupported, so the fallback decision is also made once.
+ */
+final class LocatorCompiler {
+    private static final NodeQuery UNSUPPORTED = tree -> {
+        throw new UnsupportedOperationException();
+    };
+    private static final Map<String, NodeQuery> cache = new ConcurrentHashMap<>();
+
+    private LocatorCompiler() {
+    }
+
+    /**
+     * Returns null when the locator cannot be evaluated against a snapshot.
+     */
+    static NodeQuery compile(SnapshotLocator locator) {
+        NodeQuery query = cache.computeIfAbsent(locator.toString(), key -> {
+            try {
+                return doCompile(locator);
+            } catch (UnsupportedOperationException e) {
+                return UNSUPPORTED;
+            }
+        });
+        return query == UNSUPPORTED ? null : query;
+    }
+
+    private static NodeQuery doCompile(SnapshotLocator locator) {
+        String value = locator.value;
+        switch (locator.strategy) {
+            case ID:
+                return tree -> tree.byId(value);
+            case ACCESSIBILITY_ID:
+                return tree -> tree.byAccessibilityId(value);
+            case CLASS_NAME:
+                return tree -> tree.byClass(value);
+            case XPATH:
+                return XPathQuery.compile(value);
+            case ANDROID_UIAUTOMATOR:
+                return UiSelectorQuery.compile(value);
+            case IOS_PREDICATE:
+                return PredicateQuery.compile(value);
+            case IOS_CLASS_CHAIN:
+                return ClassChainQuery.compile(value);
+            default:
+                throw new UnsupportedOperationException(locator.toString());
+        }
+    }
+}
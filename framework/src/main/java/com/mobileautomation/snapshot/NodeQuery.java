@@ -0,0 +1,12 @@
+package com.mobileautomation.snapshot;
+
+/**
+ * A compiled locator. Implementations are immutable and shared between threads and snapshots.
+ */
+interface NodeQuery {
+
+    /**
+     * Returns the matching element nodes in document order.
+     */
+    IntList select(UiTree tree);
+}
@@ -0,0 +1,71 @@
+package com.mobileautomation.snapshot;
+
+import org.openqa.selenium.By;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One parsed copy of the UI hierarchy. Locators are evaluated against the {@link UiTree} instead of the
+ * device, so a page worth of assertions costs a single {@code getPageSource()} round trip.
+ * Obtain instances through {@link ScreenState#snapshot}, which also knows when they go stale.
+ */
+public class PageSnapshot {
+    private final UiTree tree;
+    private final long generation;
+    private final long capturedAtNanos;
+
+    PageSnapshot(UiTree tree, long generation) {
+        this.tree = tree;
+        this.generation = generation;
+        this.capturedAtNanos = System.nanoTime();
+    }
+
+    public static PageSnapshot parse(String source, boolean ios, long generation) {
+        return new PageSnapshot(UiTree.parse(source, ios), generation);
+    }
+
+    public long getGeneration() {
+        return generation;
+    }
+
+    public long getAgeMillis() {
+        return (System.nanoTime() - capturedAtNanos) / 1_000_000;
+    }
+
+    public UiTree getTree() {
+        return tree;
+    }
+
+    /**
+     * Whether the locator can be answered from this snapshot. Callers fall back to a live lookup otherwise.
+     */
+    public boolean supports(By locator) {
+        SnapshotLocator parsed = SnapshotLocator.of(locator);
+        return parsed != null && LocatorCompiler.compile(parsed) != null;
+    }
+
+    public List<SnapshotElement> findAll(By locator) {
+        SnapshotLocator parsed = SnapshotLocator.of(locator);
+        NodeQuery query = parsed == null ? null : LocatorCompiler.compile(parsed);
+        if (query == null) {
+            throw new UnsupportedOperationException("Locator cannot be evaluated against a snapshot: " + locator);
+        }
+        IntList nodes = query.select(tree);
+        List<SnapshotElement> matches = new ArrayList<>(nodes.size());
+        for (int i = 0; i < nodes.size(); i++) {
+            if (tree.isElement(nodes.get(i))) {
+                matches.add(new SnapshotElement(tree, nodes.get(i)));
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Returns the first match in document order, or null when the locator matches nothing.
+     */
+    public SnapshotElement find(By locator) {
+        List<SnapshotElement> matches = findAll(locator);
+        return matches.isEmpty() ? null : matches.get(0);
+    }
+}
@@ -0,0 +1,399 @@
+package com.mobileautomation.snapshot;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * iOS predicate string subset: {@code AND}/{@code OR}/{@code NOT} (and {@code && || !}), parentheses,
+ * and comparisons of an element attribute against a literal with {@code == != < <= > >= BEGINSWITH
+ * ENDSWITH CONTAINS LIKE MATCHES IN}, including the {@code [c]}/{@code [d]}/{@code [cd]} modifiers.
+ * {@code wdName}-style key paths are accepted as aliases. Like XCUITest it matches every
+ * {@code XCUIElementType*} node of the hierarchy.
+ */
+final class PredicateQuery implements NodeQuery {
+    private final Condition condition;
+
+    private PredicateQuery(Condition condition) {
+        this.condition = condition;
+    }
+
+    static PredicateQuery compile(String expression) {
+        return new PredicateQuery(parseCondition(expression));
+    }
+
+    static Condition parseCondition(String expression) {
+        Parser parser = new Parser(expression);
+        Condition condition = parser.parseOr();
+        parser.expectEnd();
+        return condition;
+    }
+
+    @Override
+    public IntList select(UiTree tree) {
+        IntList result = new IntList();
+        for (int node = 1; node < tree.nodeCount(); node++) {
+            if (tree.className(node).startsWith("XCUIElementType") && condition.test(tree, node)) {
+                result.add(node);
+            }
+        }
+        return result;
+    }
+
+    interface Condition {
+        boolean test(UiTree tree, int node);
+    }
+
+    private static final class Comparison implements Condition {
+        private final String attribute;
+        private final String operator;
+        private final boolean caseInsensitive;
+        private final boolean diacriticInsensitive;
+        private final List<Object> values;
+        private final Pattern pattern;
+
+        Comparison(String attribute, String operator, String modifiers, List<Object> values) {
+            this.attribute = attribute;
+            this.operator = operator;
+            this.caseInsensitive = modifiers.contains("c");
+            this.diacriticInsensitive = modifiers.contains("d");
+            this.values = values;
+            if (operator.equals("LIKE") || operator.equals("MATCHES")) {
+                String source = normalize(String.valueOf(values.get(0)));
+                String regex = operator.equals("MATCHES") ? source : likeToRegex(source);
+                this.pattern = Pattern.compile(regex, Pattern.DOTALL);
+            } else {
+                this.pattern = null;
+            }
+        }
+
+        @Override
+        public boolean test(UiTree tree, int node) {
+            String actual = tree.attribute(node, attribute);
+            if (actual == null) {
+                return operator.equals("!=");
+            }
+            Object expected = values.get(0);
+            switch (operator) {
+                case "IN":
+                    for (Object value : values) {
+                        if (equalTo(actual, value)) {
+                            return true;
+                        }
+                    }
+                    return false;
+                case "==":
+                    return equalTo(actual, expected);
+                case "!=":
+                    return !equalTo(actual, expected);
+                case "<":
+                case "<=":
+                case ">":
+                case ">=":
+                    return compareNumbers(actual, expected);
+                case "BEGINSWITH":
+                    return normalize(actual).startsWith(normalize(String.valueOf(expected)));
+                case "ENDSWITH":
+                    return normalize(actual).endsWith(normalize(String.valueOf(expected)));
+                case "CONTAINS":
+                    return normalize(actual).contains(normalize(String.valueOf(expected)));
+                default:
+                    return pattern.matcher(normalize(actual)).matches();
+            }
+        }
+
+        private boolean equalTo(String actual, Object expected) {
+            if (expected instanceof Boolean) {
+                return toBoolean(actual) == (Boolean) expected;
+            }
+            if (expected instanceof Double) {
+                if (actual.equals("true") || actual.equals("false")) {
+                    return toBoolean(actual) == ((Double) expected != 0);
+                }
+                try {
+                    return Double.parseDouble(actual) == (Double) expected;
+                } catch (NumberFormatException e) {
+                    return false;
+                }
+            }
+            return normalize(actual).equals(normalize(String.valueOf(expected)));
+        }
+
+        private boolean compareNumbers(String actual, Object expected) {
+            if (!(expected instanceof Double)) {
+                return false;
+            }
+            double a;
+            try {
+                a = Double.parseDouble(actual);
+            } catch (NumberFormatException e) {
+                return false;
+            }
+            double b = (Double) expected;
+            switch (operator) {
+                case "<":
+                    return a < b;
+                case "<=":
+                    return a <= b;
+                case ">":
+                    return a > b;
+                default:
+                    return a >= b;
+            }
+        }
+
+        private String normalize(String value) {
+            String result = value;
+            if (diacriticInsensitive) {
+                result = Normalizer.normalize(result, Normalizer.Form.NFD).replaceAll("\\p{M}", "");
+            }
+            if (caseInsensitive) {
+                result = result.toLowerCase(Locale.ROOT);
+            }
+            return result;
+        }
+
+        private static boolean toBoolean(String value) {
+            return value.equals("true") || value.equals("1") || value.equalsIgnoreCase("yes");
+        }
+
+        private static String likeToRegex(String like) {
+            StringBuilder regex = new StringBuilder();
+            for (char c : like.toCharArray()) {
+                if (c == '*') {
+                    regex.append(".*");
+                } else if (c == '?') {
+                    regex.append('.');
+                } else {
+                    regex.append(Pattern.quote(String.valueOf(c)));
+                }
+            }
+            return regex.toString();
+        }
+    }
+
+    private static final class Parser {
+        private final String text;
+        private int pos;
+
+        Parser(String text) {
+            this.text = text;
+        }
+
+        Condition parseOr() {
+            Condition left = parseAnd();
+            while (keyword("OR") || symbol("||")) {
+                Condition first = left;
+                Condition second = parseAnd();
+                left = (tree, node) -> first.test(tree, node) || second.test(tree, node);
+            }
+            return left;
+        }
+
+        void expectEnd() {
+            skipSpace();
+            if (pos < text.length()) {
+                throw unsupported();
+            }
+        }
+
+        private Condition parseAnd() {
+            Condition left = parseNot();
+            while (keyword("AND") || symbol("&&")) {
+                Condition first = left;
+                Condition second = parseNot();
+                left = (tree, node) -> first.test(tree, node) && second.test(tree, node);
+            }
+            return left;
+        }
+
+        private Condition parseNot() {
+            if (keyword("NOT") || (!text.startsWith("!=", pos) && symbol("!"))) {
+                Condition inner = parseNot();
+                return (tree, node) -> !inner.test(tree, node);
+            }
+            if (symbol("(")) {
+                Condition inner = parseOr();
+                if (!symbol(")")) {
+                    throw unsupported();
+                }
+                return inner;
+            }
+            return parseComparison();
+        }
+
+        private Condition parseComparison() {
+            String attribute = attributeName(readIdentifier());
+            String operator = readOperator();
+            String modifiers = "";
+            skipSpace();
+            if (peek() == '[') {
+                int close = text.indexOf(']', pos);
+                if (close < 0) {
+                    throw unsupported();
+                }
+                modifiers = text.substring(pos + 1, close).toLowerCase(Locale.ROOT);
+                pos = close + 1;
+            }
+            List<Object> values = new ArrayList<>();
+            if (operator.equals("IN")) {
+                if (!symbol("{")) {
+                    throw unsupported();
+                }
+                values.add(readValue());
+                while (symbol(",")) {
+                    values.add(readValue());
+                }
+                if (!symbol("}")) {
+                    throw unsupported();
+                }
+            } else {
+                values.add(readValue());
+            }
+            return new Comparison(attribute, operator, modifiers, values);
+        }
+
+        private String readOperator() {
+            skipSpace();
+            for (String symbolic : new String[] {"==", "!=", "<>", "<=", "=<", ">=", "=>", "=", "<", ">"}) {
+                if (text.startsWith(symbolic, pos)) {
+                    pos += symbolic.length();
+                    switch (symbolic) {
+                        case "=":
+                            return "==";
+                        case "<>":
+                            return "!=";
+                        case "=<":
+                            return "<=";
+                        case "=>":
+                            return ">=";
+                        default:
+                            return symbolic;
+                    }
+                }
+            }
+            String word = readIdentifier().toUpperCase(Locale.ROOT);
+            switch (word) {
+                case "BEGINSWITH":
+                case "ENDSWITH":
+                case "CONTAINS":
+                case "LIKE":
+                case "MATCHES":
+                case "IN":
+                    return word;
+                default:
+                    throw unsupported();
+            }
+        }
+
+        private Object readValue() {
+            skipSpace();
+            char c = peek();
+            if (c == '\'' || c == '"') {
+                StringBuilder value = new StringBuilder();
+                pos++;
+                while (pos < text.length() && text.charAt(pos) != c) {
+                    char current = text.charAt(pos++);
+                    if (current == '\\' && pos < text.length()) {
+                        current = text.charAt(pos++);
+                    }
+                    value.append(current);
+                }
+                if (pos >= text.length()) {
+                    throw unsupported();
+                }
+                pos++;
+                return value.toString();
+            }
+            if (Character.isDigit(c) || c == '-') {
+                int start = pos++;
+                while (pos < text.length() && (Character.isDigit(text.charAt(pos)) || text.charAt(pos) == '.')) {
+                    pos++;
+                }
+                return Double.parseDouble(text.substring(start, pos));
+            }
+            String word = readIdentifier().toUpperCase(Locale.ROOT);
+            switch (word) {
+                case "TRUE":
+                case "YES":
+                    return Boolean.TRUE;
+                case "FALSE":
+                case "NO":
+                    return Boolean.FALSE;
+                default:
+                    // Key paths on the right-hand side, nil and variables need the real XCTest engine
+                    throw unsupported();
+            }
+        }
+
+        private static String attributeName(String keyPath) {
+            if (keyPath.startsWith("wd") && keyPath.length() > 2 && Character.isUpperCase(keyPath.charAt(2))) {
+                return Character.toLowerCase(keyPath.charAt(2)) + keyPath.substring(3);
+            }
+            switch (keyPath) {
+                case "type":
+                case "name":
+                case "label":
+                case "value":
+                case "enabled":
+                case "visible":
+                case "accessible":
+                case "selected":
+                case "focused":
+                case "hittable":
+                case "index":
+                    return keyPath;
+                default:
+                    throw new UnsupportedOperationException("Unsupported predicate key path: " + keyPath);
+            }
+        }
+
+        private String readIdentifier() {
+            skipSpace();
+            int start = pos;
+            while (pos < text.length() && (Character.isLetterOrDigit(text.charAt(pos)) || text.charAt(pos) == '_')) {
+                pos++;
+            }
+            if (start == pos) {
+                throw unsupported();
+            }
+            return text.substring(start, pos);
+        }
+
+        private boolean keyword(String word) {
+            skipSpace();
+            int end = pos + word.length();
+            if (text.regionMatches(true, pos, word, 0, word.length())
+                    && (end == text.length() || !Character.isLetterOrDigit(text.charAt(end)))) {
+                pos = end;
+                return true;
+            }
+            return false;
+        }
+
+        private boolean symbol(String symbol) {
+            skipSpace();
+            if (text.startsWith(symbol, pos)) {
+                pos += symbol.length();
+                return true;
+            }
+            return false;
+        }
+
+        private char peek() {
+            return pos < text.length() ? text.charAt(pos) : '\0';
+        }
+
+        private void skipSpace() {
+            while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+                pos++;
+            }
+        }
+
+        private UnsupportedOperationException unsupported() {
+            return new UnsupportedOperationException("Unsupported predicate at offset " + pos + ": " + text);
+        }
+    }
+}
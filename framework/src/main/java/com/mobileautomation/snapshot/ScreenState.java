@@ -0,0 +1,102 @@
+package com.mobileautomation.snapshot;
+
+import com.mobileautomation.config.ConfigManager;
+import com.mobileautomation.metrics.MetricsRegistry;
+import io.appium.java_client.AppiumDriver;
+import io.appium.java_client.ios.IOSDriver;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Tracks, per driver, a generation number that every mutating action (tap, type, swipe, navigation)
+ * bumps through {@link #invalidate}. A cached {@link PageSnapshot} is reused only while its generation
+ * is current and it is younger than {@code snapshot.max.age.ms}, which covers screens that change on
+ * their own.
+ */
+public final class ScreenState {
+    private static final Logger logger = LogManager.getLogger(ScreenState.class);
+    // Weak keys so a quit driver does not keep its last snapshot alive; the state never references the driver
+    private static final Map<AppiumDriver, ScreenState> states = Collections.synchronizedMap(new WeakHashMap<>());
+    private static final boolean enabled = ConfigManager.getInstance().getBooleanProperty("snapshot.enabled", true);
+    private static final long maxAgeMillis = ConfigManager.getInstance().getIntProperty("snapshot.max.age.ms", 2000);
+
+    private long generation;
+    private PageSnapshot snapshot;
+
+    private ScreenState() {
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns the current snapshot for the driver, fetching the page source if the screen may have changed.
+     */
+    public static PageSnapshot snapshot(AppiumDriver driver) {
+        return stateOf(driver).currentSnapshot(driver);
+    }
+
+    /**
+     * Returns the current snapshot only if one is already cached, never fetching the page source.
+     */
+    public static PageSnapshot peek(AppiumDriver driver) {
+        ScreenState state = states.get(driver);
+        return state == null ? null : state.cachedSnapshot();
+    }
+
+    public static void invalidate(AppiumDriver driver) {
+        if (driver == null) {
+            return;
+        }
+        // Created on demand: element caches compare generations even when no snapshot was ever taken
+        stateOf(driver).bump();
+    }
+
+    public static long generation(AppiumDriver driver) {
+        ScreenState state = states.get(driver);
+        return state == null ? 0 : state.currentGeneration();
+    }
+
+    private static ScreenState stateOf(AppiumDriver driver) {
+        return states.computeIfAbsent(driver, d -> new ScreenState());
+    }
+
+    private synchronized void bump() {
+        generation++;
+        snapshot = null;
+        MetricsRegistry.getInstance().increment("snapshot.invalidations");
+    }
+
+    private synchronized long currentGeneration() {
+        return generation;
+    }
+
+    private synchronized PageSnapshot cachedSnapshot() {
+        return isCurrent() ? snapshot : null;
+    }
+
+    private boolean isCurrent() {
+        return snapshot != null && snapshot.getGeneration() == generation && snapshot.getAgeMillis() <= maxAgeMillis;
+    }
+
+    private synchronized PageSnapshot currentSnapshot(AppiumDriver driver) {
+        MetricsRegistry metrics = MetricsRegistry.getInstance();
+        if (isCurrent()) {
+            metrics.increment("snapshot.hits");
+            return snapshot;
+        }
+        long start = System.nanoTime();
+        String source = driver.getPageSource();
+        snapshot = PageSnapshot.parse(source, driver instanceof IOSDriver, generation);
+        metrics.timer("snapshot.fetch").recordSince(start);
+        metrics.increment("snapshot.misses");
+        logger.debug("Captured page snapshot (generation {}, {} chars) in {}ms",
+            generation, source.length(), (System.nanoTime() - start) / 1_000_000);
+        return snapshot;
+    }
+}
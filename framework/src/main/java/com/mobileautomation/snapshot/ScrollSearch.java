@@ -0,0 +1,333 @@
+package com.mobileautomation.snapshot;
+
+import com.mobileautomation.config.ConfigManager;
+import com.mobileautomation.exceptions.MobileAutomationException;
+import com.mobileautomation.metrics.MetricsRegistry;
+import com.mobileautomation.utils.GestureEngine;
+import com.mobileautomation.utils.LocatorStrategy;
+import com.mobileautomation.utils.MobileInteractionUtils.Direction;
+import io.appium.java_client.AppiumBy;
+import io.appium.java_client.AppiumDriver;
+import io.appium.java_client.ios.IOSDriver;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openqa.selenium.By;
+import org.openqa.selenium.Dimension;
+import org.openqa.selenium.Rectangle;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.WebElement;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Scroll-to-find. The platform's own scroll search is tried first ({@code UiScrollable.scrollIntoView}
+ * on Android, {@code mobile: scroll} on iOS) since it finds the element in one command. Otherwise the
+ * search swipes and reads the page source after each swipe:
+ * <ul>
+ *   <li>the locator is evaluated against the snapshot, so a swipe costs one source fetch rather than a
+ *   find per swipe;</li>
+ *   <li>an element that is already in the source but outside the viewport (iOS keeps off-screen cells)
+ *   is scrolled to directly, by the distance between it and the middle of the screen;</li>
+ *   <li>when a swipe leaves the hierarchy unchanged, or moves nothing twice in a row, the end of the
+ *   list was reached and the search stops instead of swiping until the limit.</li>
+ * </ul>
+ * Swipes per find are counted per locator under {@code scroll.swipes.<locator>} /
+ * {@code scroll.finds.<locator>} and logged with the run metrics.
+ */
+public final class ScrollSearch {
+    private static final Logger logger = LogManager.getLogger(ScrollSearch.class);
+    private static final int MAX_KEY_LENGTH = 120;
+    private static final int NO_ANCHORS = Integer.MIN_VALUE;
+    private static final String[] ANCHOR_ATTRIBUTES = {"resource-id", "content-desc", "text", "name", "label"};
+    private static ScrollSearch instance;
+    private final MetricsRegistry metrics = MetricsRegistry.getInstance();
+    private final GestureEngine gestures = GestureEngine.getInstance();
+    private final Set<String> keys = ConcurrentHashMap.newKeySet();
+    private final boolean nativeEnabled;
+    private final int maxSwipes;
+
+    private ScrollSearch() {
+        ConfigManager config = ConfigManager.getInstance();
+        nativeEnabled = config.getBooleanProperty("scroll.native.enabled", true);
+        maxSwipes = config.getIntProperty("scroll.max.swipes", 10);
+    }
+
+    public static synchronized ScrollSearch getInstance() {
+        if (instance == null) {
+            instance = new ScrollSearch();
+        }
+        return instance;
+    }
+
+    /**
+     * Scrolls in the given direction (the direction the finger moves) until the locator matches a
+     * displayed element, and returns it.
+     */
+    public WebElement find(AppiumDriver driver, By locator, Direction direction) {
+        long start = System.nanoTime();
+        Search search = new Search(driver, locator, direction);
+        try {
+            return search.run();
+        } finally {
+            String key = keyOf(locator);
+            keys.add(key);
+            metrics.increment("scroll.finds." + key);
+            metrics.increment("scroll.swipes." + key, search.swipes);
+            metrics.timer("scroll.find").recordSince(start);
+        }
+    }
+
+    public void logStats() {
+        List<String> sorted = new ArrayList<>(keys);
+        sorted.sort(Comparator.comparingDouble(this::swipesPerFind).reversed());
+        for (String key : sorted) {
+            logger.info("Scroll search {}: finds={}, swipes={}, swipes/find={}", key, metrics.getCount("scroll.finds." + key),
+                metrics.getCount("scroll.swipes." + key), String.format("%.1f", swipesPerFind(key)));
+        }
+        logger.info("Scroll search native finds={}, native failures={}, ended early={}", metrics.getCount("scroll.native.finds"),
+            metrics.getCount("scroll.native.failures"), metrics.getCount("scroll.end.of.list"));
+    }
+
+    public double getSwipesPerFind(By locator) {
+        return swipesPerFind(keyOf(locator));
+    }
+
+    private double swipesPerFind(String key) {
+        long finds = metrics.getCount("scroll.finds." + key);
+        return finds == 0 ? 0 : (double) metrics.getCount("scroll.swipes." + key) / finds;
+    }
+
+    private static String keyOf(By locator) {
+        String key = locator.toString();
+        return key.length() > MAX_KEY_LENGTH ? key.substring(0, MAX_KEY_LENGTH) : key;
+    }
+
+    private final class Search {
+        private final AppiumDriver driver;
+        private final By locator;
+        private final Direction direction;
+        private final boolean vertical;
+        private int swipes;
+
+        Search(AppiumDriver driver, By locator, Direction direction) {
+            this.driver = driver;
+            this.locator = locator;
+            this.direction = direction;
+            this.vertical = direction == Direction.UP || direction == Direction.DOWN;
+        }
+
+        WebElement run() {
+            if (nativeEnabled) {
+                WebElement element = scrollNatively();
+                if (element != null) {
+                    metrics.increment("scroll.native.finds");
+                    return element;
+                }
+            }
+            Dimension viewport = gestures.viewport(driver);
+            PageSnapshot current = ScreenState.snapshot(driver);
+            boolean local = current.supports(locator);
+            int stalled = 0;
+            while (true) {
+                if (local) {
+                    SnapshotElement match = current.find(locator);
+                    int offset = match == null ? 0 : offscreenOffset(match.getRect(), viewport);
+                    if (match != null && offset == 0 && match.isDisplayed()) {
+                        return driver.findElement(locator);
+                    }
+                    if (offset != 0 && swipes < maxSwipes) {
+                        logger.debug("{} is {}px outside the viewport, scrolling to it", locator, offset);
+                        gestures.scrollBy(driver, towards(offset), Math.abs(offset));
+                        current = afterSwipe();
+                        continue;
+                    }
+                } else {
+                    WebElement element = findDisplayed();
+                    if (element != null) {
+                        return element;
+                    }
+                }
+                if (swipes >= maxSwipes) {
+                    break;
+                }
+                gestures.scroll(driver, direction);
+                PageSnapshot next = afterSwipe();
+                int moved = shift(current.getTree(), next.getTree());
+                stalled = moved == 0 ? stalled + 1 : 0;
+                if (signature(current.getTree()) == signature(next.getTree()) || stalled == 2) {
+                    metrics.increment("scroll.end.of.list");
+                    String error = String.format("Reached the end of the list after %d swipes %s without finding %s", swipes, direction, locator);
+                    String suggestion = "Check the locator, or scroll in the opposite direction";
+                    throw new MobileAutomationException("ELEMENT_NOT_FOUND", error, suggestion);
+                }
+                current = next;
+            }
+            String error = String.format("Element not visible after %d swipes %s: %s", maxSwipes, direction, locator);
+            String suggestion = "Check the scroll direction, or raise scroll.max.swipes for long lists";
+            throw new MobileAutomationException("ELEMENT_NOT_FOUND", error, suggestion);
+        }
+
+        private PageSnapshot afterSwipe() {
+            swipes++;
+            ScreenState.invalidate(driver);
+            return ScreenState.snapshot(driver);
+        }
+
+        /**
+         * Signed distance, along the scroll axis, between the element's centre and the middle of the
+         * viewport when the centre is off screen; 0 when it is on screen.
+         */
+        private int offscreenOffset(Rectangle rect, Dimension viewport) {
+            int centre = vertical ? rect.y + rect.height / 2 : rect.x + rect.width / 2;
+            int length = vertical ? viewport.height : viewport.width;
+            return centre >= 0 && centre < length ? 0 : centre - length / 2;
+        }
+
+        /**
+         * Content below or right of the viewport comes into view by moving the finger up or left.
+         */
+        private Direction towards(int offset) {
+            if (vertical) {
+                return offset > 0 ? Direction.UP : Direction.DOWN;
+            }
+            return offset > 0 ? Direction.LEFT : Direction.RIGHT;
+        }
+
+        private WebElement findDisplayed() {
+            List<WebElement> found = driver.findElements(locator);
+            for (WebElement element : found) {
+                if (element.isDisplayed()) {
+                    return element;
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Median movement along the scroll axis of the elements both trees identify the same way, or
+         * {@link #NO_ANCHORS} when they have none in common.
+         */
+        private int shift(UiTree before, UiTree after) {
+            Map<String, Integer> positions = anchors(before);
+            Map<String, Integer> moved = anchors(after);
+            List<Integer> deltas = new ArrayList<>();
+            moved.forEach((key, position) -> {
+                Integer previous = positions.get(key);
+                if (previous != null && previous != NO_ANCHORS && position != NO_ANCHORS) {
+                    deltas.add(previous - position);
+                }
+            });
+            if (deltas.isEmpty()) {
+                return NO_ANCHORS;
+            }
+            Collections.sort(deltas);
+            return deltas.get(deltas.size() / 2);
+        }
+
+        /**
+         * Centre coordinate of every element with an identifying attribute; keys seen twice are ambiguous.
+         */
+        private Map<String, Integer> anchors(UiTree tree) {
+            Map<String, Integer> anchors = new HashMap<>();
+            for (int node = 1; node < tree.nodeCount(); node++) {
+                String key = anchorKey(tree, node);
+                if (key == null) {
+                    continue;
+                }
+                Rectangle rect = tree.bounds(node);
+                int centre = vertical ? rect.y + rect.height / 2 : rect.x + rect.width / 2;
+                anchors.merge(key, centre, (first, second) -> NO_ANCHORS);
+            }
+            return anchors;
+        }
+
+        private String anchorKey(UiTree tree, int node) {
+            if (!tree.isElement(node)) {
+                return null;
+            }
+            for (String attribute : ANCHOR_ATTRIBUTES) {
+                String value = tree.attribute(node, attribute);
+                if (value != null && !value.isEmpty()) {
+                    return tree.className(node) + '|' + attribute + '=' + value;
+                }
+            }
+            return null;
+        }
+
+        private int signature(UiTree tree) {
+            int hash = tree.nodeCount();
+            for (int node = 1; node < tree.nodeCount(); node++) {
+                hash = 31 * hash + Arrays.hashCode(tree.attributes(node));
+            }
+            return hash;
+        }
+
+        private WebElement scrollNatively() {
+            SnapshotLocator parsed = SnapshotLocator.of(locator);
+            boolean ios = driver instanceof IOSDriver;
+            Map<String, Object> arguments = parsed == null || !ios ? null : iosScrollArguments(parsed);
+            String selector = parsed == null || ios ? null : uiSelector(parsed);
+            if (arguments == null && selector == null) {
+                return null;
+            }
+            try {
+                if (ios) {
+                    driver.executeScript("mobile: scroll", arguments);
+                    return findDisplayed();
+                }
+                String scrollable = "new UiScrollable(new UiSelector().scrollable(true))"
+                    + (vertical ? "" : ".setAsHorizontalList()") + ".scrollIntoView(" + selector + ")";
+                List<WebElement> found = driver.findElements(AppiumBy.androidUIAutomator(scrollable));
+                return found.isEmpty() ? null : found.get(0);
+            } catch (WebDriverException e) {
+                // No scrollable container, or a server without the command: swiping still works
+                logger.debug("Native scroll to {} failed, swiping instead: {}", locator, e.getMessage());
+                metrics.increment("scroll.native.failures");
+                return null;
+            } finally {
+                ScreenState.invalidate(driver);
+            }
+        }
+
+        private Map<String, Object> iosScrollArguments(SnapshotLocator parsed) {
+            Map<String, Object> arguments = new HashMap<>();
+            if (parsed.strategy == LocatorStrategy.ACCESSIBILITY_ID || parsed.strategy == LocatorStrategy.ID) {
+                arguments.put("name", parsed.value);
+            } else if (parsed.strategy == LocatorStrategy.IOS_PREDICATE) {
+                arguments.put("predicateString", parsed.value);
+            } else {
+                return null;
+            }
+            arguments.put("toVisible", true);
+            return arguments;
+        }
+
+        private String uiSelector(SnapshotLocator parsed) {
+            switch (parsed.strategy) {
+                case ID:
+                    return parsed.value.contains(":id/")
+                        ? "new UiSelector().resourceId(" + quoted(parsed.value) + ")"
+                        : "new UiSelector().resourceIdMatches(" + quoted(".*:id/" + Pattern.quote(parsed.value)) + ")";
+                case ACCESSIBILITY_ID:
+                    return "new UiSelector().description(" + quoted(parsed.value) + ")";
+                case ANDROID_UIAUTOMATOR:
+                    return parsed.value.startsWith("new UiSelector()") ? parsed.value : null;
+                default:
+                    return null;
+            }
+        }
+
+        private String quoted(String value) {
+            return '"' + value.replace("\\", "\\\\").replace("\"", "\\\"") + '"';
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.mobileautomation.snapshot;
+
+import org.openqa.selenium.Rectangle;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A node of a {@link PageSnapshot}. The accessors mirror the {@code WebElement} ones and read the
+ * attributes UiAutomator2 and XCUITest put in the page source.
+ */
+public class SnapshotElement {
+    private final UiTree tree;
+    private final int node;
+
+    SnapshotElement(UiTree tree, int node) {
+        this.tree = tree;
+        this.node = node;
+    }
+
+    public String getClassName() {
+        return tree.className(node);
+    }
+
+    public String getAttribute(String name) {
+        return tree.attribute(node, name);
+    }
+
+    public Map<String, String> getAttributes() {
+        String[] attributes = tree.attributes(node);
+        Map<String, String> result = new LinkedHashMap<>();
+        for (int i = 0; i < attributes.length; i += 2) {
+            result.put(attributes[i], attributes[i + 1]);
+        }
+        return result;
+    }
+
+    /**
+     * Element rectangle in screen coordinates, from {@code bounds} on Android and x/y/width/height on iOS.
+     */
+    public Rectangle getRect() {
+        return tree.bounds(node);
+    }
+
+    public boolean isDisplayed() {
+        // Older UiAutomator2 servers omit "displayed"; anything in their dump is on screen
+        return flag(tree.isIos() ? "visible" : "displayed", !tree.isIos());
+    }
+
+    public boolean isEnabled() {
+        return flag("enabled", true);
+    }
+
+    public boolean isSelected() {
+        return flag("selected", false) || flag("checked", false);
+    }
+
+    public String getText() {
+        if (!tree.isIos()) {
+            return valueOrEmpty(getAttribute("text"));
+        }
+        String value = getAttribute("value");
+        return value != null ? value : valueOrEmpty(getAttribute("label"));
+    }
+
+    private boolean flag(String name, boolean defaultValue) {
+        String value = getAttribute(name);
+        return value == null ? defaultValue : Boolean.parseBoolean(value);
+    }
+
+    private static String valueOrEmpty(String value) {
+        return value == null ? "" : value;
+    }
+
+    @Override
+    public String toString() {
+        return getClassName() + getAttributes();
+    }
+}
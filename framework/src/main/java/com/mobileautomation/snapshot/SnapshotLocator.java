@@ -0,0 +1,64 @@
+package com.mobileautomation.snapshot;
+
+import com.mobileautomation.utils.LocatorStrategy;
+import org.openqa.selenium.By;
+
+/**
+ * Strategy and value of a {@link By}, recovered from its {@code toString()} form
+ * ({@code "By.id: foo"}, {@code "AppiumBy.accessibilityId: foo"}).
+ */
+final class SnapshotLocator {
+    final LocatorStrategy strategy;
+    final String value;
+
+    private SnapshotLocator(LocatorStrategy strategy, String value) {
+        this.strategy = strategy;
+        this.value = value;
+    }
+
+    /**
+     * Returns null for strategies that have no meaning on a native hierarchy, such as CSS selectors.
+     */
+    static SnapshotLocator of(By by) {
+        String description = by.toString();
+        int colon = description.indexOf(": ");
+        if (colon < 0) {
+            return null;
+        }
+        String prefix = description.substring(0, colon);
+        String value = description.substring(colon + 2);
+        LocatorStrategy strategy;
+        switch (prefix.substring(prefix.lastIndexOf('.') + 1)) {
+            case "id":
+                strategy = LocatorStrategy.ID;
+                break;
+            case "accessibilityId":
+                strategy = LocatorStrategy.ACCESSIBILITY_ID;
+                break;
+            case "className":
+            case "tagName":
+                strategy = LocatorStrategy.CLASS_NAME;
+                break;
+            case "xpath":
+                strategy = LocatorStrategy.XPATH;
+                break;
+            case "androidUIAutomator":
+                strategy = LocatorStrategy.ANDROID_UIAUTOMATOR;
+                break;
+            case "iOSNsPredicate":
+                strategy = LocatorStrategy.IOS_PREDICATE;
+                break;
+            case "iOSClassChain":
+                strategy = LocatorStrategy.IOS_CLASS_CHAIN;
+                break;
+            default:
+                return null;
+        }
+        return new SnapshotLocator(strategy, value);
+    }
+
+    @Override
+    public String toString() {
+        return strategy.getValue() + ": " + value;
+    }
+}
@@ -0,0 +1,299 @@
+package com.mobileautomation.snapshot;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * {@code new UiSelector()} chains evaluated over an Android hierarchy: text, description, resource id,
+ * class and package matchers (exact, contains, starts-with, regex), the boolean state flags,
+ * {@code index}, {@code instance}, {@code childSelector} and {@code fromParent}. {@code UiScrollable}
+ * needs the device to scroll and is rejected.
+ */
+final class UiSelectorQuery implements NodeQuery {
+    private final List<Condition> conditions;
+    private final int instance;
+    private final UiSelectorQuery child;
+    private final UiSelectorQuery sibling;
+
+    private UiSelectorQuery(List<Condition> conditions, int instance, UiSelectorQuery child, UiSelectorQuery sibling) {
+        this.conditions = conditions;
+        this.instance = instance;
+        this.child = child;
+        this.sibling = sibling;
+    }
+
+    static UiSelectorQuery compile(String expression) {
+        Parser parser = new Parser(expression.trim());
+        UiSelectorQuery query = parser.parseSelector();
+        parser.expectEnd();
+        return query;
+    }
+
+    @Override
+    public IntList select(UiTree tree) {
+        return selectWithin(tree, UiTree.ROOT);
+    }
+
+    private IntList selectWithin(UiTree tree, int context) {
+        IntList matches = new IntList();
+        for (int node = context + 1; node < tree.end(context); node++) {
+            if (matches(tree, node)) {
+                matches.add(node);
+            }
+        }
+        if (instance >= 0) {
+            matches = instance < matches.size() ? IntList.of(matches.get(instance)) : IntList.EMPTY;
+        }
+        if (child == null && sibling == null) {
+            return matches;
+        }
+        BitSet related = new BitSet(tree.nodeCount());
+        for (int i = 0; i < matches.size(); i++) {
+            int node = matches.get(i);
+            IntList found = child != null
+                ? child.selectWithin(tree, node)
+                : sibling.selectWithin(tree, Math.max(UiTree.ROOT, tree.parent(node)));
+            for (int j = 0; j < found.size(); j++) {
+                related.set(found.get(j));
+            }
+        }
+        IntList result = new IntList(related.cardinality());
+        for (int node = related.nextSetBit(0); node >= 0; node = related.nextSetBit(node + 1)) {
+            result.add(node);
+        }
+        return result;
+    }
+
+    private boolean matches(UiTree tree, int node) {
+        for (Condition condition : conditions) {
+            if (!condition.test(tree, node)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static final class Condition {
+        private final String attribute;
+        private final String mode;
+        private final Object expected;
+        private final Pattern pattern;
+
+        Condition(String attribute, String mode, Object expected) {
+            this.attribute = attribute;
+            this.mode = mode;
+            this.expected = expected;
+            this.pattern = mode.equals("matches") ? Pattern.compile((String) expected, Pattern.DOTALL) : null;
+        }
+
+        boolean test(UiTree tree, int node) {
+            String actual = tree.attribute(node, attribute);
+            if (actual == null && attribute.equals("class")) {
+                actual = tree.className(node);
+            }
+            if (actual == null) {
+                return false;
+            }
+            switch (mode) {
+                case "contains":
+                    return actual.contains((String) expected);
+                case "startsWith":
+                    return actual.startsWith((String) expected);
+                case "matches":
+                    return pattern.matcher(actual).matches();
+                default:
+                    return actual.equals(String.valueOf(expected));
+            }
+        }
+    }
+
+    private static final class Parser {
+        private static final String SELECTOR = "new UiSelector()";
+
+        private final String text;
+        private int pos;
+
+        Parser(String text) {
+            this.text = text;
+        }
+
+        UiSelectorQuery parseSelector() {
+            skipSpace();
+            if (text.startsWith(SELECTOR, pos)) {
+                pos += SELECTOR.length();
+            } else if (peek() != '.') {
+                throw unsupported();
+            }
+            List<Condition> conditions = new ArrayList<>();
+            int instance = -1;
+            UiSelectorQuery child = null;
+            UiSelectorQuery sibling = null;
+            skipSpace();
+            while (peek() == '.') {
+                pos++;
+                String method = readIdentifier();
+                expect('(');
+                skipSpace();
+                switch (method) {
+                    case "childSelector":
+                        child = parseSelector();
+                        break;
+                    case "fromParent":
+                        sibling = parseSelector();
+                        break;
+                    case "instance":
+                        instance = readInt();
+                        break;
+                    case "index":
+                        conditions.add(new Condition("index", "equals", readInt()));
+                        break;
+                    default:
+                        conditions.add(condition(method));
+                }
+                expect(')');
+                skipSpace();
+            }
+            if (child != null && sibling != null) {
+                throw unsupported();
+            }
+            return new UiSelectorQuery(conditions, instance, child, sibling);
+        }
+
+        void expectEnd() {
+            skipSpace();
+            if (peek() == ';') {
+                pos++;
+                skipSpace();
+            }
+            if (pos < text.length()) {
+                throw unsupported();
+            }
+        }
+
+        private Condition condition(String method) {
+            switch (method) {
+                case "checkable":
+                case "checked":
+                case "clickable":
+                case "enabled":
+                case "focusable":
+                case "focused":
+                case "scrollable":
+                case "selected":
+                    return new Condition(method, "equals", readBoolean());
+                case "longClickable":
+                    return new Condition("long-clickable", "equals", readBoolean());
+                default:
+                    break;
+            }
+            String[][] families = {
+                {"text", "text"},
+                {"description", "content-desc"},
+                {"resourceId", "resource-id"},
+                {"className", "class"},
+                {"packageName", "package"}
+            };
+            for (String[] family : families) {
+                if (method.startsWith(family[0])) {
+                    String suffix = method.substring(family[0].length());
+                    String mode;
+                    switch (suffix) {
+                        case "":
+                            mode = "equals";
+                            break;
+                        case "Contains":
+                            mode = "contains";
+                            break;
+                        case "StartsWith":
+                            mode = "startsWith";
+                            break;
+                        case "Matches":
+                            mode = "matches";
+                            break;
+                        default:
+                            throw unsupported();
+                    }
+                    return new Condition(family[1], mode, readString());
+                }
+            }
+            throw unsupported();
+        }
+
+        private String readString() {
+            skipSpace();
+            if (peek() != '"') {
+                throw unsupported();
+            }
+            StringBuilder value = new StringBuilder();
+            pos++;
+            while (pos < text.length() && text.charAt(pos) != '"') {
+                char c = text.charAt(pos++);
+                if (c == '\\' && pos < text.length()) {
+                    c = text.charAt(pos++);
+                }
+                value.append(c);
+            }
+            if (pos >= text.length()) {
+                throw unsupported();
+            }
+            pos++;
+            return value.toString();
+        }
+
+        private int readInt() {
+            skipSpace();
+            int start = pos;
+            while (pos < text.length() && Character.isDigit(text.charAt(pos))) {
+                pos++;
+            }
+            if (start == pos) {
+                throw unsupported();
+            }
+            return Integer.parseInt(text.substring(start, pos));
+        }
+
+        private String readBoolean() {
+            String value = readIdentifier();
+            if (!value.equals("true") && !value.equals("false")) {
+                throw unsupported();
+            }
+            return value;
+        }
+
+        private String readIdentifier() {
+            skipSpace();
+            int start = pos;
+            while (pos < text.length() && Character.isJavaIdentifierPart(text.charAt(pos))) {
+                pos++;
+            }
+            if (start == pos) {
+                throw unsupported();
+            }
+            return text.substring(start, pos);
+        }
+
+        private char peek() {
+            return pos < text.length() ? text.charAt(pos) : '\0';
+        }
+
+        private void skipSpace() {
+            while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+                pos++;
+            }
+        }
+
+        private void expect(char c) {
+            skipSpace();
+            if (peek() != c) {
+                throw unsupported();
+            }
+            pos++;
+        }
+
+        private UnsupportedOperationException unsupported() {
+            return new UnsupportedOperationException("Unsupported UiSelector at offset " + pos + ": " + text);
+        }
+    }
+}
@@ -0,0 +1,254 @@
+package com.mobileautomation.snapshot;
+
+import com.mobileautomation.exceptions.MobileAutomationException;
+import org.openqa.selenium.Rectangle;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamReader;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Compact, read-only copy of a UI hierarchy. Nodes are numbered in document order and stored in
+ * parallel arrays; node 0 is a synthetic document root, and the descendants of node {@code n} are
+ * exactly the nodes {@code n+1 .. end(n)-1}. The page source is read with StAX, so a 10 MB dump never
+ * exists as a DOM, and ids, accessibility ids, class names and texts are indexed while parsing.
+ */
+public final class UiTree {
+    static final int ROOT = 0;
+    private static final String ROOT_NAME = "#document";
+    private static final Set<String> INDEXED_ATTRIBUTES = Set.of("resource-id", "content-desc", "text", "name", "label");
+    // Most attribute values repeat ("true", "0", the package name); sharing them keeps large dumps small
+    private static final int POOLED_VALUE_LENGTH = 24;
+
+    private final boolean ios;
+    private int size;
+    private String[] classNames = new String[256];
+    private int[] parents = new int[256];
+    private int[] ends = new int[256];
+    private String[][] attributes = new String[256][];
+    private final Map<String, IntList> classIndex = new HashMap<>();
+    private final Map<String, Map<String, IntList>> attributeIndex = new HashMap<>();
+    private final Map<String, IntList> shortIdIndex = new HashMap<>();
+
+    private UiTree(boolean ios) {
+        this.ios = ios;
+        for (String attribute : INDEXED_ATTRIBUTES) {
+            attributeIndex.put(attribute, new HashMap<>());
+        }
+    }
+
+    public static UiTree parse(String source, boolean ios) {
+        return parse(new StringReader(source), ios);
+    }
+
+    public static UiTree parse(InputStream source, boolean ios) {
+        try {
+            return parse(newInputFactory().createXMLStreamReader(source), ios);
+        } catch (MobileAutomationException e) {
+            throw e;
+        } catch (Exception e) {
+            throw parseFailure(e);
+        }
+    }
+
+    public static UiTree parse(Reader source, boolean ios) {
+        try {
+            return parse(newInputFactory().createXMLStreamReader(source), ios);
+        } catch (MobileAutomationException e) {
+            throw e;
+        } catch (Exception e) {
+            throw parseFailure(e);
+        }
+    }
+
+    private static UiTree parse(XMLStreamReader reader, boolean ios) throws Exception {
+        UiTree tree = new UiTree(ios);
+        Map<String, String> pool = new HashMap<>();
+        tree.add(ROOT_NAME, -1, new String[0]);
+        int current = ROOT;
+        try {
+            while (reader.hasNext()) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    String[] nodeAttributes = new String[reader.getAttributeCount() * 2];
+                    for (int i = 0; i < reader.getAttributeCount(); i++) {
+                        nodeAttributes[2 * i] = pooled(pool, reader.getAttributeLocalName(i));
+                        String value = reader.getAttributeValue(i);
+                        nodeAttributes[2 * i + 1] = value.length() <= POOLED_VALUE_LENGTH ? pooled(pool, value) : value;
+                    }
+                    current = tree.add(pooled(pool, reader.getLocalName()), current, nodeAttributes);
+                } else if (event == XMLStreamConstants.END_ELEMENT) {
+                    tree.ends[current] = tree.size;
+                    current = tree.parents[current];
+                }
+            }
+        } finally {
+            reader.close();
+        }
+        tree.ends[ROOT] = tree.size;
+        return tree;
+    }
+
+    private static XMLInputFactory newInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, false);
+        return factory;
+    }
+
+    private static MobileAutomationException parseFailure(Exception e) {
+        String error = "Failed to parse page source: " + e.getMessage();
+        String suggestion = "Check that the driver is in the native context and returns a UI hierarchy";
+        return new MobileAutomationException("PAGE_SOURCE_INVALID", error, suggestion, e);
+    }
+
+    private static String pooled(Map<String, String> pool, String value) {
+        String existing = pool.putIfAbsent(value, value);
+        return existing != null ? existing : value;
+    }
+
+    private int add(String className, int parent, String[] nodeAttributes) {
+        if (size == classNames.length) {
+            int capacity = size * 2;
+            classNames = Arrays.copyOf(classNames, capacity);
+            parents = Arrays.copyOf(parents, capacity);
+            ends = Arrays.copyOf(ends, capacity);
+            attributes = Arrays.copyOf(attributes, capacity);
+        }
+        int node = size++;
+        classNames[node] = className;
+        parents[node] = parent;
+        ends[node] = node + 1;
+        attributes[node] = nodeAttributes;
+        if (node != ROOT) {
+            index(node);
+        }
+        return node;
+    }
+
+    private void index(int node) {
+        classIndex.computeIfAbsent(classNames[node], k -> new IntList()).add(node);
+        String[] nodeAttributes = attributes[node];
+        for (int i = 0; i < nodeAttributes.length; i += 2) {
+            // Empty values are indexed too: XPath seeds //*[@text=''] from this index
+            Map<String, IntList> byValue = attributeIndex.get(nodeAttributes[i]);
+            if (byValue != null) {
+                byValue.computeIfAbsent(nodeAttributes[i + 1], k -> new IntList()).add(node);
+            }
+        }
+        String resourceId = attribute(node, "resource-id");
+        int separator = resourceId == null ? -1 : resourceId.indexOf(":id/");
+        if (separator >= 0) {
+            shortIdIndex.computeIfAbsent(resourceId.substring(separator + 4), k -> new IntList()).add(node);
+        }
+    }
+
+    public boolean isIos() {
+        return ios;
+    }
+
+    /**
+     * Number of elements in the hierarchy, not counting the synthetic root.
+     */
+    public int size() {
+        return size - 1;
+    }
+
+    int nodeCount() {
+        return size;
+    }
+
+    String className(int node) {
+        return classNames[node];
+    }
+
+    int parent(int node) {
+        return parents[node];
+    }
+
+    int end(int node) {
+        return ends[node];
+    }
+
+    boolean isElement(int node) {
+        return node != ROOT;
+    }
+
+    String attribute(int node, String name) {
+        String[] nodeAttributes = attributes[node];
+        for (int i = 0; i < nodeAttributes.length; i += 2) {
+            if (nodeAttributes[i].equals(name)) {
+                return nodeAttributes[i + 1];
+            }
+        }
+        return null;
+    }
+
+    String[] attributes(int node) {
+        return attributes[node];
+    }
+
+    /**
+     * Nodes with the class name, in document order.
+     */
+    IntList byClass(String className) {
+        return classIndex.getOrDefault(className, IntList.EMPTY);
+    }
+
+    /**
+     * Nodes whose attribute equals the value, or null when the attribute is not indexed at all.
+     */
+    IntList byAttribute(String name, String value) {
+        Map<String, IntList> byValue = attributeIndex.get(name);
+        return byValue == null ? null : byValue.getOrDefault(value, IntList.EMPTY);
+    }
+
+    /**
+     * Android resource ids match either fully qualified or by the part after {@code :id/}, as UiAutomator2 does.
+     */
+    IntList byId(String id) {
+        if (ios) {
+            return byAttribute("name", id);
+        }
+        IntList qualified = byAttribute("resource-id", id);
+        return qualified.isEmpty() ? shortIdIndex.getOrDefault(id, IntList.EMPTY) : qualified;
+    }
+
+    IntList byAccessibilityId(String id) {
+        return byAttribute(ios ? "name" : "content-desc", id);
+    }
+
+    Rectangle bounds(int node) {
+        if (ios) {
+            return new Rectangle(intAttribute(node, "x"), intAttribute(node, "y"),
+                intAttribute(node, "height"), intAttribute(node, "width"));
+        }
+        // UiAutomator2 writes bounds as [left,top][right,bottom]
+        String bounds = attribute(node, "bounds");
+        if (bounds == null) {
+            return new Rectangle(0, 0, 0, 0);
+        }
+        String[] parts = bounds.replace("][", ",").replace("[", "").replace("]", "").split(",");
+        int left = Integer.parseInt(parts[0].trim());
+        int top = Integer.parseInt(parts[1].trim());
+        int right = Integer.parseInt(parts[2].trim());
+        int bottom = Integer.parseInt(parts[3].trim());
+        return new Rectangle(left, top, bottom - top, right - left);
+    }
+
+    private int intAttribute(int node, String name) {
+        String value = attribute(node, name);
+        if (value == null || value.isEmpty()) {
+            return 0;
+        }
+        return (int) Double.parseDouble(value);
+    }
+}
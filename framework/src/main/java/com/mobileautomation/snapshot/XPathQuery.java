@@ -0,0 +1,794 @@
+package com.mobileautomation.snapshot;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * XPath 1.0 subset evaluated over a {@link UiTree}: absolute and relative location paths, the
+ * child/descendant/parent/ancestor/sibling/self axes, {@code *}, {@code node()}, {@code .} and
+ * {@code ..}, and predicates built from attribute comparisons, positions, {@code and}/{@code or}/
+ * {@code not()}, nested paths and {@code contains}/{@code starts-with}/{@code ends-with}/
+ * {@code string-length}/{@code normalize-space}/{@code count}/{@code name}.
+ * Anything else, text nodes and unions included, is rejected at compile time with
+ * {@link UnsupportedOperationException} so the caller can ask the device instead.
+ */
+final class XPathQuery implements NodeQuery {
+    private static final String ANY_ELEMENT = "*";
+    private static final String ANY_NODE = "node()";
+
+    private final boolean absolute;
+    private final List<Step> steps;
+
+    private XPathQuery(boolean absolute, List<Step> steps) {
+        this.absolute = absolute;
+        this.steps = steps;
+    }
+
+    static XPathQuery compile(String expression) {
+        Parser parser = new Parser(expression);
+        XPathQuery query = parser.parsePath();
+        parser.expectEnd();
+        return query;
+    }
+
+    @Override
+    public IntList select(UiTree tree) {
+        return selectFrom(tree, UiTree.ROOT);
+    }
+
+    IntList selectFrom(UiTree tree, int context) {
+        IntList current = IntList.of(absolute ? UiTree.ROOT : context);
+        for (Step step : steps) {
+            current = step.apply(tree, current);
+            if (current.isEmpty()) {
+                break;
+            }
+        }
+        return current;
+    }
+
+    private enum Axis {
+        CHILD, DESCENDANT, DESCENDANT_OR_SELF, SELF, PARENT, ANCESTOR, ANCESTOR_OR_SELF,
+        FOLLOWING_SIBLING, PRECEDING_SIBLING;
+
+        static Axis of(String name) {
+            try {
+                return valueOf(name.toUpperCase().replace('-', '_'));
+            } catch (IllegalArgumentException e) {
+                throw new UnsupportedOperationException("Unsupported XPath axis: " + name);
+            }
+        }
+
+        /**
+         * Adds the axis nodes in proximity order: document order for forward axes, reverse for the others.
+         */
+        void collect(UiTree tree, int node, IntList out) {
+            switch (this) {
+                case SELF:
+                    out.add(node);
+                    break;
+                case CHILD:
+                    for (int child = node + 1; child < tree.end(node); child = tree.end(child)) {
+                        out.add(child);
+                    }
+                    break;
+                case DESCENDANT_OR_SELF:
+                    out.add(node);
+                    // fall through
+                case DESCENDANT:
+                    for (int descendant = node + 1; descendant < tree.end(node); descendant++) {
+                        out.add(descendant);
+                    }
+                    break;
+                case PARENT:
+                    if (tree.parent(node) >= 0) {
+                        out.add(tree.parent(node));
+                    }
+                    break;
+                case ANCESTOR_OR_SELF:
+                    out.add(node);
+                    // fall through
+                case ANCESTOR:
+                    for (int ancestor = tree.parent(node); ancestor >= 0; ancestor = tree.parent(ancestor)) {
+                        out.add(ancestor);
+                    }
+                    break;
+                case FOLLOWING_SIBLING:
+                    int parent = tree.parent(node);
+                    if (parent >= 0) {
+                        for (int sibling = tree.end(node); sibling < tree.end(parent); sibling = tree.end(sibling)) {
+                            out.add(sibling);
+                        }
+                    }
+                    break;
+                case PRECEDING_SIBLING:
+                    if (tree.parent(node) >= 0) {
+                        IntList before = new IntList();
+                        for (int sibling = tree.parent(node) + 1; sibling < node; sibling = tree.end(sibling)) {
+                            before.add(sibling);
+                        }
+                        for (int i = before.size() - 1; i >= 0; i--) {
+                            out.add(before.get(i));
+                        }
+                    }
+                    break;
+                default:
+                    throw new IllegalStateException(name());
+            }
+        }
+    }
+
+    private static final class Step {
+        private final Axis axis;
+        private final String nodeTest;
+        private final List<Expr> predicates;
+        private final boolean positional;
+
+        Step(Axis axis, String nodeTest, List<Expr> predicates) {
+            this.axis = axis;
+            this.nodeTest = nodeTest;
+            this.predicates = predicates;
+            this.positional = predicates.stream().anyMatch(p -> p.isNumeric() || p.usesPosition());
+        }
+
+        Step withAxis(Axis newAxis) {
+            return new Step(newAxis, nodeTest, predicates);
+        }
+
+        boolean matches(UiTree tree, int node) {
+            if (ANY_NODE.equals(nodeTest)) {
+                return true;
+            }
+            return tree.isElement(node) && (ANY_ELEMENT.equals(nodeTest) || nodeTest.equals(tree.className(node)));
+        }
+
+        IntList apply(UiTree tree, IntList contexts) {
+            if (axis == Axis.DESCENDANT && !positional && contexts.size() == 1 && contexts.get(0) == UiTree.ROOT) {
+                return scanWholeTree(tree);
+            }
+            BitSet selected = new BitSet(tree.nodeCount());
+            for (int i = 0; i < contexts.size(); i++) {
+                IntList axisNodes = new IntList();
+                axis.collect(tree, contexts.get(i), axisNodes);
+                IntList candidates = new IntList(axisNodes.size());
+                for (int j = 0; j < axisNodes.size(); j++) {
+                    if (matches(tree, axisNodes.get(j))) {
+                        candidates.add(axisNodes.get(j));
+                    }
+                }
+                for (Expr predicate : predicates) {
+                    candidates = filter(tree, candidates, predicate);
+                }
+                for (int j = 0; j < candidates.size(); j++) {
+                    selected.set(candidates.get(j));
+                }
+            }
+            IntList result = new IntList(selected.cardinality());
+            for (int node = selected.nextSetBit(0); node >= 0; node = selected.nextSetBit(node + 1)) {
+                result.add(node);
+            }
+            return result;
+        }
+
+        /**
+         * {@code //name[@attr='value']} from the root, the common shape of mobile XPath locators, starts
+         * from the smallest matching index bucket instead of visiting every node.
+         */
+        private IntList scanWholeTree(UiTree tree) {
+            IntList seed = ANY_ELEMENT.equals(nodeTest) || ANY_NODE.equals(nodeTest) ? null : tree.byClass(nodeTest);
+            for (Expr predicate : predicates) {
+                if (predicate instanceof AttributeEquals) {
+                    AttributeEquals equals = (AttributeEquals) predicate;
+                    IntList indexed = tree.byAttribute(equals.attribute, equals.value);
+                    if (indexed != null && (seed == null || indexed.size() < seed.size())) {
+                        seed = indexed;
+                    }
+                }
+            }
+            IntList result = new IntList();
+            int count = seed == null ? tree.nodeCount() - 1 : seed.size();
+            for (int i = 0; i < count; i++) {
+                int node = seed == null ? i + 1 : seed.get(i);
+                if (matches(tree, node) && testAll(tree, node)) {
+                    result.add(node);
+                }
+            }
+            return result;
+        }
+
+        private boolean testAll(UiTree tree, int node) {
+            for (Expr predicate : predicates) {
+                if (!predicate.test(tree, node, 0, 0)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static IntList filter(UiTree tree, IntList candidates, Expr predicate) {
+            IntList kept = new IntList(candidates.size());
+            int size = candidates.size();
+            for (int i = 0; i < size; i++) {
+                int node = candidates.get(i);
+                boolean keep = predicate.isNumeric()
+                    ? toNumber(predicate.evaluate(tree, node, i + 1, size)) == i + 1
+                    : predicate.test(tree, node, i + 1, size);
+                if (keep) {
+                    kept.add(node);
+                }
+            }
+            return kept;
+        }
+    }
+
+    // ---- predicate expressions ----
+
+    private abstract static class Expr {
+        abstract Object evaluate(UiTree tree, int node, int position, int size);
+
+        boolean test(UiTree tree, int node, int position, int size) {
+            return toBoolean(evaluate(tree, node, position, size));
+        }
+
+        boolean isNumeric() {
+            return false;
+        }
+
+        boolean usesPosition() {
+            return false;
+        }
+    }
+
+    private static final class Literal extends Expr {
+        private final Object value;
+
+        Literal(Object value) {
+            this.value = value;
+        }
+
+        @Override
+        Object evaluate(UiTree tree, int node, int position, int size) {
+            return value;
+        }
+
+        @Override
+        boolean isNumeric() {
+            return value instanceof Double;
+        }
+    }
+
+    private static final class AttributeRef extends Expr {
+        private final String name;
+
+        AttributeRef(String name) {
+            this.name = name;
+        }
+
+        @Override
+        Object evaluate(UiTree tree, int node, int position, int size) {
+            return tree.attribute(node, name);
+        }
+
+        @Override
+        boolean test(UiTree tree, int node, int position, int size) {
+            // An attribute node-set is true when the attribute exists, even with an empty value
+            return tree.attribute(node, name) != null;
+        }
+    }
+
+    private static final class PathRef extends Expr {
+        private final XPathQuery path;
+
+        PathRef(XPathQuery path) {
+            this.path = path;
+        }
+
+        @Override
+        Object evaluate(UiTree tree, int node, int position, int size) {
+            return path.selectFrom(tree, node);
+        }
+
+        @Override
+        boolean test(UiTree tree, int node, int position, int size) {
+            return !path.selectFrom(tree, node).isEmpty();
+        }
+    }
+
+    /**
+     * {@code @attr = 'value'}, kept as its own type so whole-tree scans can seed from the attribute index.
+     */
+    private static final class AttributeEquals extends Expr {
+        private final String attribute;
+        private final String value;
+
+        AttributeEquals(String attribute, String value) {
+            this.attribute = attribute;
+            this.value = value;
+        }
+
+        @Override
+        Object evaluate(UiTree tree, int node, int position, int size) {
+            return value.equals(tree.attribute(node, attribute));
+        }
+    }
+
+    private static final class Comparison extends Expr {
+        private final String operator;
+        private final Expr left;
+        private final Expr right;
+
+        Comparison(String operator, Expr left, Expr right) {
+            this.operator = operator;
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        Object evaluate(UiTree tree, int node, int position, int size) {
+            Object l = left.evaluate(tree, node, position, size);
+            Object r = right.evaluate(tree, node, position, size);
+            if (l == null || r == null) {
+                // A missing attribute is an empty node-set, which compares false either way
+                return false;
+            }
+            if (operator.equals("=") || operator.equals("!=")) {
+                boolean equal;
+                if (l instanceof Boolean || r instanceof Boolean) {
+                    equal = toBoolean(l) == toBoolean(r);
+                } else if (l instanceof Double || r instanceof Double) {
+                    equal = toNumber(l) == toNumber(r);
+                } else {
+                    equal = l.equals(r);
+                }
+                return operator.equals("=") == equal;
+            }
+            double a = toNumber(l);
+            double b = toNumber(r);
+            switch (operator) {
+                case "<":
+                    return a < b;
+                case "<=":
+                    return a <= b;
+                case ">":
+                    return a > b;
+                default:
+                    return a >= b;
+            }
+        }
+
+        @Override
+        boolean usesPosition() {
+            return left.usesPosition() || right.usesPosition();
+        }
+    }
+
+    private static final class Logical extends Expr {
+        private final boolean and;
+        private final Expr left;
+        private final Expr right;
+
+        Logical(boolean and, Expr left, Expr right) {
+            this.and = and;
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        Object evaluate(UiTree tree, int node, int position, int size) {
+            return test(tree, node, position, size);
+        }
+
+        @Override
+        boolean test(UiTree tree, int node, int position, int size) {
+            boolean first = left.test(tree, node, position, size);
+            if (and) {
+                return first && right.test(tree, node, position, size);
+            }
+            return first || right.test(tree, node, position, size);
+        }
+
+        @Override
+        boolean usesPosition() {
+            return left.usesPosition() || right.usesPosition();
+        }
+    }
+
+    private static final class Function extends Expr {
+        private final String name;
+        private final List<Expr> args;
+
+        Function(String name, List<Expr> args) {
+            this.name = name;
+            this.args = args;
+        }
+
+        @Override
+        Object evaluate(UiTree tree, int node, int position, int size) {
+            switch (name) {
+                case "position":
+                    return (double) position;
+                case "last":
+                    return (double) size;
+                case "true":
+                    return true;
+                case "false":
+                    return false;
+                case "not":
+                    return !args.get(0).test(tree, node, position, size);
+                case "name":
+                case "local-name":
+                    return tree.className(node);
+                case "count":
+                    return (double) ((IntList) args.get(0).evaluate(tree, node, position, size)).size();
+                case "string-length":
+                    return (double) string(0, tree, node, position, size).length();
+                case "normalize-space":
+                    return string(0, tree, node, position, size).trim().replaceAll("\\s+", " ");
+                case "contains":
+                    return string(0, tree, node, position, size).contains(string(1, tree, node, position, size));
+                case "starts-with":
+                    return string(0, tree, node, position, size).startsWith(string(1, tree, node, position, size));
+                default:
+                    return string(0, tree, node, position, size).endsWith(string(1, tree, node, position, size));
+            }
+        }
+
+        private String string(int arg, UiTree tree, int node, int position, int size) {
+            return toText(args.get(arg).evaluate(tree, node, position, size));
+        }
+
+        @Override
+        boolean isNumeric() {
+            return name.equals("position") || name.equals("last") || name.equals("count") || name.equals("string-length");
+        }
+
+        @Override
+        boolean usesPosition() {
+            return name.equals("position") || name.equals("last") || args.stream().anyMatch(Expr::usesPosition);
+        }
+    }
+
+    private static boolean toBoolean(Object value) {
+        if (value == null) {
+            return false;
+        }
+        if (value instanceof Boolean) {
+            return (Boolean) value;
+        }
+        if (value instanceof Double) {
+            double number = (Double) value;
+            return number != 0 && !Double.isNaN(number);
+        }
+        if (value instanceof IntList) {
+            return !((IntList) value).isEmpty();
+        }
+        return !value.toString().isEmpty();
+    }
+
+    private static double toNumber(Object value) {
+        if (value instanceof Double) {
+            return (Double) value;
+        }
+        if (value instanceof Boolean) {
+            return (Boolean) value ? 1 : 0;
+        }
+        try {
+            return Double.parseDouble(toText(value).trim());
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+
+    private static String toText(Object value) {
+        if (value == null) {
+            return "";
+        }
+        if (value instanceof Double) {
+            double number = (Double) value;
+            return number == Math.rint(number) && !Double.isInfinite(number) ? Long.toString((long) number) : value.toString();
+        }
+        return value.toString();
+    }
+
+    // ---- parser ----
+
+    private static final class Parser {
+        private final String text;
+        private int pos;
+
+        Parser(String text) {
+            this.text = text;
+        }
+
+        XPathQuery parsePath() {
+            skipSpace();
+            boolean absolute = false;
+            List<Step> steps = new ArrayList<>();
+            if (text.startsWith("//", pos)) {
+                pos += 2;
+                absolute = true;
+                addDescendant(steps, parseStep());
+            } else if (peek() == '/') {
+                pos++;
+                absolute = true;
+                skipSpace();
+                if (!atStepStart()) {
+                    return new XPathQuery(true, steps);
+                }
+                steps.add(parseStep());
+            } else {
+                steps.add(parseStep());
+            }
+            while (true) {
+                skipSpace();
+                if (text.startsWith("//", pos)) {
+                    pos += 2;
+                    addDescendant(steps, parseStep());
+                } else if (peek() == '/') {
+                    pos++;
+                    steps.add(parseStep());
+                } else {
+                    return new XPathQuery(absolute, steps);
+                }
+            }
+        }
+
+        void expectEnd() {
+            skipSpace();
+            if (pos < text.length()) {
+                throw unsupported();
+            }
+        }
+
+        private void addDescendant(List<Step> steps, Step step) {
+            // "//x" is descendant-or-self::node()/child::x; without positional predicates that is descendant::x
+            if (step.axis == Axis.CHILD && !step.positional) {
+                steps.add(step.withAxis(Axis.DESCENDANT));
+            } else {
+                steps.add(new Step(Axis.DESCENDANT_OR_SELF, ANY_NODE, List.of()));
+                steps.add(step);
+            }
+        }
+
+        private Step parseStep() {
+            skipSpace();
+            if (text.startsWith("..", pos)) {
+                pos += 2;
+                return new Step(Axis.PARENT, ANY_NODE, List.of());
+            }
+            if (peek() == '.') {
+                pos++;
+                return new Step(Axis.SELF, ANY_NODE, List.of());
+            }
+            Axis axis = Axis.CHILD;
+            String nodeTest = parseNodeTest();
+            if (text.startsWith("::", pos)) {
+                pos += 2;
+                axis = Axis.of(nodeTest);
+                nodeTest = parseNodeTest();
+            }
+            List<Expr> predicates = new ArrayList<>();
+            skipSpace();
+            while (peek() == '[') {
+                pos++;
+                predicates.add(parseOr());
+                expect(']');
+                skipSpace();
+            }
+            return new Step(axis, nodeTest, predicates);
+        }
+
+        private String parseNodeTest() {
+            skipSpace();
+            if (peek() == '*') {
+                pos++;
+                return ANY_ELEMENT;
+            }
+            String name = readName();
+            if (peek() == '(') {
+                if (!name.equals("node")) {
+                    // text(), comment() and friends have no meaning in a UI hierarchy
+                    throw unsupported();
+                }
+                pos++;
+                expect(')');
+                return ANY_NODE;
+            }
+            return name;
+        }
+
+        private Expr parseOr() {
+            Expr left = parseAnd();
+            while (keyword("or")) {
+                left = new Logical(false, left, parseAnd());
+            }
+            return left;
+        }
+
+        private Expr parseAnd() {
+            Expr left = parseComparison();
+            while (keyword("and")) {
+                left = new Logical(true, left, parseComparison());
+            }
+            return left;
+        }
+
+        private Expr parseComparison() {
+            Expr left = parsePrimary();
+            skipSpace();
+            String operator = null;
+            for (String candidate : new String[] {"!=", "<=", ">=", "=", "<", ">"}) {
+                if (text.startsWith(candidate, pos)) {
+                    operator = candidate;
+                    break;
+                }
+            }
+            if (operator == null) {
+                return left;
+            }
+            pos += operator.length();
+            Expr right = parsePrimary();
+            if (left instanceof PathRef || right instanceof PathRef) {
+                throw unsupported();
+            }
+            if (operator.equals("=") && left instanceof AttributeRef && right instanceof Literal
+                    && ((Literal) right).value instanceof String) {
+                return new AttributeEquals(((AttributeRef) left).name, (String) ((Literal) right).value);
+            }
+            if (operator.equals("=") && right instanceof AttributeRef && left instanceof Literal
+                    && ((Literal) left).value instanceof String) {
+                return new AttributeEquals(((AttributeRef) right).name, (String) ((Literal) left).value);
+            }
+            return new Comparison(operator, left, right);
+        }
+
+        private Expr parsePrimary() {
+            skipSpace();
+            char c = peek();
+            if (c == '(') {
+                pos++;
+                Expr inner = parseOr();
+                expect(')');
+                return inner;
+            }
+            if (c == '\'' || c == '"') {
+                int close = text.indexOf(c, pos + 1);
+                if (close < 0) {
+                    throw unsupported();
+                }
+                String literal = text.substring(pos + 1, close);
+                pos = close + 1;
+                return new Literal(literal);
+            }
+            if (Character.isDigit(c) || (c == '-' && pos + 1 < text.length() && Character.isDigit(text.charAt(pos + 1)))) {
+                int start = pos++;
+                while (pos < text.length() && (Character.isDigit(text.charAt(pos)) || text.charAt(pos) == '.')) {
+                    pos++;
+                }
+                return new Literal(Double.parseDouble(text.substring(start, pos)));
+            }
+            if (c == '@') {
+                pos++;
+                return new AttributeRef(readName());
+            }
+            if (Character.isLetter(c) || c == '_') {
+                int start = pos;
+                String name = readName();
+                skipSpace();
+                if (peek() == '(' && !name.equals("node")) {
+                    pos++;
+                    return parseFunction(name);
+                }
+                pos = start;
+            }
+            return new PathRef(parsePath());
+        }
+
+        private Expr parseFunction(String name) {
+            List<Expr> args = new ArrayList<>();
+            skipSpace();
+            if (peek() != ')') {
+                args.add(parseOr());
+                skipSpace();
+                while (peek() == ',') {
+                    pos++;
+                    args.add(parseOr());
+                    skipSpace();
+                }
+            }
+            expect(')');
+            int expectedArgs;
+            switch (name) {
+                case "position":
+                case "last":
+                case "true":
+                case "false":
+                case "name":
+                case "local-name":
+                    expectedArgs = 0;
+                    break;
+                case "not":
+                case "string-length":
+                case "normalize-space":
+                    expectedArgs = 1;
+                    break;
+                case "count":
+                    if (args.size() != 1 || !(args.get(0) instanceof PathRef)) {
+                        throw unsupported();
+                    }
+                    expectedArgs = 1;
+                    break;
+                case "contains":
+                case "starts-with":
+                case "ends-with":
+                    expectedArgs = 2;
+                    break;
+                default:
+                    throw unsupported();
+            }
+            if (args.size() != expectedArgs) {
+                throw unsupported();
+            }
+            if (!name.equals("not") && !name.equals("count") && args.stream().anyMatch(arg -> arg instanceof PathRef)) {
+                throw unsupported();
+            }
+            return new Function(name, args);
+        }
+
+        private boolean keyword(String word) {
+            skipSpace();
+            int end = pos + word.length();
+            if (text.startsWith(word, pos) && (end == text.length() || !isNameChar(text.charAt(end)))) {
+                pos = end;
+                return true;
+            }
+            return false;
+        }
+
+        private boolean atStepStart() {
+            char c = peek();
+            return Character.isLetter(c) || c == '_' || c == '*' || c == '.';
+        }
+
+        private String readName() {
+            int start = pos;
+            if (pos < text.length() && (Character.isLetter(text.charAt(pos)) || text.charAt(pos) == '_')) {
+                pos++;
+                while (pos < text.length() && isNameChar(text.charAt(pos))) {
+                    pos++;
+                }
+            }
+            if (start == pos) {
+                throw unsupported();
+            }
+            return text.substring(start, pos);
+        }
+
+        private static boolean isNameChar(char c) {
+            return Character.isLetterOrDigit(c) || c == '_' || c == '-' || c == '.';
+        }
+
+        private char peek() {
+            return pos < text.length() ? text.charAt(pos) : '\0';
+        }
+
+        private void skipSpace() {
+            while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+                pos++;
+            }
+        }
+
+        private void expect(char c) {
+            skipSpace();
+            if (peek() != c) {
+                throw unsupported();
+            }
+            pos++;
+        }
+
+        private UnsupportedOperationException unsupported() {
+            return new UnsupportedOperationException("Unsupported XPath at offset " + pos + ": " + text);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.mobileautomation.test;
+
+import java.util.List;
+
+/**
+ * Expected test durations by {@code className#methodName} key, as read by shard and device balancing.
+ */
+public interface DurationEstimates {
+
+    boolean isKnown(String key);
+
+    /**
+     * Expected duration of a test in milliseconds, also for tests without history.
+     */
+    long estimate(String key);
+
+    default long estimate(List<String> keys) {
+        long total = 0;
+        for (String key : keys) {
+            total += estimate(key);
+        }
+        return total;
+    }
+}
@@ -0,0 +1,110 @@
+package com.mobileautomation.test;
+
+import com.mobileautomation.scheduler.LptPartitioner;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.testng.IMethodInstance;
+import org.testng.IMethodInterceptor;
+import org.testng.ITestContext;
+import org.testng.ITestNGMethod;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps only this node's share of each {@code <test>} when {@code shard.count > 1}. Methods linked by
+ * {@code dependsOnMethods} or {@code dependsOnGroups} stay in one shard, and shards are balanced with
+ * {@link LptPartitioner} on {@link TestDurationHistory#getSnapshot()}, never on durations recorded during
+ * this run, so every block and every node agrees on the split. The share is returned longest
+ * first so {@code parallel="methods"} starts the slow tests early.
+ */
+public class DurationShardingInterceptor implements IMethodInterceptor {
+    private static final Logger logger = LogManager.getLogger(DurationShardingInterceptor.class);
+
+    @Override
+    public List<IMethodInstance> intercept(List<IMethodInstance> methods, ITestContext context) {
+        ShardSpec shard = ShardSpec.fromSystemProperties();
+        if (!shard.isSharded() || methods.isEmpty()) {
+            return methods;
+        }
+        DurationEstimates history = TestDurationHistory.getSnapshot();
+        List<List<IMethodInstance>> units = linkDependencies(methods);
+        List<List<IMethodInstance>> shares = LptPartitioner.partition(units, shard.getCount(),
+            unit -> cost(unit, history), DurationShardingInterceptor::unitKey);
+
+        List<IMethodInstance> mine = new ArrayList<>();
+        shares.get(shard.getIndex()).forEach(mine::addAll);
+        long expected = shares.get(shard.getIndex()).stream().mapToLong(unit -> cost(unit, history)).sum();
+        logger.info("{} of test '{}': running {} of {} method(s), expected {}s", shard, context.getName(),
+            mine.size(), methods.size(), expected / 1000);
+        return mine;
+    }
+
+    private static long cost(List<IMethodInstance> unit, DurationEstimates history) {
+        long total = 0;
+        for (IMethodInstance instance : unit) {
+            total += history.estimate(keyOf(instance.getMethod()));
+        }
+        return total;
+    }
+
+    private static String unitKey(List<IMethodInstance> unit) {
+        return keyOf(unit.get(0).getMethod());
+    }
+
+    private static String keyOf(ITestNGMethod method) {
+        return TestDurationHistory.key(method.getRealClass().getName(), method.getMethodName());
+    }
+
+    /**
+     * Groups methods that depend on each other, keeping the original order inside each group.
+     */
+    private static List<List<IMethodInstance>> linkDependencies(List<IMethodInstance> methods) {
+        int[] parent = new int[methods.size()];
+        Arrays.setAll(parent, i -> i);
+        Map<String, Integer> byQualifiedName = new HashMap<>();
+        Map<String, List<Integer>> byGroup = new HashMap<>();
+        for (int i = 0; i < methods.size(); i++) {
+            ITestNGMethod method = methods.get(i).getMethod();
+            byQualifiedName.put(method.getRealClass().getName() + "." + method.getMethodName(), i);
+            for (String group : method.getGroups()) {
+                byGroup.computeIfAbsent(group, g -> new ArrayList<>()).add(i);
+            }
+        }
+        for (int i = 0; i < methods.size(); i++) {
+            ITestNGMethod method = methods.get(i).getMethod();
+            for (String dependency : method.getMethodsDependedUpon()) {
+                Integer target = byQualifiedName.get(dependency);
+                if (target != null) {
+                    union(parent, i, target);
+                }
+            }
+            for (String group : method.getGroupsDependedUpon()) {
+                for (int target : byGroup.getOrDefault(group, List.of())) {
+                    union(parent, i, target);
+                }
+            }
+        }
+        Map<Integer, List<IMethodInstance>> units = new LinkedHashMap<>();
+        for (int i = 0; i < methods.size(); i++) {
+            units.computeIfAbsent(find(parent, i), root -> new ArrayList<>()).add(methods.get(i));
+        }
+        return new ArrayList<>(units.values());
+    }
+
+    private static int find(int[] parent, int i) {
+        while (parent[i] != i) {
+            parent[i] = parent[parent[i]];
+            i = parent[i];
+        }
+        return i;
+    }
+
+    private static void union(int[] parent, int a, int b) {
+        parent[find(parent, a)] = find(parent, b);
+    }
+}
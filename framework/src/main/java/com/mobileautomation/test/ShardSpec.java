@@ -0,0 +1,44 @@
+package com.mobileautomation.test;
+
+import com.mobileautomation.exceptions.MobileAutomationException;
+
+/**
+ * Which share of the suite this JVM runs, from the {@code shard.index} (0-based) and
+ * {@code shard.count} system properties, e.g. {@code -Dshard.index=$CIRCLE_NODE_INDEX}.
+ */
+public class ShardSpec {
+    private final int index;
+    private final int count;
+
+    public ShardSpec(int index, int count) {
+        if (count < 1 || index < 0 || index >= count) {
+            String error = "Invalid shard " + index + " of " + count;
+            String suggestion = "Set -Dshard.count to the number of nodes and -Dshard.index to 0..count-1";
+            throw new MobileAutomationException("INVALID_SHARD", error, suggestion);
+        }
+        this.index = index;
+        this.count = count;
+    }
+
+    public static ShardSpec fromSystemProperties() {
+        return new ShardSpec(Integer.parseInt(System.getProperty("shard.index", "0").trim()),
+            Integer.parseInt(System.getProperty("shard.count", "1").trim()));
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public boolean isSharded() {
+        return count > 1;
+    }
+
+    @Override
+    public String toString() {
+        return "shard " + (index + 1) + "/" + count;
+    }
+}
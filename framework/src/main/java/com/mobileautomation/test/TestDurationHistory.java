@@ -0,0 +1,180 @@
+package com.mobileautomation.test;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mobileautomation.config.ConfigManager;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Per-test duration history, persisted as JSON between runs. Each test keeps an exponentially weighted
+ * moving average so one slow run on a cold emulator does not dominate the estimate.
+ * Keys are {@code className#methodName}.
+ * <p>
+ * Both views are created together on first use. {@link #getSnapshot()} holds
+ * {@code test.duration.history.file} as it was at that moment and never changes, so every {@code <test>}
+ * block and every CI node that starts from the same file computes the same shards. {@link #getInstance()}
+ * starts from the same entries, takes this run's durations and is saved to
+ * {@code test.duration.history.output.file}; promote that file to the history file between runs.
+ */
+public class TestDurationHistory implements DurationEstimates {
+    private static final Logger logger = LogManager.getLogger(TestDurationHistory.class);
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static TestDurationHistory instance;
+    private static DurationEstimates snapshot;
+    private final File file;
+    private final double alpha;
+    private final long defaultMillis;
+    private final Map<String, Entry> entries = new TreeMap<>();
+
+    public static class Entry {
+        public double averageMillis;
+        public int samples;
+        public long lastRunAt;
+    }
+
+    public TestDurationHistory(File file, double alpha, long defaultMillis) {
+        this.file = file;
+        this.alpha = alpha;
+        this.defaultMillis = defaultMillis;
+        load(file);
+    }
+
+    private TestDurationHistory(TestDurationHistory source, File file) {
+        this.file = file;
+        this.alpha = source.alpha;
+        this.defaultMillis = source.defaultMillis;
+        source.entries.forEach((key, entry) -> entries.put(key, copyOf(entry)));
+    }
+
+    /**
+     * Frozen copy of a history's averages; has nothing to record into or save.
+     */
+    private static final class Snapshot implements DurationEstimates {
+        private final Map<String, Long> estimates = new TreeMap<>();
+        private final long unknownMillis;
+
+        Snapshot(TestDurationHistory source) {
+            source.entries.forEach((key, entry) -> estimates.put(key, Math.round(entry.averageMillis)));
+            this.unknownMillis = source.estimateUnknown();
+        }
+
+        @Override
+        public boolean isKnown(String key) {
+            return estimates.containsKey(key);
+        }
+
+        @Override
+        public long estimate(String key) {
+            return estimates.getOrDefault(key, unknownMillis);
+        }
+    }
+
+    /**
+     * The store this run's durations are recorded into; saved to {@code test.duration.history.output.file}.
+     */
+    public static synchronized TestDurationHistory getInstance() {
+        initialize();
+        return instance;
+    }
+
+    /**
+     * The history file as loaded when this JVM first asked for it; partition only from this.
+     */
+    public static synchronized DurationEstimates getSnapshot() {
+        initialize();
+        return snapshot;
+    }
+
+    private static void initialize() {
+        if (snapshot != null) {
+            return;
+        }
+        ConfigManager config = ConfigManager.getInstance();
+        TestDurationHistory loaded = new TestDurationHistory(
+            new File(config.getProperty("test.duration.history.file", "run_reports/test-durations.json")),
+            Double.parseDouble(config.getProperty("test.duration.history.alpha", "0.3")),
+            config.getIntProperty("test.duration.default.ms", 0));
+        File output = new File(config.getProperty("test.duration.history.output.file",
+            "run_reports/test-durations-recorded.json"));
+        snapshot = new Snapshot(loaded);
+        instance = new TestDurationHistory(loaded, output);
+    }
+
+    public static String key(String className, String methodName) {
+        return className + "#" + methodName;
+    }
+
+    public synchronized void record(String key, long millis) {
+        Entry entry = entries.computeIfAbsent(key, k -> new Entry());
+        entry.averageMillis = entry.samples == 0 ? millis : alpha * millis + (1 - alpha) * entry.averageMillis;
+        entry.samples++;
+        entry.lastRunAt = System.currentTimeMillis();
+    }
+
+    @Override
+    public synchronized boolean isKnown(String key) {
+        return entries.containsKey(key);
+    }
+
+    /**
+     * Expected duration of a test. Tests without history are assumed to take the median of the known
+     * tests (or {@code test.duration.default.ms} when set), so new tests are spread evenly rather than
+     * all landing in one shard.
+     */
+    @Override
+    public synchronized long estimate(String key) {
+        Entry entry = entries.get(key);
+        return entry != null ? Math.round(entry.averageMillis) : estimateUnknown();
+    }
+
+    public synchronized void save() {
+        try {
+            if (file.getParentFile() != null) {
+                file.getParentFile().mkdirs();
+            }
+            MAPPER.writerWithDefaultPrettyPrinter().writeValue(file, entries);
+            logger.info("Saved duration history for {} test(s) to {}", entries.size(), file);
+        } catch (Exception e) {
+            logger.warn("Failed to save duration history {}: {}", file, e.getMessage());
+        }
+    }
+
+    private void load(File file) {
+        if (!file.exists()) {
+            logger.info("No duration history at {}, tests will be split evenly", file);
+            return;
+        }
+        try {
+            entries.putAll(MAPPER.readValue(file, new TypeReference<Map<String, Entry>>() {}));
+            logger.debug("Loaded duration history for {} test(s)", entries.size());
+        } catch (Exception e) {
+            logger.warn("Ignoring unreadable duration history {}: {}", file, e.getMessage());
+        }
+    }
+
+    private synchronized long estimateUnknown() {
+        if (defaultMillis > 0 || entries.isEmpty()) {
+            return Math.max(1, defaultMillis);
+        }
+        List<Double> known = new ArrayList<>();
+        entries.values().forEach(e -> known.add(e.averageMillis));
+        Collections.sort(known);
+        return Math.max(1, Math.round(known.get(known.size() / 2)));
+    }
+
+    private static Entry copyOf(Entry entry) {
+        Entry copy = new Entry();
+        copy.averageMillis = entry.averageMillis;
+        copy.samples = entry.samples;
+        copy.lastRunAt = entry.lastRunAt;
+        return copy;
+    }
+}
@@ -0,0 +1,37 @@
+package com.mobileautomation.test;
+
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+import org.testng.ITestListener;
+import org.testng.ITestResult;
+
+/**
+ * Feeds passed and failed test durations into {@link TestDurationHistory#getInstance()} and writes it
+ * to the output file when the suite finishes; the snapshot sharding reads from is left untouched. Skipped tests are ignored since their duration says nothing about the test.
+ */
+public class TestDurationRecorder implements ISuiteListener, ITestListener {
+    private final TestDurationHistory history = TestDurationHistory.getInstance();
+
+    @Override
+    public void onTestSuccess(ITestResult result) {
+        record(result);
+    }
+
+    @Override
+    public void onTestFailure(ITestResult result) {
+        record(result);
+    }
+
+    @Override
+    public void onFinish(ISuite suite) {
+        history.save();
+    }
+
+    private void record(ITestResult result) {
+        long millis = result.getEndMillis() - result.getStartMillis();
+        if (millis > 0) {
+            history.record(TestDurationHistory.key(result.getTestClass().getName(),
+                result.getMethod().getMethodName()), millis);
+        }
+    }
+}
@@ -1,8 +1,16 @@
 package com.mobileautomation.test;
 
+import com.mobileautomation.driver.DeviceLeaseManager;
+import com.mobileautomation.driver.DriverManager;
+import com.mobileautomation.driver.PooledHttpClientFactory;
+import com.mobileautomation.metrics.MetricsRegistry;
+import com.mobileautomation.pagefactory.ElementCache;
 import com.mobileautomation.server.AppiumServerManager;
 import com.mobileautomation.server.AppiumSetupManager;
+import com.mobileautomation.snapshot.ScrollSearch;
 import com.mobileautomation.utils.FileUtils;
+import com.mobileautomation.utils.GestureEngine;
+import com.mobileautomation.utils.WaitEngine;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.testng.ISuite;
@@ -52,10 +60,10 @@ public class TestGroupManager implements ISuiteListener, ITestListener {
         // Start Appium server if not using BrowserStack
         if (!isBrowserStackEnabled) {
             try {
-                // Setup Appium environment
+                // Install only what is missing or at the wrong version
                 setupManager.setupAppiumEnvironment();
-                // Start Appium server
-                serverManager.startServer();
+                // Hold the shared Appium server for the whole suite
+                serverManager.acquire();
             } catch (Exception e) {
                 logger.error("Failed to initialize Appium environment: {}", e.getMessage());
                 throw new RuntimeException("Failed to initialize Appium environment", e);
@@ -70,10 +78,12 @@ public class TestGroupManager implements ISuiteListener, ITestListener {
         // Stop Appium server if not using BrowserStack
         if (!isBrowserStackEnabled) {
             try {
-                // Stop Appium server
-                serverManager.stopServer();
-                // Cleanup Appium environment
-                setupManager.cleanupAppiumEnvironment();
+                // Release the suite's reference, the server itself stops at JVM shutdown
+                serverManager.release();
+                // Uninstalling Appium is opt-in, the next run reuses the provisioned environment
+                if (setupManager.isCleanupEnabled()) {
+                    setupManager.cleanupAppiumEnvironment();
+                }
             } catch (Exception e) {
                 logger.error("Failed to cleanup Appium environment: {}", e.getMessage());
                 throw new RuntimeException("Failed to cleanup Appium environment", e);
@@ -82,6 +92,7 @@ public class TestGroupManager implements ISuiteListener, ITestListener {
         
         // Generate report
         generateReport(suite);
+        saveMetrics();
     }
 
     @Override
@@ -146,6 +157,23 @@ public class TestGroupManager implements ISuiteListener, ITestListener {
         }
     }
 
+    private void saveMetrics() {
+        try {
+            DriverManager.getInstance().getSessionPool().logStats();
+            DeviceLeaseManager.getInstance().logStats();
+            PooledHttpClientFactory.getInstance().logStats();
+            WaitEngine.getInstance().logStats();
+            GestureEngine.getInstance().logStats();
+            ScrollSearch.getInstance().logStats();
+            ElementCache.logStats();
+            MetricsRegistry metrics = MetricsRegistry.getInstance();
+            metrics.logSummary();
+            FileUtils.writeToFile(metrics.summary(), reportDir + "/" + currentRunner + "_metrics.txt");
+        } catch (Exception e) {
+            logger.error("Error saving metrics: {}", e.getMessage());
+        }
+    }
+
     private void saveScreenshot(ITestResult result) {
         try {
             // Implementation for saving screenshots
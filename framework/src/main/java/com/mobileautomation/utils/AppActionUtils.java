@@ -1,7 +1,10 @@
 package com.mobileautomation.utils;
 
+import com.mobileautomation.device.AdbClient;
 import com.mobileautomation.exceptions.MobileAutomationException;
+import com.mobileautomation.snapshot.ScreenState;
 import io.appium.java_client.AppiumDriver;
+import io.appium.java_client.android.AndroidDriver;
 import io.appium.java_client.MobileElement;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -11,6 +14,7 @@ import org.openqa.selenium.support.ui.ExpectedConditions;
 
 import java.time.Duration;
 import java.util.List;
+import java.util.Map;
 
 public class AppActionUtils {
     private static final Logger logger = LogManager.getLogger(AppActionUtils.class);
@@ -38,6 +42,7 @@ public class AppActionUtils {
         try {
             logger.info("Uninstalling app with bundle ID: {}", bundleId);
             driver.removeApp(bundleId);
+            ScreenState.invalidate(driver);
             logger.info("App uninstalled successfully");
         } catch (Exception e) {
             String error = String.format("Failed to uninstall app with bundle ID: %s", bundleId);
@@ -50,6 +55,7 @@ public class AppActionUtils {
         try {
             logger.info("Launching app with bundle ID: {}", bundleId);
             driver.activateApp(bundleId);
+            ScreenState.invalidate(driver);
             logger.info("App launched successfully");
         } catch (Exception e) {
             String error = String.format("Failed to launch app with bundle ID: %s", bundleId);
@@ -62,6 +68,7 @@ public class AppActionUtils {
         try {
             logger.info("Terminating app with bundle ID: {}", bundleId);
             driver.terminateApp(bundleId);
+            ScreenState.invalidate(driver);
             logger.info("App terminated successfully");
         } catch (Exception e) {
             String error = String.format("Failed to terminate app with bundle ID: %s", bundleId);
@@ -82,7 +89,14 @@ public class AppActionUtils {
     public void clearAppData(String bundleId) {
         try {
             logger.info("Clearing app data for bundle ID: {}", bundleId);
-            driver.resetApp();
+            String serial = AdbClient.serialOf(driver.getCapabilities());
+            if (driver instanceof AndroidDriver && serial != null) {
+                // pm clear over the adb socket, no round trip through the Appium server
+                AdbClient.getInstance().clearAppData(serial, bundleId);
+            } else {
+                driver.executeScript("mobile: clearApp", Map.of("appId", bundleId));
+            }
+            ScreenState.invalidate(driver);
             logger.info("App data cleared successfully");
         } catch (Exception e) {
             String error = String.format("Failed to clear app data for bundle ID: %s", bundleId);
@@ -94,7 +108,7 @@ public class AppActionUtils {
     public void hideKeyboard() {
         try {
             logger.debug("Hiding keyboard");
-            driver.hideKeyboard();
+            TextInputEngine.getInstance().hideKeyboard(driver);
         } catch (Exception e) {
             logger.warn("Failed to hide keyboard: {}", e.getMessage());
         }
@@ -104,6 +118,7 @@ public class AppActionUtils {
         try {
             logger.debug("Pressing back button");
             driver.navigate().back();
+            ScreenState.invalidate(driver);
         } catch (Exception e) {
             logger.warn("Failed to press back button: {}", e.getMessage());
         }
@@ -113,6 +128,7 @@ public class AppActionUtils {
         try {
             logger.info("Switching to web view: {}", webViewName);
             driver.context(webViewName);
+            ScreenState.invalidate(driver);
             logger.info("Successfully switched to web view");
         } catch (Exception e) {
             String error = String.format("Failed to switch to web view: %s", webViewName);
@@ -125,6 +141,7 @@ public class AppActionUtils {
         try {
             logger.info("Switching to native view");
             driver.context("NATIVE_APP");
+            ScreenState.invalidate(driver);
             logger.info("Successfully switched to native view");
         } catch (Exception e) {
             String error = "Failed to switch to native view";
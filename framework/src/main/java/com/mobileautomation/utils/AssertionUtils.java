@@ -0,0 +1,296 @@
+package com.mobileautomation.utils;
+
+import com.mobileautomation.metrics.MetricsRegistry;
+import com.mobileautomation.snapshot.PageSnapshot;
+import com.mobileautomation.snapshot.ScreenState;
+import com.mobileautomation.snapshot.SnapshotElement;
+import io.appium.java_client.AppiumDriver;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openqa.selenium.By;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebElement;
+import org.testng.asserts.SoftAssert;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+public class AssertionUtils {
+    private static final Logger logger = LogManager.getLogger(AssertionUtils.class);
+    private static final SoftAssert softAssert = new SoftAssert();
+
+    public static void assertElementVisible(AppiumDriver driver, WebElement element, String message) {
+        try {
+            logger.debug("Asserting element visibility: {}", message);
+            softAssert.assertTrue(element.isDisplayed(), message);
+        } catch (Exception e) {
+            logger.error("Failed to assert element visibility: {}", e.getMessage());
+            softAssert.fail(message + ": " + e.getMessage());
+        }
+    }
+
+    public static void assertElementEnabled(AppiumDriver driver, WebElement element, String message) {
+        try {
+            logger.debug("Asserting element enabled state: {}", message);
+            softAssert.assertTrue(element.isEnabled(), message);
+        } catch (Exception e) {
+            logger.error("Failed to assert element enabled state: {}", e.getMessage());
+            softAssert.fail(message + ": " + e.getMessage());
+        }
+    }
+
+    public static void assertElementSelected(AppiumDriver driver, WebElement element, String message) {
+        try {
+            logger.debug("Asserting element selected state: {}", message);
+            softAssert.assertTrue(element.isSelected(), message);
+        } catch (Exception e) {
+            logger.error("Failed to assert element selected state: {}", e.getMessage());
+            softAssert.fail(message + ": " + e.getMessage());
+        }
+    }
+
+    public static void assertElementText(AppiumDriver driver, WebElement element, String expectedText, String message) {
+        try {
+            logger.debug("Asserting element text: {}", message);
+            softAssert.assertEquals(element.getText(), expectedText, message);
+        } catch (Exception e) {
+            logger.error("Failed to assert element text: {}", e.getMessage());
+            softAssert.fail(message + ": " + e.getMessage());
+        }
+    }
+
+    public static void assertElementAttribute(AppiumDriver driver, WebElement element, String attribute, String expectedValue, String message) {
+        try {
+            logger.debug("Asserting element attribute: {}", message);
+            softAssert.assertEquals(element.getAttribute(attribute), expectedValue, message);
+        } catch (Exception e) {
+            logger.error("Failed to assert element attribute: {}", e.getMessage());
+            softAssert.fail(message + ": " + e.getMessage());
+        }
+    }
+
+    public static void assertElementCssValue(AppiumDriver driver, WebElement element, String property, String expectedValue, String message) {
+        try {
+            logger.debug("Asserting element CSS value: {}", message);
+            softAssert.assertEquals(element.getCssValue(property), expectedValue, message);
+        } catch (Exception e) {
+            logger.error("Failed to assert element CSS value: {}", e.getMessage());
+            softAssert.fail(message + ": " + e.getMessage());
+        }
+    }
+
+    public static void assertElementLocation(AppiumDriver driver, WebElement element, int expectedX, int expectedY, String message) {
+        try {
+            logger.debug("Asserting element location: {}", message);
+            softAssert.assertEquals(element.getLocation().x, expectedX, message + " (X coordinate)");
+            softAssert.assertEquals(element.getLocation().y, expectedY, message + " (Y coordinate)");
+        } catch (Exception e) {
+            logger.error("Failed to assert element location: {}", e.getMessage());
+            softAssert.fail(message + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Starts a batch of assertions that are evaluated together against one page-source snapshot, retaken
+     * until they all pass or the wait times out. Failures are recorded on the same soft assert as the
+     * single-element methods.
+     */
+    public static Batch batch(AppiumDriver driver) {
+        return new Batch(driver);
+    }
+
+    public static void assertAll() {
+        softAssert.assertAll();
+    }
+
+    public static class Batch {
+        private final AppiumDriver driver;
+        private final List<Check> checks = new ArrayList<>();
+
+        private Batch(AppiumDriver driver) {
+            this.driver = driver;
+        }
+
+        public Batch visible(By locator, String message) {
+            checks.add(new Check(CheckType.VISIBLE, locator, null, Boolean.TRUE, message));
+            return this;
+        }
+
+        public Batch enabled(By locator, String message) {
+            checks.add(new Check(CheckType.ENABLED, locator, null, Boolean.TRUE, message));
+            return this;
+        }
+
+        public Batch selected(By locator, String message) {
+            checks.add(new Check(CheckType.SELECTED, locator, null, Boolean.TRUE, message));
+            return this;
+        }
+
+        public Batch text(By locator, String expectedText, String message) {
+            checks.add(new Check(CheckType.TEXT, locator, null, expectedText, message));
+            return this;
+        }
+
+        public Batch attribute(By locator, String attribute, String expectedValue, String message) {
+            checks.add(new Check(CheckType.ATTRIBUTE, locator, attribute, expectedValue, message));
+            return this;
+        }
+
+        public void verify() {
+            verify(WaitEngine.getInstance().getDefaultPolicy());
+        }
+
+        /**
+         * Evaluates every check, retaking the snapshot under {@code policy} until all of them pass so a
+         * screen still in transition is not reported as failed, then records the last evaluation. Locators
+         * the snapshot cannot answer, or every locator when {@code snapshot.enabled=false}, are checked
+         * live against the device instead.
+         */
+        public void verify(WaitPolicy policy) {
+            if (checks.isEmpty()) {
+                return;
+            }
+            logger.debug("Verifying {} assertion(s) against one page snapshot", checks.size());
+            List<Outcome> last = new ArrayList<>();
+            try {
+                WaitEngine.getInstance().until(driver, "batch:" + checks.get(0).locator, policy, d -> {
+                    if (!last.isEmpty()) {
+                        // the screen has had time to move on since the previous attempt
+                        ScreenState.invalidate(driver);
+                        last.clear();
+                    }
+                    last.addAll(evaluate());
+                    return last.stream().allMatch(Outcome::passed);
+                });
+            } catch (TimeoutException e) {
+                logger.debug("Batch still failing after {}ms, reporting the last evaluation", policy.getTimeout().toMillis());
+            }
+            int live = 0;
+            for (Outcome outcome : last) {
+                Check check = outcome.check;
+                if (outcome.error != null) {
+                    logger.error("Failed to assert {}: {}", check.locator, outcome.error.getMessage());
+                    softAssert.fail(check.message + ": " + outcome.error.getMessage());
+                } else {
+                    softAssert.assertEquals(outcome.actual, check.expected, check.message);
+                }
+                if (outcome.live) {
+                    live++;
+                }
+            }
+            MetricsRegistry.getInstance().increment("snapshot.assertions", last.size() - live);
+            checks.clear();
+        }
+
+        private List<Outcome> evaluate() {
+            PageSnapshot snapshot = null;
+            try {
+                if (ScreenState.isEnabled()) {
+                    snapshot = ScreenState.snapshot(driver);
+                }
+            } catch (Exception e) {
+                logger.warn("Page snapshot unavailable, checking elements live: {}", e.getMessage());
+            }
+            List<Outcome> outcomes = new ArrayList<>(checks.size());
+            for (Check check : checks) {
+                boolean live = snapshot == null || !snapshot.supports(check.locator);
+                try {
+                    Object actual;
+                    if (!live) {
+                        actual = check.actual(snapshot.find(check.locator));
+                    } else {
+                        List<WebElement> elements = driver.findElements(check.locator);
+                        actual = check.actual(elements.isEmpty() ? null : elements.get(0));
+                    }
+                    outcomes.add(new Outcome(check, actual, null, live));
+                } catch (Exception e) {
+                    outcomes.add(new Outcome(check, null, e, live));
+                }
+            }
+            return outcomes;
+        }
+    }
+
+    private static class Outcome {
+        private final Check check;
+        private final Object actual;
+        private final Exception error;
+        private final boolean live;
+
+        Outcome(Check check, Object actual, Exception error, boolean live) {
+            this.check = check;
+            this.actual = actual;
+            this.error = error;
+            this.live = live;
+        }
+
+        boolean passed() {
+            return error == null && Objects.equals(actual, check.expected);
+        }
+    }
+
+    private enum CheckType {
+        VISIBLE, ENABLED, SELECTED, TEXT, ATTRIBUTE
+    }
+
+    private static class Check {
+        private final CheckType type;
+        private final By locator;
+        private final String attribute;
+        private final Object expected;
+        private final String message;
+
+        Check(CheckType type, By locator, String attribute, Object expected, String message) {
+            this.type = type;
+            this.locator = locator;
+            this.attribute = attribute;
+            this.expected = expected;
+            this.message = message;
+        }
+
+        Object actual(SnapshotElement element) {
+            if (element == null) {
+                return missing();
+            }
+            switch (type) {
+                case VISIBLE:
+                    return element.isDisplayed();
+                case ENABLED:
+                    return element.isEnabled();
+                case SELECTED:
+                    return element.isSelected();
+                case TEXT:
+                    return element.getText();
+                default:
+                    return element.getAttribute(attribute);
+            }
+        }
+
+        Object actual(WebElement element) {
+            if (element == null) {
+                return missing();
+            }
+            switch (type) {
+                case VISIBLE:
+                    return element.isDisplayed();
+                case ENABLED:
+                    return element.isEnabled();
+                case SELECTED:
+                    return element.isSelected();
+                case TEXT:
+                    return element.getText();
+                default:
+                    return element.getAttribute(attribute);
+            }
+        }
+
+        private Object missing() {
+            if (type == CheckType.VISIBLE) {
+                return Boolean.FALSE;
+            }
+            throw new NoSuchElementException("No element matches " + locator);
+        }
+    }
+} 
\ No newline at end of file
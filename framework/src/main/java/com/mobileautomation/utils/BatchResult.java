@@ -0,0 +1,66 @@
+package com.mobileautomation.utils;
+
+import lombok.Getter;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Outcome of an {@link InteractionBatch}: one {@link Step} per interaction, in order, and whether the
+ * batch ran as a single server-side script or step by step.
+ */
+@Getter
+public class BatchResult {
+    private final List<Step> steps;
+    private final boolean remote;
+    private final Duration duration;
+
+    BatchResult(List<Step> steps, boolean remote, Duration duration) {
+        this.steps = steps;
+        this.remote = remote;
+        this.duration = duration;
+    }
+
+    /**
+     * The value returned by the step at the given index: the text for {@code getText} steps, null otherwise.
+     */
+    public Object getValue(int index) {
+        return steps.get(index).getValue();
+    }
+
+    public String getText(int index) {
+        Object value = getValue(index);
+        return value == null ? null : value.toString();
+    }
+
+    /**
+     * Time spent on the device for all steps; the rest of {@link #getDuration()} is transport and scheduling.
+     */
+    public Duration getStepDuration() {
+        return steps.stream().map(Step::getDuration).reduce(Duration.ZERO, Duration::plus);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d step(s) %s in %d ms (%d ms on device)", steps.size(), remote ? "in one script" : "step by step",
+            duration.toMillis(), getStepDuration().toMillis());
+    }
+
+    @Getter
+    public static class Step {
+        private final String description;
+        private final Object value;
+        private final Duration duration;
+
+        Step(String description, Object value, Duration duration) {
+            this.description = description;
+            this.value = value;
+            this.duration = duration;
+        }
+
+        @Override
+        public String toString() {
+            return description + " (" + duration.toMillis() + " ms)";
+        }
+    }
+}
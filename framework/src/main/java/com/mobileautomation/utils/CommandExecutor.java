@@ -0,0 +1,170 @@
+package com.mobileautomation.utils;
+
+import com.mobileautomation.config.ConfigManager;
+import com.mobileautomation.exceptions.MobileAutomationException;
+import com.mobileautomation.metrics.MetricsRegistry;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs host tools (adb, xcrun, npm, appium) without the classic {@code Runtime.exec} pitfalls:
+ * stdout and stderr are drained concurrently into bounded buffers, every command has a deadline,
+ * and a command that overruns it is killed together with its child processes.
+ */
+public class CommandExecutor {
+    private static final Logger logger = LogManager.getLogger(CommandExecutor.class);
+    private static final int MAX_OUTPUT_BYTES = 1024 * 1024;
+    private static CommandExecutor instance;
+    private final ExecutorService ioPool;
+    private final Duration defaultTimeout;
+
+    private CommandExecutor() {
+        this.ioPool = ExecutorFactory.newCachedThreadPool("command-io", true);
+        this.defaultTimeout = Duration.ofSeconds(ConfigManager.getInstance().getIntProperty("command.timeout.seconds", 60));
+    }
+
+    public static synchronized CommandExecutor getInstance() {
+        if (instance == null) {
+            instance = new CommandExecutor();
+        }
+        return instance;
+    }
+
+    public CommandResult run(String... command) {
+        return run(List.of(command), defaultTimeout);
+    }
+
+    public CommandResult run(List<String> command, Duration timeout) {
+        long start = System.nanoTime();
+        Process process;
+        try {
+            process = new ProcessBuilder(command).start();
+        } catch (IOException e) {
+            String error = "Failed to start command: " + String.join(" ", command);
+            String suggestion = "Check that " + command.get(0) + " is installed and on the PATH";
+            throw new MobileAutomationException("COMMAND_START_FAILED", error, suggestion, e);
+        }
+        closeQuietly(process);
+
+        Future<String> stdout = ioPool.submit(() -> drain(process.getInputStream()));
+        Future<String> stderr = ioPool.submit(() -> drain(process.getErrorStream()));
+        boolean timedOut = false;
+        try {
+            if (!process.waitFor(timeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                timedOut = true;
+                killTree(process);
+            }
+        } catch (InterruptedException e) {
+            killTree(process);
+            Thread.currentThread().interrupt();
+            timedOut = true;
+        }
+
+        Duration duration = Duration.ofNanos(System.nanoTime() - start);
+        CommandResult result = new CommandResult(command, timedOut ? -1 : process.exitValue(),
+            collect(stdout), collect(stderr), duration, timedOut);
+        MetricsRegistry.getInstance().timer(metricName(command)).record(duration);
+        if (timedOut) {
+            MetricsRegistry.getInstance().increment("command.timeouts");
+            logger.warn("Command timed out after {}ms and was killed: {}", duration.toMillis(), String.join(" ", command));
+        } else {
+            logger.debug("Command finished in {}ms with exit code {}: {}", duration.toMillis(), result.getExitCode(),
+                String.join(" ", command));
+        }
+        return result;
+    }
+
+    public CompletableFuture<CommandResult> runAsync(List<String> command, Duration timeout) {
+        return CompletableFuture.supplyAsync(() -> run(command, timeout), ioPool);
+    }
+
+    /**
+     * Runs independent commands in parallel and returns their results in the order given.
+     */
+    public List<CommandResult> runAll(List<List<String>> commands, Duration timeout) {
+        List<CompletableFuture<CommandResult>> futures = new ArrayList<>();
+        for (List<String> command : commands) {
+            futures.add(runAsync(command, timeout));
+        }
+        List<CommandResult> results = new ArrayList<>();
+        for (CompletableFuture<CommandResult> future : futures) {
+            results.add(future.join());
+        }
+        return results;
+    }
+
+    public Duration getDefaultTimeout() {
+        return defaultTimeout;
+    }
+
+    private static void killTree(Process process) {
+        process.descendants().forEach(ProcessHandle::destroyForcibly);
+        process.destroyForcibly();
+        try {
+            process.waitFor(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void closeQuietly(Process process) {
+        try {
+            process.getOutputStream().close();
+        } catch (IOException ignored) {
+            // stdin is never written, nothing to report
+        }
+    }
+
+    /**
+     * Reads the stream to the end so the child never blocks on a full pipe, keeping at most
+     * {@link #MAX_OUTPUT_BYTES}; anything past that is discarded.
+     */
+    private static String drain(InputStream stream) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        byte[] chunk = new byte[8192];
+        boolean truncated = false;
+        try (InputStream input = stream) {
+            int read;
+            while ((read = input.read(chunk)) != -1) {
+                int room = MAX_OUTPUT_BYTES - buffer.size();
+                if (room > 0) {
+                    buffer.write(chunk, 0, Math.min(read, room));
+                }
+                truncated |= read > room;
+            }
+        }
+        String output = buffer.toString(StandardCharsets.UTF_8);
+        return truncated ? output + "\n[output truncated]" : output;
+    }
+
+    private static String collect(Future<String> output) {
+        try {
+            return output.get(5, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            // A grandchild can keep the pipe open after the process itself exited
+            output.cancel(true);
+            return "";
+        }
+    }
+
+    private static String metricName(List<String> command) {
+        String tool = Paths.get(command.get(0)).getFileName().toString();
+        if (command.size() > 1 && !command.get(1).startsWith("-")) {
+            return "command." + tool + "." + command.get(1);
+        }
+        return "command." + tool;
+    }
+}
@@ -0,0 +1,63 @@
+package com.mobileautomation.utils;
+
+import com.mobileautomation.exceptions.MobileAutomationException;
+import lombok.Getter;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Outcome of a host command run through {@link CommandExecutor}.
+ */
+@Getter
+public class CommandResult {
+    private final List<String> command;
+    private final int exitCode;
+    private final String stdout;
+    private final String stderr;
+    private final Duration duration;
+    private final boolean timedOut;
+
+    CommandResult(List<String> command, int exitCode, String stdout, String stderr, Duration duration, boolean timedOut) {
+        this.command = command;
+        this.exitCode = exitCode;
+        this.stdout = stdout;
+        this.stderr = stderr;
+        this.duration = duration;
+        this.timedOut = timedOut;
+    }
+
+    public boolean isSuccess() {
+        return !timedOut && exitCode == 0;
+    }
+
+    public List<String> getStdoutLines() {
+        return stdout.isEmpty() ? List.of() : Arrays.stream(stdout.split("\\r?\\n")).collect(Collectors.toList());
+    }
+
+    /**
+     * Returns this result, or throws when the command timed out or exited non-zero.
+     */
+    public CommandResult requireSuccess() {
+        if (timedOut) {
+            String error = String.format("Command '%s' timed out after %dms", String.join(" ", command), duration.toMillis());
+            String suggestion = "Check that the device/tool is responsive or raise command.timeout.seconds";
+            throw new MobileAutomationException("COMMAND_TIMEOUT", error, suggestion);
+        }
+        if (exitCode != 0) {
+            String error = String.format("Command '%s' failed with exit code %d: %s",
+                String.join(" ", command), exitCode, stderr.isEmpty() ? stdout : stderr);
+            String suggestion = "Run the command manually to inspect its output";
+            throw new MobileAutomationException("COMMAND_FAILED", error, suggestion);
+        }
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("CommandResult[%s, exit=%d, %dms%s]",
+            String.join(" ", command), exitCode, duration.toMillis(), timedOut ? ", timed out" : "");
+    }
+}
@@ -0,0 +1,65 @@
+package com.mobileautomation.utils;
+
+import lombok.Getter;
+
+import java.util.Objects;
+
+/**
+ * Snapshot of one attached device as reported by the device inventory. Instances are immutable;
+ * state changes produce a new instance.
+ */
+@Getter
+public class DeviceInfo {
+    public static final String STATE_ONLINE = "device";
+
+    private final String deviceId;
+    private final String deviceName;
+    private final String platform;
+    private final String version;
+    private final String state;
+
+    public DeviceInfo(String deviceId, String deviceName, String platform, String version, String state) {
+        this.deviceId = deviceId;
+        this.deviceName = deviceName;
+        this.platform = platform;
+        this.version = version;
+        this.state = state;
+    }
+
+    public boolean isOnline() {
+        return STATE_ONLINE.equals(state);
+    }
+
+    public DeviceInfo withState(String newState) {
+        return new DeviceInfo(deviceId, deviceName, platform, version, newState);
+    }
+
+    public DeviceInfo withVersion(String newVersion) {
+        return new DeviceInfo(deviceId, deviceName, platform, newVersion, state);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof DeviceInfo)) {
+            return false;
+        }
+        DeviceInfo other = (DeviceInfo) o;
+        return deviceId.equals(other.deviceId) && Objects.equals(deviceName, other.deviceName)
+            && Objects.equals(platform, other.platform) && Objects.equals(version, other.version)
+            && Objects.equals(state, other.state);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(deviceId, deviceName, platform, version, state);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("DeviceInfo[id=%s, name=%s, platform=%s, version=%s, state=%s]",
+            deviceId, deviceName, platform, version, state);
+    }
+}
@@ -0,0 +1,350 @@
+package com.mobileautomation.utils;
+
+import com.mobileautomation.config.ConfigManager;
+import com.mobileautomation.device.AdbClient;
+import com.mobileautomation.device.DeviceInventory;
+import com.mobileautomation.driver.DeviceLease;
+import com.mobileautomation.driver.DeviceLeaseManager;
+import com.mobileautomation.driver.DeviceRequirement;
+import com.mobileautomation.driver.DriverManager;
+import com.mobileautomation.driver.PooledHttpClientFactory;
+import com.mobileautomation.exceptions.MobileAutomationException;
+import com.mobileautomation.server.AppiumServerManager;
+import com.mobileautomation.server.DevicePorts;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import io.appium.java_client.AppiumDriver;
+import io.appium.java_client.ios.IOSDriver;
+import io.appium.java_client.ios.options.XCUITestOptions;
+import io.appium.java_client.android.AndroidDriver;
+import io.appium.java_client.android.options.UiAutomator2Options;
+import org.openqa.selenium.WebElement;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.net.URL;
+import java.time.Duration;
+
+public class DeviceManager {
+    private static final Logger logger = LogManager.getLogger(DeviceManager.class);
+    private static final List<String> IOS_SIMULATOR_CMD = List.of("xcrun", "simctl", "list", "devices", "available");
+    private static final List<String> ANDROID_DEVICES_CMD = List.of("adb", "devices");
+    private static final Duration SIMULATOR_BOOT_TIMEOUT = Duration.ofMinutes(3);
+    private static final Duration INVENTORY_STARTUP_WAIT = Duration.ofSeconds(2);
+    private static final Pattern DEVICE_PATTERN = Pattern.compile("^\\s+(.+?) \\(([0-9A-Fa-f-]{36})\\) \\((.*?)\\)");
+    private static final Pattern RUNTIME_PATTERN = Pattern.compile("^-- iOS ([0-9.]+) --");
+
+    static {
+        // A device keeps its driver ports and server binding only while a session, pooled or not, runs on it
+        DriverManager.getInstance().addDeviceReleaseListener(
+            deviceId -> AppiumServerManager.getInstance().releaseDevice(deviceId));
+    }
+
+    public static boolean isAppiumServerRunning() {
+        try {
+            return AppiumServerManager.getInstance().isRunning();
+        } catch (Exception e) {
+            logger.error("Error checking Appium server status: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    public static void startAppiumServer() {
+        try {
+            AppiumServerManager.getInstance().acquire();
+        } catch (Exception e) {
+            String error = "Failed to start Appium server";
+            String suggestion = "Check if port 4723 is available and Appium is installed";
+            throw new MobileAutomationException("APPIUM_SERVER_START_FAILED", error, suggestion, e);
+        }
+    }
+
+    public static void releaseAppiumServer() {
+        AppiumServerManager.getInstance().release();
+    }
+
+    public static void stopAppiumServer() {
+        try {
+            AppiumServerManager.getInstance().stopServers();
+        } catch (Exception e) {
+            String error = "Failed to stop Appium server";
+            String suggestion = "Check if Appium server is running";
+            throw new MobileAutomationException("APPIUM_SERVER_STOP_FAILED", error, suggestion, e);
+        }
+    }
+
+    public static List<String> getAvailableIOSSimulators() {
+        List<String> availableDevices = new ArrayList<>();
+        for (DeviceInfo simulator : getIOSSimulators()) {
+            availableDevices.add(simulator.getDeviceName() + " (" + simulator.getDeviceId() + ")");
+        }
+        return availableDevices;
+    }
+
+    /**
+     * Lists available simulators with the iOS version taken from the runtime section they are listed under.
+     */
+    public static List<DeviceInfo> getIOSSimulators() {
+        List<DeviceInfo> simulators = new ArrayList<>();
+        try {
+            CommandExecutor executor = CommandExecutor.getInstance();
+            List<String> output = executor.run(IOS_SIMULATOR_CMD, executor.getDefaultTimeout())
+                .requireSuccess()
+                .getStdoutLines();
+
+            String runtimeVersion = null;
+            for (String line : output) {
+                Matcher runtime = RUNTIME_PATTERN.matcher(line);
+                if (runtime.find()) {
+                    runtimeVersion = runtime.group(1);
+                    continue;
+                }
+                Matcher matcher = DEVICE_PATTERN.matcher(line);
+                if (matcher.find() && runtimeVersion != null) {
+                    String deviceName = matcher.group(1).trim();
+                    String deviceId = matcher.group(2).trim();
+                    simulators.add(new DeviceInfo(deviceId, deviceName, "iOS", runtimeVersion, DeviceInfo.STATE_ONLINE));
+                }
+            }
+            logger.info("Found {} available iOS simulators", simulators.size());
+            return simulators;
+        } catch (Exception e) {
+            String error = "Failed to get available iOS simulators";
+            String suggestion = "Check if Xcode and iOS Simulator are installed";
+            throw new MobileAutomationException("SIMULATOR_LIST_FAILED", error, suggestion, e);
+        }
+    }
+
+    public static List<String> getAvailableAndroidDevices() {
+        List<String> availableDevices = new ArrayList<>();
+        if (ConfigManager.getInstance().getBooleanProperty("device.inventory.enabled", true)) {
+            DeviceInventory inventory = DeviceInventory.getInstance();
+            if (inventory.awaitFirstSnapshot(INVENTORY_STARTUP_WAIT) && inventory.isConnected()) {
+                inventory.getOnlineDevices().forEach(device -> availableDevices.add(device.getDeviceId()));
+                logger.debug("Found {} available Android devices in the device inventory", availableDevices.size());
+                return availableDevices;
+            }
+        }
+        try {
+            AdbClient.getInstance().listDevices().stream()
+                .filter(DeviceInfo::isOnline)
+                .forEach(device -> availableDevices.add(device.getDeviceId()));
+            logger.info("Found {} available Android devices", availableDevices.size());
+            return availableDevices;
+        } catch (IOException e) {
+            logger.debug("adb server not reachable, falling back to the adb binary: {}", e.getMessage());
+        }
+        // Forking adb also starts its server, after which the tracker and AdbClient connect
+        try {
+            CommandExecutor executor = CommandExecutor.getInstance();
+            List<String> output = executor.run(ANDROID_DEVICES_CMD, executor.getDefaultTimeout())
+                .requireSuccess()
+                .getStdoutLines();
+
+            // Skip the first line (List of devices attached)
+            for (String line : output.subList(Math.min(1, output.size()), output.size())) {
+                if (line.trim().endsWith("device")) {
+                    String deviceId = line.split("\t")[0];
+                    availableDevices.add(deviceId);
+                }
+            }
+            logger.info("Found {} available Android devices", availableDevices.size());
+            return availableDevices;
+        } catch (Exception e) {
+            String error = "Failed to get available Android devices";
+            String suggestion = "Check if ADB is installed and devices are connected";
+            throw new MobileAutomationException("ANDROID_DEVICE_LIST_FAILED", error, suggestion, e);
+        }
+    }
+
+    public static void installAndroidApp(String deviceId, String apkPath) {
+        AdbClient.getInstance().install(deviceId, Path.of(apkPath));
+    }
+
+    public static void clearAndroidAppData(String deviceId, String packageName) {
+        AdbClient.getInstance().clearAppData(deviceId, packageName);
+        logger.info("Cleared app data of {} on {}", packageName, deviceId);
+    }
+
+    public static void bootIOSSimulator(String deviceId) {
+        try {
+            CommandResult result = CommandExecutor.getInstance()
+                .run(List.of("xcrun", "simctl", "boot", deviceId), SIMULATOR_BOOT_TIMEOUT);
+            // simctl refuses to boot a simulator that is already booted, which is fine for us
+            if (!result.isSuccess() && !result.getStderr().contains("Booted")) {
+                result.requireSuccess();
+            }
+            logger.info("iOS simulator booted successfully: {}", deviceId);
+        } catch (Exception e) {
+            String error = "Failed to boot iOS simulator";
+            String suggestion = "Check if simulator exists and is not already running";
+            throw new MobileAutomationException("SIMULATOR_BOOT_FAILED", error, suggestion, e);
+        }
+    }
+
+    public static void shutdownIOSSimulator(String deviceId) {
+        try {
+            CommandResult result = CommandExecutor.getInstance()
+                .run(List.of("xcrun", "simctl", "shutdown", deviceId), SIMULATOR_BOOT_TIMEOUT);
+            if (!result.isSuccess() && !result.getStderr().contains("Shutdown")) {
+                result.requireSuccess();
+            }
+            logger.info("iOS simulator shutdown successfully: {}", deviceId);
+        } catch (Exception e) {
+            String error = "Failed to shutdown iOS simulator";
+            String suggestion = "Check if simulator is running";
+            throw new MobileAutomationException("SIMULATOR_SHUTDOWN_FAILED", error, suggestion, e);
+        }
+    }
+
+    public static String getFirstAvailableIOSSimulator() {
+        List<String> devices = getAvailableIOSSimulators();
+        if (!devices.isEmpty()) {
+            String device = devices.get(0);
+            String deviceId = device.substring(device.indexOf("(") + 1, device.indexOf(")"));
+            bootIOSSimulator(deviceId);
+            return device;
+        }
+        throw new MobileAutomationException("NO_SIMULATOR_FOUND", 
+            "No iOS simulators available", 
+            "Check if Xcode and iOS Simulator are installed");
+    }
+
+    public static String getFirstAvailableAndroidDevice() {
+        List<String> devices = getAvailableAndroidDevices();
+        if (!devices.isEmpty()) {
+            return devices.get(0);
+        }
+        throw new MobileAutomationException("NO_ANDROID_DEVICE_FOUND", 
+            "No Android devices available", 
+            "Check if devices are connected and ADB is working");
+    }
+
+    public static void cleanup() {
+        stopAppiumServer();
+    }
+
+    public static AppiumDriver getDriver() {
+        if (!DriverManager.getInstance().hasDriver()) {
+            throw new IllegalStateException("Driver has not been initialized. Call initializeDriver() first.");
+        }
+        return DriverManager.getInstance().getDriver();
+    }
+
+    public static void initializeDriver(String platform, String deviceName, String platformVersion, String appPath) {
+        initializeDriver(platform, deviceName, platformVersion, appPath, null);
+    }
+
+    /**
+     * Like {@link #initializeDriver(String, String, String, String)}, leasing only {@code pinnedDeviceId}
+     * when it is set, e.g. the device a scheduler worker runs its items on.
+     */
+    public static void initializeDriver(String platform, String deviceName, String platformVersion, String appPath,
+                                        String pinnedDeviceId) {
+        DeviceLease lease = null;
+        boolean serverAcquired = false;
+        try {
+            // Each driver holds a reference on the shared server until its test tears down
+            startAppiumServer();
+            serverAcquired = true;
+            AppiumServerManager serverManager = AppiumServerManager.getInstance();
+            
+            DeviceLeaseManager leaseManager = DeviceLeaseManager.getInstance();
+            Duration leaseWait = DriverManager.getInstance().leaseWaitTimeout();
+
+            if ("iOS".equalsIgnoreCase(platform)) {
+                // Wait for a matching simulator that no other test is using
+                getIOSSimulators().forEach(simulator -> leaseManager.register(simulator, "simctl"));
+                String pinned = pinnedDeviceId != null ? pinnedDeviceId : deviceName;
+                lease = leaseManager.acquire(new DeviceRequirement(platform, platformVersion, pinned), leaseWait);
+                String udid = lease.getDeviceId();
+                bootIOSSimulator(udid);
+                if (deviceName == null || deviceName.isEmpty()) {
+                    deviceName = lease.getDevice().getDeviceName();
+                }
+                URL appiumServerURL = new URL(serverManager.serverFor(udid).getUrl());
+                DevicePorts ports = serverManager.getDevicePorts(udid);
+
+                XCUITestOptions options = new XCUITestOptions()
+                    .setDeviceName(deviceName)
+                    .setUdid(udid)
+                    .setPlatformVersion(platformVersion)
+                    .setApp(appPath)
+                    .setAutomationName("XCUITest")
+                    .setNewCommandTimeout(Duration.ofSeconds(60))
+                    .setWdaLocalPort(ports.getWdaLocalPort())
+                    .setMjpegServerPort(ports.getMjpegServerPort())
+                    .setWdaConnectionTimeout(Duration.ofSeconds(30));
+
+                DriverManager.getInstance().acquireDriver(options, caps -> new IOSDriver(appiumServerURL, PooledHttpClientFactory.forDrivers(), caps), lease);
+                logger.info("iOS driver initialized successfully with device: {} ({})", deviceName, udid);
+            } else if ("Android".equalsIgnoreCase(platform)) {
+                // Wait for a matching device that no other test is using
+                List<String> devices = getAvailableAndroidDevices();
+                if (devices.isEmpty()) {
+                    throw new MobileAutomationException("NO_ANDROID_DEVICE_FOUND",
+                        "No Android devices available",
+                        "Check if devices are connected and ADB is working");
+                }
+                leaseManager.trackInventory(DeviceInventory.getInstance());
+                for (String serial : devices) {
+                    if (!leaseManager.isRegistered(serial)) {
+                        leaseManager.register(new DeviceInfo(serial, serial, "Android", null, DeviceInfo.STATE_ONLINE), "adb");
+                    }
+                }
+                // deviceName only pins a device when it is a serial, otherwise it is a display name for Appium
+                String serial = devices.contains(deviceName) ? deviceName : null;
+                if (pinnedDeviceId != null) {
+                    serial = pinnedDeviceId;
+                }
+                lease = leaseManager.acquire(new DeviceRequirement(platform, platformVersion, serial), leaseWait);
+                if (deviceName == null || deviceName.isEmpty()) {
+                    deviceName = lease.getDeviceId();
+                }
+                URL appiumServerURL = new URL(serverManager.serverFor(lease.getDeviceId()).getUrl());
+                DevicePorts ports = serverManager.getDevicePorts(lease.getDeviceId());
+
+                UiAutomator2Options options = new UiAutomator2Options()
+                    .setDeviceName(deviceName)
+                    .setUdid(lease.getDeviceId())
+                    .setSystemPort(ports.getSystemPort())
+                    .setMjpegServerPort(ports.getMjpegServerPort())
+                    .setPlatformVersion(platformVersion)
+                    .setApp(appPath)
+                    .setAutomationName("UiAutomator2")
+                    .setNewCommandTimeout(Duration.ofSeconds(60))
+                    .setAutoGrantPermissions(true);
+
+                DriverManager.getInstance().acquireDriver(options, caps -> new AndroidDriver(appiumServerURL, PooledHttpClientFactory.forDrivers(), caps), lease);
+                logger.info("Android driver initialized successfully with device: {}", deviceName);
+            } else {
+                throw new IllegalArgumentException("Unsupported platform: " + platform);
+            }
+        } catch (Exception e) {
+            // Counts towards quarantine; a no-op if acquireDriver already returned the lease
+            DriverManager.getInstance().releaseLease(lease, true);
+            if (serverAcquired) {
+                releaseAppiumServer();
+            }
+            logger.error("Failed to initialize driver: {}", e.getMessage());
+            throw new RuntimeException("Driver initialization failed", e);
+        }
+    }
+
+    public static void releaseDriver() {
+        DriverManager.getInstance().releaseDriver();
+    }
+
+    public static void quitDriver() {
+        try {
+            DriverManager.getInstance().quitDriver();
+            logger.info("Driver quit successfully");
+        } catch (Exception e) {
+            logger.error("Error while quitting driver: {}", e.getMessage());
+        }
+    }
+}
\ No newline at end of file
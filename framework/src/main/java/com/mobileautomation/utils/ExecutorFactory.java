@@ -0,0 +1,108 @@
+package com.mobileautomation.utils;
+
+import com.mobileautomation.config.ConfigManager;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates the framework's threads and executors. With {@code execution.threads=virtual} (config or
+ * system property) on JDK 21+, orchestration, I/O draining, device polling and screenshot writing run
+ * on virtual threads, so hundreds of sessions blocked on Appium HTTP calls do not need hundreds of
+ * platform threads. The virtual thread API is looked up reflectively so the framework still builds
+ * and runs on Java 11, where the setting falls back to platform threads.
+ */
+public final class ExecutorFactory {
+    private static final Logger logger = LogManager.getLogger(ExecutorFactory.class);
+    private static volatile Boolean virtual;
+
+    private ExecutorFactory() {
+    }
+
+    public static boolean isVirtual() {
+        if (virtual == null) {
+            synchronized (ExecutorFactory.class) {
+                if (virtual == null) {
+                    String mode = System.getProperty("execution.threads",
+                        ConfigManager.getInstance().getProperty("execution.threads", "platform"));
+                    boolean requested = "virtual".equalsIgnoreCase(mode.trim());
+                    if (requested && virtualThreadFactory("probe-") == null) {
+                        logger.warn("execution.threads=virtual needs JDK 21+, running on Java {} with platform threads",
+                            System.getProperty("java.version"));
+                        requested = false;
+                    }
+                    virtual = requested;
+                    logger.info("Using {} threads for test orchestration", requested ? "virtual" : "platform");
+                }
+            }
+        }
+        return virtual;
+    }
+
+    /**
+     * Thread factory naming threads {@code name-1, name-2, ...}. Virtual threads are always daemon threads.
+     */
+    public static ThreadFactory threadFactory(String name, boolean daemon) {
+        if (isVirtual()) {
+            return virtualThreadFactory(name + "-");
+        }
+        AtomicInteger threadNumber = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + threadNumber.incrementAndGet());
+            thread.setDaemon(daemon);
+            return thread;
+        };
+    }
+
+    /**
+     * An unstarted thread running the task.
+     */
+    public static Thread newThread(String name, boolean daemon, Runnable task) {
+        Thread thread = threadFactory(name, daemon).newThread(task);
+        thread.setName(name);
+        return thread;
+    }
+
+    /**
+     * A pool of {@code threads} platform threads, or one virtual thread per task. Callers that rely on
+     * the pool size to cap concurrency must not use this in virtual mode.
+     */
+    public static ExecutorService newFixedThreadPool(String name, int threads, boolean daemon) {
+        if (isVirtual()) {
+            return newThreadPerTaskExecutor(threadFactory(name, daemon));
+        }
+        return Executors.newFixedThreadPool(threads, threadFactory(name, daemon));
+    }
+
+    public static ExecutorService newCachedThreadPool(String name, boolean daemon) {
+        if (isVirtual()) {
+            return newThreadPerTaskExecutor(threadFactory(name, daemon));
+        }
+        return Executors.newCachedThreadPool(threadFactory(name, daemon));
+    }
+
+    private static ThreadFactory virtualThreadFactory(String prefix) {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, prefix, 1L);
+            return (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    private static ExecutorService newThreadPerTaskExecutor(ThreadFactory factory) {
+        try {
+            Method method = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+            return (ExecutorService) method.invoke(null, factory);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Virtual thread executor is not available", e);
+        }
+    }
+}
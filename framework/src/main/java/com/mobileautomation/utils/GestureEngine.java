@@ -0,0 +1,217 @@
+package com.mobileautomation.utils;
+
+import com.mobileautomation.config.ConfigManager;
+import com.mobileautomation.metrics.MetricsRegistry;
+import com.mobileautomation.snapshot.ScreenState;
+import io.appium.java_client.AppiumDriver;
+import io.appium.java_client.remote.SupportsRotation;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openqa.selenium.Dimension;
+import org.openqa.selenium.Rectangle;
+import org.openqa.selenium.ScreenOrientation;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.interactions.Sequence;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Performs touch gestures as W3C actions. Common gestures are {@link GestureTemplate}s built once from
+ * the {@code gesture.*} durations, each sent as a single actions request. The viewport size, and the
+ * orientation that follows from it, is fetched once per session; call {@link #invalidateViewport} after
+ * rotating the device outside of {@link #rotate}.
+ * <p>
+ * Every gesture is timed under {@code gesture.<name>} and every server call it makes counts towards
+ * {@code gesture.round.trips}. The engine holds no per-call state, so one instance serves all threads.
+ */
+public class GestureEngine {
+    private static final Logger logger = LogManager.getLogger(GestureEngine.class);
+    private static GestureEngine instance;
+    // Weak keys so a quit driver does not stay reachable; a Dimension never references the driver
+    private final Map<AppiumDriver, Dimension> viewports = Collections.synchronizedMap(new WeakHashMap<>());
+    private final MetricsRegistry metrics = MetricsRegistry.getInstance();
+    private final Map<MobileInteractionUtils.Direction, GestureTemplate> swipes = new EnumMap<>(MobileInteractionUtils.Direction.class);
+    private final Map<MobileInteractionUtils.Direction, GestureTemplate> flings = new EnumMap<>(MobileInteractionUtils.Direction.class);
+    private final Map<MobileInteractionUtils.Direction, GestureTemplate> scrolls = new EnumMap<>(MobileInteractionUtils.Direction.class);
+    private final GestureTemplate longPress;
+    private final GestureTemplate pinch;
+    private final GestureTemplate zoom;
+    private final Duration scrollDuration;
+
+    private GestureEngine() {
+        ConfigManager config = ConfigManager.getInstance();
+        Duration swipe = Duration.ofMillis(config.getIntProperty("gesture.swipe.ms", 300));
+        Duration fling = Duration.ofMillis(config.getIntProperty("gesture.fling.ms", 80));
+        scrollDuration = Duration.ofMillis(config.getIntProperty("gesture.scroll.ms", 400));
+        Duration hold = Duration.ofMillis(config.getIntProperty("gesture.longpress.ms", 1000));
+        Duration pinchDuration = Duration.ofMillis(config.getIntProperty("gesture.pinch.ms", 400));
+
+        for (MobileInteractionUtils.Direction direction : MobileInteractionUtils.Direction.values()) {
+            swipes.put(direction, drag("swipe." + direction, direction, 0.8, 0.2, swipe));
+            flings.put(direction, drag("fling." + direction, direction, 0.8, 0.2, fling));
+            // Shorter travel than a swipe so an element scrolled into view is not carried past the edge
+            scrolls.put(direction, drag("scroll." + direction, direction, 0.7, 0.3, scrollDuration));
+        }
+        longPress = GestureTemplate.named("longPress")
+            .moveTo(0.5, 0.5).down().pause(hold).up()
+            .build();
+        pinch = twoFingers("pinch", 0.2, 0.45, pinchDuration);
+        zoom = twoFingers("zoom", 0.45, 0.2, pinchDuration);
+    }
+
+    public static synchronized GestureEngine getInstance() {
+        if (instance == null) {
+            instance = new GestureEngine();
+        }
+        return instance;
+    }
+
+    public void swipe(AppiumDriver driver, MobileInteractionUtils.Direction direction) {
+        perform(driver, swipes.get(direction), viewportSequences(driver, swipes.get(direction)));
+    }
+
+    public void fling(AppiumDriver driver, MobileInteractionUtils.Direction direction) {
+        perform(driver, flings.get(direction), viewportSequences(driver, flings.get(direction)));
+    }
+
+    public void longPress(AppiumDriver driver, WebElement element) {
+        perform(driver, longPress, elementSequences(element, longPress));
+    }
+
+    /**
+     * Pinches inside the element, or the whole viewport when the element is null.
+     */
+    public void pinch(AppiumDriver driver, WebElement element) {
+        perform(driver, pinch, element == null ? viewportSequences(driver, pinch) : elementSequences(element, pinch));
+    }
+
+    /**
+     * Spreads two fingers inside the element, or the whole viewport when the element is null.
+     */
+    public void zoom(AppiumDriver driver, WebElement element) {
+        perform(driver, zoom, element == null ? viewportSequences(driver, zoom) : elementSequences(element, zoom));
+    }
+
+    /**
+     * Performs any template against the current viewport.
+     */
+    public void perform(AppiumDriver driver, GestureTemplate template) {
+        perform(driver, template, viewportSequences(driver, template));
+    }
+
+    /**
+     * One scroll step: a slower, shorter drag than {@link #swipe} that moves the content by about 40% of the viewport.
+     */
+    public void scroll(AppiumDriver driver, MobileInteractionUtils.Direction direction) {
+        perform(driver, scrolls.get(direction), viewportSequences(driver, scrolls.get(direction)));
+    }
+
+    /**
+     * Scrolls the content by roughly the given number of pixels, capped at 60% of the viewport per call.
+     */
+    public void scrollBy(AppiumDriver driver, MobileInteractionUtils.Direction direction, int pixels) {
+        Dimension size = viewport(driver);
+        boolean vertical = direction == MobileInteractionUtils.Direction.UP || direction == MobileInteractionUtils.Direction.DOWN;
+        double fraction = Math.min(0.6, (double) Math.abs(pixels) / (vertical ? size.height : size.width));
+        GestureTemplate seek = drag("scroll.seek", direction, 0.5 + fraction / 2, 0.5 - fraction / 2, scrollDuration);
+        perform(driver, seek, seek.forViewport(size));
+    }
+
+    public void rotate(AppiumDriver driver, ScreenOrientation orientation) {
+        try {
+            ((SupportsRotation) driver).rotate(orientation);
+            metrics.increment("gesture.round.trips");
+        } finally {
+            invalidateViewport(driver);
+            ScreenState.invalidate(driver);
+        }
+    }
+
+    public void invalidateViewport(AppiumDriver driver) {
+        viewports.remove(driver);
+    }
+
+    public Dimension viewport(AppiumDriver driver) {
+        Dimension size = viewports.get(driver);
+        if (size == null) {
+            size = driver.manage().window().getSize();
+            metrics.increment("gesture.viewport.fetches");
+            metrics.increment("gesture.round.trips");
+            viewports.put(driver, size);
+        }
+        return size;
+    }
+
+    public ScreenOrientation orientation(AppiumDriver driver) {
+        Dimension size = viewport(driver);
+        return size.width > size.height ? ScreenOrientation.LANDSCAPE : ScreenOrientation.PORTRAIT;
+    }
+
+    public void logStats() {
+        metrics.getTimers().values().stream()
+            .filter(timer -> timer.getName().startsWith("gesture."))
+            .forEach(timer -> logger.info("{}", timer));
+        logger.info("Gesture round trips={}, viewport fetches={}", metrics.getCount("gesture.round.trips"),
+            metrics.getCount("gesture.viewport.fetches"));
+    }
+
+    private List<Sequence> viewportSequences(AppiumDriver driver, GestureTemplate template) {
+        return template.forViewport(viewport(driver));
+    }
+
+    private List<Sequence> elementSequences(WebElement element, GestureTemplate template) {
+        Rectangle rect = element.getRect();
+        metrics.increment("gesture.round.trips");
+        return template.forFrame(rect);
+    }
+
+    private void perform(AppiumDriver driver, GestureTemplate template, List<Sequence> sequences) {
+        long start = System.nanoTime();
+        try {
+            driver.perform(sequences);
+            metrics.increment("gesture.round.trips");
+        } finally {
+            ScreenState.invalidate(driver);
+            metrics.timer("gesture." + template.getName()).recordSince(start);
+        }
+    }
+
+    private static GestureTemplate drag(String name, MobileInteractionUtils.Direction direction, double from, double to, Duration duration) {
+        double[] start;
+        double[] end;
+        switch (direction) {
+            case UP:
+                start = new double[] {0.5, from};
+                end = new double[] {0.5, to};
+                break;
+            case DOWN:
+                start = new double[] {0.5, to};
+                end = new double[] {0.5, from};
+                break;
+            case LEFT:
+                start = new double[] {from, 0.5};
+                end = new double[] {to, 0.5};
+                break;
+            default:
+                start = new double[] {to, 0.5};
+                end = new double[] {from, 0.5};
+                break;
+        }
+        return GestureTemplate.named(name)
+            .moveTo(start[0], start[1]).down()
+            .moveTo(end[0], end[1], duration).up()
+            .build();
+    }
+
+    private static GestureTemplate twoFingers(String name, double from, double to, Duration duration) {
+        return GestureTemplate.named(name)
+            .finger().moveTo(from, from).down().moveTo(to, to, duration).up()
+            .finger().moveTo(1 - from, 1 - from).down().moveTo(1 - to, 1 - to, duration).up()
+            .build();
+    }
+}
@@ -0,0 +1,159 @@
+package com.mobileautomation.utils;
+
+import org.openqa.selenium.Dimension;
+import org.openqa.selenium.Rectangle;
+import org.openqa.selenium.interactions.Pause;
+import org.openqa.selenium.interactions.PointerInput;
+import org.openqa.selenium.interactions.Sequence;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A touch gesture described relative to a frame, so one definition serves every screen size. Points
+ * are fractions of the frame (0.5, 0.5 is its centre) and each finger becomes one W3C pointer
+ * {@link Sequence}; all fingers go to the server in a single actions request. Sequences compiled for a
+ * viewport size are kept and reused, element-relative gestures are compiled per call.
+ */
+public final class GestureTemplate {
+    private final String name;
+    private final List<List<Step>> fingers;
+    private final Map<Dimension, List<Sequence>> compiled = new ConcurrentHashMap<>();
+
+    private GestureTemplate(String name, List<List<Step>> fingers) {
+        this.name = name;
+        this.fingers = fingers;
+    }
+
+    public static Builder named(String name) {
+        return new Builder(name);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    List<Sequence> forViewport(Dimension viewport) {
+        return compiled.computeIfAbsent(viewport, size -> compile(new Rectangle(0, 0, size.height, size.width)));
+    }
+
+    List<Sequence> forFrame(Rectangle frame) {
+        return compile(frame);
+    }
+
+    private List<Sequence> compile(Rectangle frame) {
+        List<Sequence> sequences = new ArrayList<>(fingers.size());
+        for (int i = 0; i < fingers.size(); i++) {
+            PointerInput finger = new PointerInput(PointerInput.Kind.TOUCH, "finger" + (i + 1));
+            Sequence sequence = new Sequence(finger, 0);
+            for (Step step : fingers.get(i)) {
+                switch (step.kind) {
+                    case MOVE:
+                        sequence.addAction(finger.createPointerMove(Duration.ofMillis(step.millis),
+                            PointerInput.Origin.viewport(), x(frame, step.fx), y(frame, step.fy)));
+                        break;
+                    case DOWN:
+                        sequence.addAction(finger.createPointerDown(PointerInput.MouseButton.LEFT.asArg()));
+                        break;
+                    case UP:
+                        sequence.addAction(finger.createPointerUp(PointerInput.MouseButton.LEFT.asArg()));
+                        break;
+                    default:
+                        sequence.addAction(new Pause(finger, Duration.ofMillis(step.millis)));
+                        break;
+                }
+            }
+            sequences.add(sequence);
+        }
+        return Collections.unmodifiableList(sequences);
+    }
+
+    private static int x(Rectangle frame, double fraction) {
+        return Math.max(0, frame.x + (int) Math.round(fraction * (frame.width - 1)));
+    }
+
+    private static int y(Rectangle frame, double fraction) {
+        return Math.max(0, frame.y + (int) Math.round(fraction * (frame.height - 1)));
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+
+    private enum Kind {
+        MOVE, DOWN, UP, PAUSE
+    }
+
+    private static final class Step {
+        private final Kind kind;
+        private final double fx;
+        private final double fy;
+        private final long millis;
+
+        Step(Kind kind, double fx, double fy, long millis) {
+            this.kind = kind;
+            this.fx = fx;
+            this.fy = fy;
+            this.millis = millis;
+        }
+    }
+
+    public static final class Builder {
+        private final String name;
+        private final List<List<Step>> fingers = new ArrayList<>();
+
+        private Builder(String name) {
+            this.name = name;
+        }
+
+        /**
+         * Starts the steps of the next finger.
+         */
+        public Builder finger() {
+            fingers.add(new ArrayList<>());
+            return this;
+        }
+
+        public Builder moveTo(double fx, double fy) {
+            return moveTo(fx, fy, Duration.ZERO);
+        }
+
+        public Builder moveTo(double fx, double fy, Duration duration) {
+            return add(new Step(Kind.MOVE, fx, fy, duration.toMillis()));
+        }
+
+        public Builder down() {
+            return add(new Step(Kind.DOWN, 0, 0, 0));
+        }
+
+        public Builder pause(Duration duration) {
+            return add(new Step(Kind.PAUSE, 0, 0, duration.toMillis()));
+        }
+
+        public Builder up() {
+            return add(new Step(Kind.UP, 0, 0, 0));
+        }
+
+        public GestureTemplate build() {
+            if (fingers.isEmpty()) {
+                throw new IllegalStateException("Gesture " + name + " has no fingers");
+            }
+            List<List<Step>> steps = new ArrayList<>(fingers.size());
+            fingers.forEach(finger -> steps.add(Collections.unmodifiableList(new ArrayList<>(finger))));
+            return new GestureTemplate(name, Collections.unmodifiableList(steps));
+        }
+
+        private Builder add(Step step) {
+            if (fingers.isEmpty()) {
+                finger();
+            }
+            fingers.get(fingers.size() - 1).add(step);
+            return this;
+        }
+    }
+}
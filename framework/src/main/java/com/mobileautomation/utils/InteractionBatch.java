@@ -0,0 +1,283 @@
+package com.mobileautomation.utils;
+
+import com.mobileautomation.config.ConfigManager;
+import com.mobileautomation.exceptions.MobileAutomationException;
+import com.mobileautomation.metrics.MetricsRegistry;
+import com.mobileautomation.snapshot.ScreenState;
+import io.appium.java_client.AppiumDriver;
+import io.appium.java_client.ExecutesDriverScript;
+import io.appium.java_client.driverscripts.ScriptOptions;
+import io.appium.java_client.driverscripts.ScriptValue;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openqa.selenium.By;
+import org.openqa.selenium.UnsupportedCommandException;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.json.Json;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Collects interactions and sends them to Appium as one execute-driver script, so a login-style flow
+ * costs one round trip instead of one per find, clear, type and tap. The script waits for each element
+ * on the device, polling as often as the {@link WaitPolicy} starts polling, and stops at the first step
+ * that fails.
+ * <p>
+ * The batch runs step by step through {@link MobileInteractionUtils} instead when
+ * {@code batch.script.enabled=false}, when a locator has no W3C form (chained or composite locators),
+ * or when the server rejects execute-driver scripts; a rejecting session is remembered and not asked again.
+ * Either way the result carries every step's value and duration, and the batch is timed under
+ * {@code batch.script} or {@code batch.steps}.
+ */
+public class InteractionBatch {
+    private static final Logger logger = LogManager.getLogger(InteractionBatch.class);
+    // Weak keys so a quit driver does not stay reachable; the values never reference the driver
+    private static final Map<AppiumDriver, Boolean> scriptsUnsupported = Collections.synchronizedMap(new WeakHashMap<>());
+    // Extra time the server may spend on the script beyond the sum of the step timeouts
+    private static final long SCRIPT_MARGIN_MS = 10_000;
+    private static final String SCRIPT = String.join("\n",
+        "const results = [];",
+        "const find = async (step) => {",
+        "  const deadline = Date.now() + step.timeoutMs;",
+        "  for (;;) {",
+        "    const found = await driver.findElements(step.using, step.value);",
+        "    if (found.length > 0) return Object.values(found[0])[0];",
+        "    if (Date.now() >= deadline) throw new Error('No element ' + step.using + '=' + step.value + ' after ' + step.timeoutMs + ' ms');",
+        "    await driver.pause(step.pollMs);",
+        "  }",
+        "};",
+        "for (const step of steps) {",
+        "  const start = Date.now();",
+        "  try {",
+        "    const id = await find(step);",
+        "    let value = null;",
+        "    if (step.action === 'tap') await driver.elementClick(id);",
+        "    else if (step.action === 'clear') await driver.elementClear(id);",
+        "    else if (step.action === 'type') { await driver.elementClear(id); await driver.elementSendKeys(id, step.text); }",
+        "    else if (step.action === 'text') value = await driver.getElementText(id);",
+        "    results.push({ok: true, value: value, ms: Date.now() - start});",
+        "  } catch (e) {",
+        "    results.push({ok: false, error: e.message, ms: Date.now() - start});",
+        "    break;",
+        "  }",
+        "}",
+        "return results;");
+
+    private final AppiumDriver driver;
+    private final MobileInteractionUtils interactions;
+    private final long pollMillis;
+    private final boolean scriptEnabled;
+    private final MetricsRegistry metrics = MetricsRegistry.getInstance();
+    private final List<Action> actions = new ArrayList<>();
+
+    InteractionBatch(AppiumDriver driver, MobileInteractionUtils interactions, WaitPolicy waitPolicy) {
+        this.driver = driver;
+        this.interactions = interactions;
+        this.pollMillis = waitPolicy.getInitialPollMillis();
+        this.scriptEnabled = ConfigManager.getInstance().getBooleanProperty("batch.script.enabled", true);
+    }
+
+    public InteractionBatch tap(By locator, int timeout) {
+        return add(new Action(ActionType.TAP, locator, null, timeout));
+    }
+
+    /**
+     * Replaces the field's text. Run as a script this is a clear and a {@code sendKeys}; step by step it
+     * goes through {@link TextInputEngine}.
+     * <p>
+     * Run as a script, the text is part of the script body, and execute-driver takes no separate
+     * arguments to keep it out of. The Appium server logs that body, so a typed password ends up in the
+     * server log; set {@code batch.script.enabled=false}, or type secrets outside a batch, where that log
+     * matters.
+     */
+    public InteractionBatch type(By locator, String text, int timeout) {
+        return add(new Action(ActionType.TYPE, locator, text, timeout));
+    }
+
+    public InteractionBatch clear(By locator, int timeout) {
+        return add(new Action(ActionType.CLEAR, locator, null, timeout));
+    }
+
+    public InteractionBatch waitFor(By locator, int timeout) {
+        return add(new Action(ActionType.WAIT, locator, null, timeout));
+    }
+
+    /**
+     * Reads the element's text; the value is returned by {@link BatchResult#getText(int)} at this step's index.
+     */
+    public InteractionBatch getText(By locator, int timeout) {
+        return add(new Action(ActionType.TEXT, locator, null, timeout));
+    }
+
+    /**
+     * Runs every collected step and empties the batch. A failing step throws, and the steps before it
+     * have already run on the device.
+     */
+    public BatchResult execute() {
+        long start = System.nanoTime();
+        String path = "steps";
+        try {
+            List<BatchResult.Step> steps = null;
+            if (canRunAsScript()) {
+                path = "script";
+                steps = runAsScript();
+            }
+            if (steps == null) {
+                path = "steps";
+                steps = runStepByStep();
+            }
+            metrics.increment("batch.step.count", steps.size());
+            BatchResult result = new BatchResult(Collections.unmodifiableList(steps), "script".equals(path),
+                Duration.ofNanos(System.nanoTime() - start));
+            logger.debug("Batch finished: {}", result);
+            return result;
+        } finally {
+            actions.clear();
+            ScreenState.invalidate(driver);
+            metrics.timer("batch." + path).recordSince(start);
+        }
+    }
+
+    private InteractionBatch add(Action action) {
+        actions.add(action);
+        return this;
+    }
+
+    private boolean canRunAsScript() {
+        if (!scriptEnabled || !(driver instanceof ExecutesDriverScript) || scriptsUnsupported.containsKey(driver)) {
+            return false;
+        }
+        return actions.stream().allMatch(action -> action.locator instanceof By.Remotable);
+    }
+
+    /**
+     * Returns null, without having run anything, when the server does not accept execute-driver scripts.
+     */
+    private List<BatchResult.Step> runAsScript() {
+        List<Map<String, Object>> payload = new ArrayList<>(actions.size());
+        long budget = SCRIPT_MARGIN_MS;
+        for (Action action : actions) {
+            payload.add(action.toScriptStep(pollMillis));
+            budget += action.timeout * 1000L;
+        }
+        String script = "const steps = " + new Json().toJson(payload) + ";\n" + SCRIPT;
+        logger.debug("Running {} step(s) as one driver script", actions.size());
+        ScriptValue value;
+        try {
+            value = ((ExecutesDriverScript) driver).executeDriverScript(script, new ScriptOptions().withTimeout(budget));
+        } catch (UnsupportedCommandException e) {
+            return unsupported(e);
+        } catch (WebDriverException e) {
+            if (isScriptFeatureDisabled(e)) {
+                return unsupported(e);
+            }
+            String error = String.format("Driver script for %d step(s) failed: %s", actions.size(), e.getMessage());
+            String suggestion = "Check the Appium server log for the script error";
+            throw new MobileAutomationException("BATCH_SCRIPT_FAILED", error, suggestion, e);
+        }
+        return toSteps((List<?>) value.getResult());
+    }
+
+    private List<BatchResult.Step> toSteps(List<?> entries) {
+        List<BatchResult.Step> steps = new ArrayList<>(entries.size());
+        for (int i = 0; i < entries.size(); i++) {
+            Map<?, ?> entry = (Map<?, ?>) entries.get(i);
+            Action action = actions.get(i);
+            if (!Boolean.TRUE.equals(entry.get("ok"))) {
+                String error = String.format("Batch step %d of %d failed, %s: %s", i + 1, actions.size(), action, entry.get("error"));
+                String suggestion = "Check the locator and timeout of that step; the steps before it have already run";
+                throw new MobileAutomationException("BATCH_STEP_FAILED", error, suggestion);
+            }
+            Duration took = Duration.ofMillis(((Number) entry.get("ms")).longValue());
+            steps.add(new BatchResult.Step(action.toString(), entry.get("value"), took));
+        }
+        return steps;
+    }
+
+    private List<BatchResult.Step> runStepByStep() {
+        List<BatchResult.Step> steps = new ArrayList<>(actions.size());
+        for (Action action : actions) {
+            long stepStart = System.nanoTime();
+            Object value = action.runWith(interactions);
+            steps.add(new BatchResult.Step(action.toString(), value, Duration.ofNanos(System.nanoTime() - stepStart)));
+        }
+        return steps;
+    }
+
+    private List<BatchResult.Step> unsupported(WebDriverException e) {
+        scriptsUnsupported.put(driver, Boolean.TRUE);
+        metrics.increment("batch.script.unsupported");
+        logger.info("Server does not run driver scripts, running batches step by step: {}", e.getMessage());
+        return null;
+    }
+
+    /**
+     * Appium 1 refuses scripts unless started with {@code --allow-insecure execute_driver_script}.
+     */
+    private static boolean isScriptFeatureDisabled(WebDriverException e) {
+        String message = String.valueOf(e.getMessage()).toLowerCase(Locale.ROOT);
+        return message.contains("execute_driver_script") || message.contains("insecure");
+    }
+
+    private enum ActionType {
+        TAP, TYPE, CLEAR, WAIT, TEXT
+    }
+
+    private static class Action {
+        private final ActionType type;
+        private final By locator;
+        private final String text;
+        private final int timeout;
+
+        Action(ActionType type, By locator, String text, int timeout) {
+            this.type = type;
+            this.locator = locator;
+            this.text = text;
+            this.timeout = timeout;
+        }
+
+        Map<String, Object> toScriptStep(long pollMillis) {
+            By.Remotable.Parameters parameters = ((By.Remotable) locator).getRemoteParameters();
+            Map<String, Object> step = new LinkedHashMap<>();
+            step.put("action", type.name().toLowerCase(Locale.ROOT));
+            step.put("using", parameters.using());
+            step.put("value", String.valueOf(parameters.value()));
+            step.put("text", text);
+            step.put("timeoutMs", timeout * 1000L);
+            step.put("pollMs", pollMillis);
+            return step;
+        }
+
+        Object runWith(MobileInteractionUtils interactions) {
+            switch (type) {
+                case TAP:
+                    interactions.tap(locator, timeout);
+                    return null;
+                case TYPE:
+                    interactions.type(locator, text, timeout);
+                    return null;
+                case CLEAR:
+                    interactions.waitForElement(locator, timeout).clear();
+                    return null;
+                case WAIT:
+                    interactions.waitForElement(locator, timeout);
+                    return null;
+                default:
+                    return interactions.getElementText(locator, timeout);
+            }
+        }
+
+        @Override
+        public String toString() {
+            // Typed text stays out of our logs and results, it is often a password (see type() for the server log)
+            return type.name().toLowerCase(Locale.ROOT) + " " + locator;
+        }
+    }
+}
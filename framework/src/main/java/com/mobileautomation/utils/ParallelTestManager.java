@@ -0,0 +1,194 @@
+package com.mobileautomation.utils;
+
+import com.mobileautomation.config.ConfigManager;
+import com.mobileautomation.device.DeviceInventory;
+import com.mobileautomation.device.DeviceListener;
+import com.mobileautomation.driver.DeviceLeaseManager;
+import com.mobileautomation.exceptions.MobileAutomationException;
+import com.mobileautomation.listeners.ParallelTestListener;
+import com.mobileautomation.scheduler.LptPartitioner;
+import com.mobileautomation.scheduler.TestNGWorkItemExecutor;
+import com.mobileautomation.scheduler.WorkItem;
+import com.mobileautomation.scheduler.WorkItemPlanner;
+import com.mobileautomation.scheduler.WorkStealingScheduler;
+import com.mobileautomation.server.AppiumServerManager;
+import com.mobileautomation.test.DurationEstimates;
+import com.mobileautomation.test.DurationShardingInterceptor;
+import com.mobileautomation.test.ShardSpec;
+import com.mobileautomation.test.TestDurationHistory;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.testng.ITestContext;
+import org.testng.xml.XmlSuite;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collectors;
+
+public class ParallelTestManager implements DeviceListener {
+    private static final Logger logger = LogManager.getLogger(ParallelTestManager.class);
+    private static ParallelTestManager instance;
+    private static final Duration INVENTORY_STARTUP_WAIT = Duration.ofSeconds(5);
+    private final DeviceInventory deviceInventory;
+    private final ConcurrentHashMap<String, Integer> devicePorts;
+    private final AppiumServerManager serverManager;
+    private volatile WorkStealingScheduler scheduler;
+
+    private ParallelTestManager() {
+        this.deviceInventory = DeviceInventory.getInstance();
+        this.devicePorts = new ConcurrentHashMap<>();
+        this.serverManager = AppiumServerManager.getInstance();
+    }
+
+    public static ParallelTestManager getInstance() {
+        if (instance == null) {
+            instance = new ParallelTestManager();
+        }
+        return instance;
+    }
+
+    public void initializeParallelExecution(ITestContext context) {
+        try {
+            logger.info("Initializing parallel test execution...");
+            deviceInventory.awaitFirstSnapshot(INVENTORY_STARTUP_WAIT);
+            List<DeviceInfo> devices = deviceInventory.getOnlineDevices();
+            
+            if (devices.isEmpty()) {
+                String error = "No devices available for test execution";
+                String suggestion = "Please connect physical devices or start emulators/simulators";
+                throw new MobileAutomationException("NO_DEVICES_AVAILABLE", error, suggestion);
+            }
+
+            int threadCount = devices.size();
+
+            // One Appium server per device, started in parallel on allocated ports
+            serverManager.ensurePoolSize(threadCount);
+            devices.forEach(device -> 
+                devicePorts.put(device.getDeviceId(), serverManager.serverFor(device.getDeviceId()).getPort()));
+
+            // Follow devices that come and go while the run is in progress; tests lease them per method
+            deviceInventory.addListener(this);
+            DeviceLeaseManager.getInstance().trackInventory(deviceInventory);
+            
+            logger.info("Parallel execution initialized with {} devices", threadCount);
+        } catch (Exception e) {
+            String error = "Failed to initialize parallel execution";
+            String suggestion = "Check device connections and permissions";
+            throw new MobileAutomationException("PARALLEL_INIT_FAILED", error, suggestion, e);
+        }
+    }
+
+    /**
+     * Splits the suite into work items and runs them on the online devices with work stealing, so a
+     * fast device keeps taking tests from a slow one instead of idling once its own share is done.
+     */
+    public void executeTestsInParallel(XmlSuite suite, ITestContext context) {
+        try {
+            DeviceLeaseManager leaseManager = DeviceLeaseManager.getInstance();
+            List<String> deviceIds = new ArrayList<>();
+            Map<String, String> deviceParameters = new HashMap<>();
+            for (DeviceInfo device : deviceInventory.getOnlineDevices()) {
+                if (leaseManager.isQuarantined(device.getDeviceId())) {
+                    logger.warn("Skipping quarantined device {}", device.getDeviceId());
+                    continue;
+                }
+                deviceIds.add(device.getDeviceId());
+                deviceParameters.put(device.getDeviceId() + ".appiumPort",
+                    String.valueOf(getDevicePort(device.getDeviceId())));
+            }
+            if (deviceIds.isEmpty()) {
+                String error = "No healthy devices left for test execution";
+                String suggestion = "Check quarantined devices in the log and reconnect them";
+                throw new MobileAutomationException("NO_DEVICES_AVAILABLE", error, suggestion);
+            }
+
+            List<WorkItem> items = new WorkItemPlanner().plan(suite);
+            DurationEstimates history = TestDurationHistory.getSnapshot();
+            ToLongFunction<WorkItem> cost = item -> history.estimate(item.getMethodKeys());
+            ShardSpec shard = ShardSpec.fromSystemProperties();
+            if (shard.isSharded()) {
+                items = LptPartitioner.partition(items, shard.getCount(), cost, WorkItem::getId).get(shard.getIndex());
+                logger.info("Running {} with {} work item(s)", shard, items.size());
+            }
+            logger.info("Scheduling {} work item(s) on {} devices", items.size(), deviceIds.size());
+
+            // Seed each device with a balanced share; stealing then corrects for estimates that were off
+            List<List<WorkItem>> shares = LptPartitioner.partition(items, deviceIds.size(), cost, WorkItem::getId);
+            Map<String, List<WorkItem>> assignment = new LinkedHashMap<>();
+            for (int i = 0; i < deviceIds.size(); i++) {
+                assignment.put(deviceIds.get(i), shares.get(i));
+            }
+
+            // The item suites must not start another parallel run or re-shard their single class
+            Set<String> excluded = Set.of(ParallelTestListener.class.getName(),
+                DurationShardingInterceptor.class.getName());
+            List<String> listeners = suite.getListeners().stream()
+                .filter(listener -> !excluded.contains(listener))
+                .collect(Collectors.toList());
+            TestNGWorkItemExecutor executor = new TestNGWorkItemExecutor(listeners,
+                deviceInventory::getDevice, deviceParameters);
+
+            int timeoutMinutes = ConfigManager.getInstance().getIntProperty("parallel.execution.timeout.minutes", 30);
+            scheduler = new WorkStealingScheduler(executor);
+            scheduler.run(assignment, Duration.ofMinutes(timeoutMinutes));
+            leaseManager.logStats();
+        } catch (MobileAutomationException e) {
+            throw e;
+        } catch (Exception e) {
+            String error = "Failed to execute tests in parallel";
+            String suggestion = "Check test configuration and device availability";
+            throw new MobileAutomationException("PARALLEL_EXECUTION_FAILED", error, suggestion, e);
+        }
+    }
+
+    public void cleanupDevice(String deviceId) {
+        try {
+            WorkStealingScheduler current = scheduler;
+            if (current != null) {
+                current.retire(deviceId);
+            }
+            devicePorts.remove(deviceId);
+            serverManager.releaseDevice(deviceId);
+            logger.info("Cleaned up resources for device: {}", deviceId);
+        } catch (Exception e) {
+            logger.warn("Failed to cleanup device {}: {}", deviceId, e.getMessage());
+        }
+    }
+
+    @Override
+    public void onDeviceAttached(DeviceInfo device) {
+        logger.info("Device {} attached during the run", device.getDeviceId());
+    }
+
+    @Override
+    public void onDeviceStateChanged(DeviceInfo previous, DeviceInfo current) {
+        if (previous.isOnline() && !current.isOnline()) {
+            logger.warn("Device {} went {}, stopping its tests", current.getDeviceId(), current.getState());
+            cleanupDevice(current.getDeviceId());
+        }
+    }
+
+    @Override
+    public void onDeviceDetached(DeviceInfo device) {
+        if (devicePorts.containsKey(device.getDeviceId())) {
+            logger.warn("Device {} detached, stopping its tests", device.getDeviceId());
+            cleanupDevice(device.getDeviceId());
+        }
+    }
+
+    public void cleanupAllDevices() {
+        try {
+            deviceInventory.removeListener(this);
+            new ArrayList<>(devicePorts.keySet()).forEach(this::cleanupDevice);
+            logger.info("Cleaned up all device resources");
+        } catch (Exception e) {
+            logger.warn("Failed to cleanup all devices: {}", e.getMessage());
+        }
+    }
+
+    public int getDevicePort(String deviceId) {
+        return devicePorts.getOrDefault(deviceId, 4723);
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,211 @@
+package com.mobileautomation.utils;
+
+import com.mobileautomation.config.ConfigManager;
+import com.mobileautomation.metrics.MetricsRegistry;
+import com.mobileautomation.pagefactory.ElementCache;
+import com.mobileautomation.snapshot.PageSnapshot;
+import com.mobileautomation.snapshot.ScreenState;
+import com.mobileautomation.snapshot.SnapshotElement;
+import io.appium.java_client.AppiumDriver;
+import io.appium.java_client.HasOnScreenKeyboard;
+import io.appium.java_client.HidesKeyboard;
+import io.appium.java_client.android.AndroidDriver;
+import io.appium.java_client.android.nativekey.AndroidKey;
+import io.appium.java_client.android.nativekey.KeyEvent;
+import io.appium.java_client.android.nativekey.PressesKey;
+import io.appium.java_client.clipboard.HasClipboard;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openqa.selenium.By;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.UnsupportedCommandException;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.WrapsElement;
+import org.openqa.selenium.remote.RemoteWebElement;
+
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Single place text entry goes through. {@link Mode#AUTO} picks the cheapest path for the platform:
+ * <ul>
+ *   <li>{@link Mode#SET_VALUE}: on Android, {@code mobile: replaceElementValue} replaces the text in one
+ *   call, with no clear and no keyboard;</li>
+ *   <li>{@link Mode#PASTE}: on Android, when direct setting is unavailable and the text is at least
+ *   {@code input.paste.min.length} long, the text goes through the clipboard and a paste key;</li>
+ *   <li>{@link Mode#TYPE}: {@code sendKeys}, for iOS and for fields that need real key events.</li>
+ * </ul>
+ * Before pasting or typing, {@code clear()} is skipped when a current page snapshot already shows the
+ * field empty. The engine also remembers whether it left the keyboard open, so {@link #hideKeyboard}
+ * usually needs no call at all, and asks the device otherwise instead of hiding blindly.
+ * <p>
+ * Every entry is timed under {@code input.<field>} and counted by path under {@code input.path.<mode>}.
+ */
+public class TextInputEngine {
+    private static final Logger logger = LogManager.getLogger(TextInputEngine.class);
+    private static TextInputEngine instance;
+    private final MetricsRegistry metrics = MetricsRegistry.getInstance();
+    // Weak keys so a quit driver does not stay reachable; the values never reference the driver
+    private final Map<AppiumDriver, Boolean> setValueUnsupported = Collections.synchronizedMap(new WeakHashMap<>());
+    private final Map<AppiumDriver, KeyboardState> keyboards = Collections.synchronizedMap(new WeakHashMap<>());
+    private final Mode defaultMode;
+    private final int pasteMinLength;
+
+    public enum Mode {
+        AUTO, SET_VALUE, PASTE, TYPE
+    }
+
+    /**
+     * Keyboard visibility as of a screen generation; any later action may have opened or closed it.
+     */
+    private static final class KeyboardState {
+        private final long generation;
+        private final boolean shown;
+
+        KeyboardState(long generation, boolean shown) {
+            this.generation = generation;
+            this.shown = shown;
+        }
+    }
+
+    private TextInputEngine() {
+        ConfigManager config = ConfigManager.getInstance();
+        defaultMode = Mode.valueOf(config.getProperty("input.mode", "auto").trim().toUpperCase(Locale.ROOT));
+        pasteMinLength = config.getIntProperty("input.paste.min.length", 30);
+    }
+
+    public static synchronized TextInputEngine getInstance() {
+        if (instance == null) {
+            instance = new TextInputEngine();
+        }
+        return instance;
+    }
+
+    public void enter(AppiumDriver driver, WebElement element, String text) {
+        enter(driver, element, text, defaultMode);
+    }
+
+    /**
+     * Replaces the field's text. A mode the platform cannot honour falls back to the next cheapest path.
+     */
+    public void enter(AppiumDriver driver, WebElement element, String text, Mode mode) {
+        long start = System.nanoTime();
+        Mode used = null;
+        try {
+            used = enterText(driver, element, text, mode);
+        } finally {
+            ScreenState.invalidate(driver);
+            if (used != null) {
+                metrics.increment("input.path." + used.name().toLowerCase(Locale.ROOT));
+                // Direct setting never focuses the field, so it leaves the keyboard as it was
+                if (used != Mode.SET_VALUE) {
+                    keyboards.put(driver, new KeyboardState(ScreenState.generation(driver), true));
+                }
+            }
+            metrics.timer("input." + WaitEngine.keyOf(element)).recordSince(start);
+        }
+    }
+
+    /**
+     * Hides the keyboard if it is open. Costs nothing when the engine knows it is closed, and one
+     * visibility check when it does not know.
+     */
+    public void hideKeyboard(AppiumDriver driver) {
+        KeyboardState known = keyboards.get(driver);
+        long generation = ScreenState.generation(driver);
+        boolean shown;
+        if (known != null && known.generation == generation) {
+            shown = known.shown;
+            metrics.increment("input.keyboard.known");
+        } else {
+            shown = !(driver instanceof HasOnScreenKeyboard) || ((HasOnScreenKeyboard) driver).isKeyboardShown();
+            metrics.increment("input.keyboard.checks");
+        }
+        if (shown) {
+            ((HidesKeyboard) driver).hideKeyboard();
+            metrics.increment("input.keyboard.hides");
+            ScreenState.invalidate(driver);
+        }
+        keyboards.put(driver, new KeyboardState(ScreenState.generation(driver), false));
+    }
+
+    private Mode enterText(AppiumDriver driver, WebElement element, String text, Mode mode) {
+        boolean android = driver instanceof AndroidDriver;
+        if (android && (mode == Mode.AUTO || mode == Mode.SET_VALUE) && !setValueUnsupported.containsKey(driver)) {
+            try {
+                driver.executeScript("mobile: replaceElementValue", Map.of("elementId", idOf(element), "text", text));
+                return Mode.SET_VALUE;
+            } catch (StaleElementReferenceException | IllegalArgumentException e) {
+                // This element only: the paths below find it again through its proxy
+                logger.debug("Direct value set not possible for {}, falling back: {}", element, e.getMessage());
+            } catch (UnsupportedCommandException e) {
+                setValueUnsupported(driver, e);
+            } catch (WebDriverException e) {
+                // Missing elements, timeouts and invalid element states are real failures, not a missing command
+                if (!isUnknownMobileCommand(e)) {
+                    throw e;
+                }
+                setValueUnsupported(driver, e);
+            }
+        }
+        boolean paste = android && (mode == Mode.PASTE || (mode != Mode.TYPE && text.length() >= pasteMinLength));
+        clearUnlessEmpty(driver, element);
+        if (paste && !text.isEmpty()) {
+            element.click();
+            ((HasClipboard) driver).setClipboardText(text);
+            ((PressesKey) driver).pressKey(new KeyEvent(AndroidKey.PASTE));
+            return Mode.PASTE;
+        }
+        element.sendKeys(text);
+        return Mode.TYPE;
+    }
+
+    private void setValueUnsupported(AppiumDriver driver, WebDriverException e) {
+        setValueUnsupported.put(driver, Boolean.TRUE);
+        logger.debug("Direct value set unsupported by this session, falling back: {}", e.getMessage());
+    }
+
+    /**
+     * Older UiAutomator2 drivers answer commands they lack with "Unknown mobile command" instead of a
+     * W3C unknown command error.
+     */
+    private static boolean isUnknownMobileCommand(WebDriverException e) {
+        return String.valueOf(e.getMessage()).toLowerCase(Locale.ROOT).contains("unknown mobile command");
+    }
+
+    private void clearUnlessEmpty(AppiumDriver driver, WebElement element) {
+        By locator = ElementCache.locatorOf(element);
+        PageSnapshot snapshot = locator == null ? null : ScreenState.peek(driver);
+        if (snapshot != null && snapshot.supports(locator)) {
+            SnapshotElement field = snapshot.find(locator);
+            if (field != null && isEmpty(field)) {
+                metrics.increment("input.clear.skipped");
+                return;
+            }
+        }
+        element.clear();
+    }
+
+    /**
+     * Android shows the hint as the text of an empty field.
+     */
+    private static boolean isEmpty(SnapshotElement field) {
+        String text = field.getText();
+        String hint = field.getAttribute("hint");
+        return text.isEmpty() || text.equals(hint) || text.equals(field.getAttribute("placeholderValue"));
+    }
+
+    private static String idOf(WebElement element) {
+        WebElement raw = element;
+        while (raw instanceof WrapsElement && !(raw instanceof RemoteWebElement)) {
+            raw = ((WrapsElement) raw).getWrappedElement();
+        }
+        if (!(raw instanceof RemoteWebElement)) {
+            throw new IllegalArgumentException("No remote element id behind " + element);
+        }
+        return ((RemoteWebElement) raw).getId();
+    }
+}
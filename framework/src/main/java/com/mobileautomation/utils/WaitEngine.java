@@ -0,0 +1,247 @@
+package com.mobileautomation.utils;
+
+import com.mobileautomation.metrics.MetricsRegistry;
+import com.mobileautomation.metrics.Timer;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openqa.selenium.By;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Single place all element waits go through. Implicit waits are expected to be off (see
+ * {@link #disableImplicitWait}), so every check is one round trip and the engine alone decides the
+ * cadence from a {@link WaitPolicy}: it polls at the policy's initial interval and backs off up to its
+ * max. For locators seen before, an adaptive policy schedules the first retry close to the median time
+ * the element took to appear, instead of hammering the server for something that is known to take a
+ * second. Every successful wait is recorded in a {@code wait.<locator>} timer histogram.
+ * <p>
+ * The engine holds no per-call state, so one instance serves all threads.
+ */
+public class WaitEngine {
+    private static final Logger logger = LogManager.getLogger(WaitEngine.class);
+    private static final int HISTORY_SIZE = 16;
+    private static final int MAX_KEY_LENGTH = 120;
+    private static WaitEngine instance;
+    private final Map<String, LatencyHistory> history = new ConcurrentHashMap<>();
+    private final MetricsRegistry metrics = MetricsRegistry.getInstance();
+    private final WaitPolicy defaultPolicy;
+
+    /**
+     * Recent appearance latencies of one locator, newest overwriting oldest.
+     */
+    private static class LatencyHistory {
+        private final Timer timer;
+        private final long[] samples = new long[HISTORY_SIZE];
+        private int count;
+        private int next;
+
+        LatencyHistory(Timer timer) {
+            this.timer = timer;
+        }
+
+        synchronized void add(long millis) {
+            samples[next] = millis;
+            next = (next + 1) % HISTORY_SIZE;
+            count = Math.min(count + 1, HISTORY_SIZE);
+        }
+
+        synchronized long median() {
+            long[] sorted = Arrays.copyOf(samples, count);
+            Arrays.sort(sorted);
+            return sorted[count / 2];
+        }
+    }
+
+    public WaitEngine(WaitPolicy defaultPolicy) {
+        this.defaultPolicy = defaultPolicy;
+    }
+
+    public static synchronized WaitEngine getInstance() {
+        if (instance == null) {
+            instance = new WaitEngine(WaitPolicy.defaultPolicy());
+        }
+        return instance;
+    }
+
+    public static void disableImplicitWait(WebDriver driver) {
+        driver.manage().timeouts().implicitlyWait(Duration.ZERO);
+    }
+
+    public Duration getDefaultTimeout() {
+        return defaultPolicy.getTimeout();
+    }
+
+    public WaitPolicy getDefaultPolicy() {
+        return defaultPolicy;
+    }
+
+    public <T> T until(WebDriver driver, Object target, Duration timeout, Function<WebDriver, T> condition) {
+        return until(driver, target, defaultPolicy.withTimeout(timeout), condition);
+    }
+
+    /**
+     * Polls {@code condition} until it returns something other than null or false. Exceptions the policy
+     * ignores (missing and stale elements by default) count as "not yet". Throws Selenium's
+     * {@link TimeoutException} when the policy's timeout passes.
+     */
+    public <T> T until(WebDriver driver, Object target, WaitPolicy policy, Function<WebDriver, T> condition) {
+        String key = keyOf(target);
+        LatencyHistory latencies = policy.isAdaptive() ? history.get(key) : null;
+        long start = System.nanoTime();
+        long deadline = start + policy.getTimeout().toNanos();
+        long pollMillis = policy.getInitialPollMillis();
+        boolean firstRetry = true;
+        RuntimeException lastError = null;
+        int polls = 0;
+
+        while (true) {
+            polls++;
+            try {
+                T value = condition.apply(driver);
+                if (value != null && !Boolean.FALSE.equals(value)) {
+                    long elapsed = System.nanoTime() - start;
+                    LatencyHistory recorded = history.get(key);
+                    if (recorded == null) {
+                        recorded = history.computeIfAbsent(key, k -> new LatencyHistory(metrics.timer("wait." + k)));
+                    }
+                    recorded.add(elapsed / 1_000_000);
+                    recorded.timer.record(elapsed);
+                    metrics.increment("wait.polls", polls);
+                    return value;
+                }
+                lastError = null;
+            } catch (RuntimeException e) {
+                if (!policy.isIgnored(e)) {
+                    throw e;
+                }
+                lastError = e;
+            }
+
+            long now = System.nanoTime();
+            if (now >= deadline) {
+                metrics.increment("wait.timeouts");
+                metrics.increment("wait.polls", polls);
+                String message = String.format("Condition on %s not met after %dms (%d polls, %s)", key,
+                    policy.getTimeout().toMillis(), polls, policy.getName());
+                throw new TimeoutException(message, lastError);
+            }
+
+            long sleepMillis = pollMillis;
+            if (firstRetry && latencies != null) {
+                // jump to just before the element usually shows up
+                long elapsedMillis = (now - start) / 1_000_000;
+                sleepMillis = Math.max(policy.getInitialPollMillis(), Math.min(policy.getMaxPollMillis(),
+                    (long) (latencies.median() * 0.9) - elapsedMillis));
+            } else {
+                pollMillis = policy.nextPoll(pollMillis);
+            }
+            firstRetry = false;
+            sleep(Math.min(sleepMillis, (deadline - now) / 1_000_000 + 1));
+        }
+    }
+
+    public WebElement waitForElement(WebDriver driver, By locator, WaitPolicy policy) {
+        return until(driver, locator, policy, d -> d.findElement(locator));
+    }
+
+    public List<WebElement> waitForElements(WebDriver driver, By locator, WaitPolicy policy) {
+        return until(driver, locator, policy, d -> {
+            List<WebElement> elements = d.findElements(locator);
+            return elements.isEmpty() ? null : elements;
+        });
+    }
+
+    public WebElement waitForVisible(WebDriver driver, By locator, WaitPolicy policy) {
+        return until(driver, locator, policy, d -> {
+            WebElement element = d.findElement(locator);
+            return element.isDisplayed() ? element : null;
+        });
+    }
+
+    public WebElement waitForClickable(WebDriver driver, By locator, WaitPolicy policy) {
+        return until(driver, locator, policy, d -> {
+            WebElement element = d.findElement(locator);
+            return element.isDisplayed() && element.isEnabled() ? element : null;
+        });
+    }
+
+    public WebElement waitForVisible(WebDriver driver, WebElement element, WaitPolicy policy) {
+        return until(driver, element, policy, d -> element.isDisplayed() ? element : null);
+    }
+
+    public WebElement waitForClickable(WebDriver driver, WebElement element, WaitPolicy policy) {
+        return until(driver, element, policy, d -> element.isDisplayed() && element.isEnabled() ? element : null);
+    }
+
+    /**
+     * Waits for the element to be gone or hidden. A missing element counts as gone here.
+     */
+    public boolean waitForAbsent(WebDriver driver, By locator, WaitPolicy policy) {
+        return until(driver, "absent:" + keyOf(locator), policy, d -> {
+            List<WebElement> elements = d.findElements(locator);
+            try {
+                return elements.isEmpty() || !elements.get(0).isDisplayed();
+            } catch (StaleElementReferenceException e) {
+                return true;
+            }
+        });
+    }
+
+    public boolean waitForAbsent(WebDriver driver, WebElement element, WaitPolicy policy) {
+        return until(driver, "absent:" + keyOf(element), policy, d -> {
+            try {
+                return !element.isDisplayed();
+            } catch (NoSuchElementException | StaleElementReferenceException e) {
+                return true;
+            }
+        });
+    }
+
+    /**
+     * Median appearance latency learned for the locator, or null when it has no history yet.
+     */
+    public Duration getTypicalLatency(Object target) {
+        LatencyHistory latencies = history.get(keyOf(target));
+        return latencies == null ? null : Duration.ofMillis(latencies.median());
+    }
+
+    public Timer getHistogram(Object target) {
+        return metrics.timer("wait." + keyOf(target));
+    }
+
+    public void logStats() {
+        history.keySet().stream().sorted()
+            .forEach(key -> logger.info("{} (median {}ms)", metrics.timer("wait." + key), history.get(key).median()));
+    }
+
+    static String keyOf(Object target) {
+        String key = String.valueOf(target);
+        // PageFactory proxies describe themselves with the whole locator chain
+        key = key.replace("Proxy element for: ", "").replace("DefaultElementLocator", "")
+            .replace("AppiumElementLocator", "").trim();
+        return key.length() > MAX_KEY_LENGTH ? key.substring(0, MAX_KEY_LENGTH) : key;
+    }
+
+    private static void sleep(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TimeoutException("Interrupted while waiting", e);
+        }
+    }
+}
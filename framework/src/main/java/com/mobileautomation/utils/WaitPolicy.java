@@ -0,0 +1,171 @@
+package com.mobileautomation.utils;
+
+import com.mobileautomation.config.ConfigManager;
+import com.mobileautomation.exceptions.MobileAutomationException;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.StaleElementReferenceException;
+
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * How long and how often to poll, and which exceptions mean "not yet". Policies are immutable and safe
+ * to share between threads; the {@code with...} methods return a new policy, and
+ * {@link #withTimeout(Duration)} memoizes the result so a call site that always asks for the same
+ * timeout does not allocate per wait.
+ * <p>
+ * Named presets come from {@code wait.policy.<name>.*} keys in config.properties, falling back to the
+ * {@code wait.*} defaults for anything not set.
+ */
+public final class WaitPolicy {
+    private static final Map<String, WaitPolicy> presets = new ConcurrentHashMap<>();
+    private static final Set<Class<? extends RuntimeException>> DEFAULT_IGNORED =
+        Set.of(NoSuchElementException.class, StaleElementReferenceException.class);
+    private static final int MAX_DERIVED = 64;
+
+    private final String name;
+    private final Duration timeout;
+    private final long initialPollMillis;
+    private final long maxPollMillis;
+    private final double backoff;
+    private final boolean adaptive;
+    private final Set<Class<? extends RuntimeException>> ignored;
+    private final Map<Long, WaitPolicy> byTimeout = new ConcurrentHashMap<>();
+
+    public WaitPolicy(String name, Duration timeout, long initialPollMillis, long maxPollMillis, double backoff,
+                      boolean adaptive, Set<Class<? extends RuntimeException>> ignored) {
+        if (timeout.isNegative() || initialPollMillis <= 0 || maxPollMillis < initialPollMillis || backoff < 1.0) {
+            throw new IllegalArgumentException("Invalid wait policy " + name + ": timeout=" + timeout
+                + ", poll=" + initialPollMillis + ".." + maxPollMillis + "ms, backoff=" + backoff);
+        }
+        this.name = name;
+        this.timeout = timeout;
+        this.initialPollMillis = initialPollMillis;
+        this.maxPollMillis = maxPollMillis;
+        this.backoff = backoff;
+        this.adaptive = adaptive;
+        this.ignored = Set.copyOf(ignored);
+    }
+
+    public static WaitPolicy defaultPolicy() {
+        return named("default");
+    }
+
+    /**
+     * Preset with the given name, read from config once and cached.
+     */
+    public static WaitPolicy named(String name) {
+        return presets.computeIfAbsent(name, WaitPolicy::fromConfig);
+    }
+
+    public WaitPolicy withTimeout(Duration newTimeout) {
+        if (newTimeout.equals(timeout)) {
+            return this;
+        }
+        WaitPolicy derived = byTimeout.get(newTimeout.toMillis());
+        if (derived != null) {
+            return derived;
+        }
+        derived = new WaitPolicy(name, newTimeout, initialPollMillis, maxPollMillis, backoff, adaptive, ignored);
+        if (byTimeout.size() < MAX_DERIVED) {
+            byTimeout.putIfAbsent(newTimeout.toMillis(), derived);
+        }
+        return derived;
+    }
+
+    public WaitPolicy withPolling(long newInitialPollMillis, long newMaxPollMillis, double newBackoff) {
+        return new WaitPolicy(name, timeout, newInitialPollMillis, newMaxPollMillis, newBackoff, adaptive, ignored);
+    }
+
+    public WaitPolicy withAdaptive(boolean newAdaptive) {
+        return new WaitPolicy(name, timeout, initialPollMillis, maxPollMillis, backoff, newAdaptive, ignored);
+    }
+
+    public WaitPolicy ignoring(Class<? extends RuntimeException> exception) {
+        Set<Class<? extends RuntimeException>> widened = new LinkedHashSet<>(ignored);
+        widened.add(exception);
+        return new WaitPolicy(name, timeout, initialPollMillis, maxPollMillis, backoff, adaptive, widened);
+    }
+
+    public boolean isIgnored(RuntimeException e) {
+        for (Class<? extends RuntimeException> type : ignored) {
+            if (type.isInstance(e)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Interval after {@code currentMillis}, grown by the backoff factor and capped at the max interval.
+     */
+    public long nextPoll(long currentMillis) {
+        return Math.min(maxPollMillis, (long) (currentMillis * backoff));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    public long getInitialPollMillis() {
+        return initialPollMillis;
+    }
+
+    public long getMaxPollMillis() {
+        return maxPollMillis;
+    }
+
+    public double getBackoff() {
+        return backoff;
+    }
+
+    public boolean isAdaptive() {
+        return adaptive;
+    }
+
+    public Set<Class<? extends RuntimeException>> getIgnored() {
+        return ignored;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("WaitPolicy[%s, timeout=%dms, poll=%d..%dms x%.1f, adaptive=%s]",
+            name, timeout.toMillis(), initialPollMillis, maxPollMillis, backoff, adaptive);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static WaitPolicy fromConfig(String name) {
+        ConfigManager config = ConfigManager.getInstance();
+        String prefix = "wait.policy." + name + ".";
+        Set<Class<? extends RuntimeException>> ignored = new LinkedHashSet<>(DEFAULT_IGNORED);
+        String extra = config.getProperty(prefix + "ignore", "");
+        for (String className : extra.split(",")) {
+            if (className.trim().isEmpty()) {
+                continue;
+            }
+            try {
+                ignored.add((Class<? extends RuntimeException>) Class.forName(className.trim())
+                    .asSubclass(RuntimeException.class));
+            } catch (ClassNotFoundException | ClassCastException e) {
+                String error = "Wait policy " + name + " ignores unknown exception " + className;
+                String suggestion = "Use fully qualified RuntimeException class names in " + prefix + "ignore";
+                throw new MobileAutomationException("INVALID_WAIT_POLICY", error, suggestion, e);
+            }
+        }
+        return new WaitPolicy(name,
+            Duration.ofMillis(config.getIntProperty(prefix + "timeout.ms",
+                config.getIntProperty("wait.default.timeout.seconds", 10) * 1000)),
+            config.getIntProperty(prefix + "poll.initial.ms", config.getIntProperty("wait.poll.initial.ms", 50)),
+            config.getIntProperty(prefix + "poll.max.ms", config.getIntProperty("wait.poll.max.ms", 1000)),
+            Double.parseDouble(config.getProperty(prefix + "backoff", config.getProperty("wait.poll.backoff", "1.5"))),
+            config.getBooleanProperty(prefix + "adaptive", true),
+            ignored);
+    }
+}
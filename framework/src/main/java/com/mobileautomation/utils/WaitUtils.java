@@ -1,9 +1,8 @@
 package com.mobileautomation.utils;
 
 import io.appium.java_client.AppiumDriver;
+import org.openqa.selenium.StaleElementReferenceException;
 import org.openqa.selenium.WebElement;
-import org.openqa.selenium.support.ui.ExpectedConditions;
-import org.openqa.selenium.support.ui.WebDriverWait;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -11,78 +10,90 @@ import java.time.Duration;
 
 public class WaitUtils {
     private static final Logger logger = LogManager.getLogger(WaitUtils.class);
-    private static final Duration DEFAULT_TIMEOUT = Duration.ofSeconds(10);
+
+    private static WaitEngine engine() {
+        return WaitEngine.getInstance();
+    }
+
+    private static WaitPolicy policy() {
+        return WaitPolicy.defaultPolicy();
+    }
+
+    private static Duration timeout() {
+        return policy().getTimeout();
+    }
 
     public static WebElement waitForElementVisible(AppiumDriver driver, WebElement element) {
         try {
-            return new WebDriverWait(driver, DEFAULT_TIMEOUT)
-                .until(ExpectedConditions.visibilityOf(element));
+            return engine().waitForVisible(driver, element, policy());
         } catch (Exception e) {
-            logger.error("Element not visible after {} seconds: {}", DEFAULT_TIMEOUT.getSeconds(), e.getMessage());
+            logger.error("Element not visible after {} seconds: {}", timeout().getSeconds(), e.getMessage());
             throw e;
         }
     }
 
     public static WebElement waitForElementClickable(AppiumDriver driver, WebElement element) {
         try {
-            return new WebDriverWait(driver, DEFAULT_TIMEOUT)
-                .until(ExpectedConditions.elementToBeClickable(element));
+            return engine().waitForClickable(driver, element, policy());
         } catch (Exception e) {
-            logger.error("Element not clickable after {} seconds: {}", DEFAULT_TIMEOUT.getSeconds(), e.getMessage());
+            logger.error("Element not clickable after {} seconds: {}", timeout().getSeconds(), e.getMessage());
             throw e;
         }
     }
 
     public static boolean waitForElementPresent(AppiumDriver driver, WebElement element) {
         try {
-            new WebDriverWait(driver, DEFAULT_TIMEOUT)
-                .until(ExpectedConditions.presenceOfElementLocated(element));
+            engine().until(driver, element, policy(), d -> element.getTagName() != null);
             return true;
         } catch (Exception e) {
-            logger.error("Element not present after {} seconds: {}", DEFAULT_TIMEOUT.getSeconds(), e.getMessage());
+            logger.error("Element not present after {} seconds: {}", timeout().getSeconds(), e.getMessage());
             return false;
         }
     }
 
     public static boolean waitForElementNotPresent(AppiumDriver driver, WebElement element) {
         try {
-            new WebDriverWait(driver, DEFAULT_TIMEOUT)
-                .until(ExpectedConditions.invisibilityOf(element));
+            engine().waitForAbsent(driver, element, policy());
             return true;
         } catch (Exception e) {
-            logger.error("Element still present after {} seconds: {}", DEFAULT_TIMEOUT.getSeconds(), e.getMessage());
+            logger.error("Element still present after {} seconds: {}", timeout().getSeconds(), e.getMessage());
             return false;
         }
     }
 
     public static void waitForElementStaleness(AppiumDriver driver, WebElement element) {
         try {
-            new WebDriverWait(driver, DEFAULT_TIMEOUT)
-                .until(ExpectedConditions.stalenessOf(element));
+            engine().until(driver, "stale:" + element, policy(), d -> {
+                try {
+                    element.isEnabled();
+                    return false;
+                } catch (StaleElementReferenceException e) {
+                    return true;
+                }
+            });
         } catch (Exception e) {
-            logger.error("Element not stale after {} seconds: {}", DEFAULT_TIMEOUT.getSeconds(), e.getMessage());
+            logger.error("Element not stale after {} seconds: {}", timeout().getSeconds(), e.getMessage());
             throw e;
         }
     }
 
     public static boolean waitForTextToBe(AppiumDriver driver, WebElement element, String text) {
         try {
-            new WebDriverWait(driver, DEFAULT_TIMEOUT)
-                .until(ExpectedConditions.textToBe(element, text));
+            engine().until(driver, element, policy(), d -> text.equals(element.getText()));
             return true;
         } catch (Exception e) {
-            logger.error("Text not matched after {} seconds: {}", DEFAULT_TIMEOUT.getSeconds(), e.getMessage());
+            logger.error("Text not matched after {} seconds: {}", timeout().getSeconds(), e.getMessage());
             return false;
         }
     }
 
     public static void waitForPageLoad(AppiumDriver driver) {
         try {
-            new WebDriverWait(driver, DEFAULT_TIMEOUT)
-                .until(webDriver -> ((AppiumDriver) webDriver).executeScript("return document.readyState").equals("complete"));
+            engine().until(driver, "document.readyState", policy(),
+                webDriver -> "complete".equals(((AppiumDriver) webDriver).executeScript("return document.readyState")));
         } catch (Exception e) {
-            logger.error("Page not loaded after {} seconds: {}", DEFAULT_TIMEOUT.getSeconds(), e.getMessage());
+            logger.error("Page not loaded after {} seconds: {}", timeout().getSeconds(), e.getMessage());
             throw e;
         }
     }
-} 
\ No newline at end of file
+}
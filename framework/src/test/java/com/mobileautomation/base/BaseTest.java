@@ -1,6 +1,7 @@
 package com.mobileautomation.base;
 
 import com.mobileautomation.config.AppConfig;
+import com.mobileautomation.driver.DriverManager;
 import com.mobileautomation.exceptions.MobileAutomationException;
 import com.mobileautomation.utils.DeviceManager;
 import com.mobileautomation.utils.TestDataProvider;
@@ -10,9 +11,10 @@ import org.openqa.selenium.WebElement;
 import org.openqa.selenium.support.PageFactory;
 import org.openqa.selenium.support.ui.ExpectedConditions;
 import org.openqa.selenium.support.ui.WebDriverWait;
-import lombok.Getter;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.testng.ITestResult;
+import org.testng.Reporter;
 import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.DataProvider;
@@ -21,8 +23,6 @@ import java.time.Duration;
 
 public class BaseTest {
     private static final Logger logger = LogManager.getLogger(BaseTest.class);
-    @Getter
-    protected AppiumDriver driver;
 
     @BeforeMethod
     public void setUp() {
@@ -37,8 +37,8 @@ public class BaseTest {
             String appPath = System.getProperty("appPath", "");
 
             // Initialize driver with automatic device detection
-            DeviceManager.initializeDriver(platform, deviceName, platformVersion, appPath);
-            driver = DeviceManager.getDriver();
+            // The session is bound to this thread; tests reach it through getDriver()
+            DeviceManager.initializeDriver(platform, deviceName, platformVersion, appPath, pinnedDevice());
             logger.info("Test setup completed successfully");
         } catch (Exception e) {
             logger.error("Test setup failed: {}", e.getMessage());
@@ -49,11 +49,11 @@ public class BaseTest {
     @AfterMethod
     public void tearDown() {
         try {
-            // Quit driver
-            DeviceManager.quitDriver();
+            // Return driver to the session pool
+            DeviceManager.releaseDriver();
             
-            // Stop Appium server
-            DeviceManager.stopAppiumServer();
+            // Drop this test's reference on the shared Appium server
+            DeviceManager.releaseAppiumServer();
             
             logger.info("Test teardown completed successfully");
         } catch (Exception e) {
@@ -61,6 +61,24 @@ public class BaseTest {
         }
     }
 
+    /**
+     * Device the suite pins this test to through its {@code deviceId} parameter, as the work-stealing
+     * scheduler does for each worker's items, or null to lease any matching device.
+     */
+    private static String pinnedDevice() {
+        ITestResult current = Reporter.getCurrentTestResult();
+        return current != null ? current.getTestContext().getCurrentXmlTest().getParameter("deviceId") : null;
+    }
+
+    /**
+     * Resolves the session bound to the calling thread, so listeners and parallel test methods
+     * sharing this instance never see another thread's driver.
+     */
+    public AppiumDriver getDriver() {
+        DriverManager driverManager = DriverManager.getInstance();
+        return driverManager.hasDriver() ? driverManager.getDriver() : null;
+    }
+
     @DataProvider(name = "excelData")
     public Object[][] getExcelData() {
         return TestDataProvider.getTestDataFromExcel("Sheet1");
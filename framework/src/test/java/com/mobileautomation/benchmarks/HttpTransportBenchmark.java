@@ -0,0 +1,197 @@
+package com.mobileautomation.benchmarks;
+
+import com.mobileautomation.driver.PooledHttpClientFactory;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.openqa.selenium.remote.http.ClientConfig;
+import org.openqa.selenium.remote.http.Contents;
+import org.openqa.selenium.remote.http.HttpClient;
+import org.openqa.selenium.remote.http.HttpMethod;
+import org.openqa.selenium.remote.http.HttpRequest;
+import org.openqa.selenium.remote.http.HttpResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Latency per command and connections opened for Selenium's default HTTP client against
+ * {@link PooledHttpClientFactory}. A local stub WebDriver server answers a find / click / get text mix
+ * with a page source every tenth command, optionally after a fixed delay to stand in for a remote
+ * device cloud. Each simulated session gets a fresh client, as each new driver does, so the numbers
+ * include connection setup between sessions. The server counts connections by client port.
+ * <p>
+ * Run with {@code java -cp <test classpath> com.mobileautomation.benchmarks.HttpTransportBenchmark
+ * [commands per session] [sessions] [threads] [server delay ms]}.
+ */
+public class HttpTransportBenchmark {
+    private static final Set<InetSocketAddress> connections = ConcurrentHashMap.newKeySet();
+    private static final AtomicLong bytesSent = new AtomicLong();
+    private static final byte[] PAGE_SOURCE = pageSource();
+
+    public static void main(String[] args) throws Exception {
+        int commands = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        int sessions = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : 4;
+        long delayMillis = args.length > 3 ? Long.parseLong(args[3]) : 0;
+
+        // Without it the stub's separate header and body writes stall every response on delayed ACKs
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> respond(exchange, delayMillis));
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+        URL url = new URL("http://127.0.0.1:" + server.getAddress().getPort() + "/wd/hub");
+        try {
+            HttpClient.Factory selenium = HttpClient.Factory.createDefault();
+            HttpClient.Factory pooled = PooledHttpClientFactory.getInstance();
+            // warm up both clients so class loading and the JIT do not count
+            run(selenium, url, commands, Math.max(1, sessions / 4), threads);
+            run(pooled, url, commands, Math.max(1, sessions / 4), threads);
+
+            System.out.printf("%d session(s) x %d commands on %d thread(s), server delay %d ms%n",
+                sessions, commands, threads, delayMillis);
+            System.out.printf("%-28s %12s %12s %14s%n", "client", "us/command", "connections", "KB received");
+            report("Selenium default", selenium, url, commands, sessions, threads);
+            report("PooledHttpClientFactory", pooled, url, commands, sessions, threads);
+            PooledHttpClientFactory.getInstance().logStats();
+        } finally {
+            server.stop(0);
+            ((ExecutorService) server.getExecutor()).shutdownNow();
+        }
+    }
+
+    private static void report(String name, HttpClient.Factory factory, URL url, int commands, int sessions,
+                               int threads) throws Exception {
+        connections.clear();
+        bytesSent.set(0);
+        long elapsed = run(factory, url, commands, sessions, threads);
+        long total = (long) commands * sessions;
+        System.out.printf("%-28s %12.1f %12d %14d%n", name, elapsed / 1000.0 / total, connections.size(),
+            bytesSent.get() / 1024);
+    }
+
+    private static long run(HttpClient.Factory factory, URL url, int commands, int sessions, int threads) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            long start = System.nanoTime();
+            List<Future<?>> results = new ArrayList<>(sessions);
+            for (int s = 0; s < sessions; s++) {
+                String sessionId = "session-" + s;
+                results.add(pool.submit(() -> session(factory, url, sessionId, commands)));
+            }
+            for (Future<?> result : results) {
+                result.get();
+            }
+            return System.nanoTime() - start;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static void session(HttpClient.Factory factory, URL url, String sessionId, int commands) {
+        HttpClient client = factory.createClient(ClientConfig.defaultConfig().baseUrl(url));
+        try {
+            String session = "/session/" + sessionId;
+            for (int i = 0; i < commands; i++) {
+                HttpRequest request;
+                switch (i % 10) {
+                    case 9:
+                        request = new HttpRequest(HttpMethod.GET, session + "/source");
+                        break;
+                    case 0:
+                    case 3:
+                    case 6:
+                        request = new HttpRequest(HttpMethod.POST, session + "/element");
+                        request.setContent(Contents.utf8String("{\"using\":\"id\",\"value\":\"com.example.app:id/username\"}"));
+                        request.addHeader("Content-Type", "application/json; charset=utf-8");
+                        break;
+                    case 1:
+                    case 4:
+                    case 7:
+                        request = new HttpRequest(HttpMethod.POST, session + "/element/00000000-0000-0001-ffff-ffff00000042/click");
+                        request.setContent(Contents.utf8String("{}"));
+                        request.addHeader("Content-Type", "application/json; charset=utf-8");
+                        break;
+                    default:
+                        request = new HttpRequest(HttpMethod.GET, session + "/element/00000000-0000-0001-ffff-ffff00000042/text");
+                        break;
+                }
+                HttpResponse response = client.execute(request);
+                if (response.getStatus() != 200) {
+                    throw new IllegalStateException("Stub server answered " + response.getStatus());
+                }
+                Contents.bytes(response.getContent());
+            }
+        } finally {
+            client.close();
+        }
+    }
+
+    private static void respond(HttpExchange exchange, long delayMillis) throws IOException {
+        connections.add(exchange.getRemoteAddress());
+        exchange.getRequestBody().readAllBytes();
+        if (delayMillis > 0) {
+            try {
+                Thread.sleep(delayMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        String path = exchange.getRequestURI().getPath();
+        byte[] body;
+        if (path.endsWith("/source")) {
+            body = PAGE_SOURCE;
+        } else if (path.endsWith("/element")) {
+            body = "{\"value\":{\"element-6066-11e4-a52e-4f735466cecf\":\"00000000-0000-0001-ffff-ffff00000042\"}}"
+                .getBytes(StandardCharsets.UTF_8);
+        } else if (path.endsWith("/text")) {
+            body = "{\"value\":\"Welcome\"}".getBytes(StandardCharsets.UTF_8);
+        } else {
+            body = "{\"value\":null}".getBytes(StandardCharsets.UTF_8);
+        }
+        String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+        if (acceptEncoding != null && acceptEncoding.contains("gzip") && body.length > 1024) {
+            body = gzip(body);
+            exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+        }
+        exchange.getResponseHeaders().add("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+        bytesSent.addAndGet(body.length);
+    }
+
+    private static byte[] gzip(byte[] body) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(body.length / 4);
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(body);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static byte[] pageSource() {
+        StringBuilder xml = new StringBuilder("{\"value\":\"<hierarchy rotation=\\\"0\\\">");
+        for (int i = 0; i < 600; i++) {
+            xml.append("<android.widget.TextView index=\\\"").append(i)
+                .append("\\\" text=\\\"Item ").append(i)
+                .append("\\\" resource-id=\\\"com.example.app:id/menuItem\\\" class=\\\"android.widget.TextView\\\"")
+                .append(" clickable=\\\"true\\\" enabled=\\\"true\\\" displayed=\\\"true\\\" bounds=\\\"[0,")
+                .append(i * 48).append("][1080,").append(i * 48 + 48).append("]\\\" />");
+        }
+        return xml.append("</hierarchy>\"}").toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
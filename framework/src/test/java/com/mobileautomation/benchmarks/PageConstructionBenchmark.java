@@ -0,0 +1,112 @@
+package com.mobileautomation.benchmarks;
+
+import com.mobileautomation.pagefactory.CachingFieldDecorator;
+import com.mobileautomation.pagefactory.PageBinders;
+import com.mobileautomation.pages.HomePage;
+import com.mobileautomation.pages.LoginPage;
+import io.appium.java_client.android.AndroidDriver;
+import io.appium.java_client.android.options.UiAutomator2Options;
+import io.appium.java_client.pagefactory.AppiumFieldDecorator;
+import org.openqa.selenium.remote.Command;
+import org.openqa.selenium.remote.DriverCommand;
+import org.openqa.selenium.remote.ErrorCodes;
+import org.openqa.selenium.remote.HttpCommandExecutor;
+import org.openqa.selenium.remote.Response;
+import org.openqa.selenium.remote.SessionId;
+import org.openqa.selenium.support.PageFactory;
+
+import java.lang.management.ManagementFactory;
+import java.net.URL;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Time and bytes allocated per page initialisation: reflective {@code PageFactory} with Appium's
+ * proxies, {@code PageFactory} with the caching decorator, and the {@code <Page>_Binder} generated by
+ * page-processor. The driver answers only the new-session command locally, so no Appium server is
+ * needed and no element is ever looked up; only page construction is measured.
+ * <p>
+ * Run with {@code java -cp <test classpath> com.mobileautomation.benchmarks.PageConstructionBenchmark [iterations]}
+ * after a {@code mvn test-compile} from the root, which builds page-processor before the framework.
+ */
+public class PageConstructionBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        AndroidDriver driver = new AndroidDriver(new LocalSessionExecutor(), new UiAutomator2Options());
+        LoginPage loginPage = new LoginPage(driver);
+        HomePage homePage = new HomePage(driver);
+        if (!PageBinders.bind(loginPage, driver) || !PageBinders.bind(homePage, driver)) {
+            throw new IllegalStateException("No generated binders on the classpath, rebuild from the root pom");
+        }
+
+        Runnable appium = () -> {
+            PageFactory.initElements(new AppiumFieldDecorator(driver, Duration.ZERO), loginPage);
+            PageFactory.initElements(new AppiumFieldDecorator(driver, Duration.ZERO), homePage);
+        };
+        Runnable caching = () -> {
+            PageFactory.initElements(new CachingFieldDecorator(driver, loginPage), loginPage);
+            PageFactory.initElements(new CachingFieldDecorator(driver, homePage), homePage);
+        };
+        Runnable generated = () -> {
+            PageBinders.bind(loginPage, driver);
+            PageBinders.bind(homePage, driver);
+        };
+        // warm up every path so the JIT and class loading do not count
+        measure(appium, iterations / 4);
+        measure(caching, iterations / 4);
+        measure(generated, iterations / 4);
+
+        System.out.printf("%-44s %14s %12s%n", "LoginPage + HomePage initialisation", "bytes/op", "ns/op");
+        report("PageFactory + AppiumFieldDecorator", appium, iterations);
+        report("PageFactory + CachingFieldDecorator", caching, iterations);
+        report("generated binders", generated, iterations);
+        driver.quit();
+    }
+
+    private static void report(String name, Runnable init, int iterations) {
+        long[] result = measure(init, iterations);
+        System.out.printf("%-44s %14.1f %12.1f%n", name, (double) result[0] / iterations, (double) result[1] / iterations);
+    }
+
+    private static long[] measure(Runnable init, int iterations) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        long bytesBefore = threads.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            init.run();
+        }
+        long elapsed = System.nanoTime() - start;
+        return new long[] {threads.getThreadAllocatedBytes(threadId) - bytesBefore, elapsed};
+    }
+
+    /**
+     * Creates the session without a server and refuses every other command.
+     */
+    private static final class LocalSessionExecutor extends HttpCommandExecutor {
+
+        LocalSessionExecutor() throws Exception {
+            super(new URL("http://127.0.0.1:4723"));
+        }
+
+        @Override
+        public Response execute(Command command) {
+            if (DriverCommand.QUIT.equals(command.getName())) {
+                return success(null);
+            }
+            if (!DriverCommand.NEW_SESSION.equals(command.getName())) {
+                throw new UnsupportedOperationException("Not available in the benchmark: " + command.getName());
+            }
+            return success(Map.of("platformName", "Android", "appium:automationName", "UiAutomator2"));
+        }
+
+        private static Response success(Object value) {
+            Response response = new Response(new SessionId("page-construction-benchmark"));
+            response.setStatus(ErrorCodes.SUCCESS);
+            response.setState("success");
+            response.setValue(value);
+            return response;
+        }
+    }
+}
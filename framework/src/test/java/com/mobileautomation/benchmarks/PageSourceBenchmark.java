@@ -0,0 +1,169 @@
+package com.mobileautomation.benchmarks;
+
+import com.mobileautomation.snapshot.PageSnapshot;
+import com.mobileautomation.snapshot.UiTree;
+import io.appium.java_client.AppiumBy;
+import org.openqa.selenium.By;
+import org.w3c.dom.Document;
+import org.w3c.dom.NodeList;
+import org.xml.sax.InputSource;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.xpath.XPathConstants;
+import javax.xml.xpath.XPathFactory;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.lang.ref.Reference;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Parse time, retained heap and locator latency for recorded page sources, inflated to 1, 5 and 10 MB
+ * by repeating their content: a DOM plus {@code javax.xml.xpath} versus the streaming {@link UiTree}
+ * behind {@link PageSnapshot}. The recorded sources live in {@code src/test/resources/pagesources};
+ * pass other dumps as arguments to measure them instead.
+ * <p>
+ * Run with {@code java -cp <test classpath> com.mobileautomation.benchmarks.PageSourceBenchmark [source.xml ...]}.
+ */
+public class PageSourceBenchmark {
+    private static final int[] SIZES_MB = {1, 5, 10};
+    private static final int RUNS = 5;
+
+    public static void main(String[] args) throws Exception {
+        List<String[]> sources = new ArrayList<>();
+        if (args.length == 0) {
+            sources.add(new String[] {"login-android", resource("pagesources/login-android.xml")});
+            sources.add(new String[] {"login-ios", resource("pagesources/login-ios.xml")});
+        } else {
+            for (String path : args) {
+                sources.add(new String[] {Paths.get(path).getFileName().toString(),
+                    new String(Files.readAllBytes(Paths.get(path)), StandardCharsets.UTF_8)});
+            }
+        }
+
+        System.out.printf("%-16s %5s %-8s %10s %12s %8s  %s%n", "source", "MB", "engine", "parse ms", "heap KB", "nodes", "query ms");
+        for (String[] source : sources) {
+            boolean ios = source[1].contains("XCUIElementType");
+            for (int megabytes : SIZES_MB) {
+                String xml = inflate(source[1], megabytes * 1024 * 1024);
+                run(source[0], megabytes, xml, ios);
+            }
+        }
+    }
+
+    private static void run(String name, int megabytes, String xml, boolean ios) throws Exception {
+        String xpath = ios ? "//XCUIElementTypeButton[@name='loginButton']" : "//android.widget.TextView[@text='Help']";
+
+        long domParse = median(() -> parseDom(xml));
+        long domHeap = retained(() -> parseDom(xml));
+        Document document = parseDom(xml);
+        long domQuery = median(() -> evaluate(document, xpath));
+        int domNodes = document.getElementsByTagName("*").getLength();
+        System.out.printf("%-16s %5d %-8s %10.1f %12d %8d  xpath %.2f%n", name, megabytes, "dom",
+            domParse / 1e6, domHeap / 1024, domNodes, domQuery / 1e6);
+
+        long treeParse = median(() -> UiTree.parse(xml, ios));
+        long treeHeap = retained(() -> UiTree.parse(xml, ios));
+        PageSnapshot snapshot = PageSnapshot.parse(xml, ios, 0);
+        StringBuilder queries = new StringBuilder();
+        for (By locator : locators(ios, xpath)) {
+            long elapsed = median(() -> snapshot.findAll(locator));
+            String strategy = locator.toString().substring(locator.toString().indexOf('.') + 1, locator.toString().indexOf(':'));
+            queries.append(String.format("%s %.2f  ", strategy, elapsed / 1e6));
+        }
+        System.out.printf("%-16s %5d %-8s %10.1f %12d %8d  %s%n", name, megabytes, "uitree",
+            treeParse / 1e6, treeHeap / 1024, snapshot.getTree().size(), queries.toString().trim());
+    }
+
+    private static List<By> locators(boolean ios, String xpath) {
+        if (ios) {
+            return Arrays.asList(AppiumBy.accessibilityId("loginButton"), By.xpath(xpath),
+                AppiumBy.iOSNsPredicateString("label BEGINSWITH 'Privacy'"),
+                AppiumBy.iOSClassChain("**/XCUIElementTypeLink[`name == 'helpLink'`]"));
+        }
+        return Arrays.asList(AppiumBy.id("loginButton"), By.xpath(xpath),
+            AppiumBy.androidUIAutomator("new UiSelector().textContains(\"support\")"));
+    }
+
+    private static Document parseDom(String xml) {
+        try {
+            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+            return factory.newDocumentBuilder().parse(new InputSource(new StringReader(xml)));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static NodeList evaluate(Document document, String xpath) {
+        try {
+            return (NodeList) XPathFactory.newInstance().newXPath().evaluate(xpath, document, XPathConstants.NODESET);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Repeats everything inside the root element until the document reaches the target size.
+     */
+    private static String inflate(String xml, int targetBytes) {
+        int rootStart = xml.indexOf('<', xml.startsWith("<?") ? xml.indexOf("?>") + 2 : 0);
+        int bodyStart = xml.indexOf('>', rootStart) + 1;
+        int bodyEnd = xml.lastIndexOf("</");
+        String body = xml.substring(bodyStart, bodyEnd);
+        StringBuilder inflated = new StringBuilder(targetBytes + xml.length());
+        inflated.append(xml, 0, bodyStart);
+        do {
+            inflated.append(body);
+        } while (inflated.length() < targetBytes);
+        inflated.append(xml.substring(bodyEnd));
+        return inflated.toString();
+    }
+
+    private static long median(Supplier<?> task) {
+        long[] samples = new long[RUNS];
+        task.get();
+        for (int i = 0; i < RUNS; i++) {
+            long start = System.nanoTime();
+            task.get();
+            samples[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(samples);
+        return samples[RUNS / 2];
+    }
+
+    private static long retained(Supplier<?> task) {
+        Runtime runtime = Runtime.getRuntime();
+        settle();
+        long before = runtime.totalMemory() - runtime.freeMemory();
+        Object kept = task.get();
+        settle();
+        long after = runtime.totalMemory() - runtime.freeMemory();
+        Reference.reachabilityFence(kept);
+        return Math.max(0, after - before);
+    }
+
+    private static void settle() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static String resource(String name) throws Exception {
+        try (InputStream in = PageSourceBenchmark.class.getClassLoader().getResourceAsStream(name)) {
+            if (in == null) {
+                throw new IllegalStateException("Missing test resource " + name);
+            }
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
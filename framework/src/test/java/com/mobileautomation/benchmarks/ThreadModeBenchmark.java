@@ -0,0 +1,83 @@
+package com.mobileautomation.benchmarks;
+
+import com.mobileautomation.utils.ExecutorFactory;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+/**
+ * Compares thread count, memory and wall time of driving many simulated cloud sessions, each a series
+ * of blocking calls (think Appium HTTP round trips), on the fixed pool the framework used so far versus
+ * a thread per session, platform or virtual.
+ * <p>
+ * Run with {@code java -cp <test classpath> com.mobileautomation.benchmarks.ThreadModeBenchmark
+ * [sessions] [callsPerSession] [callMillis] [poolSize]}; the virtual variant needs JDK 21+.
+ */
+public class ThreadModeBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int sessions = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+        int calls = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        long callMillis = args.length > 2 ? Long.parseLong(args[2]) : 20;
+        int poolSize = args.length > 3 ? Integer.parseInt(args[3]) : 16;
+
+        System.out.printf("%d sessions x %d blocking calls of %dms, Java %s%n", sessions, calls, callMillis,
+            System.getProperty("java.version"));
+        System.out.printf("%-24s %10s %12s %14s %12s%n", "mode", "wall ms", "peak threads", "heap delta MB", "sessions/s");
+
+        // warm up the JIT and class loading once
+        run("warmup", () -> Executors.newFixedThreadPool(poolSize), sessions / 10, calls, callMillis, false);
+
+        run("fixed pool (" + poolSize + ")", () -> Executors.newFixedThreadPool(poolSize), sessions, calls, callMillis, true);
+        run("platform per session", Executors::newCachedThreadPool, sessions, calls, callMillis, true);
+
+        System.setProperty("execution.threads", "virtual");
+        if (ExecutorFactory.isVirtual()) {
+            run("virtual per session", () -> ExecutorFactory.newCachedThreadPool("bench", true),
+                sessions, calls, callMillis, true);
+        } else {
+            System.out.println("virtual per session: skipped, needs JDK 21+");
+        }
+    }
+
+    private static void run(String mode, Supplier<ExecutorService> executors, int sessions, int calls,
+                            long callMillis, boolean print) throws Exception {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        System.gc();
+        long heapBefore = memory.getHeapMemoryUsage().getUsed();
+        threads.resetPeakThreadCount();
+        long heapPeak = heapBefore;
+
+        long start = System.nanoTime();
+        ExecutorService executor = executors.get();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < sessions; i++) {
+            futures.add(executor.submit(() -> {
+                for (int call = 0; call < calls; call++) {
+                    Thread.sleep(callMillis);
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+            heapPeak = Math.max(heapPeak, memory.getHeapMemoryUsage().getUsed());
+        }
+        long wallMillis = (System.nanoTime() - start) / 1_000_000;
+        int peakThreads = threads.getPeakThreadCount();
+        executor.shutdown();
+
+        if (print) {
+            System.out.printf("%-24s %10d %12d %14.1f %12.1f%n", mode, wallMillis, peakThreads,
+                (heapPeak - heapBefore) / (1024.0 * 1024.0), sessions * 1000.0 / Math.max(1, wallMillis));
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.mobileautomation.benchmarks;
+
+import com.mobileautomation.utils.WaitEngine;
+import com.mobileautomation.utils.WaitPolicy;
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.support.ui.WebDriverWait;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+
+/**
+ * Bytes allocated per satisfied wait: a per-call {@link WebDriverWait} reconfigured with
+ * {@code withTimeout(...).pollingEvery(...)} as the utils used to do, versus the wait engine with a
+ * shared {@link WaitPolicy}. The condition succeeds on the first check so only the wait machinery
+ * is measured, not the driver round trip.
+ * <p>
+ * Run with {@code java -cp <test classpath> com.mobileautomation.benchmarks.WaitPolicyBenchmark [iterations]}.
+ */
+public class WaitPolicyBenchmark {
+    private static final By LOCATOR = By.id("com.example.app:id/loginButton");
+
+    public static void main(String[] args) {
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        WebDriver driver = (WebDriver) Proxy.newProxyInstance(WebDriver.class.getClassLoader(),
+            new Class<?>[] {WebDriver.class}, (proxy, method, methodArgs) -> null);
+        WaitEngine engine = WaitEngine.getInstance();
+        WaitPolicy policy = WaitPolicy.defaultPolicy();
+        Duration timeout = Duration.ofSeconds(10);
+
+        Runnable before = () -> new WebDriverWait(driver, Duration.ofSeconds(30))
+            .withTimeout(timeout)
+            .pollingEvery(Duration.ofMillis(500))
+            .until(d -> Boolean.TRUE);
+        Runnable after = () -> engine.until(driver, LOCATOR, policy.withTimeout(timeout), d -> Boolean.TRUE);
+
+        // warm up both paths so the JIT and class loading do not count
+        measure(before, iterations / 4);
+        measure(after, iterations / 4);
+
+        System.out.printf("%-36s %14s %12s%n", "wait", "bytes/wait", "ns/wait");
+        report("WebDriverWait per call", before, iterations);
+        report("WaitEngine + shared WaitPolicy", after, iterations);
+    }
+
+    private static void report(String name, Runnable wait, int iterations) {
+        long[] result = measure(wait, iterations);
+        System.out.printf("%-36s %14.1f %12.1f%n", name, (double) result[0] / iterations, (double) result[1] / iterations);
+    }
+
+    private static long[] measure(Runnable wait, int iterations) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        long bytesBefore = threads.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            wait.run();
+        }
+        long elapsed = System.nanoTime() - start;
+        return new long[] {threads.getThreadAllocatedBytes(threadId) - bytesBefore, elapsed};
+    }
+}
@@ -0,0 +1,211 @@
+package com.mobileautomation.device;
+
+import com.mobileautomation.utils.DeviceInfo;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Runs the tracker against a loopback socket that plays the adb server, one scripted reply at a time.
+ */
+public class AdbDeviceTrackerTest {
+    private static final int TIMEOUT_MS = 5000;
+    private static final String PIXEL = "emulator-5554          device product:sdk_gphone64 model:Pixel_7 device:emu64x transport_id:1\n";
+    private static final String TABLET = "R58N12ABCDE            unauthorized usb:1-1 transport_id:2\n";
+
+    private final BlockingQueue<List<DeviceInfo>> snapshots = new LinkedBlockingQueue<>();
+    private final BlockingQueue<Boolean> connectionChanges = new LinkedBlockingQueue<>();
+    private ServerSocket adbServer;
+    private AdbDeviceTracker tracker;
+
+    @BeforeMethod
+    public void startAdbServer() throws IOException {
+        snapshots.clear();
+        connectionChanges.clear();
+        adbServer = new ServerSocket(0, 5, InetAddress.getLoopbackAddress());
+        adbServer.setSoTimeout(TIMEOUT_MS);
+        tracker = new AdbDeviceTracker("127.0.0.1", adbServer.getLocalPort(), snapshots::add, connectionChanges::add);
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void stopAdbServer() throws IOException {
+        tracker.stop();
+        adbServer.close();
+    }
+
+    @Test
+    public void streamsEveryDeviceListTheServerPushes() throws Exception {
+        tracker.start();
+        Connection adb = accept();
+        adb.reply("OKAY");
+        Assert.assertEquals(nextConnectionChange(), Boolean.TRUE);
+
+        adb.reply(frame(PIXEL));
+        Assert.assertEquals(serials(nextSnapshot()), List.of("emulator-5554"));
+
+        // Two lists in one segment must still be split on their length prefixes
+        adb.reply(frame(PIXEL + TABLET) + frame(TABLET));
+        Assert.assertEquals(serials(nextSnapshot()), List.of("emulator-5554", "R58N12ABCDE"));
+        Assert.assertEquals(serials(nextSnapshot()), List.of("R58N12ABCDE"));
+
+        adb.reply(frame(""));
+        Assert.assertEquals(nextSnapshot(), List.of());
+        Assert.assertTrue(connectionChanges.isEmpty(), "connection flapped: " + connectionChanges);
+    }
+
+    @DataProvider
+    public Object[][] rejections() {
+        return new Object[][] {
+            {"FAIL" + frame("unknown host service")},
+            {"JUNK"},
+            {"OK"}
+        };
+    }
+
+    @Test(dataProvider = "rejections")
+    public void reconnectsWhenTheServerRejectsTracking(String reply) throws Exception {
+        tracker.start();
+        Connection rejected = accept();
+        rejected.reply(reply);
+        rejected.close();
+        Assert.assertEquals(nextConnectionChange(), Boolean.FALSE);
+
+        Connection adb = accept();
+        adb.reply("OKAY" + frame(PIXEL));
+        Assert.assertEquals(nextConnectionChange(), Boolean.TRUE);
+        Assert.assertEquals(serials(nextSnapshot()), List.of("emulator-5554"));
+    }
+
+    @Test
+    public void reconnectsAfterTheServerGoesAway() throws Exception {
+        tracker.start();
+        Connection first = accept();
+        first.reply("OKAY" + frame(PIXEL));
+        Assert.assertEquals(nextConnectionChange(), Boolean.TRUE);
+        Assert.assertEquals(serials(nextSnapshot()), List.of("emulator-5554"));
+
+        first.close();
+        Assert.assertEquals(nextConnectionChange(), Boolean.FALSE);
+
+        // A restarted adb server sends the full list again straight after OKAY
+        Connection second = accept();
+        second.reply("OKAY" + frame(TABLET));
+        Assert.assertEquals(nextConnectionChange(), Boolean.TRUE);
+        Assert.assertEquals(serials(nextSnapshot()), List.of("R58N12ABCDE"));
+    }
+
+    @Test
+    public void stopClosesTheConnectionWithoutReconnecting() throws Exception {
+        tracker.start();
+        Connection adb = accept();
+        adb.reply("OKAY");
+        Assert.assertEquals(nextConnectionChange(), Boolean.TRUE);
+
+        tracker.stop();
+
+        Assert.assertEquals(adb.in.read(), -1);
+        adbServer.setSoTimeout(1000);
+        Assert.expectThrows(SocketTimeoutException.class, adbServer::accept);
+        Assert.assertTrue(connectionChanges.isEmpty(), "stop reported as an outage: " + connectionChanges);
+    }
+
+    @DataProvider
+    public Object[][] deviceLists() {
+        return new Object[][] {
+            {PIXEL, "emulator-5554", "Pixel 7", DeviceInfo.STATE_ONLINE},
+            {"emulator-5556\toffline transport_id:3\n", "emulator-5556", "emulator-5556", "offline"},
+            {TABLET, "R58N12ABCDE", "R58N12ABCDE", "unauthorized"},
+            {"0123456789ABCDEF       no permissions (user in plugdev group); see [http://developer.android.com/tools/device.html] usb:1-4\n",
+                "0123456789ABCDEF", "0123456789ABCDEF", "no permissions"}
+        };
+    }
+
+    @Test(dataProvider = "deviceLists")
+    public void parsesTheLongFormat(String payload, String serial, String name, String state) {
+        List<DeviceInfo> devices = AdbDeviceTracker.parse(payload);
+
+        Assert.assertEquals(devices.size(), 1);
+        Assert.assertEquals(devices.get(0).getDeviceId(), serial);
+        Assert.assertEquals(devices.get(0).getDeviceName(), name);
+        Assert.assertEquals(devices.get(0).getState(), state);
+        Assert.assertEquals(devices.get(0).getPlatform(), "Android");
+    }
+
+    @Test
+    public void parsesAnEmptyListAsNoDevices() {
+        Assert.assertEquals(AdbDeviceTracker.parse(""), List.of());
+        Assert.assertEquals(AdbDeviceTracker.parse("\n"), List.of());
+    }
+
+    private Connection accept() throws IOException {
+        Connection connection = new Connection(adbServer.accept());
+        Assert.assertEquals(connection.readRequest(), "host:track-devices-l");
+        return connection;
+    }
+
+    private List<DeviceInfo> nextSnapshot() throws InterruptedException {
+        List<DeviceInfo> snapshot = snapshots.poll(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        Assert.assertNotNull(snapshot, "no device list within " + TIMEOUT_MS + "ms");
+        return snapshot;
+    }
+
+    private Boolean nextConnectionChange() throws InterruptedException {
+        Boolean connected = connectionChanges.poll(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        Assert.assertNotNull(connected, "no connection change within " + TIMEOUT_MS + "ms");
+        return connected;
+    }
+
+    private static List<String> serials(List<DeviceInfo> devices) {
+        return devices.stream().map(DeviceInfo::getDeviceId).collect(Collectors.toList());
+    }
+
+    private static String frame(String payload) {
+        return String.format("%04x", payload.getBytes(StandardCharsets.UTF_8).length) + payload;
+    }
+
+    private static final class Connection {
+        private final Socket socket;
+        private final DataInputStream in;
+        private final OutputStream out;
+
+        Connection(Socket socket) throws IOException {
+            this.socket = socket;
+            socket.setSoTimeout(TIMEOUT_MS);
+            this.in = new DataInputStream(socket.getInputStream());
+            this.out = socket.getOutputStream();
+        }
+
+        String readRequest() throws IOException {
+            byte[] length = new byte[4];
+            in.readFully(length);
+            byte[] request = new byte[Integer.parseInt(new String(length, StandardCharsets.US_ASCII), 16)];
+            in.readFully(request);
+            return new String(request, StandardCharsets.UTF_8);
+        }
+
+        void reply(String data) throws IOException {
+            out.write(data.getBytes(StandardCharsets.UTF_8));
+            out.flush();
+        }
+
+        void close() throws IOException {
+            socket.close();
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.mobileautomation.device;
+
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+public class AdbProtocolTest {
+
+    @DataProvider
+    public Object[][] requests() {
+        return new Object[][] {
+            {"host:version", "000chost:version"},
+            {"host:track-devices-l", "0014host:track-devices-l"},
+            {"host:transport:emulator-5554", "001chost:transport:emulator-5554"},
+            {"", "0000"}
+        };
+    }
+
+    @Test(dataProvider = "requests")
+    public void prefixesRequestsWithTheirHexLength(String request, String expected) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        AdbProtocol.sendRequest(out, request);
+        Assert.assertEquals(out.toString(StandardCharsets.US_ASCII), expected);
+    }
+
+    @Test
+    public void countsBytesNotCharacters() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        AdbProtocol.sendRequest(out, "shell:echo h\u00e9llo");
+
+        Assert.assertEquals(new String(out.toByteArray(), 0, 4, StandardCharsets.US_ASCII), "0011");
+        Assert.assertEquals(AdbProtocol.readLengthPrefixed(new ByteArrayInputStream(out.toByteArray())), "shell:echo h\u00e9llo");
+    }
+
+    @Test
+    public void acceptsOkay() throws IOException {
+        InputStream in = stream("OKAY0003abc");
+        AdbProtocol.readOkay(in);
+        Assert.assertEquals(AdbProtocol.readLengthPrefixed(in), "abc");
+    }
+
+    @Test
+    public void surfacesTheFailMessage() {
+        AdbException e = Assert.expectThrows(AdbException.class,
+            () -> AdbProtocol.readOkay(stream("FAIL0016device 'xyz' not found")));
+        Assert.assertEquals(e.getMessage(), "device 'xyz' not found");
+    }
+
+    @Test
+    public void rejectsAnythingElse() {
+        AdbException e = Assert.expectThrows(AdbException.class,
+            () -> AdbProtocol.readOkay(stream("HTTP/1.1 400 Bad Request")));
+        Assert.assertEquals(e.getMessage(), "Unexpected adb reply: HTTP");
+    }
+
+    @Test
+    public void readsConsecutiveMessagesUntilACleanEnd() throws IOException {
+        InputStream in = stream("0005first00000009second\nxx");
+
+        Assert.assertEquals(AdbProtocol.readLengthPrefixed(in), "first");
+        Assert.assertEquals(AdbProtocol.readLengthPrefixed(in), "");
+        Assert.assertEquals(AdbProtocol.readLengthPrefixed(in), "second\nxx");
+        Assert.assertNull(AdbProtocol.readLengthPrefixed(in));
+    }
+
+    @DataProvider
+    public Object[][] truncated() {
+        return new Object[][] {
+            {"OK"},
+            {"00"},
+            {"000aonly five"},
+            {"FAIL0010cut"}
+        };
+    }
+
+    @Test(dataProvider = "truncated", expectedExceptions = EOFException.class)
+    public void failsOnAConnectionClosedMidMessage(String reply) throws IOException {
+        InputStream in = stream(reply);
+        if (reply.startsWith("FAIL") || reply.startsWith("OK")) {
+            AdbProtocol.readOkay(in);
+        } else {
+            AdbProtocol.readLengthPrefixed(in);
+        }
+    }
+
+    private static InputStream stream(String data) {
+        return new ByteArrayInputStream(data.getBytes(StandardCharsets.UTF_8));
+    }
+}
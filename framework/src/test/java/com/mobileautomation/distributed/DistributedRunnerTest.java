@@ -0,0 +1,193 @@
+package com.mobileautomation.distributed;
+
+import com.mobileautomation.scheduler.WorkItem;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Drives {@link DistributedRunner#runLocal} on loopback and checks the coordinator's bookkeeping.
+ */
+public class DistributedRunnerTest {
+    private static final String TOKEN = "distributed-runner-test";
+    private static final int ITEM_MILLIS = 20;
+    private Path artifactDir;
+
+    @BeforeMethod
+    public void createArtifactDir() throws IOException {
+        artifactDir = Files.createTempDirectory("distributed-artifacts");
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void deleteArtifactDir() throws IOException {
+        Files.deleteIfExists(artifactDir);
+    }
+
+    @Test(timeOut = 60_000)
+    public void completesEveryItemExactlyOnce() throws Exception {
+        List<WorkItem> items = items(40);
+        try (Coordinator coordinator = coordinator(items)) {
+            Assert.assertTrue(DistributedRunner.runLocal(coordinator, TOKEN, 3, 2));
+
+            assertCompletedOnce(coordinator, items);
+            Assert.assertEquals(coordinator.getWorkers().keySet(), Set.of("worker-0", "worker-1", "worker-2"));
+            Assert.assertEquals(coordinator.getWorkers().values().stream()
+                .mapToInt(WorkerStats::getItemsRequeued).sum(), 0);
+        }
+    }
+
+    @Test(timeOut = 60_000)
+    public void reassignsTheItemOfAKilledWorker() throws Exception {
+        List<WorkItem> items = items(30);
+        try (Coordinator coordinator = coordinator(items)) {
+            coordinator.start();
+            Connection doomed = connect(coordinator);
+            register(doomed, "doomed");
+            Message held = pull(doomed);
+            Assert.assertEquals(held.type, Message.Type.WORK);
+
+            CompletableFuture<Boolean> run = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return DistributedRunner.runLocal(coordinator, TOKEN, 2, 2);
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            awaitResults(coordinator, 5);
+            // Dies mid-run without reporting, the way a crashed host drops its connection
+            doomed.close();
+
+            Assert.assertTrue(run.get(30, TimeUnit.SECONDS));
+            assertCompletedOnce(coordinator, items);
+
+            WorkerStats killed = coordinator.getWorkers().get("doomed");
+            Assert.assertFalse(killed.isConnected());
+            Assert.assertEquals(killed.getItemsRequeued(), 1);
+            Assert.assertEquals(killed.getItemsCompleted(), 0);
+
+            WorkResult reassigned = coordinator.getResults().stream()
+                .filter(result -> baseId(result.getItemId()).equals(held.item.getId()))
+                .findFirst()
+                .orElseThrow();
+            Assert.assertNotEquals(reassigned.getItemId(), held.itemId, "reassigned under a fresh dispatch id");
+            Assert.assertNotEquals(reassigned.getWorkerId(), "doomed");
+        }
+    }
+
+    @Test(timeOut = 60_000)
+    public void keepsAWorkerIdOnTheConnectionThatRegisteredItFirst() throws Exception {
+        List<WorkItem> items = items(2);
+        try (Coordinator coordinator = coordinator(items)) {
+            coordinator.start();
+            Connection original = connect(coordinator);
+            register(original, "twin");
+            Message held = pull(original);
+            Assert.assertEquals(held.type, Message.Type.WORK);
+
+            // A second host claiming the same id is turned away, and its disconnect leaves the item alone
+            Connection impostor = connect(coordinator);
+            Assert.expectThrows(Connection.RejectedException.class, () -> impostor.call(registration("twin")));
+            Assert.expectThrows(EOFException.class, impostor::receive);
+            impostor.close();
+
+            Connection other = connect(coordinator);
+            register(other, "other");
+            Message next = pull(other);
+            Assert.assertEquals(next.item.getId(), items.get(1).getId(), "the held item was requeued");
+            Assert.assertEquals(report(original, held).type, Message.Type.ACK);
+            Assert.expectThrows(Connection.RejectedException.class, () -> report(other, held));
+
+            WorkerStats twin = coordinator.getWorkers().get("twin");
+            Assert.assertTrue(twin.isConnected());
+            Assert.assertEquals(twin.getItemsRequeued(), 0);
+            Assert.assertEquals(twin.getItemsCompleted(), 1);
+            original.close();
+            other.close();
+        }
+    }
+
+    private Coordinator coordinator(List<WorkItem> items) throws IOException {
+        return new Coordinator(InetAddress.getLoopbackAddress(), 0, TOKEN, items, List.of(), artifactDir.toFile(),
+            Duration.ofMillis(ITEM_MILLIS));
+    }
+
+    private static List<WorkItem> items(int count) {
+        List<WorkItem> items = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            items.add(new WorkItem("stub", "com.mobileautomation.stub.StubTest", List.of("test" + i), Set.of(),
+                Map.of("stub.durationMillis", String.valueOf(ITEM_MILLIS))));
+        }
+        return items;
+    }
+
+    private static Connection connect(Coordinator coordinator) throws IOException {
+        return new Connection(new Socket(InetAddress.getLoopbackAddress(), coordinator.getPort()));
+    }
+
+    private static Message registration(String workerId) {
+        Message register = new Message(Message.Type.REGISTER);
+        register.workerId = workerId;
+        register.token = TOKEN;
+        register.host = "localhost";
+        register.devices = List.of(workerId + "-device");
+        return register;
+    }
+
+    private static void register(Connection connection, String workerId) throws IOException {
+        Assert.assertEquals(connection.call(registration(workerId)).type, Message.Type.REGISTERED);
+    }
+
+    private static Message report(Connection connection, Message work) throws IOException {
+        Message result = new Message(Message.Type.RESULT);
+        result.itemId = work.itemId;
+        result.deviceId = work.deviceId;
+        result.passed = true;
+        result.durationMillis = (long) ITEM_MILLIS;
+        return connection.call(result);
+    }
+
+    private static Message pull(Connection connection) throws IOException {
+        Message pull = new Message(Message.Type.PULL);
+        pull.deviceId = "doomed-device";
+        return connection.call(pull);
+    }
+
+    private static void awaitResults(Coordinator coordinator, int count) throws InterruptedException {
+        while (coordinator.getResults().size() < count) {
+            Thread.sleep(ITEM_MILLIS);
+        }
+    }
+
+    private static void assertCompletedOnce(Coordinator coordinator, List<WorkItem> items) {
+        Map<String, Long> completions = coordinator.getResults().stream()
+            .collect(Collectors.groupingBy(result -> baseId(result.getItemId()), Collectors.counting()));
+        Map<String, Long> once = items.stream()
+            .collect(Collectors.toMap(WorkItem::getId, item -> 1L));
+        Assert.assertEquals(completions, once);
+        Assert.assertTrue(coordinator.getResults().stream().allMatch(WorkResult::isPassed));
+        Assert.assertFalse(coordinator.hasFailures());
+    }
+
+    /**
+     * The coordinator suffixes the item id with its dispatch number, e.g. {@code StubTest#test3@7}.
+     */
+    private static String baseId(String dispatchedId) {
+        return dispatchedId.substring(0, dispatchedId.lastIndexOf('@'));
+    }
+}
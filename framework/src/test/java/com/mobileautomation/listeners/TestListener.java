@@ -3,7 +3,6 @@ package com.mobileautomation.listeners;
 import com.mobileautomation.base.BaseTest;
 import com.mobileautomation.utils.FileUtils;
 import io.appium.java_client.AppiumDriver;
-import io.appium.java_client.MobileElement;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.openqa.selenium.OutputType;
@@ -73,7 +72,7 @@ public class TestListener implements ITestListener {
         try {
             Object currentClass = result.getInstance();
             if (currentClass instanceof BaseTest) {
-                AppiumDriver<MobileElement> driver = ((BaseTest) currentClass).getDriver();
+                AppiumDriver driver = ((BaseTest) currentClass).getDriver();
                 
                 if (driver != null) {
                     File screenshot = ((TakesScreenshot) driver).getScreenshotAs(OutputType.FILE);
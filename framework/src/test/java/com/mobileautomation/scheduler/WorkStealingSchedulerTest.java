@@ -0,0 +1,234 @@
+package com.mobileautomation.scheduler;
+
+import com.mobileautomation.config.ConfigManager;
+import com.mobileautomation.driver.DeviceLeaseManager;
+import com.mobileautomation.utils.DeviceInfo;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+import org.testng.xml.XmlClass;
+import org.testng.xml.XmlSuite;
+import org.testng.xml.XmlTest;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Runs the scheduler against a fake executor that only records which device ran which item.
+ */
+public class WorkStealingSchedulerTest {
+    private static final Duration RUN_TIMEOUT = Duration.ofSeconds(30);
+    private static final String FLAKY = "scheduler-test-flaky";
+
+    @AfterMethod(alwaysRun = true)
+    public void unregisterDevices() {
+        DeviceLeaseManager.getInstance().unregister(FLAKY);
+    }
+
+    @Test(timeOut = 60_000)
+    public void runsEveryItemExactlyOnce() {
+        List<WorkItem> items = IntStream.range(0, 60)
+            .mapToObj(i -> item("test" + i, i % 5))
+            .collect(Collectors.toList());
+        RecordingExecutor executor = new RecordingExecutor();
+
+        Map<String, DeviceWorkerStats> stats = new WorkStealingScheduler(executor)
+            .run(items, List.of("d0", "d1", "d2", "d3"), RUN_TIMEOUT);
+
+        assertRanOnce(executor, items);
+        Assert.assertEquals(stats.values().stream().mapToInt(DeviceWorkerStats::getItemsRun).sum(), items.size());
+        Assert.assertEquals(stats.values().stream().mapToInt(DeviceWorkerStats::getItemsFailed).sum(), 0);
+    }
+
+    @Test(timeOut = 60_000)
+    public void stealsFromTheTailOfTheFullestDeque() {
+        List<WorkItem> full = IntStream.range(0, 6).mapToObj(i -> item("full" + i, 50)).collect(Collectors.toList());
+        List<WorkItem> shortQueue = List.of(item("short0", 50), item("short1", 50));
+        Map<String, List<WorkItem>> assignment = new LinkedHashMap<>();
+        assignment.put("idle", List.of());
+        assignment.put("short", shortQueue);
+        assignment.put("full", full);
+        RecordingExecutor executor = new RecordingExecutor();
+
+        Map<String, DeviceWorkerStats> stats = new WorkStealingScheduler(executor).run(assignment, RUN_TIMEOUT);
+
+        List<String> stolen = executor.ranOn("idle");
+        Assert.assertFalse(stolen.isEmpty(), "the idle device never stole");
+        Assert.assertEquals(stolen.get(0), full.get(full.size() - 1).getId());
+        Assert.assertEquals(stats.get("idle").getItemsStolen(), stolen.size());
+        // the owner works from the head, so its first item is never taken from it
+        Assert.assertEquals(executor.ranOn("full").get(0), full.get(0).getId());
+        List<WorkItem> all = new ArrayList<>(full);
+        all.addAll(shortQueue);
+        assertRanOnce(executor, all);
+    }
+
+    @Test(timeOut = 60_000)
+    public void retiresAQuarantinedDeviceAndLetsOthersStealItsItems() {
+        DeviceLeaseManager leaseManager = DeviceLeaseManager.getInstance();
+        leaseManager.register(new DeviceInfo(FLAKY, FLAKY, "Android", null, DeviceInfo.STATE_ONLINE), "test");
+        int threshold = ConfigManager.getInstance().getIntProperty("device.quarantine.failures", 3);
+        List<WorkItem> flakyItems = IntStream.range(0, 5).mapToObj(i -> item("flaky" + i, 20)).collect(Collectors.toList());
+        Map<String, List<WorkItem>> assignment = new LinkedHashMap<>();
+        assignment.put(FLAKY, flakyItems);
+        assignment.put("steady", List.of(item("steady0", 20)));
+        // The flaky device's first item loses the device, which quarantines it with items still queued
+        RecordingExecutor executor = new RecordingExecutor((item, deviceId) -> {
+            if (deviceId.equals(FLAKY)) {
+                IntStream.range(0, threshold).forEach(i -> leaseManager.reportInfrastructureFailure(FLAKY));
+            }
+        });
+
+        Map<String, DeviceWorkerStats> stats = new WorkStealingScheduler(executor).run(assignment, RUN_TIMEOUT);
+
+        Assert.assertTrue(leaseManager.isQuarantined(FLAKY));
+        Assert.assertEquals(executor.ranOn(FLAKY), List.of(flakyItems.get(0).getId()));
+        Assert.assertEquals(stats.get(FLAKY).getItemsRun(), 1);
+        Assert.assertEquals(stats.get("steady").getItemsRun(), 5);
+        Assert.assertEquals(stats.get("steady").getItemsStolen(), 4);
+        List<WorkItem> all = new ArrayList<>(flakyItems);
+        all.addAll(assignment.get("steady"));
+        assertRanOnce(executor, all);
+    }
+
+    @Test
+    public void partitionsLongestItemsFirstOntoTheLightestBin() {
+        Map<String, Long> costs = new LinkedHashMap<>();
+        costs.put("a", 7L);
+        costs.put("b", 6L);
+        costs.put("c", 5L);
+        costs.put("d", 4L);
+        costs.put("e", 3L);
+        costs.put("f", 2L);
+        costs.put("g", 2L);
+        costs.put("h", 1L);
+
+        List<List<String>> bins = LptPartitioner.partition(new ArrayList<>(costs.keySet()), 3, costs::get, key -> key);
+
+        Assert.assertEquals(bins, List.of(List.of("a", "f", "g"), List.of("b", "e", "h"), List.of("c", "d")));
+        List<Long> loads = bins.stream()
+            .map(bin -> bin.stream().mapToLong(costs::get).sum())
+            .collect(Collectors.toList());
+        Assert.assertEquals(loads, List.of(11L, 10L, 9L));
+    }
+
+    @Test
+    public void partitionsTheSameWayWhateverTheInputOrder() {
+        List<String> units = IntStream.range(0, 20).mapToObj(i -> "unit" + i).collect(Collectors.toList());
+        List<String> shuffled = new ArrayList<>(units);
+        Collections.reverse(shuffled);
+
+        Assert.assertEquals(LptPartitioner.partition(shuffled, 4, unit -> unit.length() % 3, unit -> unit),
+            LptPartitioner.partition(units, 4, unit -> unit.length() % 3, unit -> unit));
+    }
+
+    @Test
+    public void rejectsLessThanOneBin() {
+        Assert.expectThrows(IllegalArgumentException.class,
+            () -> LptPartitioner.partition(List.of("a"), 0, unit -> 1L, unit -> unit));
+    }
+
+    @Test
+    public void plansDependentMethodsAsOneItemAndHonoursGroups() {
+        XmlSuite suite = new XmlSuite();
+        suite.setName("planner");
+        suite.setParameters(Map.of("platform", "Android", "deviceName", "suite-default"));
+        XmlTest test = new XmlTest(suite);
+        test.setName("Planned");
+        test.setParameters(Map.of("deviceName", "Pixel 7"));
+        test.addMetaGroup("all", List.of("smoke", "regression"));
+        test.addIncludedGroup("all");
+        test.addExcludedGroup("slow");
+        test.setXmlClasses(List.of(new XmlClass(PlannedTests.class.getName(), false)));
+
+        List<WorkItem> items = new WorkItemPlanner().plan(suite);
+
+        Set<Set<String>> methods = items.stream()
+            .map(item -> new HashSet<>(item.getMethods()))
+            .collect(Collectors.toSet());
+        Assert.assertEquals(methods, Set.of(Set.of("login", "logout"), Set.of("search")));
+        for (WorkItem item : items) {
+            Assert.assertEquals(item.getTestName(), "Planned");
+            Assert.assertEquals(item.getParameters(), Map.of("platform", "Android", "deviceName", "Pixel 7"));
+        }
+    }
+
+    /**
+     * Fixture for the planner; never run itself.
+     */
+    public static class PlannedTests {
+        @Test(groups = "smoke")
+        public void login() {
+        }
+
+        @Test(groups = "smoke", dependsOnMethods = "login")
+        public void logout() {
+        }
+
+        @Test(groups = "regression")
+        public void search() {
+        }
+
+        @Test(groups = {"regression", "slow"})
+        public void upload() {
+        }
+
+        @Test(groups = "smoke", enabled = false)
+        public void disabled() {
+        }
+    }
+
+    private static WorkItem item(String method, long millis) {
+        return new WorkItem("scheduler", "com.mobileautomation.stub.StubTest", List.of(method), Set.of(),
+            Map.of("millis", String.valueOf(millis)));
+    }
+
+    private static void assertRanOnce(RecordingExecutor executor, List<WorkItem> items) {
+        List<String> ran = new ArrayList<>(executor.executed);
+        Collections.sort(ran);
+        List<String> expected = items.stream().map(WorkItem::getId).sorted().collect(Collectors.toList());
+        Assert.assertEquals(ran, expected);
+    }
+
+    /**
+     * Runs the hook, then sleeps for the item's {@code millis} parameter and passes.
+     */
+    private static final class RecordingExecutor implements WorkStealingScheduler.WorkItemExecutor {
+        private final Queue<String> executed = new ConcurrentLinkedQueue<>();
+        private final Map<String, Queue<String>> byDevice = new ConcurrentHashMap<>();
+        private final BiConsumer<WorkItem, String> hook;
+
+        RecordingExecutor() {
+            this((item, deviceId) -> { });
+        }
+
+        RecordingExecutor(BiConsumer<WorkItem, String> hook) {
+            this.hook = hook;
+        }
+
+        @Override
+        public boolean execute(WorkItem item, String deviceId) throws Exception {
+            executed.add(item.getId());
+            byDevice.computeIfAbsent(deviceId, id -> new ConcurrentLinkedQueue<>()).add(item.getId());
+            hook.accept(item, deviceId);
+            Thread.sleep(Long.parseLong(item.getParameters().get("millis")));
+            return true;
+        }
+
+        List<String> ranOn(String deviceId) {
+            return new ArrayList<>(byDevice.getOrDefault(deviceId, new ConcurrentLinkedQueue<>()));
+        }
+    }
+}
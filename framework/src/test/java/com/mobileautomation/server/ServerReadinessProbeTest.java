@@ -0,0 +1,169 @@
+package com.mobileautomation.server;
+
+import com.mobileautomation.exceptions.MobileAutomationException;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ServerReadinessProbeTest {
+    private static final String APPIUM_2 = "{\"value\":{\"ready\":true,\"build\":{\"version\":\"2.5.1\"}}}";
+    private static final List<String> LOG_TAIL = List.of("[Appium] Welcome to Appium", "[Appium] boom");
+
+    private final ServerReadinessProbe probe =
+        new ServerReadinessProbe(Duration.ofMillis(10), Duration.ofMillis(250), Duration.ofSeconds(2));
+    private final AtomicInteger requests = new AtomicInteger();
+    private volatile StatusHandler handler;
+    private HttpServer server;
+    private ExecutorService executor;
+    private String url;
+
+    private interface StatusHandler {
+        void handle(HttpExchange exchange, int request) throws IOException;
+    }
+
+    @BeforeMethod
+    public void startServer() throws IOException {
+        requests.set(0);
+        handler = (exchange, request) -> respond(exchange, 503, "");
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/status", exchange -> {
+            try {
+                handler.handle(exchange, requests.incrementAndGet());
+            } finally {
+                exchange.close();
+            }
+        });
+        // Slow handlers must not hold up the probe's next request
+        executor = Executors.newCachedThreadPool();
+        server.setExecutor(executor);
+        server.start();
+        url = "http://127.0.0.1:" + server.getAddress().getPort() + "/";
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void stopServer() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    @DataProvider
+    public Object[][] statusBodies() {
+        return new Object[][] {
+            {APPIUM_2, true},
+            {"{\"value\":{\"build\":{\"version\":\"2.0.0\"}}}", true},
+            {"{\"value\":{\"build\":{\"version\":\"2.0.0-beta.71\",\"git-sha\":\"abc\"}}}", true},
+            {"{\"value\":{\"build\":{\"version\":\"1.22.3\"}}}", false},
+            {"{\"value\":{\"build\":{}}}", false},
+            {"{\"value\":{}}", false},
+            {"<html>It works!</html>", false},
+            {"", false}
+        };
+    }
+
+    @Test(dataProvider = "statusBodies")
+    public void acceptsOnlyAppium2Builds(String body, boolean ready) {
+        handler = (exchange, request) -> respond(exchange, 200, body);
+        Assert.assertEquals(probe.isReady(url), ready, body);
+    }
+
+    @Test
+    public void pollsUntilTheServerAnswers() {
+        handler = (exchange, request) -> respond(exchange, request < 4 ? 503 : 200, request < 4 ? "" : APPIUM_2);
+
+        Duration elapsed = probe.awaitReady(url, () -> true, () -> LOG_TAIL);
+
+        Assert.assertEquals(requests.get(), 4);
+        Assert.assertTrue(elapsed.compareTo(probe.getTimeout()) < 0, "ready after " + elapsed);
+    }
+
+    @Test
+    public void failsFastOnAnAppium1Server() {
+        handler = (exchange, request) -> respond(exchange, 200, "{\"value\":{\"build\":{\"version\":\"1.22.3\"}}}");
+
+        MobileAutomationException e = Assert.expectThrows(MobileAutomationException.class,
+            () -> probe.awaitReady(url, () -> true, () -> LOG_TAIL));
+
+        Assert.assertEquals(e.getErrorCode(), "APPIUM_SERVER_INCOMPATIBLE");
+        Assert.assertEquals(requests.get(), 1);
+    }
+
+    @Test
+    public void failsFastWhenTheProcessDies() {
+        AtomicInteger livenessChecks = new AtomicInteger();
+
+        MobileAutomationException e = Assert.expectThrows(MobileAutomationException.class,
+            () -> probe.awaitReady(url, () -> livenessChecks.incrementAndGet() < 3, () -> LOG_TAIL));
+
+        Assert.assertEquals(e.getErrorCode(), "APPIUM_SERVER_EXITED");
+        Assert.assertEquals(requests.get(), 3);
+        Assert.assertTrue(e.getMessage().contains("[Appium] boom"), e.getMessage());
+    }
+
+    @Test
+    public void givesUpAtTheDeadline() {
+        long start = System.nanoTime();
+
+        MobileAutomationException e = Assert.expectThrows(MobileAutomationException.class,
+            () -> probe.awaitReady(url, () -> true, () -> LOG_TAIL));
+
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        Assert.assertEquals(e.getErrorCode(), "APPIUM_SERVER_NOT_READY");
+        Assert.assertTrue(elapsedMs >= probe.getTimeout().toMillis(), "gave up after " + elapsedMs + "ms");
+        Assert.assertTrue(e.getMessage().contains("[Appium] Welcome to Appium"), e.getMessage());
+        // Backed off to the 250ms cap instead of hammering the server every 10ms
+        Assert.assertTrue(requests.get() < 20, requests.get() + " probes");
+    }
+
+    @Test
+    public void treatsAHangingServerAsNotReady() {
+        // The request timeout is twice the 250ms max interval
+        handler = (exchange, request) -> {
+            try {
+                Thread.sleep(2000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            respond(exchange, 200, APPIUM_2);
+        };
+        long start = System.nanoTime();
+
+        Assert.assertFalse(probe.isReady(url));
+
+        Assert.assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 2000);
+    }
+
+    @Test
+    public void treatsAClosedPortAsNotReady() {
+        server.stop(0);
+
+        Assert.assertFalse(probe.isReady(url));
+        MobileAutomationException e = Assert.expectThrows(MobileAutomationException.class,
+            () -> probe.awaitReady(url, () -> false, () -> LOG_TAIL));
+        Assert.assertEquals(e.getErrorCode(), "APPIUM_SERVER_EXITED");
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length == 0 ? -1 : bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
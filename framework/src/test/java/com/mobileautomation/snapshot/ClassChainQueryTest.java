@@ -0,0 +1,49 @@
+package com.mobileautomation.snapshot;
+
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.util.List;
+
+public class ClassChainQueryTest {
+
+    @DataProvider
+    public Object[][] supported() {
+        return new Object[][] {
+            {"**/XCUIElementTypeButton", List.of("loginButton", "socialLogin")},
+            {"**/XCUIElementTypeButton[2]", List.of("socialLogin")},
+            {"**/XCUIElementTypeLink[-1]", List.of("contactSupport")},
+            {"XCUIElementTypeWindow/XCUIElementTypeOther/XCUIElementTypeScrollView/XCUIElementTypeSwitch", List.of("rememberMe")},
+            {"XCUIElementTypeWindow/*/*/XCUIElementTypeTextField", List.of("username")},
+            {"**/XCUIElementTypeScrollView/*[3]", List.of("loginButton")},
+            {"**/XCUIElementTypeLink[`name BEGINSWITH 'privacy'`]", List.of("privacyPolicy")},
+            {"**/XCUIElementTypeLink[$value == 'Help'$]", List.of("helpLink")},
+            {"**/XCUIElementTypeLink/XCUIElementTypeStaticText[`value CONTAINS 'Terms'`]", List.of("Terms and Conditions")},
+            {"**/XCUIElementTypeLink[`label CONTAINS 'o'`][2]", List.of("termsAndConditions")},
+            {"XCUIElementTypeButton", List.of()}
+        };
+    }
+
+    @Test(dataProvider = "supported")
+    public void selectsTheSameNodesAsTheDevice(String expression, List<String> expected) {
+        UiTree tree = PageSources.IOS;
+        Assert.assertEquals(PageSources.names(tree, ClassChainQuery.compile(expression).select(tree)), expected, expression);
+    }
+
+    @DataProvider
+    public Object[][] unsupported() {
+        return new Object[][] {
+            {""},
+            {"**/XCUIElementTypeButton[0]"},
+            {"**/XCUIElementTypeButton[last()]"},
+            {"**/XCUIElementTypeButton[`name == 'loginButton'"},
+            {"**/XCUIElementTypeButton[`name == label`]"}
+        };
+    }
+
+    @Test(dataProvider = "unsupported", expectedExceptions = UnsupportedOperationException.class)
+    public void rejectsExpressionsOutsideTheSubset(String expression) {
+        ClassChainQuery.compile(expression);
+    }
+}
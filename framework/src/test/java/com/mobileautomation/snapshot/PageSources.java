@@ -0,0 +1,48 @@
+package com.mobileautomation.snapshot;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The recorded login screens in {@code src/test/resources/pagesources}, and readable names for query results.
+ */
+final class PageSources {
+    static final UiTree ANDROID = load("login-android.xml", false);
+    static final UiTree IOS = load("login-ios.xml", true);
+
+    private PageSources() {
+    }
+
+    private static UiTree load(String name, boolean ios) {
+        try (InputStream source = PageSources.class.getResourceAsStream("/pagesources/" + name)) {
+            if (source == null) {
+                throw new IllegalStateException("Missing page source " + name);
+            }
+            return UiTree.parse(source, ios);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * One name per node, in result order: the short resource id on Android and the name on iOS,
+     * or the class name for nodes without one.
+     */
+    static List<String> names(UiTree tree, IntList nodes) {
+        List<String> names = new ArrayList<>(nodes.size());
+        for (int i = 0; i < nodes.size(); i++) {
+            int node = nodes.get(i);
+            String name = tree.attribute(node, tree.isIos() ? "name" : "resource-id");
+            if (name == null || name.isEmpty()) {
+                names.add(tree.className(node));
+                continue;
+            }
+            int separator = name.indexOf(":id/");
+            names.add(separator >= 0 ? name.substring(separator + 4) : name);
+        }
+        return names;
+    }
+}
@@ -0,0 +1,53 @@
+package com.mobileautomation.snapshot;
+
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.util.List;
+
+public class PredicateQueryTest {
+
+    @DataProvider
+    public Object[][] supported() {
+        return new Object[][] {
+            {"name == 'loginButton'", List.of("loginButton")},
+            {"wdName == 'helpLink'", List.of("helpLink")},
+            {"type == 'XCUIElementTypeButton'", List.of("loginButton", "socialLogin")},
+            {"label BEGINSWITH 'Log'", List.of("loginButton")},
+            {"label CONTAINS[c] 'PASSWORD'", List.of("password", "forgotPassword", "Forgot password?")},
+            {"value == ''", List.of("username", "password")},
+            {"value MATCHES '[0-9]+'", List.of("rememberMe")},
+            {"type == 'XCUIElementTypeLink' AND label ENDSWITH 'Policy'", List.of("privacyPolicy")},
+            {"name IN {'helpLink', 'registerLink'}", List.of("registerLink", "helpLink")},
+            {"label LIKE 'C*t'", List.of("registerLink", "Create an account", "contactSupport", "Contact support")},
+            {"label ==[c] 'help' || name == 'socialLogin'", List.of("socialLogin", "helpLink", "Help")},
+            {"visible == 1 AND name == 'username'", List.of("username")},
+            {"NOT (accessible == true)", List.of("XCUIElementTypeWindow", "XCUIElementTypeOther", "XCUIElementTypeScrollView")},
+            {"name == 'Log in'", List.of()}
+        };
+    }
+
+    @Test(dataProvider = "supported")
+    public void selectsTheSameNodesAsTheDevice(String expression, List<String> expected) {
+        UiTree tree = PageSources.IOS;
+        Assert.assertEquals(PageSources.names(tree, PredicateQuery.compile(expression).select(tree)), expected, expression);
+    }
+
+    @DataProvider
+    public Object[][] unsupported() {
+        return new Object[][] {
+            {"name == label"},
+            {"name == nil"},
+            {"rect.x > 10"},
+            {"ANY name == 'loginButton'"},
+            {"name BETWEEN {1, 2}"},
+            {"SUBQUERY(children, $x, $x.name == 'Help').@count > 0"}
+        };
+    }
+
+    @Test(dataProvider = "unsupported", expectedExceptions = UnsupportedOperationException.class)
+    public void rejectsExpressionsOutsideTheSubset(String expression) {
+        PredicateQuery.compile(expression);
+    }
+}
@@ -0,0 +1,57 @@
+package com.mobileautomation.snapshot;
+
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.util.List;
+
+public class UiSelectorQueryTest {
+
+    @DataProvider
+    public Object[][] supported() {
+        return new Object[][] {
+            {"new UiSelector().resourceId(\"com.example.app:id/username\")", List.of("username")},
+            {"new UiSelector().text(\"Log in\")", List.of("loginButton")},
+            {"new UiSelector().textContains(\"password\")", List.of("forgotPassword")},
+            {"new UiSelector().textStartsWith(\"C\")", List.of("socialLogin", "registerLink", "contactSupport")},
+            {"new UiSelector().textMatches(\"^(Help|Privacy.*)$\")", List.of("privacyPolicy", "helpLink")},
+            {"new UiSelector().resourceIdMatches(\".*:id/.*Layout\")", List.of("usernameLayout", "passwordLayout")},
+            {"new UiSelector().className(\"android.widget.EditText\")", List.of("username", "password")},
+            {"new UiSelector().className(\"android.widget.EditText\").index(1)", List.of("password")},
+            {"new UiSelector().className(\"android.widget.TextView\").instance(2)", List.of("privacyPolicy")},
+            {"new UiSelector().checkable(true)", List.of("rememberMe")},
+            {"new UiSelector().packageName(\"com.example.app\").clickable(true).focusable(true).longClickable(false).instance(0)",
+                List.of("username")},
+            {"new UiSelector().scrollable(true).childSelector(new UiSelector().className(\"android.widget.Button\"))",
+                List.of("loginButton", "socialLogin")},
+            {"new UiSelector().resourceId(\"com.example.app:id/loginButton\")"
+                + ".fromParent(new UiSelector().className(\"android.widget.CheckBox\"))", List.of("rememberMe")},
+            {"new UiSelector().description(\"Log in\")", List.of()},
+            {".text(\"Help\")", List.of("helpLink")},
+            {"new UiSelector().text(\"Help\");", List.of("helpLink")}
+        };
+    }
+
+    @Test(dataProvider = "supported")
+    public void selectsTheSameNodesAsTheDevice(String expression, List<String> expected) {
+        UiTree tree = PageSources.ANDROID;
+        Assert.assertEquals(PageSources.names(tree, UiSelectorQuery.compile(expression).select(tree)), expected, expression);
+    }
+
+    @DataProvider
+    public Object[][] unsupported() {
+        return new Object[][] {
+            {"new UiScrollable(new UiSelector().scrollable(true)).scrollIntoView(new UiSelector().text(\"Help\"))"},
+            {"new UiSelector().textEndsWith(\"Help\")"},
+            {"new UiSelector().clickable(maybe)"},
+            {"new UiSelector().childSelector(new UiSelector().text(\"a\")).fromParent(new UiSelector().text(\"b\"))"},
+            {"new UiSelector().text(\"Help\") trailing"}
+        };
+    }
+
+    @Test(dataProvider = "unsupported", expectedExceptions = UnsupportedOperationException.class)
+    public void rejectsExpressionsOutsideTheSubset(String expression) {
+        UiSelectorQuery.compile(expression);
+    }
+}
@@ -0,0 +1,65 @@
+package com.mobileautomation.snapshot;
+
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.util.List;
+
+public class XPathQueryTest {
+
+    @DataProvider
+    public Object[][] supported() {
+        return new Object[][] {
+            {"//android.widget.EditText", List.of("username", "password")},
+            {"//*[@resource-id='com.example.app:id/loginButton']", List.of("loginButton")},
+            {"//*[@text='']", List.of("android.widget.FrameLayout", "android.widget.LinearLayout", "content", "scroll",
+                "form", "usernameLayout", "username", "passwordLayout", "password")},
+            {"//android.widget.EditText[@text='']", List.of("username", "password")},
+            {"/hierarchy/android.widget.FrameLayout/android.widget.LinearLayout", List.of("android.widget.LinearLayout")},
+            {"//android.widget.TextView[contains(@text, 'password')]", List.of("forgotPassword")},
+            {"//android.widget.TextView[starts-with(@text, 'Privacy')]", List.of("privacyPolicy")},
+            {"//*[ends-with(@resource-id, 'Link')]", List.of("registerLink", "helpLink")},
+            {"//*[normalize-space(@text)='Help']", List.of("helpLink")},
+            {"//*[string-length(@text) > 15]", List.of("forgotPassword", "termsAndConditions", "socialLogin", "registerLink")},
+            {"//*[name()='android.widget.CheckBox']", List.of("rememberMe")},
+            {"//android.widget.Button[2]", List.of("socialLogin")},
+            {"//android.widget.TextView[last()]", List.of("contactSupport")},
+            {"//android.widget.TextView[position() > 3]", List.of("registerLink", "helpLink", "contactSupport")},
+            {"//*[@clickable='true' and @password='true']", List.of("password")},
+            {"//*[@checkable='true' or @scrollable='true']", List.of("scroll", "rememberMe")},
+            {"//*[@index=1 and @password='false']", List.of("passwordLayout")},
+            {"//android.widget.FrameLayout[not(@resource-id='')]", List.of("content", "usernameLayout", "passwordLayout")},
+            {"//android.widget.FrameLayout[android.widget.EditText[@password='true']]", List.of("passwordLayout")},
+            {"//android.widget.LinearLayout[count(android.widget.TextView) = 6]", List.of("form")},
+            {"//*[@resource-id='com.example.app:id/password']/..", List.of("passwordLayout")},
+            {"//*[@resource-id='com.example.app:id/username']/ancestor::android.widget.ScrollView", List.of("scroll")},
+            {"//android.widget.Button[@text='Log in']/following-sibling::android.widget.TextView[1]", List.of("forgotPassword")},
+            {"//android.widget.CheckBox/preceding-sibling::*[1]", List.of("forgotPassword")},
+            {"//android.widget.Switch", List.of()}
+        };
+    }
+
+    @Test(dataProvider = "supported")
+    public void selectsTheSameNodesAsTheDevice(String expression, List<String> expected) {
+        UiTree tree = PageSources.ANDROID;
+        Assert.assertEquals(PageSources.names(tree, XPathQuery.compile(expression).select(tree)), expected, expression);
+    }
+
+    @DataProvider
+    public Object[][] unsupported() {
+        return new Object[][] {
+            {"//android.widget.TextView/text()"},
+            {"//android.widget.Button | //android.widget.EditText"},
+            {"(//android.widget.Button)[1]"},
+            {"//*[matches(@text, 'Log.*')]"},
+            {"//android.widget.Button/following::*"},
+            {"//*[@text=//android.widget.Button/@text]"}
+        };
+    }
+
+    @Test(dataProvider = "unsupported", expectedExceptions = UnsupportedOperationException.class)
+    public void rejectsExpressionsOutsideTheSubset(String expression) {
+        XPathQuery.compile(expression);
+    }
+}
@@ -8,6 +8,7 @@ import com.mobileautomation.pages.LoginPage;
 import com.mobileautomation.pages.HomePage;
 import com.mobileautomation.utils.AppActionUtils;
 import com.mobileautomation.utils.AssertionUtils;
+import com.mobileautomation.utils.BatchResult;
 import com.mobileautomation.utils.FileUtils;
 import com.mobileautomation.utils.MobileInteractionUtils;
 import org.apache.logging.log4j.LogManager;
@@ -22,28 +23,29 @@ import io.appium.java_client.MobileElement;
 
 public class LoginTest extends BaseTest {
     private static final Logger logger = LogManager.getLogger(LoginTest.class);
-    private LoginPage loginPage;
+    // parallel="methods" runs every test method on one instance, so per-test helpers are kept per thread
+    private final ThreadLocal<LoginPage> loginPage = new ThreadLocal<>();
+    private final ThreadLocal<MobileInteractionUtils> mobileUtils = new ThreadLocal<>();
+    private final ThreadLocal<AppActionUtils> appUtils = new ThreadLocal<>();
+    private final ThreadLocal<AssertionUtils> assertionUtils = new ThreadLocal<>();
     private TestDataManager testDataManager;
-    private MobileInteractionUtils mobileUtils;
-    private AppActionUtils appUtils;
-    private AssertionUtils assertionUtils;
 
     @BeforeMethod
     public void setUp() {
         try {
             super.setUp();
             ThreadContext.put("threadId", String.valueOf(Thread.currentThread().getId()));
-            loginPage = new LoginPage(driver);
+            loginPage.set(new LoginPage(getDriver()));
             testDataManager = TestDataManager.getInstance();
-            mobileUtils = new MobileInteractionUtils(driver);
-            appUtils = new AppActionUtils(driver);
-            assertionUtils = new AssertionUtils(mobileUtils);
+            mobileUtils.set(new MobileInteractionUtils(getDriver()));
+            appUtils.set(new AppActionUtils(getDriver()));
+            assertionUtils.set(new AssertionUtils(mobileUtils.get()));
             
             // Create test results directory
             FileUtils.createDirectory("test-results");
             
             // Wait for app to be ready
-            appUtils.waitForAppToLoad(By.id("loadingIndicator"), 30);
+            appUtils.get().waitForAppToLoad(By.id("loadingIndicator"), 30);
             
             logger.info("Test setup completed for thread: {}", Thread.currentThread().getId());
         } catch (Exception e) {
@@ -58,34 +60,38 @@ public class LoginTest extends BaseTest {
             logger.info("Starting valid login test");
             
             // Hard assertions for critical elements
-            assertionUtils.assertElementPresent(By.id("usernameField"), 30, "Username field should be present");
-            assertionUtils.assertElementPresent(By.id("passwordField"), 30, "Password field should be present");
+            assertionUtils.get().assertElementPresent(By.id("usernameField"), 30, "Username field should be present");
+            assertionUtils.get().assertElementPresent(By.id("passwordField"), 30, "Password field should be present");
             
             // Enter credentials
             String username = testDataManager.getData(TestCaseId.LOGIN_VALID, TestDataKey.USERNAME);
             String password = testDataManager.getData(TestCaseId.LOGIN_VALID, TestDataKey.PASSWORD);
-            mobileUtils.type(By.id("usernameField"), username, 30);
-            mobileUtils.type(By.id("passwordField"), password, 30);
+            BatchResult credentials = mobileUtils.get().batch()
+                .type(By.id("usernameField"), username, 30)
+                .type(By.id("passwordField"), password, 30)
+                .execute();
+            logger.info("Credentials entered: {}", credentials);
             
             // Soft assertions for non-critical validations
-            assertionUtils.softAssertElementVisible(By.id("rememberMe"), 10, "Remember me checkbox should be visible");
-            assertionUtils.softAssertElementText(By.id("loginButton"), "Login", 10, "Login button text should be 'Login'");
+            assertionUtils.get().softAssertElementVisible(By.id("rememberMe"), 10, "Remember me checkbox should be visible");
+            assertionUtils.get().softAssertElementText(By.id("loginButton"), "Login", 10, "Login button text should be 'Login'");
             
-            // Tap login button
-            mobileUtils.tap(By.id("loginButton"), 30);
-            
-            // Wait for app to be ready after login
-            appUtils.waitForAppToBeReady(By.id("homeScreen"), 30);
+            // Tap login and wait for the home screen in one round trip
+            BatchResult login = mobileUtils.get().batch()
+                .tap(By.id("loginButton"), 30)
+                .waitFor(By.id("homeScreen"), 30)
+                .execute();
+            logger.info("Login flow: {}", login);
             
             // Critical assertions after login
-            assertionUtils.assertElementPresent(By.id("welcomeMessage"), 30, "Welcome message should be present");
-            assertionUtils.assertElementText(By.id("welcomeMessage"), "Welcome, " + username + "!", 30, 
+            assertionUtils.get().assertElementPresent(By.id("welcomeMessage"), 30, "Welcome message should be present");
+            assertionUtils.get().assertElementText(By.id("welcomeMessage"), "Welcome, " + username + "!", 30, 
                 "Welcome message should match expected text");
             
             // Non-critical validations
-            assertionUtils.softAssertElementCount(By.className("menuItem"), 5, 10, 
+            assertionUtils.get().softAssertElementCount(By.className("menuItem"), 5, 10, 
                 "Should have 5 menu items");
-            assertionUtils.softAssertElementVisible(By.id("profileIcon"), 10, 
+            assertionUtils.get().softAssertElementVisible(By.id("profileIcon"), 10, 
                 "Profile icon should be visible");
             
             // Save test results
@@ -93,7 +99,7 @@ public class LoginTest extends BaseTest {
             FileUtils.writeToFile(result, "test-results/login_test_result.txt");
             
             // Assert all soft assertions
-            assertionUtils.assertAll();
+            assertionUtils.get().assertAll();
             
             logger.info("Valid login test completed successfully");
         } catch (Exception e) {
@@ -110,33 +116,33 @@ public class LoginTest extends BaseTest {
             logger.info("Starting invalid login test");
             
             // Critical validations
-            assertionUtils.assertElementEnabled(By.id("usernameField"), 30, 
+            assertionUtils.get().assertElementEnabled(By.id("usernameField"), 30, 
                 "Username field should be enabled");
-            assertionUtils.assertElementEnabled(By.id("passwordField"), 30, 
+            assertionUtils.get().assertElementEnabled(By.id("passwordField"), 30, 
                 "Password field should be enabled");
             
             // Enter invalid credentials
             String username = testDataManager.getData(TestCaseId.LOGIN_INVALID, TestDataKey.USERNAME);
             String password = testDataManager.getData(TestCaseId.LOGIN_INVALID, TestDataKey.PASSWORD);
-            mobileUtils.type(By.id("usernameField"), username, 30);
-            mobileUtils.type(By.id("passwordField"), password, 30);
+            mobileUtils.get().type(By.id("usernameField"), username, 30);
+            mobileUtils.get().type(By.id("passwordField"), password, 30);
             
             // Tap login button
-            mobileUtils.tap(By.id("loginButton"), 30);
+            mobileUtils.get().tap(By.id("loginButton"), 30);
             
             // Wait for error message
-            appUtils.waitForAppToLoad(By.id("errorMessage"), 30);
+            appUtils.get().waitForAppToLoad(By.id("errorMessage"), 30);
             
             // Critical assertions
-            assertionUtils.assertElementPresent(By.id("errorMessage"), 30, 
+            assertionUtils.get().assertElementPresent(By.id("errorMessage"), 30, 
                 "Error message should be present");
-            assertionUtils.assertElementText(By.id("errorMessage"), "Invalid credentials", 30, 
+            assertionUtils.get().assertElementText(By.id("errorMessage"), "Invalid credentials", 30, 
                 "Error message should match expected text");
             
             // Non-critical validations
-            assertionUtils.softAssertElementVisible(By.id("forgotPassword"), 10, 
+            assertionUtils.get().softAssertElementVisible(By.id("forgotPassword"), 10, 
                 "Forgot password link should be visible");
-            assertionUtils.softAssertElementText(By.id("loginButton"), "Try Again", 10, 
+            assertionUtils.get().softAssertElementText(By.id("loginButton"), "Try Again", 10, 
                 "Login button text should change to 'Try Again'");
             
             // Save test results
@@ -144,7 +150,7 @@ public class LoginTest extends BaseTest {
             FileUtils.writeToFile(result, "test-results/invalid_login_test_result.txt");
             
             // Assert all soft assertions
-            assertionUtils.assertAll();
+            assertionUtils.get().assertAll();
             
             logger.info("Invalid login test completed successfully");
         } catch (Exception e) {
@@ -161,24 +167,24 @@ public class LoginTest extends BaseTest {
             logger.info("Starting empty login test");
             
             // Critical validations
-            assertionUtils.assertElementPresent(By.id("loginButton"), 30, 
+            assertionUtils.get().assertElementPresent(By.id("loginButton"), 30, 
                 "Login button should be present");
             
             // Tap login button without entering credentials
-            mobileUtils.tap(By.id("loginButton"), 30);
+            mobileUtils.get().tap(By.id("loginButton"), 30);
             
             // Wait for validation messages
-            appUtils.waitForAppToLoad(By.id("validationMessage"), 30);
+            appUtils.get().waitForAppToLoad(By.id("validationMessage"), 30);
             
             // Critical assertions
-            assertionUtils.assertElementText(By.id("validationMessage"), 
+            assertionUtils.get().assertElementText(By.id("validationMessage"), 
                 "Please enter username and password", 30, 
                 "Validation message should match expected text");
             
             // Non-critical validations
-            assertionUtils.softAssertElementVisible(By.id("usernameField"), 10, 
+            assertionUtils.get().softAssertElementVisible(By.id("usernameField"), 10, 
                 "Username field should remain visible");
-            assertionUtils.softAssertElementVisible(By.id("passwordField"), 10, 
+            assertionUtils.get().softAssertElementVisible(By.id("passwordField"), 10, 
                 "Password field should remain visible");
             
             // Save test results
@@ -186,7 +192,7 @@ public class LoginTest extends BaseTest {
             FileUtils.writeToFile(result, "test-results/empty_login_test_result.txt");
             
             // Assert all soft assertions
-            assertionUtils.assertAll();
+            assertionUtils.get().assertAll();
             
             logger.info("Empty login test completed successfully");
         } catch (Exception e) {
@@ -202,9 +208,9 @@ public class LoginTest extends BaseTest {
         logger.info("Testing login with username: {}", username);
         
         // Example test steps (replace with actual app elements)
-        MobileElement usernameField = driver.findElementByAccessibilityId("username");
-        MobileElement passwordField = driver.findElementByAccessibilityId("password");
-        MobileElement loginButton = driver.findElementByAccessibilityId("login");
+        MobileElement usernameField = getDriver().findElementByAccessibilityId("username");
+        MobileElement passwordField = getDriver().findElementByAccessibilityId("password");
+        MobileElement loginButton = getDriver().findElementByAccessibilityId("login");
 
         usernameField.sendKeys(username);
         passwordField.sendKeys(password);
@@ -212,9 +218,9 @@ public class LoginTest extends BaseTest {
 
         // Verify result
         if ("success".equals(expectedResult)) {
-            AssertionUtils.assertElementPresent(driver, "home_screen", "Home screen should be visible after successful login");
+            AssertionUtils.assertElementPresent(getDriver(), "home_screen", "Home screen should be visible after successful login");
         } else {
-            AssertionUtils.assertElementPresent(driver, "error_message", "Error message should be visible after failed login");
+            AssertionUtils.assertElementPresent(getDriver(), "error_message", "Error message should be visible after failed login");
         }
     }
 
@@ -223,9 +229,9 @@ public class LoginTest extends BaseTest {
         logger.info("Testing login with username: {}", username);
         
         // Example test steps (replace with actual app elements)
-        MobileElement usernameField = driver.findElementByAccessibilityId("username");
-        MobileElement passwordField = driver.findElementByAccessibilityId("password");
-        MobileElement loginButton = driver.findElementByAccessibilityId("login");
+        MobileElement usernameField = getDriver().findElementByAccessibilityId("username");
+        MobileElement passwordField = getDriver().findElementByAccessibilityId("password");
+        MobileElement loginButton = getDriver().findElementByAccessibilityId("login");
 
         usernameField.sendKeys(username);
         passwordField.sendKeys(password);
@@ -233,105 +239,109 @@ public class LoginTest extends BaseTest {
 
         // Verify result
         if ("success".equals(expectedResult)) {
-            AssertionUtils.assertElementPresent(driver, "home_screen", "Home screen should be visible after successful login");
+            AssertionUtils.assertElementPresent(getDriver(), "home_screen", "Home screen should be visible after successful login");
         } else {
-            AssertionUtils.assertElementPresent(driver, "error_message", "Error message should be visible after failed login");
+            AssertionUtils.assertElementPresent(getDriver(), "error_message", "Error message should be visible after failed login");
         }
     }
 
     @Test(description = "Verify successful login with valid credentials")
     public void testSuccessfulLogin() {
-        loginPage.verifyLoginPageElements();
+        loginPage.get().verifyLoginPageElements();
         
-        loginPage.enterUsername("testuser");
-        loginPage.enterPassword("password123");
-        loginPage.checkRememberMe();
+        loginPage.get().enterUsername("testuser");
+        loginPage.get().enterPassword("password123");
+        loginPage.get().checkRememberMe();
         
-        HomePage homePage = loginPage.login("testuser", "password123");
+        HomePage homePage = loginPage.get().login("testuser", "password123");
         homePage.verifyHomePageElements();
         homePage.verifyWelcomeMessage("Welcome, testuser!");
     }
 
     @Test(description = "Verify login failure with invalid credentials")
     public void testInvalidLogin() {
-        loginPage.verifyLoginPageElements();
+        loginPage.get().verifyLoginPageElements();
         
-        loginPage.enterUsername("invaliduser");
-        loginPage.enterPassword("wrongpassword");
+        loginPage.get().enterUsername("invaliduser");
+        loginPage.get().enterPassword("wrongpassword");
         
-        loginPage.clickLoginButton();
-        loginPage.verifyErrorMessage("Invalid username or password");
+        loginPage.get().clickLoginButton();
+        loginPage.get().verifyErrorMessage("Invalid username or password");
     }
 
     @Test(description = "Verify login with empty credentials")
     public void testEmptyCredentials() {
-        loginPage.verifyLoginPageElements();
+        loginPage.get().verifyLoginPageElements();
         
-        loginPage.clickLoginButton();
-        loginPage.verifyErrorMessage("Please enter username and password");
+        loginPage.get().clickLoginButton();
+        loginPage.get().verifyErrorMessage("Please enter username and password");
     }
 
     @Test(description = "Verify social login functionality")
     public void testSocialLogin() {
-        loginPage.verifyLoginPageElements();
+        loginPage.get().verifyLoginPageElements();
         
-        loginPage.clickSocialLogin();
+        loginPage.get().clickSocialLogin();
         // Add verification for social login page
     }
 
     @Test(description = "Verify forgot password functionality")
     public void testForgotPassword() {
-        loginPage.verifyLoginPageElements();
+        loginPage.get().verifyLoginPageElements();
         
-        loginPage.clickForgotPassword();
+        loginPage.get().clickForgotPassword();
         // Add verification for forgot password page
     }
 
     @Test(description = "Verify terms and conditions link")
     public void testTermsAndConditions() {
-        loginPage.verifyLoginPageElements();
+        loginPage.get().verifyLoginPageElements();
         
-        loginPage.clickTermsAndConditions();
+        loginPage.get().clickTermsAndConditions();
         // Add verification for terms and conditions page
     }
 
     @Test(description = "Verify privacy policy link")
     public void testPrivacyPolicy() {
-        loginPage.verifyLoginPageElements();
+        loginPage.get().verifyLoginPageElements();
         
-        loginPage.clickPrivacyPolicy();
+        loginPage.get().clickPrivacyPolicy();
         // Add verification for privacy policy page
     }
 
     @Test(description = "Verify registration link")
     public void testRegistrationLink() {
-        loginPage.verifyLoginPageElements();
+        loginPage.get().verifyLoginPageElements();
         
-        loginPage.clickRegister();
+        loginPage.get().clickRegister();
         // Add verification for registration page
     }
 
     @Test(description = "Verify help link")
     public void testHelpLink() {
-        loginPage.verifyLoginPageElements();
+        loginPage.get().verifyLoginPageElements();
         
-        loginPage.clickHelp();
+        loginPage.get().clickHelp();
         // Add verification for help page
     }
 
     @Test(description = "Verify contact support link")
     public void testContactSupport() {
-        loginPage.verifyLoginPageElements();
+        loginPage.get().verifyLoginPageElements();
         
-        loginPage.clickContactSupport();
+        loginPage.get().clickContactSupport();
         // Add verification for contact support page
     }
 
     @AfterMethod
     public void tearDown() {
-        if (loginPage != null) {
-            loginPage.cleanup();
+        if (loginPage.get() != null) {
+            loginPage.get().cleanup();
         }
+        loginPage.remove();
+        mobileUtils.remove();
+        appUtils.remove();
+        assertionUtils.remove();
         ThreadContext.remove("threadId");
         super.tearDown();
         logger.info("Test cleanup completed for thread: {}", Thread.currentThread().getId());
@@ -0,0 +1,88 @@
+package com.mobileautomation.utils;
+
+import com.mobileautomation.exceptions.MobileAutomationException;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Runs short {@code sh -c} scripts through the executor.
+ */
+public class CommandExecutorTest {
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+    private final CommandExecutor executor = CommandExecutor.getInstance();
+
+    @Test
+    public void capturesBothStreamsAndTheExitCode() {
+        CommandResult result = executor.run(sh("echo out; echo err >&2; exit 3"), TIMEOUT);
+
+        Assert.assertEquals(result.getExitCode(), 3);
+        Assert.assertEquals(result.getStdout(), "out\n");
+        Assert.assertEquals(result.getStderr(), "err\n");
+        Assert.assertFalse(result.isTimedOut());
+        MobileAutomationException e = Assert.expectThrows(MobileAutomationException.class, result::requireSuccess);
+        Assert.assertEquals(e.getErrorCode(), "COMMAND_FAILED");
+    }
+
+    @Test(timeOut = 20_000)
+    public void killsACommandThatOverrunsItsTimeout() {
+        CommandResult result = executor.run(sh("sleep 30"), Duration.ofMillis(300));
+
+        Assert.assertTrue(result.isTimedOut());
+        Assert.assertEquals(result.getExitCode(), -1);
+        Assert.assertTrue(result.getDuration().compareTo(Duration.ofSeconds(10)) < 0, "took " + result.getDuration());
+        MobileAutomationException e = Assert.expectThrows(MobileAutomationException.class, result::requireSuccess);
+        Assert.assertEquals(e.getErrorCode(), "COMMAND_TIMEOUT");
+    }
+
+    @Test(timeOut = 20_000)
+    public void killsTheChildrenOfATimedOutCommand() throws InterruptedException {
+        // The shell waits on a background child that would outlive it if only the shell were killed
+        CommandResult result = executor.run(sh("sleep 30 & echo $!; wait"), Duration.ofMillis(500));
+
+        Assert.assertTrue(result.isTimedOut());
+        // A surviving child keeps stdout open and the output is given up on
+        Assert.assertFalse(result.getStdout().isBlank(), "child still holds the pipe");
+        long childPid = Long.parseLong(result.getStdout().trim());
+        Optional<ProcessHandle> child = ProcessHandle.of(childPid);
+        for (int i = 0; i < 50 && child.map(ProcessHandle::isAlive).orElse(false); i++) {
+            Thread.sleep(100);
+        }
+        Assert.assertFalse(child.map(ProcessHandle::isAlive).orElse(false), "child " + childPid + " survived");
+    }
+
+    @Test(timeOut = 20_000)
+    public void drainsOutputLargerThanThePipeBuffer() {
+        // Far past the 64KB a pipe holds, on both streams; undrained, the child would block and time out
+        CommandResult result = executor.run(
+            sh("head -c 300000 /dev/zero | tr '\\0' x; head -c 300000 /dev/zero | tr '\\0' y >&2"), TIMEOUT);
+
+        Assert.assertTrue(result.isSuccess(), result.toString());
+        Assert.assertEquals(result.getStdout().length(), 300_000);
+        Assert.assertEquals(result.getStderr().length(), 300_000);
+        Assert.assertTrue(result.getStdout().chars().allMatch(c -> c == 'x'));
+    }
+
+    @Test(timeOut = 20_000)
+    public void truncatesOutputPastOneMegabyte() {
+        CommandResult result = executor.run(sh("head -c 3000000 /dev/zero | tr '\\0' x"), TIMEOUT);
+
+        Assert.assertTrue(result.isSuccess(), result.toString());
+        Assert.assertEquals(result.getStdout(), "x".repeat(1024 * 1024) + "\n[output truncated]");
+    }
+
+    @Test
+    public void reportsACommandThatCannotStart() {
+        MobileAutomationException e = Assert.expectThrows(MobileAutomationException.class,
+            () -> executor.run(List.of("/nonexistent/command-executor-test"), TIMEOUT));
+
+        Assert.assertEquals(e.getErrorCode(), "COMMAND_START_FAILED");
+    }
+
+    private static List<String> sh(String script) {
+        return List.of("sh", "-c", script);
+    }
+}
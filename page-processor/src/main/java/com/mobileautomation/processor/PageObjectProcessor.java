@@ -0,0 +1,262 @@
+package com.mobileautomation.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Generates a {@code <Page>_Binder} next to every page object whose element fields carry
+ * {@code @AndroidFindBy} / {@code @iOSXCUITFindBy}: one locator table per platform, built once in
+ * static initialisers, and a {@code bind} method that assigns the session's element handles for that
+ * table straight to the fields. Pages the binder cannot cover completely are skipped with a note and
+ * keep using {@code PageFactory} at runtime.
+ * <p>
+ * Annotations are read by name so the processor needs neither Appium nor Selenium on its path.
+ */
+@SupportedAnnotationTypes({PageObjectProcessor.ANDROID_FIND_BY, PageObjectProcessor.IOS_FIND_BY})
+public class PageObjectProcessor extends AbstractProcessor {
+    static final String ANDROID_FIND_BY = "io.appium.java_client.pagefactory.AndroidFindBy";
+    static final String IOS_FIND_BY = "io.appium.java_client.pagefactory.iOSXCUITFindBy";
+    private static final String WEB_ELEMENT = "org.openqa.selenium.WebElement";
+
+    // Strategy attribute -> factory expression, in the order FieldLocators resolves them at runtime
+    private static final String[][] ANDROID_STRATEGIES = {
+        {"id", "AppiumBy.id"},
+        {"accessibility", "AppiumBy.accessibilityId"},
+        {"uiAutomator", "AppiumBy.androidUIAutomator"},
+        {"className", "AppiumBy.className"},
+        {"xpath", "By.xpath"},
+    };
+    private static final String[][] IOS_STRATEGIES = {
+        {"accessibility", "AppiumBy.accessibilityId"},
+        {"id", "AppiumBy.id"},
+        {"iOSNsPredicate", "AppiumBy.iOSNsPredicateString"},
+        {"iOSClassChain", "AppiumBy.iOSClassChain"},
+        {"className", "AppiumBy.className"},
+        {"xpath", "By.xpath"},
+    };
+    private static final Set<String> UNSUPPORTED_STRATEGIES =
+        Set.of("tagName", "androidDataMatcher", "androidViewMatcher", "androidViewTag");
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        Set<TypeElement> pages = new LinkedHashSet<>();
+        for (TypeElement annotation : annotations) {
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                if (element.getKind() == ElementKind.FIELD) {
+                    pages.add((TypeElement) element.getEnclosingElement());
+                }
+            }
+        }
+        for (TypeElement page : pages) {
+            List<Binding> bindings = bindingsOf(page);
+            if (bindings != null) {
+                write(page, bindings);
+            }
+        }
+        // Not claimed: Appium's own annotations may interest other processors
+        return false;
+    }
+
+    private List<Binding> bindingsOf(TypeElement page) {
+        if (page.getNestingKind() != NestingKind.TOP_LEVEL) {
+            return skip(page, "only top-level page classes get a binder");
+        }
+        if (inheritsElementFields(page)) {
+            return skip(page, "a superclass declares element fields");
+        }
+        List<Binding> bindings = new ArrayList<>();
+        for (VariableElement field : ElementFilter.fieldsIn(page.getEnclosedElements())) {
+            if (field.getModifiers().contains(Modifier.STATIC) || !isElementField(field)) {
+                continue;
+            }
+            if (field.getModifiers().contains(Modifier.PRIVATE) || field.getModifiers().contains(Modifier.FINAL)) {
+                messager().printMessage(Diagnostic.Kind.NOTE, "Field " + field.getSimpleName()
+                    + " must be package-private or protected, and not final, for " + page.getSimpleName()
+                    + " to get a generated binder; falling back to PageFactory", field);
+                return null;
+            }
+            if (!isType(field.asType(), WEB_ELEMENT)) {
+                return skip(page, "field " + field.getSimpleName() + " is not a single WebElement");
+            }
+            String android = locatorOf(field, ANDROID_FIND_BY, ANDROID_STRATEGIES);
+            String ios = locatorOf(field, IOS_FIND_BY, IOS_STRATEGIES);
+            if (android == null || ios == null) {
+                return skip(page, "field " + field.getSimpleName() + " needs exactly one supported strategy in both "
+                    + "@AndroidFindBy and @iOSXCUITFindBy");
+            }
+            bindings.add(new Binding(field.getSimpleName().toString(), android, ios));
+        }
+        return bindings;
+    }
+
+    private boolean inheritsElementFields(TypeElement page) {
+        TypeMirror parent = page.getSuperclass();
+        while (parent.getKind() == TypeKind.DECLARED) {
+            TypeElement type = (TypeElement) ((DeclaredType) parent).asElement();
+            for (VariableElement field : ElementFilter.fieldsIn(type.getEnclosedElements())) {
+                if (!field.getModifiers().contains(Modifier.STATIC) && isElementField(field)) {
+                    return true;
+                }
+            }
+            parent = type.getSuperclass();
+        }
+        return false;
+    }
+
+    /**
+     * PageFactory decorates every WebElement and List field, annotated or not, so all of them count.
+     */
+    private boolean isElementField(VariableElement field) {
+        Types types = processingEnv.getTypeUtils();
+        TypeMirror type = types.erasure(field.asType());
+        TypeElement webElement = processingEnv.getElementUtils().getTypeElement(WEB_ELEMENT);
+        TypeElement list = processingEnv.getElementUtils().getTypeElement("java.util.List");
+        return (webElement != null && types.isAssignable(type, types.erasure(webElement.asType())))
+            || (list != null && types.isSameType(type, types.erasure(list.asType())));
+    }
+
+    private static boolean isType(TypeMirror type, String name) {
+        return type.getKind() == TypeKind.DECLARED
+            && ((TypeElement) ((DeclaredType) type).asElement()).getQualifiedName().contentEquals(name);
+    }
+
+    private String locatorOf(VariableElement field, String annotation, String[][] strategies) {
+        for (AnnotationMirror mirror : field.getAnnotationMirrors()) {
+            if (!isType(mirror.getAnnotationType(), annotation)) {
+                continue;
+            }
+            String locator = null;
+            for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : mirror.getElementValues().entrySet()) {
+                String attribute = entry.getKey().getSimpleName().toString();
+                Object value = entry.getValue().getValue();
+                if (!(value instanceof String) || ((String) value).isEmpty()) {
+                    continue;
+                }
+                if (UNSUPPORTED_STRATEGIES.contains(attribute)) {
+                    return null;
+                }
+                String factory = factoryOf(attribute, strategies);
+                if (factory != null) {
+                    if (locator != null) {
+                        return null;
+                    }
+                    locator = factory + "(" + processingEnv.getElementUtils().getConstantExpression(value) + ")";
+                }
+            }
+            return locator;
+        }
+        return null;
+    }
+
+    private static String factoryOf(String attribute, String[][] strategies) {
+        for (String[] strategy : strategies) {
+            if (strategy[0].equals(attribute)) {
+                return strategy[1];
+            }
+        }
+        return null;
+    }
+
+    private void write(TypeElement page, List<Binding> bindings) {
+        Elements elements = processingEnv.getElementUtils();
+        PackageElement pkg = elements.getPackageOf(page);
+        String pageName = page.getSimpleName().toString();
+        String binderName = pageName + "_Binder";
+        String qualifiedName = pkg.isUnnamed() ? binderName : pkg.getQualifiedName() + "." + binderName;
+
+        StringBuilder source = new StringBuilder();
+        if (!pkg.isUnnamed()) {
+            source.append("package ").append(pkg.getQualifiedName()).append(";\n\n");
+        }
+        source.append("import com.mobileautomation.pagefactory.ElementCache;\n")
+            .append("import com.mobileautomation.pagefactory.PageBinder;\n")
+            .append("import io.appium.java_client.AppiumBy;\n")
+            .append("import org.openqa.selenium.By;\n")
+            .append("import org.openqa.selenium.WebElement;\n\n")
+            .append("import javax.annotation.processing.Generated;\n\n")
+            .append("@Generated(\"").append(PageObjectProcessor.class.getName()).append("\")\n")
+            .append("public final class ").append(binderName).append(" implements PageBinder<").append(pageName).append("> {\n")
+            .append("    private static final String PAGE = \"").append(pageName).append("\";\n");
+        appendTable(source, "ANDROID", bindings, false);
+        appendTable(source, "IOS", bindings, true);
+        source.append("\n    @Override\n")
+            .append("    public void bind(").append(pageName).append(" page, ElementCache elements, boolean ios) {\n")
+            .append("        WebElement[] handles = elements.elements(ios ? IOS : ANDROID, PAGE);\n");
+        for (int i = 0; i < bindings.size(); i++) {
+            source.append("        page.").append(bindings.get(i).field)
+                .append(" = handles[").append(i).append("];\n");
+        }
+        source.append("    }\n}\n");
+
+        Filer filer = processingEnv.getFiler();
+        try (Writer writer = filer.createSourceFile(qualifiedName, page).openWriter()) {
+            writer.write(source.toString());
+        } catch (IOException e) {
+            messager().printMessage(Diagnostic.Kind.ERROR, "Could not write " + qualifiedName + ": " + e.getMessage(), page);
+        }
+    }
+
+    private static void appendTable(StringBuilder source, String name, List<Binding> bindings, boolean ios) {
+        source.append("    private static final By[] ").append(name).append(" = {\n");
+        for (Binding binding : bindings) {
+            source.append("        ").append(ios ? binding.ios : binding.android)
+                .append(", // ").append(binding.field).append('\n');
+        }
+        source.append("    };\n");
+    }
+
+    private List<Binding> skip(TypeElement page, String reason) {
+        messager().printMessage(Diagnostic.Kind.NOTE,
+            "No binder generated for " + page.getSimpleName() + ": " + reason + "; PageFactory is used instead", page);
+        return null;
+    }
+
+    private Messager messager() {
+        return processingEnv.getMessager();
+    }
+
+    private static final class Binding {
+        private final String field;
+        private final String android;
+        private final String ios;
+
+        Binding(String field, String android, String ios) {
+            this.field = field;
+            this.android = android;
+            this.ios = ios;
+        }
+    }
+}
@@ -1,45 +0,0 @@
-package com.mobileautomation.base;
-
-import io.appium.java_client.AppiumDriver;
-import io.appium.java_client.pagefactory.AppiumFieldDecorator;
-import org.openqa.selenium.WebElement;
-import org.openqa.selenium.support.PageFactory;
-import org.openqa.selenium.support.ui.ExpectedConditions;
-import org.openqa.selenium.support.ui.WebDriverWait;
-
-import java.time.Duration;
-
-public class BasePage {
-    protected AppiumDriver driver;
-    protected WebDriverWait wait;
-
-    public BasePage(AppiumDriver driver) {
-        this.driver = driver;
-        this.wait = new WebDriverWait(driver, Duration.ofSeconds(10));
-        PageFactory.initElements(new AppiumFieldDecorator(driver), this);
-    }
-
-    protected void waitForElementToBeVisible(WebElement element) {
-        wait.until(ExpectedConditions.visibilityOf(element));
-    }
-
-    protected void waitForElementToBeClickable(WebElement element) {
-        wait.until(ExpectedConditions.elementToBeClickable(element));
-    }
-
-    protected void waitForElementToBePresent(WebElement element) {
-        wait.until(ExpectedConditions.presenceOfElementLocated(element));
-    }
-
-    protected void waitForElementToBeSelected(WebElement element) {
-        wait.until(ExpectedConditions.elementToBeSelected(element));
-    }
-
-    protected void waitForElementToBeEnabled(WebElement element) {
-        wait.until(ExpectedConditions.elementToBeClickable(element));
-    }
-
-    protected void waitForElementToBeDisabled(WebElement element) {
-        wait.until(ExpectedConditions.not(ExpectedConditions.elementToBeClickable(element)));
-    }
-} 
\ No newline at end of file
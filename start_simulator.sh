@@ -38,7 +38,7 @@ if [ -z "$SIMULATOR_RUNNING" ]; then
     sleep 30
     
     # Update config.properties with simulator UDID
-    sed -i '' "s/ios.simulator.udid=.*/ios.simulator.udid=$SIMULATOR_UDID/" src/test/resources/config.properties
+    sed -i '' "s/ios.simulator.udid=.*/ios.simulator.udid=$SIMULATOR_UDID/" framework/src/test/resources/config.properties
     
     echo -e "${GREEN}iPhone 16 Pro Max simulator is now running with UDID: $SIMULATOR_UDID${NC}"
 else
@@ -46,7 +46,7 @@ else
     SIMULATOR_UDID=$(xcrun simctl list devices | grep "iPhone 16 Pro Max" | grep "Booted" | grep -E -o -i "([0-9a-f]{8}-([0-9a-f]{4}-){3}[0-9a-f]{12})")
     
     # Update config.properties with simulator UDID
-    sed -i '' "s/ios.simulator.udid=.*/ios.simulator.udid=$SIMULATOR_UDID/" src/test/resources/config.properties
+    sed -i '' "s/ios.simulator.udid=.*/ios.simulator.udid=$SIMULATOR_UDID/" framework/src/test/resources/config.properties
     
     echo -e "${GREEN}iPhone 16 Pro Max simulator is already running with UDID: $SIMULATOR_UDID${NC}"
 fi 
\ No newline at end of file